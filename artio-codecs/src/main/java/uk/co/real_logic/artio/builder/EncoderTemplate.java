@@ -0,0 +1,339 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.builder;
+
+import org.agrona.DirectBuffer;
+import uk.co.real_logic.artio.EncodingException;
+import uk.co.real_logic.artio.fields.ReadOnlyDecimalFloat;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.Arrays;
+
+import static uk.co.real_logic.artio.dictionary.SessionConstants.BODY_LENGTH;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.CHECKSUM;
+
+/**
+ * A message that has been encoded once and then only has its variable fields, for example price, quantity, ClOrdID,
+ * SendingTime or MsgSeqNum, patched in place for each message that is sent.
+ *
+ * The constant fields are never re-encoded. BodyLength is only rewritten when a patched value changes length and the
+ * checksum is maintained incrementally from the bytes of the patched values, rather than by scanning the whole
+ * message. Each variable field must appear once in the message, the first occurrence is patched otherwise.
+ *
+ * Templates are not thread safe.
+ */
+public final class EncoderTemplate
+{
+    private static final int CHECKSUM_LENGTH = 3;
+    private static final int TRAILER_LENGTH = 3 + CHECKSUM_LENGTH + 1; // 10=XXX|
+    // Room for the BodyLength to grow by a few digits in front of the template
+    private static final int HEADER_HEADROOM = 8;
+    private static final int SCRATCH_LENGTH = 64;
+
+    private final byte[] bytes;
+    private final MutableAsciiBuffer buffer;
+    private final MutableAsciiBuffer scratch = new MutableAsciiBuffer(new byte[SCRATCH_LENGTH]);
+    private final int[] tags;
+    private final int[] valueOffsets;
+    private final int[] valueLengths;
+
+    private byte[] beginStringField;
+    private int messageStart;
+    private int bodyStart;
+    private int trailerStart;
+    private int headerChecksum;
+    private int bodyChecksum;
+
+    /**
+     * Creates a template from the message that the encoder currently encodes.
+     *
+     * @param encoder the encoder with all the constant fields and initial values of the variable fields set.
+     * @param capacity the maximum length of the message, including growth of its variable fields.
+     * @param variableTags the tags of the fields that can be patched.
+     * @throws EncodingException if a variable tag is missing from the encoded message.
+     */
+    public EncoderTemplate(final Encoder encoder, final int capacity, final int... variableTags)
+    {
+        this(capacity, variableTags);
+
+        final long result = encoder.encode(buffer, HEADER_HEADROOM);
+        parse(Encoder.offset(result), Encoder.length(result));
+    }
+
+    /**
+     * Creates a template by copying an already encoded message.
+     *
+     * @param message the buffer containing the encoded message.
+     * @param offset the offset of the message within the buffer.
+     * @param length the length of the message.
+     * @param capacity the maximum length of the message, including growth of its variable fields.
+     * @param variableTags the tags of the fields that can be patched.
+     * @throws EncodingException if a variable tag is missing from the encoded message.
+     */
+    public EncoderTemplate(
+        final DirectBuffer message, final int offset, final int length, final int capacity, final int... variableTags)
+    {
+        this(Math.max(capacity, length), variableTags);
+
+        buffer.putBytes(HEADER_HEADROOM, message, offset, length);
+        parse(HEADER_HEADROOM, length);
+    }
+
+    private EncoderTemplate(final int capacity, final int[] variableTags)
+    {
+        bytes = new byte[HEADER_HEADROOM + capacity];
+        buffer = new MutableAsciiBuffer(bytes);
+        tags = variableTags.clone();
+        valueOffsets = new int[tags.length];
+        valueLengths = new int[tags.length];
+        Arrays.fill(valueOffsets, -1);
+    }
+
+    private void parse(final int offset, final int length)
+    {
+        final MutableAsciiBuffer buffer = this.buffer;
+        final int end = offset + length;
+
+        final int beginStringEnd = buffer.scanSeparator(offset, end) + 1;
+        beginStringField = Arrays.copyOfRange(bytes, offset, beginStringEnd);
+        final int bodyLengthEquals = buffer.scan(beginStringEnd, end, '=');
+        final int bodyLengthEnd = buffer.scanSeparator(bodyLengthEquals, end);
+        if (buffer.getNatural(beginStringEnd, bodyLengthEquals) != BODY_LENGTH)
+        {
+            throw new EncodingException("Missing Field: BodyLength");
+        }
+
+        messageStart = offset;
+        bodyStart = bodyLengthEnd + 1;
+        trailerStart = bodyStart + buffer.getNatural(bodyLengthEquals + 1, bodyLengthEnd);
+        if (trailerStart + TRAILER_LENGTH != end ||
+            buffer.getNatural(trailerStart, trailerStart + 2) != CHECKSUM)
+        {
+            throw new EncodingException("Invalid BodyLength or CheckSum");
+        }
+
+        int position = bodyStart;
+        while (position < trailerStart)
+        {
+            final int equals = buffer.scan(position, trailerStart, '=');
+            final int separator = buffer.scanSeparator(equals, trailerStart);
+            final int field = fieldIndex(buffer.getNatural(position, equals));
+            if (field != -1 && valueOffsets[field] == -1)
+            {
+                valueOffsets[field] = equals + 1;
+                valueLengths[field] = separator - equals - 1;
+            }
+            position = separator + 1;
+        }
+
+        for (int i = 0; i < tags.length; i++)
+        {
+            if (valueOffsets[i] == -1)
+            {
+                throw new EncodingException("Missing Field: " + tags[i]);
+            }
+        }
+
+        headerChecksum = sum(messageStart, bodyStart);
+        bodyChecksum = sum(bodyStart, trailerStart);
+    }
+
+    public EncoderTemplate putInt(final int tag, final int value)
+    {
+        return putScratch(tag, scratch.putIntAscii(0, value));
+    }
+
+    public EncoderTemplate putLong(final int tag, final long value)
+    {
+        return putScratch(tag, scratch.putLongAscii(0, value));
+    }
+
+    public EncoderTemplate putFloat(final int tag, final long value, final int scale)
+    {
+        return putScratch(tag, scratch.putFloatAscii(0, value, scale));
+    }
+
+    public EncoderTemplate putFloat(final int tag, final ReadOnlyDecimalFloat value)
+    {
+        return putScratch(tag, scratch.putFloatAscii(0, value));
+    }
+
+    public EncoderTemplate putChar(final int tag, final char value)
+    {
+        return putScratch(tag, scratch.putCharAscii(0, value));
+    }
+
+    public EncoderTemplate putBytes(final int tag, final byte[] value, final int offset, final int length)
+    {
+        final int field = resize(tag, length);
+        final int valueOffset = valueOffsets[field];
+        System.arraycopy(value, offset, bytes, valueOffset, length);
+        bodyChecksum += sum(valueOffset, valueOffset + length);
+        return this;
+    }
+
+    public EncoderTemplate putBytes(final int tag, final DirectBuffer value, final int offset, final int length)
+    {
+        final int field = resize(tag, length);
+        final int valueOffset = valueOffsets[field];
+        value.getBytes(offset, bytes, valueOffset, length);
+        bodyChecksum += sum(valueOffset, valueOffset + length);
+        return this;
+    }
+
+    public EncoderTemplate putAscii(final int tag, final CharSequence value)
+    {
+        final int length = value.length();
+        final int field = resize(tag, length);
+        final byte[] bytes = this.bytes;
+        final int valueOffset = valueOffsets[field];
+        int checksum = 0;
+        for (int i = 0; i < length; i++)
+        {
+            final byte character = (byte)value.charAt(i);
+            bytes[valueOffset + i] = character;
+            checksum += character;
+        }
+        bodyChecksum += checksum;
+        return this;
+    }
+
+    /**
+     * Writes the checksum onto the template's own buffer so that it can be sent without being copied.
+     *
+     * @return the offset and length of the message within {@link #buffer()} packed into a long.
+     */
+    public long finish()
+    {
+        final int checksum = (headerChecksum + bodyChecksum) % 256;
+        buffer.putNaturalPaddedIntAscii(trailerStart + 3, CHECKSUM_LENGTH, checksum);
+        return Encoder.result(trailerStart + TRAILER_LENGTH - messageStart, messageStart);
+    }
+
+    /**
+     * Copies the patched message onto a buffer.
+     *
+     * @param buffer the buffer to encode the message to.
+     * @param offset the offset within the buffer to start encoding the message at.
+     * @return the offset and length of the encoded message on the buffer packed into a long.
+     * @see Encoder#encode(MutableAsciiBuffer, int)
+     */
+    public long encode(final MutableAsciiBuffer buffer, final int offset)
+    {
+        final int length = Encoder.length(finish());
+        buffer.putBytes(offset, bytes, messageStart, length);
+        return Encoder.result(length, offset);
+    }
+
+    public MutableAsciiBuffer buffer()
+    {
+        return buffer;
+    }
+
+    private EncoderTemplate putScratch(final int tag, final int length)
+    {
+        return putBytes(tag, scratch.byteArray(), 0, length);
+    }
+
+    private int fieldIndex(final int tag)
+    {
+        final int[] tags = this.tags;
+        for (int i = 0; i < tags.length; i++)
+        {
+            if (tags[i] == tag)
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    // Removes the old value from the checksum and moves the rest of the message so that the new value fits
+    private int resize(final int tag, final int newLength)
+    {
+        final int field = fieldIndex(tag);
+        if (field == -1)
+        {
+            throw new IllegalArgumentException("Tag " + tag + " is not a variable field of this template");
+        }
+
+        final int valueOffset = valueOffsets[field];
+        final int oldLength = valueLengths[field];
+        final int oldEnd = valueOffset + oldLength;
+        bodyChecksum -= sum(valueOffset, oldEnd);
+
+        final int delta = newLength - oldLength;
+        if (delta != 0)
+        {
+            final int messageEnd = trailerStart + TRAILER_LENGTH;
+            if (messageEnd + delta > bytes.length)
+            {
+                throw new EncodingException("Template capacity exceeded by field: " + tag);
+            }
+
+            System.arraycopy(bytes, oldEnd, bytes, oldEnd + delta, messageEnd - oldEnd);
+
+            valueLengths[field] = newLength;
+            final int[] valueOffsets = this.valueOffsets;
+            for (int i = 0; i < valueOffsets.length; i++)
+            {
+                if (valueOffsets[i] > valueOffset)
+                {
+                    valueOffsets[i] += delta;
+                }
+            }
+            trailerStart += delta;
+            putHeader();
+        }
+
+        return field;
+    }
+
+    // Writes 8=...|9=...| backwards from the start of the body, as the generated header encoders do
+    private void putHeader()
+    {
+        final MutableAsciiBuffer buffer = this.buffer;
+        int position = bodyStart - 1;
+        buffer.putSeparator(position);
+        position = buffer.putNaturalIntAsciiFromEnd(trailerStart - bodyStart, position);
+        position -= 2;
+        buffer.putCharAscii(position, '9');
+        buffer.putCharAscii(position + 1, '=');
+
+        position -= beginStringField.length;
+        if (position < 0)
+        {
+            throw new EncodingException("Template capacity exceeded by BodyLength");
+        }
+        buffer.putBytes(position, beginStringField);
+
+        messageStart = position;
+        headerChecksum = sum(messageStart, bodyStart);
+    }
+
+    private int sum(final int startInclusive, final int endExclusive)
+    {
+        final byte[] bytes = this.bytes;
+        int total = 0;
+        for (int index = startInclusive; index < endExclusive; index++)
+        {
+            total += bytes[index];
+        }
+
+        return total;
+    }
+}
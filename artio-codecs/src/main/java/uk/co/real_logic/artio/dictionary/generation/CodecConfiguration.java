@@ -57,12 +57,27 @@ public final class CodecConfiguration
     public static final String REJECT_UNKNOWN_ENUM_VALUE_PROPERTY = "reject.unknown.enum.value";
     public static final String FIX_TAGS_IN_JAVADOC = "fix.codecs.tags_in_javadoc";
 
+    /**
+     * Boolean system property to generate decoders that scan for '=' and SOH a word at a time, parse the tag in the
+     * same pass as finding its '=' and dispatch on the tag through a perfect hash rather than a sparse switch.
+     * Defaults to false.
+     */
+    public static final String SWAR_DECODING_PROPERTY = "fix.codecs.swar_decoding";
+
+    /**
+     * Boolean system property to generate flyweight decoders whose decode method only frames the message, scanning
+     * the body on demand when a getter is called. Only has an effect when flyweights are enabled. Defaults to false.
+     */
+    public static final String LAZY_DECODING_PROPERTY = "fix.codecs.lazy_decoding";
+
     public static final String DEFAULT_PARENT_PACKAGE = "uk.co.real_logic.artio";
     public static final String DEFAULT_FIX_TAGS_IN_JAVADOC = "true";
 
     private String parentPackage = System.getProperty(PARENT_PACKAGE_PROPERTY, DEFAULT_PARENT_PACKAGE);
     private boolean flyweightsEnabled = Boolean.getBoolean(FLYWEIGHTS_ENABLED_PROPERTY);
     private boolean wrapEmptyBuffer = Boolean.getBoolean(WRAP_EMPTY_BUFFER);
+    private boolean swarDecodingEnabled = Boolean.getBoolean(SWAR_DECODING_PROPERTY);
+    private boolean lazyDecodingEnabled = Boolean.getBoolean(LAZY_DECODING_PROPERTY);
     private boolean fixTagsInJavadoc = Boolean.parseBoolean(System.getProperty(
         FIX_TAGS_IN_JAVADOC, DEFAULT_FIX_TAGS_IN_JAVADOC));
     private SharedCodecConfiguration sharedCodecConfiguration;
@@ -129,6 +144,44 @@ public final class CodecConfiguration
         return this;
     }
 
+    /**
+     * Generates decoders that scan for the '=' and SOH delimiters of fields a word at a time, parse each tag in the
+     * same pass as finding its '=' and then dispatch on the tag through a perfect hash table and a dense switch. This
+     * reduces decoding time for wide messages. If no perfect hash can be found for the tags of a decoder then it
+     * falls back to switching on the tag.
+     *
+     * Defaults to the value of {@link #SWAR_DECODING_PROPERTY} system property.
+     *
+     * @param swarDecodingEnabled true to generate swar decoders, false to generate byte at a time decoders (default).
+     * @return this
+     */
+    public CodecConfiguration swarDecodingEnabled(final boolean swarDecodingEnabled)
+    {
+        this.swarDecodingEnabled = swarDecodingEnabled;
+        return this;
+    }
+
+    /**
+     * Generates flyweight decoders whose decode method only decodes the header and trailer, using the body length to
+     * frame the rest of the message, and returns the same length as eager decoding. The first getter call scans
+     * forward to the requested field and stops, later getters resume from where the last scan stopped. Validation,
+     * group access, toString() and toEncoder() scan as far as they need to. This reduces decoding time for wide
+     * messages where only a few fields are read. When codec validation is enabled messages are decoded eagerly, as
+     * they need to be validated up front.
+     *
+     * Only has an effect when {@link #flyweightsEnabled(boolean)} is true.
+     *
+     * Defaults to the value of {@link #LAZY_DECODING_PROPERTY} system property.
+     *
+     * @param lazyDecodingEnabled true to generate lazy flyweight decoders, false to decode up front (default).
+     * @return this
+     */
+    public CodecConfiguration lazyDecodingEnabled(final boolean lazyDecodingEnabled)
+    {
+        this.lazyDecodingEnabled = lazyDecodingEnabled;
+        return this;
+    }
+
     /**
      * Allow duplicate fields. Executable documentation can be found in the test "DuplicateFieldsTest".
      *
@@ -248,6 +301,16 @@ public final class CodecConfiguration
         return wrapEmptyBuffer;
     }
 
+    boolean swarDecodingEnabled()
+    {
+        return swarDecodingEnabled;
+    }
+
+    boolean lazyDecodingEnabled()
+    {
+        return lazyDecodingEnabled;
+    }
+
     String codecRejectUnknownEnumValueEnabled()
     {
         return codecRejectUnknownEnumValueEnabled;
@@ -220,6 +220,39 @@ public final class CodecUtil
         return result;
     }
 
+    /**
+     * Builds the perfect hash table used by decoders generated with swar decoding to map a tag onto its case in the
+     * decode method's switch. Each entry packs the case number, the index of the tag plus one, into the upper 32 bits
+     * and the tag into the lower 32 bits, empty entries are 0.
+     *
+     * @param tags the tags of the decoder in the order of their cases.
+     * @param multiplier the multiplier of the hash, chosen so that no two tags hash to the same slot.
+     * @param shift the shift of the hash, the table has 2 ^ (32 - shift) slots.
+     * @return the table.
+     */
+    public static long[] tagHashTable(final int[] tags, final int multiplier, final int shift)
+    {
+        final long[] table = new long[1 << (Integer.SIZE - shift)];
+        for (int i = 0; i < tags.length; i++)
+        {
+            final int tag = tags[i];
+            table[tagHashSlot(tag, multiplier, shift)] = ((long)(i + 1) << 32) | (tag & 0xFFFF_FFFFL);
+        }
+
+        return table;
+    }
+
+    public static int tagHashSlot(final int tag, final int multiplier, final int shift)
+    {
+        return (tag * multiplier) >>> shift;
+    }
+
+    public static int tagHashCase(final long[] table, final int tag, final int multiplier, final int shift)
+    {
+        final long entry = table[tagHashSlot(tag, multiplier, shift)];
+        return (int)entry == tag ? (int)(entry >>> 32) : 0;
+    }
+
     private static final char[] WHITESPACE = "                                                         ".toCharArray();
 
     public static void indent(final StringBuilder builder, final int level)
@@ -17,6 +17,8 @@ package uk.co.real_logic.artio.dictionary.generation;
 
 import org.agrona.AsciiNumberFormatException;
 import org.agrona.LangUtil;
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.collections.IntArrayList;
 import org.agrona.generation.OutputManager;
 import org.agrona.generation.ResourceConsumer;
 import uk.co.real_logic.artio.builder.CommonDecoderImpl;
@@ -72,6 +74,7 @@ class DecoderGenerator extends Generator
     public static final String REQUIRED_FIELDS = "REQUIRED_FIELDS";
     private static final String GROUP_FIELDS = "GROUP_FIELDS";
     private static final String ALL_GROUP_FIELDS = "ALL_GROUP_FIELDS";
+    private static final int MISSING_LAZY_SCAN_FIELD = -1;
 
     // Has to be generated everytime since HeaderDecoder and TrailerDecoder are generated.
     private static final String MESSAGE_DECODER =
@@ -119,6 +122,19 @@ class DecoderGenerator extends Generator
      * Wrap empty buffer instead of throwing an exception if an optional string is unset.
      */
     private final boolean wrapEmptyBuffer;
+    /**
+     * Scan fields a word at a time and dispatch on tags through a perfect hash.
+     */
+    private final boolean swarDecodingEnabled;
+    /**
+     * Only frame messages in decode() and scan their fields on demand from the getters, requires flyweights.
+     */
+    private final boolean lazyDecodingEnabled;
+    /**
+     * Tag to index within the lazyScannedFields bitset of the message that is currently being generated, null if it
+     * isn't lazily decoded.
+     */
+    private Int2IntHashMap lazyScanFields;
 
     DecoderGenerator(
         final Dictionary dictionary,
@@ -134,12 +150,57 @@ class DecoderGenerator extends Generator
         final boolean wrapEmptyBuffer,
         final String codecRejectUnknownEnumValueEnabled,
         final boolean fixTagsInJavadoc)
+    {
+        this(dictionary, initialBufferSize, thisPackage, commonPackage, encoderPackage, outputManager,
+            validationClass, rejectUnknownFieldClass, rejectUnknownEnumValueClass, flyweightsEnabled, wrapEmptyBuffer,
+            codecRejectUnknownEnumValueEnabled, fixTagsInJavadoc, false);
+    }
+
+    DecoderGenerator(
+        final Dictionary dictionary,
+        final int initialBufferSize,
+        final String thisPackage,
+        final String commonPackage,
+        final String encoderPackage,
+        final OutputManager outputManager,
+        final Class<?> validationClass,
+        final Class<?> rejectUnknownFieldClass,
+        final Class<?> rejectUnknownEnumValueClass,
+        final boolean flyweightsEnabled,
+        final boolean wrapEmptyBuffer,
+        final String codecRejectUnknownEnumValueEnabled,
+        final boolean fixTagsInJavadoc,
+        final boolean swarDecodingEnabled)
+    {
+        this(dictionary, initialBufferSize, thisPackage, commonPackage, encoderPackage, outputManager,
+            validationClass, rejectUnknownFieldClass, rejectUnknownEnumValueClass, flyweightsEnabled, wrapEmptyBuffer,
+            codecRejectUnknownEnumValueEnabled, fixTagsInJavadoc, swarDecodingEnabled, false);
+    }
+
+    DecoderGenerator(
+        final Dictionary dictionary,
+        final int initialBufferSize,
+        final String thisPackage,
+        final String commonPackage,
+        final String encoderPackage,
+        final OutputManager outputManager,
+        final Class<?> validationClass,
+        final Class<?> rejectUnknownFieldClass,
+        final Class<?> rejectUnknownEnumValueClass,
+        final boolean flyweightsEnabled,
+        final boolean wrapEmptyBuffer,
+        final String codecRejectUnknownEnumValueEnabled,
+        final boolean fixTagsInJavadoc,
+        final boolean swarDecodingEnabled,
+        final boolean lazyDecodingEnabled)
     {
         super(dictionary, thisPackage, commonPackage, outputManager, validationClass, rejectUnknownFieldClass,
             rejectUnknownEnumValueClass, flyweightsEnabled, codecRejectUnknownEnumValueEnabled, fixTagsInJavadoc);
         this.initialBufferSize = initialBufferSize;
         this.encoderPackage = encoderPackage;
         this.wrapEmptyBuffer = wrapEmptyBuffer;
+        this.swarDecodingEnabled = swarDecodingEnabled;
+        this.lazyDecodingEnabled = flyweightsEnabled && lazyDecodingEnabled;
     }
 
     public void generate()
@@ -235,6 +296,9 @@ class DecoderGenerator extends Generator
 
         final boolean isMessage = type == MESSAGE;
         final boolean isGroup = type == GROUP;
+        // Groups are always decoded eagerly as part of decoding their parent
+        final Int2IntHashMap parentLazyScanFields = lazyScanFields;
+        lazyScanFields = isMessage ? lazyScanFields(aggregate) : null;
         final List<String> interfaces = aggregate
             .componentEntries()
             .map((comp) -> decoderClassName((Aggregate)comp.element()))
@@ -269,7 +333,8 @@ class DecoderGenerator extends Generator
             {
                 final List<Field> fields = compileAllFieldsFor(message);
                 final String messageFieldsSet = generateFieldDictionary(fields, MESSAGE_FIELDS, false);
-                out.append(commonCompoundImports("Decoder", true, messageFieldsSet));
+                out.append(commonCompoundImports("Decoder", true, messageFieldsSet, lazyScanAll()));
+                out.append(lazyScanState());
             }
         }
         groupMethods(out, aggregate);
@@ -278,12 +343,107 @@ class DecoderGenerator extends Generator
         out.append(decodeMethod(aggregate.entries(), aggregate, type));
         out.append(completeResetMethod(
             isMessage, aggregate.entries(), additionalReset(isGroup), aggregate.isInParent()));
-        out.append(generateAppendTo(aggregate, isMessage));
+        out.append(generateAppendTo(aggregate, isMessage, lazyScanAll()));
         out.append(generateToEncoder(aggregate));
         out.append("}\n");
+        lazyScanFields = parentLazyScanFields;
         pop();
     }
 
+    private Int2IntHashMap lazyScanFields(final Aggregate aggregate)
+    {
+        // Shared messages are decoded eagerly as their getters can be generated in the parent message class.
+        if (!lazyDecodingEnabled || isSharedParent() || aggregate.isInParent())
+        {
+            return null;
+        }
+
+        final IntArrayList tags = decodedTags(aggregate.entries(), new IntArrayList());
+        final Int2IntHashMap fieldIndices = new Int2IntHashMap(MISSING_LAZY_SCAN_FIELD);
+        for (int i = 0; i < tags.size(); i++)
+        {
+            fieldIndices.put(tags.getInt(i), i);
+        }
+
+        return fieldIndices;
+    }
+
+    private int lazyScanWords()
+    {
+        return Math.max(1, (lazyScanFields.size() + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    private String lazyScanState()
+    {
+        if (lazyScanFields == null)
+        {
+            return "";
+        }
+
+        return String.format(
+            "    // Decode only frames the message, fields are scanned forwards on demand by the getters and the\n" +
+            "    // lazyScannedFields bitset records which of them have been decoded\n" +
+            "    private static final int LAZY_SCAN_ALL = 0;\n" +
+            "    private final long[] lazyScannedFields = new long[%1$d];\n" +
+            "    private int lazyScanOffset;\n" +
+            "    private int lazyScanPosition;\n" +
+            "    private int lazyScanEnd;\n\n" +
+            "    private void lazyScanTo(final int tag, final int word, final long mask)\n" +
+            "    {\n" +
+            "        if (lazyScanPosition < lazyScanEnd && (lazyScannedFields[word] & mask) == 0)\n" +
+            "        {\n" +
+            "            lazyScan(tag);\n" +
+            "        }\n" +
+            "    }\n\n" +
+            "    private void lazyScanAll()\n" +
+            "    {\n" +
+            "        while (lazyScanPosition < lazyScanEnd)\n" +
+            "        {\n" +
+            "            lazyScan(LAZY_SCAN_ALL);\n" +
+            "        }\n" +
+            "    }\n\n",
+            lazyScanWords());
+    }
+
+    private String lazyScanAll()
+    {
+        return lazyScanFields == null ? "" : "        lazyScanAll();\n";
+    }
+
+    private String lazyScanGuard(final Field field)
+    {
+        if (lazyScanFields == null)
+        {
+            return "";
+        }
+
+        final int tag = field.number();
+        final int index = lazyScanFields.get(tag);
+        if (index == MISSING_LAZY_SCAN_FIELD)
+        {
+            return "";
+        }
+
+        return String.format("        lazyScanTo(%1$d, %2$d, 0x%3$xL);\n", tag, index / Long.SIZE, 1L << index);
+    }
+
+    private String lazyScanMark(final Field field)
+    {
+        if (lazyScanFields == null)
+        {
+            return "";
+        }
+
+        final int index = lazyScanFields.get(field.number());
+        if (index == MISSING_LAZY_SCAN_FIELD)
+        {
+            return "";
+        }
+
+        return String.format(
+            "                lazyScannedFields[%1$d] |= 0x%2$xL;\n", index / Long.SIZE, 1L << index);
+    }
+
     private String classDeclaration(
         final String className,
         final List<String> interfaces,
@@ -494,6 +654,10 @@ class DecoderGenerator extends Generator
               (isGroup ?
             "        next = null;\n" : ""
               ) +
+              (lazyScanFields == null ? "" :
+            "        lazyScanPosition = 0;\n" +
+            "        lazyScanEnd = 0;\n"
+              ) +
             "        if (" + CODEC_VALIDATION_ENABLED + ")\n" +
             "        {\n" +
             "            invalidTagId = Decoder.NO_ERROR;\n" +
@@ -571,6 +735,7 @@ class DecoderGenerator extends Generator
             "    private final IntHashSet missingRequiredFields = new IntHashSet(%1$d);\n\n" +
             "    public boolean validate()\n" +
             "    {\n" +
+            lazyScanAll() +
             // validation for some tags performed in the decode method
             "        if (rejectReason != Decoder.NO_ERROR)\n" +
             "        {\n" +
@@ -1156,6 +1321,7 @@ class DecoderGenerator extends Generator
                 "    private %1$s %2$s = null;\n" +
                 "    public %1$s %2$s()\n" +
                 "    {\n" +
+                "%6$s" +
                 "        return %2$s;\n" +
                 "    }\n\n" +
                 "%3$s\n" +
@@ -1168,7 +1334,8 @@ class DecoderGenerator extends Generator
                 formatPropertyName(group.name()),
                 prefix,
                 iteratorClassName(group, false),
-                iteratorFieldName(group)));
+                iteratorFieldName(group),
+                lazyScanGuard((Field)numberField.element())));
         }
     }
 
@@ -1328,29 +1495,34 @@ class DecoderGenerator extends Generator
         final String optionalCheck = optionalCheck(entry);
         final String asStringBody = generateAsStringBody(entry, name, fieldName);
         final String javadoc = generateAccessorJavadoc(field);
+        final String lazyScan = lazyScanGuard(field);
 
         final String extraStringDecode = type.isStringBased() ? String.format(
             "    %4$spublic String %1$sAsString()\n" +
             "    {\n" +
+            "%5$s" +
             "        return %3$s;\n" +
             "    }\n\n" +
             "    %4$spublic AsciiSequenceView %1$s(final AsciiSequenceView view)\n" +
             "    {\n" +
+            "%5$s" +
             "%2$s" +
             "        return view.wrap(buffer, %1$sOffset, %1$sLength);\n" +
             "    }\n\n",
-            fieldName, wrapEmptyBuffer ? wrapEmptyBuffer(entry) : optionalCheck, asStringBody, javadoc) : "";
+            fieldName, wrapEmptyBuffer ? wrapEmptyBuffer(entry) : optionalCheck, asStringBody, javadoc,
+            lazyScan) : "";
 
         // Need to keep offset and length split due to the abject fail that is the DATA type.
         final String lengthBasedFields = type.hasLengthField(flyweightsEnabled) ? String.format(
             "    %4$s int %1$sLength;\n\n" +
             "    %5$spublic int %1$sLength()\n" +
             "    {\n" +
+            "%6$s" +
             "%2$s" +
             "        return %1$sLength;\n" +
             "    }\n\n" +
             "%3$s",
-            fieldName, optionalCheck, extraStringDecode, scope, javadoc) : "";
+            fieldName, optionalCheck, extraStringDecode, scope, javadoc, lazyScan) : "";
 
         final String offsetField = type.hasOffsetField(flyweightsEnabled) ?
             String.format("    %3$s int %1$sOffset;\n\n%2$s", fieldName, lengthBasedFields, scope) : "";
@@ -1371,12 +1543,14 @@ class DecoderGenerator extends Generator
             "%4$s" +
             "    %7$spublic %6$s %2$sAsEnum()\n" +
             "    {\n" +
+            "%8$s" +
             (!entry.required() ? "        if (!has%1$s)\n return %6$s.%5$s;\n" : "") +
             (type.isStringBased() ? "        %2$sWrapper.wrap(this.%2$s(), %2$sLength);\n" : "") +
             "        return %3$s;\n" +
             "    }\n\n",
             name, fieldName, enumValueDecoder, enumStringBasedWrapperField, NULL_VAL_NAME, enumName(name),
-            javadoc) : (field.type().isMultiValue() || field.type() == Type.STRING) ? enumStringBasedWrapperField : "";
+            javadoc, lazyScan) :
+            (field.type().isMultiValue() || field.type() == Type.STRING) ? enumStringBasedWrapperField : "";
 
         final String lazyInitialisation = fieldLazyInstantialisation(field, fieldName);
 
@@ -1385,6 +1559,7 @@ class DecoderGenerator extends Generator
             "%4$s" +
             "    %11$spublic %1$s %2$s()\n" +
             "    {\n" +
+            "%12$s" +
             "%5$s" +
             "%9$s" +
             "        return %2$s;\n" +
@@ -1397,12 +1572,13 @@ class DecoderGenerator extends Generator
             fieldInitialisation(type),
             hasField(entry),
             optionalCheck,
-            optionalGetter(entry),
+            optionalGetter(entry, lazyScan),
             offsetField,
             enumDecoder,
             flyweightsEnabled ? lazyInitialisation : "",
             scope,
-            javadoc);
+            javadoc,
+            lazyScan);
     }
 
     private String wrapEmptyBuffer(final Entry entry)
@@ -1603,9 +1779,26 @@ class DecoderGenerator extends Generator
         return String.format(" = new byte[%d]", initialBufferSize);
     }
 
-    private String optionalGetter(final Entry entry)
+    private String optionalGetter(final Entry entry, final String lazyScan)
     {
-        return entry.required() ? "" : hasGetter(entry.name());
+        if (entry.required())
+        {
+            return "";
+        }
+
+        if (lazyScan.isEmpty())
+        {
+            return hasGetter(entry.name());
+        }
+
+        return String.format(
+            "    public boolean has%1$s()\n" +
+            "    {\n" +
+            "%2$s" +
+            "        return has%1$s;\n" +
+            "    }\n\n",
+            entry.name(),
+            lazyScan);
     }
 
     private String optionalCheck(final Entry entry)
@@ -1684,12 +1877,14 @@ class DecoderGenerator extends Generator
         final boolean isGroup = type == GROUP;
         final boolean isHeader = type == HEADER;
         final String endGroupCheck = endGroupCheck(aggregate, isGroup);
-        final String prefix = generateDecodePrefix(aggregate, hasCommonCompounds, isGroup, isHeader, endGroupCheck);
+        final TagHash tagHash = swarDecodingEnabled ? TagHash.find(decodedTags(entries, new IntArrayList())) : null;
+        final String prefix = tagHashTable(tagHash) +
+            generateDecodePrefix(aggregate, hasCommonCompounds, isGroup, isHeader, endGroupCheck, tagHash);
         final String body = entries.stream()
-            .map(this::decodeEntry)
+            .map((entry) -> decodeEntry(entry, tagHash))
             .collect(joining("\n", "", "\n"));
 
-        final String suffix =
+        final String unknownFieldCase =
             "            default:\n" +
             "                if (!" + CODEC_REJECT_UNKNOWN_FIELD_ENABLED + ")\n" +
             "                {\n" +
@@ -1717,11 +1912,139 @@ class DecoderGenerator extends Generator
             "            if (position < (endOfField + 1))\n" +
             "            {\n" +
             "                position = endOfField + 1;\n" +
-            "            }\n" +
+            "            }\n";
+        final String suffix =
+            unknownFieldCase +
             "        }\n" +
             decodeTrailerOrReturn(hasCommonCompounds, 2) +
             "    }\n\n";
-        return prefix + body + suffix;
+        return prefix + body + suffix + lazyScanMethod(tagHash, body, unknownFieldCase);
+    }
+
+    private String lazyScanMethod(final TagHash tagHash, final String body, final String unknownFieldCase)
+    {
+        if (lazyScanFields == null)
+        {
+            return "";
+        }
+
+        // Only used when validation is disabled, so the validation of each field is left to the eager decode method
+        return "    private int lazyScan(final int stopTag)\n" +
+            "    {\n" +
+            "        final int offset = lazyScanOffset;\n" +
+            "        final int end = lazyScanEnd;\n" +
+            "        int position = lazyScanPosition;\n" +
+            "        // Getters called whilst scanning, eg: for the length of a data field, mustn't scan again\n" +
+            "        lazyScanPosition = end;\n" +
+            "        int tag;\n\n" +
+            "        while (position < end)\n" +
+            "        {\n" +
+            scanField("") +
+            "\n" +
+            switchOn(tagHash) +
+            "            {\n" +
+            body +
+            unknownFieldCase +
+            "\n" +
+            "            if (tag == stopTag)\n" +
+            "            {\n" +
+            "                lazyScanPosition = position;\n" +
+            "                return position - offset;\n" +
+            "            }\n" +
+            "        }\n" +
+            decodeTrailerOrReturn(true, 2) +
+            "    }\n\n";
+    }
+
+    private String lazyFrame()
+    {
+        if (lazyScanFields == null)
+        {
+            return "";
+        }
+
+        final StringBuilder clearScannedFields = new StringBuilder();
+        for (int word = 0; word < lazyScanWords(); word++)
+        {
+            clearScannedFields.append(String.format("            lazyScannedFields[%d] = 0;\n", word));
+        }
+
+        // The trailer is found from the body length, so that the same end offset as the eager decode is returned
+        // without scanning the body. A message whose body length doesn't lead to its CheckSum is scanned instead.
+        return "        if (!" + CODEC_VALIDATION_ENABLED + ")\n" +
+            "        {\n" +
+            "            this.buffer = buffer;\n" +
+            "            final int end = offset + length;\n" +
+            "            lazyScanOffset = offset;\n" +
+            "            lazyScanPosition = offset + header.decode(buffer, offset, length);\n" +
+            "            lazyScanEnd = end;\n" +
+            clearScannedFields +
+            "            final int beginStringEnd = buffer.scan(offset, end, START_OF_HEADER);\n" +
+            "            final int bodyLengthEnd = beginStringEnd == AsciiBuffer.UNKNOWN_INDEX ?\n" +
+            "                AsciiBuffer.UNKNOWN_INDEX : buffer.scan(beginStringEnd + 1, end, START_OF_HEADER);\n" +
+            "            if (bodyLengthEnd != AsciiBuffer.UNKNOWN_INDEX)\n" +
+            "            {\n" +
+            "                final int trailerStart = bodyLengthEnd + 1 + header.bodyLength();\n" +
+            "                if (trailerStart >= lazyScanPosition && trailerStart + 2 < end &&\n" +
+            "                    buffer.getByte(trailerStart - 1) == START_OF_HEADER &&\n" +
+            "                    buffer.getByte(trailerStart) == '1' && buffer.getByte(trailerStart + 1) == '0' &&\n" +
+            "                    buffer.getByte(trailerStart + 2) == '=')\n" +
+            "                {\n" +
+            "                    lazyScanEnd = trailerStart;\n" +
+            "                    final int trailerLength =\n" +
+            "                        trailer.decode(buffer, trailerStart, end - trailerStart);\n" +
+            "                    return trailerStart + trailerLength - offset;\n" +
+            "                }\n" +
+            "            }\n" +
+            "            return lazyScan(LAZY_SCAN_ALL);\n" +
+            "        }\n";
+    }
+
+    private IntArrayList decodedTags(final List<Entry> entries, final IntArrayList tags)
+    {
+        // Walks the entries in the same order as decodeEntry() generates their cases
+        for (final Entry entry : entries)
+        {
+            final Object element = entry.element();
+            if (element instanceof Field)
+            {
+                tags.addInt(((Field)element).number());
+            }
+            else if (element instanceof Group)
+            {
+                tags.addInt(((Field)((Group)element).numberField().element()).number());
+            }
+            else if (element instanceof Component)
+            {
+                decodedTags(((Component)element).entries(), tags);
+            }
+        }
+
+        return tags;
+    }
+
+    private String tagHashTable(final TagHash tagHash)
+    {
+        if (tagHash == null)
+        {
+            return "";
+        }
+
+        final int[] tags = tagHash.tags();
+        final StringBuilder tagList = new StringBuilder();
+        for (int i = 0; i < tags.length; i++)
+        {
+            tagList.append(i % 16 == 0 ? "\n        " : " ").append(tags[i]).append(',');
+        }
+
+        return String.format(
+            "    private static final int TAG_HASH_MULTIPLIER = %1$d;\n" +
+            "    private static final int TAG_HASH_SHIFT = %2$d;\n" +
+            "    private static final long[] TAG_HASH_TABLE = tagHashTable(new int[]{%3$s\n    }, " +
+            "TAG_HASH_MULTIPLIER, TAG_HASH_SHIFT);\n\n",
+            tagHash.multiplier(),
+            tagHash.shift(),
+            tagList);
     }
 
     private String generateDecodePrefix(
@@ -1729,11 +2052,13 @@ class DecoderGenerator extends Generator
         final boolean hasCommonCompounds,
         final boolean isGroup,
         final boolean isHeader,
-        final String endGroupCheck)
+        final String endGroupCheck,
+        final TagHash tagHash)
     {
         return "    public int decode(final AsciiBuffer buffer, final int offset, final int length)\n" +
             "    {\n" +
             "        // Decode " + aggregate.name() + "\n" +
+            lazyFrame() +
             "        int seenFieldCount = 0;\n" +
             "        if (" + CODEC_VALIDATION_ENABLED + ")\n" +
             "        {\n" +
@@ -1748,21 +2073,7 @@ class DecoderGenerator extends Generator
             "        int tag;\n\n" +
             "        while (position < end)\n" +
             "        {\n" +
-            "            final int equalsPosition = buffer.scan(position, end, '=');\n" +
-            "            if (equalsPosition == AsciiBuffer.UNKNOWN_INDEX)\n" +
-            "            {\n" +
-            "               return position;\n" +
-            "            }\n" +
-            "            tag = buffer.getInt(position, equalsPosition);\n" +
-            endGroupCheck +
-            "            final int valueOffset = equalsPosition + 1;\n" +
-            "            int endOfField = buffer.scan(valueOffset, end, START_OF_HEADER);\n" +
-            "            if (endOfField == AsciiBuffer.UNKNOWN_INDEX)\n" +
-            "            {\n" +
-            "                rejectReason = " + VALUE_IS_INCORRECT + ";\n" +
-            "                break;\n" +
-            "            }\n" +
-            "            final int valueLength = endOfField - valueOffset;\n" +
+            scanField(endGroupCheck) +
             "            if (" + CODEC_VALIDATION_ENABLED + ")\n" +
             "            {\n" +
             "                if (tag <= 0)\n" +
@@ -1785,10 +2096,49 @@ class DecoderGenerator extends Generator
             "                missingRequiredFields.remove(tag);\n" +
             "                seenFieldCount++;\n" +
             "            }\n\n" +
-            "            switch (tag)\n" +
+            switchOn(tagHash) +
             "            {\n";
     }
 
+    private String scanField(final String endGroupCheck)
+    {
+        final String scanTag = swarDecodingEnabled ?
+            "            final long tagAndEqualsPosition = buffer.scanTag(position, end);\n" +
+            "            final int equalsPosition = AsciiBuffer.scannedEqualsIndex(tagAndEqualsPosition);\n" +
+            "            if (equalsPosition == AsciiBuffer.UNKNOWN_INDEX)\n" +
+            "            {\n" +
+            "               return position;\n" +
+            "            }\n" +
+            "            tag = AsciiBuffer.scannedTag(tagAndEqualsPosition);\n" :
+            "            final int equalsPosition = buffer.scan(position, end, '=');\n" +
+            "            if (equalsPosition == AsciiBuffer.UNKNOWN_INDEX)\n" +
+            "            {\n" +
+            "               return position;\n" +
+            "            }\n" +
+            "            tag = buffer.getInt(position, equalsPosition);\n";
+        final String scanValue = swarDecodingEnabled ?
+            "            int endOfField = buffer.scanSeparator(valueOffset, end);\n" :
+            "            int endOfField = buffer.scan(valueOffset, end, START_OF_HEADER);\n";
+
+        return scanTag +
+            endGroupCheck +
+            "            final int valueOffset = equalsPosition + 1;\n" +
+            scanValue +
+            "            if (endOfField == AsciiBuffer.UNKNOWN_INDEX)\n" +
+            "            {\n" +
+            "                rejectReason = " + VALUE_IS_INCORRECT + ";\n" +
+            "                break;\n" +
+            "            }\n" +
+            "            final int valueLength = endOfField - valueOffset;\n";
+    }
+
+    private static String switchOn(final TagHash tagHash)
+    {
+        return tagHash == null ?
+            "            switch (tag)\n" :
+            "            switch (tagHashCase(TAG_HASH_TABLE, tag, TAG_HASH_MULTIPLIER, TAG_HASH_SHIFT))\n";
+    }
+
     private String decodeTrailerOrReturn(final boolean hasCommonCompounds, final int indent)
     {
         return (hasCommonCompounds ?
@@ -1859,22 +2209,22 @@ class DecoderGenerator extends Generator
             "";
     }
 
-    private String decodeEntry(final Entry entry)
+    private String decodeEntry(final Entry entry, final TagHash tagHash)
     {
         return entry.matchEntry(
-            (e) -> decodeField(e, ""),
-            this::decodeGroup,
-            this::decodeComponent,
+            (e) -> decodeField(e, "", tagHash),
+            (e) -> decodeGroup(e, tagHash),
+            (e) -> decodeComponent(e, tagHash),
             (e) -> "");
     }
 
-    private String decodeComponent(final Entry entry)
+    private String decodeComponent(final Entry entry, final TagHash tagHash)
     {
         final Component component = (Component)entry.element();
         return component
             .entries()
             .stream()
-            .map(this::decodeEntry)
+            .map((e) -> decodeEntry(e, tagHash))
             .collect(joining("\n", "", "\n"));
     }
 
@@ -1887,7 +2237,7 @@ class DecoderGenerator extends Generator
             .collect(joining("\n"));
     }
 
-    private String decodeGroup(final Entry entry)
+    private String decodeGroup(final Entry entry, final TagHash tagHash)
     {
         final Group group = (Group)entry.element();
 
@@ -1952,10 +2302,10 @@ class DecoderGenerator extends Generator
             MESSAGE_FIELDS,
             INCORRECT_NUMINGROUP_COUNT_FOR_REPEATING_GROUP);
 
-        return decodeField(group.numberField(), parseGroup);
+        return decodeField(group.numberField(), parseGroup, tagHash);
     }
 
-    private String decodeField(final Entry entry, final String suffix)
+    private String decodeField(final Entry entry, final String suffix, final TagHash tagHash)
     {
         // Uses variables from surrounding context:
         // int tag = the tag number of the field
@@ -1967,15 +2317,21 @@ class DecoderGenerator extends Generator
         final String name = entry.name();
         final String fieldName = formatPropertyName(name);
 
+        final String caseLabel = tagHash == null ?
+            "Constants." + constantName(name) + ":" :
+            tagHash.caseOf(field.number()) + ": // " + name;
+
         return String.format(
-            "            case Constants.%s:\n" +
+            "            case %s\n" +
+            "%s" +
             "%s" +
             "%s" +
             "%s" +
             "%s" +
             "%s" +
             "                break;\n",
-            constantName(name),
+            caseLabel,
+            lazyScanMark(field),
             optionalAssign(entry),
             fieldDecodeMethod(field, fieldName),
             storeOffsetForVariableLengthFields(field.type(), fieldName),
@@ -2214,12 +2570,14 @@ class DecoderGenerator extends Generator
             "    }\n\n" +
             "    public %1$s toEncoder(final %1$s encoder)\n" +
             "    {\n" +
+            "%3$s" +
             "        encoder.reset();\n" +
             "%2$s" +
             "        return encoder;\n" +
             "    }\n\n",
             encoderClassName,
-            entriesToEncoder);
+            entriesToEncoder,
+            lazyScanAll());
     }
 
     private String generateEntryToEncoder(final Entry entry)
@@ -63,6 +63,12 @@ public abstract class Generator
 
     protected String commonCompoundImports(final String form, final boolean headerWrapsTrailer,
         final String messageFieldsSet)
+    {
+        return commonCompoundImports(form, headerWrapsTrailer, messageFieldsSet, "");
+    }
+
+    protected String commonCompoundImports(final String form, final boolean headerWrapsTrailer,
+        final String messageFieldsSet, final String beforeTrailerAccess)
     {
         final String headerParameter = headerWrapsTrailer ? "trailer" : "";
         return String.format(
@@ -70,6 +76,7 @@ public abstract class Generator
             "    private final Trailer%1$s trailer = new Trailer%1$s();\n\n" +
             "    public Trailer%1$s trailer()\n" +
             "    {\n" +
+            "%4$s" +
             "        return trailer;\n" +
             "    }\n\n" +
 
@@ -80,7 +87,8 @@ public abstract class Generator
             "    }\n\n",
             form,
             headerParameter,
-            messageFieldsSet);
+            messageFieldsSet,
+            beforeTrailerAccess);
     }
 
     private static final String COMMON_COMPOUND_IMPORTS =
@@ -453,6 +461,12 @@ public abstract class Generator
     }
 
     protected String generateAppendTo(final Aggregate aggregate, final boolean hasCommonCompounds)
+    {
+        return generateAppendTo(aggregate, hasCommonCompounds, "");
+    }
+
+    protected String generateAppendTo(
+        final Aggregate aggregate, final boolean hasCommonCompounds, final String beforeAppend)
     {
         final String entriesToString = aggregate
             .entries()
@@ -484,6 +498,7 @@ public abstract class Generator
             "    }\n\n" +
             "    public StringBuilder appendTo(final StringBuilder builder, final int level)\n" +
             "    {\n" +
+            "%4$s" +
             "        builder.append(\"{\\n\");" +
             "        indent(builder, level);\n" +
             "        builder.append(\"\\\"MessageName\\\": \\\"%1$s\\\",\\n\");\n" +
@@ -495,7 +510,8 @@ public abstract class Generator
             "    }\n\n",
             aggregate.name(),
             prefix,
-            entriesToString);
+            entriesToString,
+            beforeAppend);
     }
 
     protected String generateEntryAppendTo(final Entry entry)
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.agrona.BitUtil;
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.collections.IntArrayList;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.tagHashSlot;
+
+/**
+ * A multiplicative perfect hash over the tags that a generated decoder's decode method switches on. Each tag is
+ * given a dense case number, so the generated switch compiles to a jump table rather than a binary search over
+ * sparse tag numbers.
+ */
+final class TagHash
+{
+    static final int NO_CASE = 0;
+
+    // The table is allowed to grow up to 2 ^ MAX_LOAD_BITS times larger than the number of tags.
+    private static final int MAX_LOAD_BITS = 5;
+    private static final int MAX_TABLE_BITS = 16;
+    private static final int ATTEMPTS_PER_TABLE_SIZE = 1000;
+
+    // Fixed so that generating the same dictionary always produces the same codecs
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private final int[] tags;
+    private final int multiplier;
+    private final int shift;
+    private final Int2IntHashMap tagToCase = new Int2IntHashMap(NO_CASE);
+
+    private TagHash(final int[] tags, final int multiplier, final int shift)
+    {
+        this.tags = tags;
+        this.multiplier = multiplier;
+        this.shift = shift;
+        for (int i = 0; i < tags.length; i++)
+        {
+            tagToCase.put(tags[i], i + 1);
+        }
+    }
+
+    /**
+     * Searches for a perfect hash of the tags.
+     *
+     * @param tags the distinct tags, in the order of their cases.
+     * @return the hash or null if there are no tags or no perfect hash was found within the size limits.
+     */
+    static TagHash find(final IntArrayList tags)
+    {
+        final int tagCount = tags.size();
+        if (tagCount == 0)
+        {
+            return null;
+        }
+
+        final int[] tagArray = tags.toIntArray();
+        final Random random = new Random(SEED);
+        final int minBits = Math.max(1, Integer.numberOfTrailingZeros(BitUtil.findNextPositivePowerOfTwo(tagCount)));
+        final int maxBits = Math.min(MAX_TABLE_BITS, minBits + MAX_LOAD_BITS);
+        for (int bits = minBits; bits <= maxBits; bits++)
+        {
+            final int shift = Integer.SIZE - bits;
+            final boolean[] used = new boolean[1 << bits];
+            for (int attempt = 0; attempt < ATTEMPTS_PER_TABLE_SIZE; attempt++)
+            {
+                final int multiplier = random.nextInt() | 1;
+                if (isPerfect(tagArray, multiplier, shift, used))
+                {
+                    return new TagHash(tagArray, multiplier, shift);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isPerfect(final int[] tags, final int multiplier, final int shift, final boolean[] used)
+    {
+        Arrays.fill(used, false);
+        for (final int tag : tags)
+        {
+            final int slot = tagHashSlot(tag, multiplier, shift);
+            if (used[slot])
+            {
+                return false;
+            }
+            used[slot] = true;
+        }
+
+        return true;
+    }
+
+    int caseOf(final int tag)
+    {
+        return tagToCase.get(tag);
+    }
+
+    int[] tags()
+    {
+        return tags;
+    }
+
+    int multiplier()
+    {
+        return multiplier;
+    }
+
+    int shift()
+    {
+        return shift;
+    }
+}
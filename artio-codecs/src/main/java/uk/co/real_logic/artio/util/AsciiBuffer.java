@@ -85,5 +85,36 @@ public interface AsciiBuffer extends DirectBuffer
 
     int scan(int startInclusive, int endExclusive, byte terminator);
 
+    /**
+     * Finds the next field separator, equivalent to {@code scan(startInclusive, endExclusive, SEPARATOR)} but may
+     * examine a word at a time.
+     *
+     * @param startInclusive the index to start scanning from.
+     * @param endExclusive the index to stop scanning at.
+     * @return the index of the separator or {@link #UNKNOWN_INDEX} if there isn't one.
+     */
+    int scanSeparator(int startInclusive, int endExclusive);
+
+    /**
+     * Finds the '=' that ends a tag and parses the tag in the same pass. The result packs the tag into the upper
+     * 32 bits and the index of the '=' into the lower 32 bits, see {@link #scannedTag(long)} and
+     * {@link #scannedEqualsIndex(long)}.
+     *
+     * @param startInclusive the index at which the tag starts.
+     * @param endExclusive the index to stop scanning at.
+     * @return the packed tag and index of the '=', the index is {@link #UNKNOWN_INDEX} if there isn't one.
+     */
+    long scanTag(int startInclusive, int endExclusive);
+
+    static int scannedTag(final long tagAndEqualsIndex)
+    {
+        return (int)(tagAndEqualsIndex >> 32);
+    }
+
+    static int scannedEqualsIndex(final long tagAndEqualsIndex)
+    {
+        return (int)tagAndEqualsIndex;
+    }
+
     int computeChecksum(int startInclusive, int endExclusive);
 }
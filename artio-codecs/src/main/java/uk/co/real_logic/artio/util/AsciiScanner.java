@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.util;
+
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * Finds bytes within, and sums the bytes of, a range of a buffer. {@link MutableAsciiBuffer} picks an implementation
+ * when it's loaded, see {@link MutableAsciiBuffer#ASCII_SCANNER_PROP}, all implementations return the same results.
+ */
+interface AsciiScanner
+{
+    String SCALAR = "scalar";
+    String SWAR = "swar";
+    String VECTOR = "vector";
+    String VECTOR_ASCII_SCANNER_CLASS = "uk.co.real_logic.artio.util.VectorAsciiScanner";
+
+    int scan(UnsafeBuffer buffer, int startInclusive, int endExclusive, byte terminator);
+
+    int scanBack(UnsafeBuffer buffer, int startInclusive, int endExclusive, byte terminator);
+
+    /**
+     * Sums the bytes in the range as signed values.
+     *
+     * @param buffer the buffer containing the bytes.
+     * @param startInclusive the index of the first byte.
+     * @param endExclusive the index after the last byte.
+     * @return the sum.
+     */
+    int sum(UnsafeBuffer buffer, int startInclusive, int endExclusive);
+
+    String name();
+
+    static AsciiScanner select(final String name)
+    {
+        switch (name)
+        {
+            case SCALAR:
+                return new ScalarAsciiScanner();
+
+            case SWAR:
+                return new SwarAsciiScanner();
+
+            case VECTOR:
+                if (!isVectorApiAvailable())
+                {
+                    throw new IllegalStateException(
+                        "The vector ascii scanner needs the jdk.incubator.vector module, eg --add-modules " +
+                        "jdk.incubator.vector");
+                }
+                return newVectorAsciiScanner();
+
+            default:
+                if (isVectorApiAvailable())
+                {
+                    try
+                    {
+                        return newVectorAsciiScanner();
+                    }
+                    catch (final LinkageError | IllegalStateException ignore)
+                    {
+                        // Fall back to SWAR if this JDK's incubating API doesn't match
+                    }
+                }
+                return new SwarAsciiScanner();
+        }
+    }
+
+    // Loaded reflectively as it's compiled separately, against the incubating module, see build.gradle
+    static AsciiScanner newVectorAsciiScanner()
+    {
+        try
+        {
+            return (AsciiScanner)Class.forName(VECTOR_ASCII_SCANNER_CLASS).getDeclaredConstructor().newInstance();
+        }
+        catch (final ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Unable to load the vector ascii scanner", e);
+        }
+    }
+
+    static boolean isVectorApiAvailable()
+    {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+}
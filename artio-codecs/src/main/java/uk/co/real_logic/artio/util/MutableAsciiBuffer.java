@@ -25,7 +25,9 @@ import uk.co.real_logic.artio.util.float_parsing.DecimalFloatParser;
 
 import java.nio.ByteBuffer;
 
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_INT;
 
 public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffer
@@ -35,6 +37,24 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
 
     private static final byte Y = (byte)'Y';
     private static final byte N = (byte)'N';
+    private static final byte EQUALS = (byte)'=';
+
+    // Words with every byte set to the given value, for scanning a word at a time.
+    private static final long SEPARATOR_WORD = SwarAsciiScanner.patternWord(SEPARATOR);
+    private static final long EQUALS_WORD = SwarAsciiScanner.patternWord(EQUALS);
+
+    /**
+     * Property name for the implementation that scans for bytes and computes checksums: "scalar" looks at a byte at
+     * a time, "swar" at a word at a time and "vector" uses the incubating Vector API, which needs
+     * {@code --add-modules jdk.incubator.vector}. The default, "auto", picks "vector" if the module is present and
+     * "swar" otherwise. The implementation is picked when this class is loaded.
+     * <p>
+     * "vector" only applies to buffers that wrap a byte array, off-heap buffers, such as the engine's receive
+     * buffers, are always scanned by "swar" as they can't be loaded into vectors on every supported JDK.
+     */
+    public static final String ASCII_SCANNER_PROP = "fix.codecs.ascii_scanner";
+
+    private static final AsciiScanner SCANNER = AsciiScanner.select(System.getProperty(ASCII_SCANNER_PROP, "auto"));
 
     public MutableAsciiBuffer()
     {
@@ -199,16 +219,7 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
 
     public int scanBack(final int startInclusive, final int endExclusive, final byte terminator)
     {
-        for (int index = startInclusive; index > endExclusive; index--)
-        {
-            final byte value = getByte(index);
-            if (value == terminator)
-            {
-                return index;
-            }
-        }
-
-        return UNKNOWN_INDEX;
+        return SCANNER.scanBack(this, startInclusive, endExclusive, terminator);
     }
 
     public int scan(final int startInclusive, final int endExclusive, final char terminatingCharacter)
@@ -218,29 +229,73 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
 
     public int scan(final int startInclusive, final int endExclusive, final byte terminator)
     {
-        int indexValue = UNKNOWN_INDEX;
-        for (int i = startInclusive; i < endExclusive; i++)
+        return SCANNER.scan(this, startInclusive, endExclusive, terminator);
+    }
+
+    public int scanSeparator(final int startInclusive, final int endExclusive)
+    {
+        return SwarAsciiScanner.scan(this, startInclusive, endExclusive, SEPARATOR, SEPARATOR_WORD);
+    }
+
+    public long scanTag(final int startInclusive, final int endExclusive)
+    {
+        // Most tags are short enough for the tag and its '=' to be in the first word, so parse the tag from that.
+        if (endExclusive - startInclusive >= SIZE_OF_LONG)
         {
-            final byte value = getByte(i);
-            if (value == terminator)
+            final long word = getLong(startInclusive, LITTLE_ENDIAN);
+            final long equalsBytes = SwarAsciiScanner.matchingBytes(word, EQUALS_WORD);
+            if (equalsBytes != 0)
             {
-                indexValue = i;
-                break;
+                final int digitCount = Long.numberOfTrailingZeros(equalsBytes) >>> 3;
+                int tag = 0;
+                int index = 0;
+                while (index < digitCount)
+                {
+                    final int digit = (int)((word >>> (index << 3)) & 0xFF) - ZERO;
+                    if (digit < 0 || digit > 9)
+                    {
+                        break;
+                    }
+                    tag = tag * 10 + digit;
+                    index++;
+                }
+
+                if (digitCount > 0 && index == digitCount)
+                {
+                    return packTag(tag, startInclusive + digitCount);
+                }
             }
         }
 
-        return indexValue;
+        // Negative, invalid or long tags take the same path as scan() followed by getInt()
+        final int equalsIndex = SwarAsciiScanner.scan(this, startInclusive, endExclusive, EQUALS, EQUALS_WORD);
+        if (equalsIndex == UNKNOWN_INDEX)
+        {
+            return UNKNOWN_INDEX;
+        }
+
+        return packTag(getInt(startInclusive, equalsIndex), equalsIndex);
+    }
+
+    private static long packTag(final int tag, final int equalsIndex)
+    {
+        return ((long)tag << 32) | (equalsIndex & 0xFFFF_FFFFL);
     }
 
     public int computeChecksum(final int startInclusive, final int endExclusive)
     {
-        int total = 0;
-        for (int index = startInclusive; index < endExclusive; index++)
-        {
-            total += getByte(index);
-        }
+        return SCANNER.sum(this, startInclusive, endExclusive) % 256;
+    }
 
-        return total % 256;
+    /**
+     * Gets the name of the implementation picked to scan for bytes and compute checksums.
+     *
+     * @return the name of the implementation.
+     * @see #ASCII_SCANNER_PROP
+     */
+    public static String asciiScannerName()
+    {
+        return SCANNER.name();
     }
 
     public int putAscii(final int index, final String string)
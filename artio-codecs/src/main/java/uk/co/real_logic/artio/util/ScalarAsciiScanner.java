@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.util;
+
+import org.agrona.concurrent.UnsafeBuffer;
+
+import static uk.co.real_logic.artio.util.AsciiBuffer.UNKNOWN_INDEX;
+
+/**
+ * Looks at one byte at a time, the reference that the other scanners are verified against.
+ */
+final class ScalarAsciiScanner implements AsciiScanner
+{
+    public int scan(final UnsafeBuffer buffer, final int startInclusive, final int endExclusive, final byte terminator)
+    {
+        for (int index = startInclusive; index < endExclusive; index++)
+        {
+            if (buffer.getByte(index) == terminator)
+            {
+                return index;
+            }
+        }
+
+        return UNKNOWN_INDEX;
+    }
+
+    public int scanBack(
+        final UnsafeBuffer buffer, final int startInclusive, final int endExclusive, final byte terminator)
+    {
+        for (int index = startInclusive; index > endExclusive; index--)
+        {
+            if (buffer.getByte(index) == terminator)
+            {
+                return index;
+            }
+        }
+
+        return UNKNOWN_INDEX;
+    }
+
+    public int sum(final UnsafeBuffer buffer, final int startInclusive, final int endExclusive)
+    {
+        int total = 0;
+        for (int index = startInclusive; index < endExclusive; index++)
+        {
+            total += buffer.getByte(index);
+        }
+
+        return total;
+    }
+
+    public String name()
+    {
+        return SCALAR;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.util;
+
+import org.agrona.concurrent.UnsafeBuffer;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static uk.co.real_logic.artio.util.AsciiBuffer.UNKNOWN_INDEX;
+
+/**
+ * Looks at a word (8 bytes) at a time using SIMD within a register techniques.
+ */
+final class SwarAsciiScanner implements AsciiScanner
+{
+    static final long LOW_BITS = 0x0101010101010101L;
+    static final long HIGH_BITS = 0x8080808080808080L;
+
+    private static final long SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long EVEN_BYTES = 0x00FF00FF00FF00FFL;
+    private static final int BITS_IN_BYTE = 8;
+    // The 16 bit lanes of the sum can't overflow before this many words have been added to them, 128 * 2 * 255
+    private static final int WORDS_PER_FOLD = 128;
+
+    static long patternWord(final byte value)
+    {
+        return LOW_BITS * (value & 0xFF);
+    }
+
+    // Sets the high bit of each byte that equals the pattern's byte. Bytes after the first match may be false
+    // positives, but the first match is always exact.
+    static long matchingBytes(final long word, final long patternWord)
+    {
+        final long value = word ^ patternWord;
+        return (value - LOW_BITS) & ~value & HIGH_BITS;
+    }
+
+    // Sets the high bit of exactly the bytes that equal the pattern's byte, slower than matchingBytes()
+    private static long exactlyMatchingBytes(final long word, final long patternWord)
+    {
+        final long value = word ^ patternWord;
+        return ~(((value & SEVEN_BITS) + SEVEN_BITS) | value | SEVEN_BITS);
+    }
+
+    public int scan(final UnsafeBuffer buffer, final int startInclusive, final int endExclusive, final byte terminator)
+    {
+        return scan(buffer, startInclusive, endExclusive, terminator, patternWord(terminator));
+    }
+
+    static int scan(
+        final UnsafeBuffer buffer,
+        final int startInclusive,
+        final int endExclusive,
+        final byte terminator,
+        final long terminatorWord)
+    {
+        int index = startInclusive;
+        final int lastWordStart = endExclusive - SIZE_OF_LONG;
+        while (index <= lastWordStart)
+        {
+            final long matches = matchingBytes(buffer.getLong(index, LITTLE_ENDIAN), terminatorWord);
+            if (matches != 0)
+            {
+                // little endian, so the lowest set bit is the first matching byte
+                return index + (Long.numberOfTrailingZeros(matches) >>> 3);
+            }
+            index += SIZE_OF_LONG;
+        }
+
+        for (; index < endExclusive; index++)
+        {
+            if (buffer.getByte(index) == terminator)
+            {
+                return index;
+            }
+        }
+
+        return UNKNOWN_INDEX;
+    }
+
+    public int scanBack(
+        final UnsafeBuffer buffer, final int startInclusive, final int endExclusive, final byte terminator)
+    {
+        final long terminatorWord = patternWord(terminator);
+        int index = startInclusive;
+        while (index - (SIZE_OF_LONG - 1) > endExclusive)
+        {
+            final int wordStart = index - (SIZE_OF_LONG - 1);
+            final long matches = exactlyMatchingBytes(buffer.getLong(wordStart, LITTLE_ENDIAN), terminatorWord);
+            if (matches != 0)
+            {
+                // little endian, so the highest set bit is the last matching byte
+                return wordStart + ((Long.SIZE - 1 - Long.numberOfLeadingZeros(matches)) >>> 3);
+            }
+            index -= SIZE_OF_LONG;
+        }
+
+        for (; index > endExclusive; index--)
+        {
+            if (buffer.getByte(index) == terminator)
+            {
+                return index;
+            }
+        }
+
+        return UNKNOWN_INDEX;
+    }
+
+    public int sum(final UnsafeBuffer buffer, final int startInclusive, final int endExclusive)
+    {
+        // Sums the bytes as unsigned values in 16 bit lanes, then corrects for the bytes that are negative.
+        long unsignedTotal = 0;
+        int negativeBytes = 0;
+        int index = startInclusive;
+        final int lastWordStart = endExclusive - SIZE_OF_LONG;
+        while (index <= lastWordStart)
+        {
+            long lanes = 0;
+            for (int words = 0; words < WORDS_PER_FOLD && index <= lastWordStart; words++)
+            {
+                final long word = buffer.getLong(index, LITTLE_ENDIAN);
+                lanes += (word & EVEN_BYTES) + ((word >>> BITS_IN_BYTE) & EVEN_BYTES);
+                negativeBytes += Long.bitCount(word & HIGH_BITS);
+                index += SIZE_OF_LONG;
+            }
+
+            unsignedTotal += (lanes & 0xFFFF) + ((lanes >>> 16) & 0xFFFF) + ((lanes >>> 32) & 0xFFFF) + (lanes >>> 48);
+        }
+
+        int total = (int)unsignedTotal - (negativeBytes << BITS_IN_BYTE);
+        for (; index < endExclusive; index++)
+        {
+            total += buffer.getByte(index);
+        }
+
+        return total;
+    }
+
+    public String name()
+    {
+        return SWAR;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.builder;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+import uk.co.real_logic.artio.EncodingException;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EncoderTemplateTest
+{
+    private static final int MSG_SEQ_NUM = 34;
+    private static final int CL_ORD_ID = 11;
+    private static final int PRICE = 44;
+    private static final int CAPACITY = 512;
+
+    private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[CAPACITY]);
+
+    @Test
+    void shouldEncodeUnpatchedMessage()
+    {
+        final EncoderTemplate template = newTemplate(body("1", "A1", "10.5"));
+
+        assertEncodedEquals(body("1", "A1", "10.5"), template);
+    }
+
+    @Test
+    void shouldPatchFieldsOfTheSameLength()
+    {
+        final EncoderTemplate template = newTemplate(body("1", "A1", "10.5"));
+
+        template
+            .putInt(MSG_SEQ_NUM, 2)
+            .putAscii(CL_ORD_ID, "B2")
+            .putFloat(PRICE, 112, 1);
+
+        assertEncodedEquals(body("2", "B2", "11.2"), template);
+    }
+
+    @Test
+    void shouldPatchFieldsThatChangeLength()
+    {
+        final EncoderTemplate template = newTemplate(body("9", "A1", "10.5"));
+
+        template
+            .putInt(MSG_SEQ_NUM, 10)
+            .putAscii(CL_ORD_ID, "LONGER-ORDER-ID")
+            .putFloat(PRICE, 5, 0);
+
+        assertEncodedEquals(body("10", "LONGER-ORDER-ID", "5"), template);
+
+        template.putAscii(CL_ORD_ID, "C");
+
+        assertEncodedEquals(body("10", "C", "5"), template);
+    }
+
+    @Test
+    void shouldUpdateBodyLengthWhenItChangesLength()
+    {
+        final EncoderTemplate template = newTemplate(body("1", "A", "1"));
+
+        final String longOrderId = "X".repeat(100);
+        template.putAscii(CL_ORD_ID, longOrderId);
+
+        assertEncodedEquals(body("1", longOrderId, "1"), template);
+    }
+
+    @Test
+    void shouldPatchInPlace()
+    {
+        final EncoderTemplate template = newTemplate(body("1", "A1", "10.5"));
+        template.putInt(MSG_SEQ_NUM, 3);
+
+        final long result = template.finish();
+
+        assertEquals(
+            message(body("3", "A1", "10.5")),
+            template.buffer().getAscii(Encoder.offset(result), Encoder.length(result)));
+    }
+
+    @Test
+    void shouldRejectMissingVariableField()
+    {
+        final byte[] message = message(body("1", "A1", "10.5")).getBytes(US_ASCII);
+
+        assertThrows(EncodingException.class, () -> new EncoderTemplate(
+            new UnsafeBuffer(message), 0, message.length, CAPACITY, MSG_SEQ_NUM, 38));
+    }
+
+    @Test
+    void shouldRejectTemplateCapacityBeingExceeded()
+    {
+        final EncoderTemplate template = newTemplate(body("1", "A1", "10.5"));
+
+        assertThrows(EncodingException.class, () -> template.putAscii(CL_ORD_ID, "X".repeat(CAPACITY)));
+    }
+
+    private EncoderTemplate newTemplate(final String body)
+    {
+        final byte[] message = message(body).getBytes(US_ASCII);
+        return new EncoderTemplate(
+            new UnsafeBuffer(message), 0, message.length, CAPACITY, MSG_SEQ_NUM, CL_ORD_ID, PRICE);
+    }
+
+    private void assertEncodedEquals(final String expectedBody, final EncoderTemplate template)
+    {
+        final long result = template.encode(buffer, 1);
+        assertEquals(1, Encoder.offset(result));
+        assertEquals(message(expectedBody), buffer.getAscii(1, Encoder.length(result)));
+    }
+
+    private static String body(final String msgSeqNum, final String clOrdId, final String price)
+    {
+        return "35=D\u000134=" + msgSeqNum + "\u000149=SENDER\u000156=TARGET\u000111=" + clOrdId +
+            "\u000155=MSFT\u000154=1\u000138=100\u000144=" + price + "\u000140=2\u0001";
+    }
+
+    private static String message(final String body)
+    {
+        final String header = "8=FIX.4.4\u00019=" + body.length() + "\u0001";
+        int checksum = 0;
+        for (final byte character : (header + body).getBytes(US_ASCII))
+        {
+            checksum += character;
+        }
+        return header + body + String.format("10=%03d\u0001", checksum % 256);
+    }
+}
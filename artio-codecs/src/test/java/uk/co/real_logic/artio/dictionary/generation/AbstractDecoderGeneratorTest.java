@@ -67,7 +67,7 @@ public abstract class AbstractDecoderGeneratorTest
     private static final String STRING_ENUM_OPT = "stringEnumOpt";
     public static final int CAPACITY = 8 * 1024;
 
-    private static Map<String, CharSequence> sourcesWithValidation;
+    static Map<String, CharSequence> sourcesWithValidation;
 
     private static Class<?> heartbeatWithoutValidation;
     private static Class<?> heartbeatWithoutEnumValueValidation;
@@ -83,15 +83,20 @@ public abstract class AbstractDecoderGeneratorTest
     private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[CAPACITY]);
 
     static void generate(final boolean flyweightStringsEnabled) throws Exception
+    {
+        generate(flyweightStringsEnabled, false);
+    }
+
+    static void generate(final boolean flyweightStringsEnabled, final boolean swarDecodingEnabled) throws Exception
     {
         sourcesWithValidation = generateSources(
-            true, false, true, flyweightStringsEnabled, false);
+            true, false, true, flyweightStringsEnabled, false, swarDecodingEnabled, false);
         final Map<String, CharSequence> sourcesWithNoEnumValueValidation = generateSources(
-            true, false, false, flyweightStringsEnabled, false);
+            true, false, false, flyweightStringsEnabled, false, swarDecodingEnabled, false);
         final Map<String, CharSequence> sourcesWithoutValidation = generateSources(
-            false, false, true, flyweightStringsEnabled, true);
+            false, false, true, flyweightStringsEnabled, true, swarDecodingEnabled, false);
         final Map<String, CharSequence> sourcesRejectingUnknownFields = generateSources(
-            true, true, true, flyweightStringsEnabled, false);
+            true, true, true, flyweightStringsEnabled, false, swarDecodingEnabled, false);
         heartbeat = compileInMemory(HEARTBEAT_DECODER, sourcesWithValidation);
         if (heartbeat == null || CODEC_LOGGING)
         {
@@ -116,9 +121,10 @@ public abstract class AbstractDecoderGeneratorTest
         }
     }
 
-    private static Map<String, CharSequence> generateSources(
+    static Map<String, CharSequence> generateSources(
         final boolean validation, final boolean rejectingUnknownFields, final boolean rejectingUnknownEnumValue,
-        final boolean flyweightStringsEnabled, final boolean wrapEmptyBuffer)
+        final boolean flyweightStringsEnabled, final boolean wrapEmptyBuffer, final boolean swarDecodingEnabled,
+        final boolean lazyDecodingEnabled)
     {
         final Class<?> validationClass = validation ? ValidationOn.class : ValidationOff.class;
         final Class<?> rejectUnknownField = rejectingUnknownFields ?
@@ -133,7 +139,7 @@ public abstract class AbstractDecoderGeneratorTest
             MESSAGE_EXAMPLE, 1, TEST_PACKAGE, TEST_PARENT_PACKAGE, TEST_PACKAGE,
             outputManager, validationClass, rejectUnknownField,
             rejectUnknownEnumValue, flyweightStringsEnabled, wrapEmptyBuffer,
-            String.valueOf(rejectingUnknownEnumValue), true);
+            String.valueOf(rejectingUnknownEnumValue), true, swarDecodingEnabled, lazyDecodingEnabled);
         final EncoderGenerator encoderGenerator = new EncoderGenerator(MESSAGE_EXAMPLE, TEST_PACKAGE,
             TEST_PARENT_PACKAGE, outputManager, ValidationOn.class, RejectUnknownFieldOn.class,
             RejectUnknownEnumValueOn.class, RUNTIME_REJECT_UNKNOWN_ENUM_VALUE_PROPERTY, true);
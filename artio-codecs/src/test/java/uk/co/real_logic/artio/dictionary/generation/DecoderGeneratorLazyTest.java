@@ -0,0 +1,182 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import uk.co.real_logic.artio.builder.Decoder;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.agrona.generation.CompilerUtil.compileInMemory;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.*;
+import static uk.co.real_logic.artio.dictionary.ExampleDictionary.*;
+import static uk.co.real_logic.artio.dictionary.generation.AbstractDecoderGeneratorTest.CAPACITY;
+import static uk.co.real_logic.artio.dictionary.generation.AbstractDecoderGeneratorTest.generateSources;
+import static uk.co.real_logic.artio.util.Reflection.get;
+import static uk.co.real_logic.artio.util.Reflection.getEgGroupIterator;
+
+public class DecoderGeneratorLazyTest
+{
+    private static final String NEXT_MESSAGE_START = "8=FIX.4.4";
+
+    private static Map<String, CharSequence> lazySources;
+    private static Class<?> lazyHeartbeat;
+    private static Class<?> eagerHeartbeat;
+
+    private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[CAPACITY]);
+
+    @BeforeClass
+    public static void generate() throws Exception
+    {
+        // Messages are only decoded lazily when validation is disabled
+        lazySources = generateSources(false, false, true, true, false, false, true);
+        lazyHeartbeat = compileInMemory(HEARTBEAT_DECODER, lazySources);
+        eagerHeartbeat = compileInMemory(
+            HEARTBEAT_DECODER, generateSources(false, false, true, true, false, false, false));
+    }
+
+    @Test
+    public void shouldOnlyScanFieldsFromTheGetters()
+    {
+        final String heartbeat = lazySources.get(HEARTBEAT_DECODER).toString();
+
+        assertThat(heartbeat, containsString("private int lazyScan(final int stopTag)"));
+        assertThat(heartbeat, containsString("lazyScanTo(116, "));
+    }
+
+    @Test
+    public void shouldScanForwardsToRequestedFields() throws Exception
+    {
+        final Decoder decoder = decodeLazily(ENCODED_MESSAGE);
+
+        assertEquals(2, get(decoder, INT_FIELD));
+        assertEquals(true, get(decoder, HAS_BOOLEAN_FIELD));
+        assertEquals(true, get(decoder, BOOLEAN_FIELD));
+    }
+
+    @Test
+    public void shouldResumeFromLastScannedFieldForLaterFields() throws Exception
+    {
+        final Decoder decoder = decodeLazily(ENCODED_MESSAGE);
+
+        assertEquals(true, get(decoder, HAS_TEST_REQ_ID));
+        assertEquals("abc", get(decoder, TEST_REQ_ID + "AsString"));
+        assertEquals(2, get(decoder, INT_FIELD));
+        assertEquals(true, get(decoder, HAS_DATA_FIELD));
+    }
+
+    @Test
+    public void shouldNotReadFieldsOfThePreviousMessage() throws Exception
+    {
+        final Decoder decoder = decodeLazily(ENCODED_MESSAGE);
+        assertEquals(true, get(decoder, HAS_TEST_REQ_ID));
+
+        decode(NO_OPTIONAL_MESSAGE, decoder);
+
+        assertEquals(false, get(decoder, HAS_TEST_REQ_ID));
+        assertEquals(false, get(decoder, HAS_BOOLEAN_FIELD));
+        assertEquals(2, get(decoder, INT_FIELD));
+    }
+
+    @Test
+    public void shouldScanToRepeatingGroupWhenIterating() throws Exception
+    {
+        final Decoder decoder = decodeLazily(REPEATING_GROUP_MESSAGE);
+
+        final Iterator<?> iterator = getEgGroupIterator(decoder);
+        assertTrue(iterator.hasNext());
+        assertEquals(1, get(iterator.next(), "groupField"));
+        assertTrue(iterator.hasNext());
+        assertEquals(2, get(iterator.next(), "groupField"));
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void shouldScanWholeMessageWhenAppending() throws Exception
+    {
+        assertAppendsSameAsEagerDecoder(ENCODED_MESSAGE);
+        assertAppendsSameAsEagerDecoder(NO_OPTIONAL_MESSAGE);
+        assertAppendsSameAsEagerDecoder(REPEATING_GROUP_MESSAGE);
+    }
+
+    @Test
+    public void shouldScanWholeMessageWhenValidating() throws Exception
+    {
+        final Decoder decoder = decodeLazily(ENCODED_MESSAGE);
+
+        assertTrue(decoder.validate());
+        assertEquals(true, get(decoder, HAS_TEST_REQ_ID));
+    }
+
+    @Test
+    public void shouldReturnSameEndOffsetAsEagerDecoder() throws Exception
+    {
+        assertDecodesToSameEndOffsetAsEagerDecoder(ENCODED_MESSAGE, "");
+        assertDecodesToSameEndOffsetAsEagerDecoder(NO_OPTIONAL_MESSAGE, "");
+        assertDecodesToSameEndOffsetAsEagerDecoder(REPEATING_GROUP_MESSAGE, "");
+
+        // The start of the next message is in the buffer after the trailer
+        assertDecodesToSameEndOffsetAsEagerDecoder(ENCODED_MESSAGE, NEXT_MESSAGE_START);
+        assertDecodesToSameEndOffsetAsEagerDecoder(REPEATING_GROUP_MESSAGE, NEXT_MESSAGE_START);
+
+        // A body length that doesn't lead to the trailer
+        assertDecodesToSameEndOffsetAsEagerDecoder(
+            ENCODED_MESSAGE.replace("\0019=81\001", "\0019=70\001"), NEXT_MESSAGE_START);
+    }
+
+    private void assertDecodesToSameEndOffsetAsEagerDecoder(final String message, final String suffix)
+        throws Exception
+    {
+        final String bytes = message + suffix;
+        buffer.putAscii(1, bytes);
+
+        final Decoder eagerDecoder = (Decoder)eagerHeartbeat.getConstructor().newInstance();
+        final int eagerEnd = eagerDecoder.decode(buffer, 1, bytes.length());
+
+        final Decoder lazyDecoder = (Decoder)lazyHeartbeat.getConstructor().newInstance();
+        final int lazyEnd = lazyDecoder.decode(buffer, 1, bytes.length());
+
+        assertEquals(message.length(), eagerEnd);
+        assertEquals(eagerEnd, lazyEnd);
+    }
+
+    private void assertAppendsSameAsEagerDecoder(final String message) throws Exception
+    {
+        final Decoder eagerDecoder = (Decoder)eagerHeartbeat.getConstructor().newInstance();
+        decode(message, eagerDecoder);
+
+        assertEquals(eagerDecoder.toString(), decodeLazily(message).toString());
+    }
+
+    private Decoder decodeLazily(final String message) throws Exception
+    {
+        final Decoder decoder = (Decoder)lazyHeartbeat.getConstructor().newInstance();
+        decode(message, decoder);
+        return decoder;
+    }
+
+    private void decode(final String message, final Decoder decoder)
+    {
+        buffer.putAscii(1, message);
+        decoder.reset();
+        assertEquals(message.length(), decoder.decode(buffer, 1, message.length()));
+    }
+}
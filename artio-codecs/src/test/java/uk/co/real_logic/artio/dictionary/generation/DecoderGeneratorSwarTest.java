@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static uk.co.real_logic.artio.dictionary.ExampleDictionary.HEARTBEAT_DECODER;
+
+public class DecoderGeneratorSwarTest extends AbstractDecoderGeneratorTest
+{
+    @BeforeClass
+    public static void generate() throws Exception
+    {
+        generate(false, true);
+    }
+
+    @Test
+    public void shouldDispatchOnTagsThroughPerfectHash()
+    {
+        final String heartbeat = sourcesWithValidation.get(HEARTBEAT_DECODER).toString();
+
+        assertThat(heartbeat, containsString("buffer.scanTag(position, end)"));
+        assertThat(heartbeat, containsString("buffer.scanSeparator(valueOffset, end)"));
+        assertThat(heartbeat, containsString(
+            "switch (tagHashCase(TAG_HASH_TABLE, tag, TAG_HASH_MULTIPLIER, TAG_HASH_SHIFT))"));
+        assertThat(heartbeat, not(containsString("switch (tag)")));
+    }
+}
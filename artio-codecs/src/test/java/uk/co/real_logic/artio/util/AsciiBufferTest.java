@@ -140,6 +140,54 @@ public class AsciiBufferTest
         assertEquals(-1, value);
     }
 
+    @Test
+    public void shouldScanForSeparatorsAWordAtATime()
+    {
+        for (int separatorIndex = 0; separatorIndex < 20; separatorIndex++)
+        {
+            final byte[] bytes = "aaaaaaaaaaaaaaaaaaaaaaaa".getBytes(US_ASCII);
+            bytes[separatorIndex] = AsciiBuffer.SEPARATOR;
+            buffer.putBytes(0, bytes);
+
+            assertEquals(separatorIndex, buffer.scanSeparator(0, bytes.length));
+            assertEquals(buffer.scan(1, bytes.length, AsciiBuffer.SEPARATOR), buffer.scanSeparator(1, bytes.length));
+            assertEquals(UNKNOWN_INDEX, buffer.scanSeparator(0, separatorIndex));
+        }
+    }
+
+    @Test
+    public void shouldScanTagsInTheSamePassAsTheirEquals()
+    {
+        assertScannedTag("35=D\001");
+        assertScannedTag("8=FIX.4.4\00110=");
+        assertScannedTag("1234567=value\001");
+        assertScannedTag("12345678=value\001");
+        assertScannedTag("-1=value\001");
+        assertScannedTag("=value\001");
+        assertScannedTag("0035=D\001");
+    }
+
+    @Test
+    public void shouldNotFindTagWithoutEquals()
+    {
+        putAscii("35D\00134D\001");
+
+        assertEquals(UNKNOWN_INDEX, AsciiBuffer.scannedEqualsIndex(buffer.scanTag(0, 10)));
+        assertEquals(UNKNOWN_INDEX, AsciiBuffer.scannedEqualsIndex(buffer.scanTag(0, 4)));
+    }
+
+    private void assertScannedTag(final String field)
+    {
+        putAscii(field);
+        final int end = field.length();
+        final int equalsIndex = buffer.scan(0, end, '=');
+
+        final long tagAndEqualsIndex = buffer.scanTag(0, end);
+
+        assertEquals(field, equalsIndex, AsciiBuffer.scannedEqualsIndex(tagAndEqualsIndex));
+        assertEquals(field, buffer.getInt(0, equalsIndex), AsciiBuffer.scannedTag(tagAndEqualsIndex));
+    }
+
     private void putAscii(final String value)
     {
         buffer.putBytes(0, value.getBytes(US_ASCII));
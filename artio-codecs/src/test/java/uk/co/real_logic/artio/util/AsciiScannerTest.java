@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.util;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsciiScannerTest
+{
+    private static final int[] LENGTHS = {1, 7, 8, 9, 31, 64, 65, 1000, 64 * 1024};
+    private static final int MAX_WRAP_OFFSET = 9;
+    private static final int RANGES_PER_BUFFER = 200;
+
+    private final AsciiScanner reference = new ScalarAsciiScanner();
+    private final Random random = new Random(42);
+
+    @Test
+    void shouldPickVectorScannerWhenModuleIsPresent()
+    {
+        assertTrue(AsciiScanner.isVectorApiAvailable());
+        assertEquals(AsciiScanner.VECTOR, MutableAsciiBuffer.asciiScannerName());
+    }
+
+    @Test
+    void shouldMatchScalarScannerOnAsciiMessages()
+    {
+        verifyAgainstReference(true);
+    }
+
+    @Test
+    void shouldMatchScalarScannerOnArbitraryBytes()
+    {
+        verifyAgainstReference(false);
+    }
+
+    @Test
+    void shouldComputeSameChecksumAsScalarScanner()
+    {
+        final byte[] message = TestMessages.EG_MESSAGE;
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer(message);
+        final int checksumTag = message.length - 7;
+
+        assertEquals(
+            reference.sum(buffer, 0, checksumTag) % 256,
+            buffer.computeChecksum(0, checksumTag));
+    }
+
+    private void verifyAgainstReference(final boolean ascii)
+    {
+        final List<AsciiScanner> scanners = new ArrayList<>();
+        scanners.add(new SwarAsciiScanner());
+        scanners.add(AsciiScanner.newVectorAsciiScanner());
+
+        for (final int length : LENGTHS)
+        {
+            final int wrapOffset = random.nextInt(MAX_WRAP_OFFSET);
+            final byte[] bytes = new byte[wrapOffset + length];
+            for (int i = 0; i < bytes.length; i++)
+            {
+                bytes[i] = ascii ? (byte)('0' + random.nextInt(10)) : (byte)random.nextInt(256);
+            }
+
+            final ByteBuffer direct = ByteBuffer.allocateDirect(length);
+            direct.put(0, bytes, wrapOffset, length);
+            final UnsafeBuffer heapBuffer = new UnsafeBuffer(bytes, wrapOffset, length);
+            final UnsafeBuffer offHeapBuffer = new UnsafeBuffer(direct);
+
+            for (int i = 0; i < RANGES_PER_BUFFER; i++)
+            {
+                final int start = random.nextInt(length);
+                final int end = start + random.nextInt(length - start + 1);
+                final byte terminator = ascii ? (byte)('0' + random.nextInt(10)) : (byte)random.nextInt(256);
+
+                for (final AsciiScanner scanner : scanners)
+                {
+                    verify(scanner, heapBuffer, start, end, terminator);
+                    verify(scanner, offHeapBuffer, start, end, terminator);
+                }
+            }
+        }
+    }
+
+    private void verify(
+        final AsciiScanner scanner, final UnsafeBuffer buffer, final int start, final int end, final byte terminator)
+    {
+        final String range = scanner.name() + " [" + start + ", " + end + ") for " + terminator;
+
+        assertEquals(
+            reference.scan(buffer, start, end, terminator),
+            scanner.scan(buffer, start, end, terminator),
+            "scan " + range);
+        assertEquals(
+            reference.scanBack(buffer, end - 1, start - 1, terminator),
+            scanner.scanBack(buffer, end - 1, start - 1, terminator),
+            "scanBack " + range);
+        assertEquals(
+            reference.sum(buffer, start, end),
+            scanner.sum(buffer, start, end),
+            "sum " + range);
+    }
+}
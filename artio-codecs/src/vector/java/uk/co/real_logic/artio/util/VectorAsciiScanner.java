@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.util;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * Looks at a whole vector register of bytes at a time using the incubating Vector API. Only heap buffers can be
+ * loaded into vectors across the JDK versions that Artio supports, so off-heap buffers are scanned a word at a time.
+ * Only loaded if the jdk.incubator.vector module is present.
+ */
+final class VectorAsciiScanner implements AsciiScanner
+{
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class, BYTES.vectorShape());
+    private static final int PARTS = BYTES.length() / INTS.length();
+
+    private final SwarAsciiScanner offHeapScanner = new SwarAsciiScanner();
+
+    public int scan(final UnsafeBuffer buffer, final int startInclusive, final int endExclusive, final byte terminator)
+    {
+        final byte[] array = buffer.byteArray();
+        if (array == null)
+        {
+            return offHeapScanner.scan(buffer, startInclusive, endExclusive, terminator);
+        }
+
+        final int adjustment = buffer.wrapAdjustment();
+        final int vectorLength = BYTES.length();
+        int index = startInclusive;
+        final int lastVectorStart = endExclusive - vectorLength;
+        while (index <= lastVectorStart)
+        {
+            final VectorMask<Byte> matches = ByteVector.fromArray(BYTES, array, adjustment + index).eq(terminator);
+            if (matches.anyTrue())
+            {
+                return index + matches.firstTrue();
+            }
+            index += vectorLength;
+        }
+
+        return offHeapScanner.scan(buffer, index, endExclusive, terminator);
+    }
+
+    public int scanBack(
+        final UnsafeBuffer buffer, final int startInclusive, final int endExclusive, final byte terminator)
+    {
+        final byte[] array = buffer.byteArray();
+        if (array == null)
+        {
+            return offHeapScanner.scanBack(buffer, startInclusive, endExclusive, terminator);
+        }
+
+        final int adjustment = buffer.wrapAdjustment();
+        final int vectorLength = BYTES.length();
+        int index = startInclusive;
+        while (index - (vectorLength - 1) > endExclusive)
+        {
+            final int vectorStart = index - (vectorLength - 1);
+            final VectorMask<Byte> matches =
+                ByteVector.fromArray(BYTES, array, adjustment + vectorStart).eq(terminator);
+            if (matches.anyTrue())
+            {
+                return vectorStart + matches.lastTrue();
+            }
+            index -= vectorLength;
+        }
+
+        return offHeapScanner.scanBack(buffer, index, endExclusive, terminator);
+    }
+
+    public int sum(final UnsafeBuffer buffer, final int startInclusive, final int endExclusive)
+    {
+        final byte[] array = buffer.byteArray();
+        if (array == null)
+        {
+            return offHeapScanner.sum(buffer, startInclusive, endExclusive);
+        }
+
+        // Widen each byte to an int so that the lanes can't overflow and negative bytes are summed as signed values
+        final int adjustment = buffer.wrapAdjustment();
+        final int vectorLength = BYTES.length();
+        IntVector lanes = IntVector.zero(INTS);
+        int index = startInclusive;
+        final int lastVectorStart = endExclusive - vectorLength;
+        while (index <= lastVectorStart)
+        {
+            final ByteVector bytes = ByteVector.fromArray(BYTES, array, adjustment + index);
+            for (int part = 0; part < PARTS; part++)
+            {
+                lanes = lanes.add(bytes.convertShape(VectorOperators.B2I, INTS, part));
+            }
+            index += vectorLength;
+        }
+
+        return lanes.reduceLanes(VectorOperators.ADD) + offHeapScanner.sum(buffer, index, endExclusive);
+    }
+
+    public String name()
+    {
+        return VECTOR;
+    }
+}
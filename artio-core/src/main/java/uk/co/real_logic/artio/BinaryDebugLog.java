@@ -0,0 +1,320 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.BufferUtil;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.OneToOneRingBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import uk.co.real_logic.artio.util.CharFormatter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.agrona.BitUtil.CACHE_LINE_LENGTH;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.TRAILER_LENGTH;
+import static uk.co.real_logic.artio.CommonConfiguration.DEBUG_BINARY_FILE_PROPERTY;
+
+/**
+ * Binary flight recorder backend for the {@link DebugLogger}. Each logging thread copies the tag, format id and raw
+ * arguments of a log call into its own off-heap ring buffer rather than formatting them. This agent drains the ring
+ * buffers into a file, which {@link BinaryDebugLogReader} renders as text.
+ *
+ * Enabled by setting {@link CommonConfiguration#DEBUG_BINARY_FILE_PROPERTY}. Records that don't fit into a thread's
+ * ring buffer are dropped and the number dropped is written to the file.
+ *
+ * The log is shared by every engine and library in the process, so its errors go to the error handler and errors
+ * counter of the first of them to start that hasn't been closed yet, or to standard error if there isn't one.
+ */
+public final class BinaryDebugLog implements Agent
+{
+    // File record layout: every record in the file starts with this header.
+    static final int LENGTH_OFFSET = 0;
+    static final int TYPE_OFFSET = LENGTH_OFFSET + SIZE_OF_INT;
+    static final int ID_OFFSET = TYPE_OFFSET + SIZE_OF_INT;
+    static final int HEADER_LENGTH = ID_OFFSET + SIZE_OF_INT;
+
+    // Record types, the id is the thread id for threads, events and drops and the format id for formats.
+    static final int THREAD_RECORD = 1;
+    static final int FORMAT_RECORD = 2;
+    static final int EVENT_RECORD = 3;
+    static final int DROPPED_RECORD = 4;
+
+    // Event layout, as written to the ring buffers and copied into the file after the header.
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int TAG_OFFSET = TIMESTAMP_OFFSET + SIZE_OF_LONG;
+    static final int FORMAT_ID_OFFSET = TAG_OFFSET + SIZE_OF_INT;
+    static final int ARG_COUNT_OFFSET = FORMAT_ID_OFFSET + SIZE_OF_INT;
+    static final int ARGS_OFFSET = ARG_COUNT_OFFSET + SIZE_OF_INT;
+
+    static final byte LONG_ARG = 'J';
+    static final byte ASCII_ARG = 'A';
+
+    /**
+     * Format id for events whose arguments are simply concatenated.
+     */
+    static final int NO_FORMAT = -1;
+
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final int MIN_WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final Map<String, Integer> formatIds = new ConcurrentHashMap<>();
+    private final ArrayList<String> formats = new ArrayList<>();
+    private final ArrayList<BinaryDebugLogger> loggers = new ArrayList<>();
+    private final MessageHandler eventHandler = this::onEvent;
+    private final ErrorHandler errorHandler = this::onError;
+    private final int bufferCapacity;
+    private final FileChannel channel;
+    private final ByteBuffer writeByteBuffer;
+    private final UnsafeBuffer writeBuffer;
+
+    private BinaryDebugLogger[] loggersSnapshot = new BinaryDebugLogger[0];
+    private int writtenThreads = 0;
+    private int writtenFormats = 0;
+    private int writePosition = 0;
+    private int drainingThreadId;
+
+    private ErrorHandler gatewayErrorHandler;
+    private AtomicCounter errorCounter;
+
+    BinaryDebugLog(final File file, final int bufferCapacity)
+    {
+        this.bufferCapacity = bufferCapacity;
+        try
+        {
+            channel = FileChannel.open(file.toPath(), CREATE, WRITE, TRUNCATE_EXISTING);
+        }
+        catch (final IOException ex)
+        {
+            throw new IllegalStateException(
+                "Unable to configure DebugLogger, please check " + DEBUG_BINARY_FILE_PROPERTY, ex);
+        }
+
+        // A ring buffer's largest message is an eighth of its capacity, so any event fits.
+        writeByteBuffer = ByteBuffer.allocateDirect(Math.max(MIN_WRITE_BUFFER_SIZE, bufferCapacity));
+        writeBuffer = new UnsafeBuffer(writeByteBuffer);
+    }
+
+    static BinaryDebugLog launch(final String file, final int bufferCapacity)
+    {
+        final BinaryDebugLog log = new BinaryDebugLog(new File(file), bufferCapacity);
+        final AgentRunner runner = new AgentRunner(
+            CommonConfiguration.backoffIdleStrategy(), log.errorHandler, null, log);
+        AgentRunner.startOnThread(runner, runnable ->
+        {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(runner::close));
+        return log;
+    }
+
+    synchronized void gatewayErrorHandler(
+        final ErrorHandler errorHandler, final Supplier<AtomicCounter> errorCounterSupplier)
+    {
+        if (gatewayErrorHandler == null)
+        {
+            gatewayErrorHandler = errorHandler;
+            errorCounter = errorCounterSupplier.get();
+        }
+    }
+
+    synchronized void removeGatewayErrorHandler(final ErrorHandler errorHandler)
+    {
+        if (gatewayErrorHandler == errorHandler)
+        {
+            gatewayErrorHandler = null;
+            errorCounter = null;
+        }
+    }
+
+    synchronized void onError(final Throwable throwable)
+    {
+        final ErrorHandler gatewayErrorHandler = this.gatewayErrorHandler;
+        if (gatewayErrorHandler == null)
+        {
+            throwable.printStackTrace();
+            return;
+        }
+
+        errorCounter.increment();
+        gatewayErrorHandler.onError(throwable);
+    }
+
+    synchronized BinaryDebugLogger newLogger(final String threadName)
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(
+            BufferUtil.allocateDirectAligned(bufferCapacity + TRAILER_LENGTH, CACHE_LINE_LENGTH));
+        final BinaryDebugLogger logger = new BinaryDebugLogger(
+            this, new OneToOneRingBuffer(buffer), loggers.size(), threadName);
+        loggers.add(logger);
+        loggersSnapshot = loggers.toArray(new BinaryDebugLogger[0]);
+        return logger;
+    }
+
+    int formatId(final CharFormatter formatter)
+    {
+        final String formatString = formatter.formatString();
+        final Integer formatId = formatIds.get(formatString);
+        return formatId != null ? formatId : registerFormat(formatString);
+    }
+
+    private synchronized int registerFormat(final String formatString)
+    {
+        Integer formatId = formatIds.get(formatString);
+        if (formatId == null)
+        {
+            formatId = formats.size();
+            formats.add(formatString);
+            formatIds.put(formatString, formatId);
+        }
+        return formatId;
+    }
+
+    public int doWork()
+    {
+        int work = 0;
+        for (final BinaryDebugLogger logger : writeDefinitions())
+        {
+            drainingThreadId = logger.threadId();
+            work += logger.ringBuffer().read(eventHandler);
+
+            final long droppedCount = logger.droppedCount();
+            final long newlyDropped = droppedCount - logger.reportedDroppedCount;
+            if (newlyDropped > 0)
+            {
+                final int position = claim(DROPPED_RECORD, drainingThreadId, SIZE_OF_LONG);
+                writeBuffer.putLong(position, newlyDropped, BYTE_ORDER);
+                logger.reportedDroppedCount = droppedCount;
+            }
+        }
+
+        if (writePosition > 0)
+        {
+            flush();
+        }
+
+        return work;
+    }
+
+    public void onClose()
+    {
+        doWork();
+        CloseHelper.close(channel);
+    }
+
+    public String roleName()
+    {
+        return "BinaryDebugLog";
+    }
+
+    private void onEvent(final int msgTypeId, final DirectBuffer buffer, final int index, final int length)
+    {
+        // Formats are registered before the events that use them are written, but possibly after the last
+        // definitions were written.
+        if (buffer.getInt(index + FORMAT_ID_OFFSET, BYTE_ORDER) >= writtenFormats)
+        {
+            writeDefinitions();
+        }
+
+        final int position = claim(EVENT_RECORD, drainingThreadId, length);
+        writeBuffer.putBytes(position, buffer, index, length);
+    }
+
+    private synchronized BinaryDebugLogger[] writeDefinitions()
+    {
+        final ArrayList<BinaryDebugLogger> loggers = this.loggers;
+        final int threadCount = loggers.size();
+        for (int threadId = writtenThreads; threadId < threadCount; threadId++)
+        {
+            writeAscii(THREAD_RECORD, threadId, loggers.get(threadId).threadName());
+        }
+        writtenThreads = threadCount;
+
+        final ArrayList<String> formats = this.formats;
+        final int formatCount = formats.size();
+        for (int formatId = writtenFormats; formatId < formatCount; formatId++)
+        {
+            writeAscii(FORMAT_RECORD, formatId, formats.get(formatId));
+        }
+        writtenFormats = formatCount;
+
+        return loggersSnapshot;
+    }
+
+    private void writeAscii(final int type, final int id, final String value)
+    {
+        final int position = claim(type, id, value.length());
+        writeBuffer.putStringWithoutLengthAscii(position, value);
+    }
+
+    private int claim(final int type, final int id, final int bodyLength)
+    {
+        final int recordLength = HEADER_LENGTH + bodyLength;
+        if (writePosition + recordLength > writeBuffer.capacity())
+        {
+            flush();
+        }
+
+        final UnsafeBuffer writeBuffer = this.writeBuffer;
+        final int position = writePosition;
+        writeBuffer.putInt(position + LENGTH_OFFSET, recordLength, BYTE_ORDER);
+        writeBuffer.putInt(position + TYPE_OFFSET, type, BYTE_ORDER);
+        writeBuffer.putInt(position + ID_OFFSET, id, BYTE_ORDER);
+        writePosition = position + recordLength;
+        return position + HEADER_LENGTH;
+    }
+
+    private void flush()
+    {
+        final ByteBuffer writeByteBuffer = this.writeByteBuffer;
+        writeByteBuffer.limit(writePosition).position(0);
+        try
+        {
+            while (writeByteBuffer.hasRemaining())
+            {
+                channel.write(writeByteBuffer);
+            }
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+        writeByteBuffer.clear();
+        writePosition = 0;
+    }
+}
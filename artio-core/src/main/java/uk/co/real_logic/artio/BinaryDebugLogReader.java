@@ -0,0 +1,205 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.util.CharFormatter;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.MappedByteBuffer;
+
+import static org.agrona.BitUtil.SIZE_OF_BYTE;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static uk.co.real_logic.artio.BinaryDebugLog.*;
+import static uk.co.real_logic.artio.CommonConfiguration.DEBUG_LOGGING_SEPARATOR;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_DEBUG_LOGGING_SEPARATOR;
+
+/**
+ * Renders a file written by the {@link BinaryDebugLog} in the same text format as the {@link PrintingDebugAppender}.
+ * The file must be read by the same version of Artio that wrote it, as tags are stored by ordinal.
+ */
+public final class BinaryDebugLogReader
+{
+    private static final LogTag[] TAGS = LogTag.values();
+
+    private final Int2ObjectHashMap<String> threadNames = new Int2ObjectHashMap<>();
+    private final Int2ObjectHashMap<CharFormatter> formatters = new Int2ObjectHashMap<>();
+    private final StringBuilder builder = new StringBuilder();
+    private final PrintStream output;
+
+    private byte[] bytes = new byte[0];
+
+    public static void main(final String[] args)
+    {
+        if (args.length != 1)
+        {
+            System.err.println("Usage: BinaryDebugLogReader <file>");
+            System.exit(-1);
+        }
+
+        read(new File(args[0]), System.out);
+    }
+
+    /**
+     * Render every complete record in a binary debug log file.
+     *
+     * @param file the file written by the binary debug log.
+     * @param output the stream to print the rendered records to.
+     */
+    public static void read(final File file, final PrintStream output)
+    {
+        final MappedByteBuffer mappedBuffer = IoUtil.mapExistingFile(file, "binary debug log");
+        try
+        {
+            new BinaryDebugLogReader(output).read(new UnsafeBuffer(mappedBuffer), mappedBuffer.capacity());
+        }
+        finally
+        {
+            IoUtil.unmap(mappedBuffer);
+        }
+        output.flush();
+    }
+
+    private BinaryDebugLogReader(final PrintStream output)
+    {
+        this.output = output;
+    }
+
+    private void read(final DirectBuffer buffer, final int length)
+    {
+        int offset = 0;
+        while (offset + HEADER_LENGTH <= length)
+        {
+            final int recordLength = buffer.getInt(offset + LENGTH_OFFSET, BYTE_ORDER);
+            if (recordLength < HEADER_LENGTH || offset + recordLength > length)
+            {
+                // The process stopped part way through writing this record.
+                break;
+            }
+
+            final int type = buffer.getInt(offset + TYPE_OFFSET, BYTE_ORDER);
+            final int id = buffer.getInt(offset + ID_OFFSET, BYTE_ORDER);
+            final int bodyOffset = offset + HEADER_LENGTH;
+            final int bodyLength = recordLength - HEADER_LENGTH;
+            switch (type)
+            {
+                case THREAD_RECORD:
+                    threadNames.put(id, buffer.getStringWithoutLengthAscii(bodyOffset, bodyLength));
+                    break;
+
+                case FORMAT_RECORD:
+                    formatters.put(id, new CharFormatter(buffer.getStringWithoutLengthAscii(bodyOffset, bodyLength)));
+                    break;
+
+                case EVENT_RECORD:
+                    onEvent(id, buffer, bodyOffset);
+                    break;
+
+                case DROPPED_RECORD:
+                    output.println(threadNames.get(id) + " dropped " + buffer.getLong(bodyOffset, BYTE_ORDER) +
+                        " debug log records as its ring buffer was full");
+                    break;
+            }
+
+            offset += recordLength;
+        }
+    }
+
+    private void onEvent(final int threadId, final DirectBuffer buffer, final int offset)
+    {
+        final StringBuilder builder = this.builder;
+        builder.setLength(0);
+        builder.append(buffer.getLong(offset + TIMESTAMP_OFFSET, BYTE_ORDER));
+        builder.append(':');
+        builder.append(threadNames.get(threadId));
+        builder.append(TAGS[buffer.getInt(offset + TAG_OFFSET, BYTE_ORDER)].logStr());
+
+        final int formatId = buffer.getInt(offset + FORMAT_ID_OFFSET, BYTE_ORDER);
+        final CharFormatter formatter = formatId == NO_FORMAT ? null : formatters.get(formatId).clear();
+        final int argCount = buffer.getInt(offset + ARG_COUNT_OFFSET, BYTE_ORDER);
+        int position = offset + ARGS_OFFSET;
+        for (int i = 0; i < argCount; i++)
+        {
+            final byte argType = buffer.getByte(position);
+            position += SIZE_OF_BYTE;
+            if (argType == LONG_ARG)
+            {
+                final long value = buffer.getLong(position, BYTE_ORDER);
+                position += SIZE_OF_LONG;
+                if (formatter == null)
+                {
+                    builder.append(value);
+                }
+                else
+                {
+                    formatter.with(value);
+                }
+            }
+            else
+            {
+                final int length = buffer.getInt(position, BYTE_ORDER);
+                position += SIZE_OF_INT;
+                final byte[] bytes = asciiBytes(buffer, position, length);
+                position += length;
+                if (formatter == null)
+                {
+                    for (int j = 0; j < length; j++)
+                    {
+                        builder.append((char)bytes[j]);
+                    }
+                }
+                else
+                {
+                    formatter.with(bytes, length);
+                }
+            }
+        }
+
+        if (formatter != null)
+        {
+            formatter.appendTo(builder);
+        }
+        output.println(builder);
+    }
+
+    private byte[] asciiBytes(final DirectBuffer buffer, final int offset, final int length)
+    {
+        byte[] bytes = this.bytes;
+        if (bytes.length < length)
+        {
+            bytes = new byte[length];
+            this.bytes = bytes;
+        }
+
+        buffer.getBytes(offset, bytes, 0, length);
+        if (DEBUG_LOGGING_SEPARATOR != DEFAULT_DEBUG_LOGGING_SEPARATOR)
+        {
+            for (int i = 0; i < length; i++)
+            {
+                if (bytes[i] == DEFAULT_DEBUG_LOGGING_SEPARATOR)
+                {
+                    bytes[i] = DEBUG_LOGGING_SEPARATOR;
+                }
+            }
+        }
+        return bytes;
+    }
+}
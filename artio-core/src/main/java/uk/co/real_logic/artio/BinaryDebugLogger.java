@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import uk.co.real_logic.artio.util.CharFormatter;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.agrona.BitUtil.SIZE_OF_BYTE;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static uk.co.real_logic.artio.BinaryDebugLog.*;
+
+/**
+ * Writes the events of a single thread into its {@link BinaryDebugLog} ring buffer. An event is built up with
+ * {@link #start(LogTag, CharFormatter)}, one with() call per argument and then {@link #commit()}.
+ */
+final class BinaryDebugLogger
+{
+    private static final int INITIAL_EVENT_CAPACITY = 1024;
+
+    private final ExpandableArrayBuffer event = new ExpandableArrayBuffer(INITIAL_EVENT_CAPACITY);
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final BinaryDebugLog log;
+    private final RingBuffer ringBuffer;
+    private final int threadId;
+    private final String threadName;
+
+    // Only accessed by the BinaryDebugLog's agent.
+    long reportedDroppedCount = 0;
+
+    private int position;
+    private int argCount;
+
+    BinaryDebugLogger(
+        final BinaryDebugLog log, final RingBuffer ringBuffer, final int threadId, final String threadName)
+    {
+        this.log = log;
+        this.ringBuffer = ringBuffer;
+        this.threadId = threadId;
+        this.threadName = threadName;
+    }
+
+    BinaryDebugLogger start(final LogTag tag)
+    {
+        return start(tag, NO_FORMAT);
+    }
+
+    BinaryDebugLogger start(final LogTag tag, final CharFormatter formatter)
+    {
+        return start(tag, log.formatId(formatter));
+    }
+
+    private BinaryDebugLogger start(final LogTag tag, final int formatId)
+    {
+        final ExpandableArrayBuffer event = this.event;
+        event.putLong(TIMESTAMP_OFFSET, System.currentTimeMillis(), BYTE_ORDER);
+        event.putInt(TAG_OFFSET, tag.ordinal(), BYTE_ORDER);
+        event.putInt(FORMAT_ID_OFFSET, formatId, BYTE_ORDER);
+        position = ARGS_OFFSET;
+        argCount = 0;
+        return this;
+    }
+
+    BinaryDebugLogger with(final long value)
+    {
+        final int position = this.position;
+        event.putByte(position, LONG_ARG);
+        event.putLong(position + SIZE_OF_BYTE, value, BYTE_ORDER);
+        this.position = position + SIZE_OF_BYTE + SIZE_OF_LONG;
+        argCount++;
+        return this;
+    }
+
+    BinaryDebugLogger with(final CharSequence value)
+    {
+        final int length = value.length();
+        final int dataOffset = startAsciiArg(length);
+        final ExpandableArrayBuffer event = this.event;
+        for (int i = 0; i < length; i++)
+        {
+            event.putByte(dataOffset + i, (byte)value.charAt(i));
+        }
+        return this;
+    }
+
+    BinaryDebugLogger with(final DirectBuffer buffer, final int offset, final int length)
+    {
+        event.putBytes(startAsciiArg(length), buffer, offset, length);
+        return this;
+    }
+
+    BinaryDebugLogger with(final ByteBuffer buffer, final int offset, final int length)
+    {
+        event.putBytes(startAsciiArg(length), buffer, offset, length);
+        return this;
+    }
+
+    void commit()
+    {
+        final int length = position;
+        final RingBuffer ringBuffer = this.ringBuffer;
+        event.putInt(ARG_COUNT_OFFSET, argCount, BYTE_ORDER);
+        if (length > ringBuffer.maxMsgLength() || !ringBuffer.write(EVENT_RECORD, event, 0, length))
+        {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    private int startAsciiArg(final int length)
+    {
+        final int position = this.position;
+        event.putByte(position, ASCII_ARG);
+        event.putInt(position + SIZE_OF_BYTE, length, BYTE_ORDER);
+        final int dataOffset = position + SIZE_OF_BYTE + SIZE_OF_INT;
+        this.position = dataOffset + length;
+        argCount++;
+        return dataOffset;
+    }
+
+    RingBuffer ringBuffer()
+    {
+        return ringBuffer;
+    }
+
+    long droppedCount()
+    {
+        return droppedCount.get();
+    }
+
+    int threadId()
+    {
+        return threadId;
+    }
+
+    String threadName()
+    {
+        return threadName;
+    }
+}
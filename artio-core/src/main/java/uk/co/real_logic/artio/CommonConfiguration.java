@@ -103,13 +103,28 @@ public class CommonConfiguration
      */
     public static final String OUTBOUND_MAX_CLAIM_ATTEMPTS_PROPERTY = "fix.core.outbound_max_claims";
     /**
-     * Property name for the flag to enable or disable message timing
+     * Property name for the flag to enable or disable message timing. When enabled the engine and library record
+     * histograms for each stage of the message pipeline, such as the library's trySend to the framer picking the
+     * message up ("Outbound") and the framer picking it up to writing it to the TCP channel ("Send"). These are
+     * logged by the HistogramLogAgent and summarised in p99 and max counters of type
+     * {@link FixCounters.FixCountersId#TIMER_LATENCY_TYPE_ID}. The histograms are shared by all sessions of the
+     * process. Timing is off by default and costs nothing when disabled.
      */
     public static final String TIME_MESSAGES_PROPERTY = "fix.core.timing";
     /**
      * Property name for the file to log debug messages to, default is standard output
      */
     public static final String DEBUG_FILE_PROPERTY = "fix.core.debug.file";
+    /**
+     * Property name for the file to write binary debug log records to. When set, debug logging copies the tag, format
+     * id and raw arguments of each log call into a per-thread ring buffer rather than formatting them, and a
+     * background thread appends the records to this file. Render the file as text with {@link BinaryDebugLogReader}.
+     */
+    public static final String DEBUG_BINARY_FILE_PROPERTY = "fix.core.debug.binary_file";
+    /**
+     * Property name for the capacity, in bytes, of each thread's binary debug log ring buffer. Must be a power of two.
+     */
+    public static final String DEBUG_BINARY_BUFFER_SIZE_PROPERTY = "fix.core.debug.binary_buffer_size";
     /**
      * Property name for the period at which histogram intervals are polled and logged
      */
@@ -229,6 +244,10 @@ public class CommonConfiguration
     }
 
     public static final String DEBUG_FILE = System.getProperty(DEBUG_FILE_PROPERTY);
+    public static final int DEFAULT_DEBUG_BINARY_BUFFER_SIZE = 1024 * 1024;
+    public static final String DEBUG_BINARY_FILE = System.getProperty(DEBUG_BINARY_FILE_PROPERTY);
+    public static final int DEBUG_BINARY_BUFFER_SIZE = Integer.getInteger(
+        DEBUG_BINARY_BUFFER_SIZE_PROPERTY, DEFAULT_DEBUG_BINARY_BUFFER_SIZE);
     public static final boolean TIME_MESSAGES = Boolean.getBoolean(TIME_MESSAGES_PROPERTY);
     public static final boolean FORCE_WRITES = Boolean.getBoolean(FORCE_WRITES_MESSAGES_PROPERTY);
 
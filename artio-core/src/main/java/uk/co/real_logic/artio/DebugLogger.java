@@ -18,6 +18,7 @@ package uk.co.real_logic.artio;
 
 import org.agrona.AsciiSequenceView;
 import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
 import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.AbstractDebugAppender.ThreadLocalAppender;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
@@ -34,11 +35,14 @@ import static uk.co.real_logic.artio.CommonConfiguration.*;
 
 /**
  * A logger purely for debug data. Not optimised for high performance logging, but all logging calls must be removable
- * by the optimiser.
+ * by the optimiser. Setting {@link CommonConfiguration#DEBUG_BINARY_FILE_PROPERTY} switches to the
+ * {@link BinaryDebugLog}, which copies the raw arguments of log calls rather than formatting them.
  */
 public final class DebugLogger
 {
     private static final AbstractDebugAppender APPENDER;
+    private static final BinaryDebugLog BINARY_LOG = DEBUG_PRINT_MESSAGES && DEBUG_BINARY_FILE != null ?
+        BinaryDebugLog.launch(DEBUG_BINARY_FILE, DEBUG_BINARY_BUFFER_SIZE) : null;
     private static final ThreadLocal<ThreadLocalLogger> THREAD_LOCAL = ThreadLocal.withInitial(ThreadLocalLogger::new);
 
     public static final boolean IS_REPLAY_LOG_TAG_ENABLED = isEnabled(LogTag.REPLAY);
@@ -84,8 +88,15 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            formatter.clear().with(value);
-            THREAD_LOCAL.get().log(tag, formatter, buffer, offset, length);
+            if (BINARY_LOG != null)
+            {
+                binaryLogger(tag, formatter).with(value).with(buffer, offset, length).commit();
+            }
+            else
+            {
+                formatter.clear().with(value);
+                THREAD_LOCAL.get().log(tag, formatter, buffer, offset, length);
+            }
         }
     }
 
@@ -100,8 +111,15 @@ public final class DebugLogger
     {
         if (isEnabled(tag) && isEnabled(messageType))
         {
-            formatter.clear().with(value);
-            THREAD_LOCAL.get().log(tag, formatter, buffer, offset, length);
+            if (BINARY_LOG != null)
+            {
+                binaryLogger(tag, formatter).with(value).with(buffer, offset, length).commit();
+            }
+            else
+            {
+                formatter.clear().with(value);
+                THREAD_LOCAL.get().log(tag, formatter, buffer, offset, length);
+            }
         }
     }
 
@@ -116,8 +134,15 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            formatter.clear().with(first).with(second);
-            THREAD_LOCAL.get().log(tag, formatter, buffer, offset, length);
+            if (BINARY_LOG != null)
+            {
+                binaryLogger(tag, formatter).with(first).with(second).with(buffer, offset, length).commit();
+            }
+            else
+            {
+                formatter.clear().with(first).with(second);
+                THREAD_LOCAL.get().log(tag, formatter, buffer, offset, length);
+            }
         }
     }
 
@@ -623,8 +648,15 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            formatter.clear().with(first).with(second);
-            THREAD_LOCAL.get().log(tag, formatter);
+            if (BINARY_LOG != null)
+            {
+                binaryLogger(tag, formatter).with(first).with(second).commit();
+            }
+            else
+            {
+                formatter.clear().with(first).with(second);
+                THREAD_LOCAL.get().log(tag, formatter);
+            }
         }
     }
 
@@ -635,8 +667,15 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            formatter.clear().with(first);
-            THREAD_LOCAL.get().log(tag, formatter);
+            if (BINARY_LOG != null)
+            {
+                binaryLogger(tag, formatter).with(first).commit();
+            }
+            else
+            {
+                formatter.clear().with(first);
+                THREAD_LOCAL.get().log(tag, formatter);
+            }
         }
     }
 
@@ -648,8 +687,15 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            formatter.clear().with(first).with(second);
-            THREAD_LOCAL.get().log(tag, formatter);
+            if (BINARY_LOG != null)
+            {
+                binaryLogger(tag, formatter).with(first).with(second).commit();
+            }
+            else
+            {
+                formatter.clear().with(first).with(second);
+                THREAD_LOCAL.get().log(tag, formatter);
+            }
         }
     }
 
@@ -662,8 +708,15 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            formatter.clear().with(first).with(second).with(third);
-            THREAD_LOCAL.get().log(tag, formatter);
+            if (BINARY_LOG != null)
+            {
+                binaryLogger(tag, formatter).with(first).with(second).with(third).commit();
+            }
+            else
+            {
+                formatter.clear().with(first).with(second).with(third);
+                THREAD_LOCAL.get().log(tag, formatter);
+            }
         }
     }
 
@@ -676,8 +729,15 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            formatter.clear().with(first).with(second).with(third);
-            THREAD_LOCAL.get().log(tag, formatter);
+            if (BINARY_LOG != null)
+            {
+                binaryLogger(tag, formatter).with(first).with(second).with(third).commit();
+            }
+            else
+            {
+                formatter.clear().with(first).with(second).with(third);
+                THREAD_LOCAL.get().log(tag, formatter);
+            }
         }
     }
 
@@ -690,8 +750,15 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            formatter.clear().with(first).with(second).with(third);
-            THREAD_LOCAL.get().log(tag, formatter);
+            if (BINARY_LOG != null)
+            {
+                binaryLogger(tag, formatter).with(first).with(second).with(third).commit();
+            }
+            else
+            {
+                formatter.clear().with(first).with(second).with(third);
+                THREAD_LOCAL.get().log(tag, formatter);
+            }
         }
     }
 
@@ -705,8 +772,15 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            formatter.clear().with(first).with(second).with(third).with(fourth);
-            THREAD_LOCAL.get().log(tag, formatter);
+            if (BINARY_LOG != null)
+            {
+                binaryLogger(tag, formatter).with(first).with(second).with(third).with(fourth).commit();
+            }
+            else
+            {
+                formatter.clear().with(first).with(second).with(third).with(fourth);
+                THREAD_LOCAL.get().log(tag, formatter);
+            }
         }
     }
 
@@ -720,8 +794,15 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            formatter.clear().with(first).with(second).with(third).with(fourth);
-            THREAD_LOCAL.get().log(tag, formatter);
+            if (BINARY_LOG != null)
+            {
+                binaryLogger(tag, formatter).with(first).with(second).with(third).with(fourth).commit();
+            }
+            else
+            {
+                formatter.clear().with(first).with(second).with(third).with(fourth);
+                THREAD_LOCAL.get().log(tag, formatter);
+            }
         }
     }
 
@@ -749,6 +830,27 @@ public final class DebugLogger
         }
     }
 
+    private static BinaryDebugLogger binaryLogger(final LogTag tag, final CharFormatter formatter)
+    {
+        return THREAD_LOCAL.get().binaryLogger.start(tag, formatter);
+    }
+
+    static void onGatewayStart(final ErrorHandler errorHandler, final FixCounters fixCounters)
+    {
+        if (BINARY_LOG != null)
+        {
+            BINARY_LOG.gatewayErrorHandler(errorHandler, fixCounters::binaryDebugLogErrors);
+        }
+    }
+
+    static void onGatewayClose(final ErrorHandler errorHandler)
+    {
+        if (BINARY_LOG != null)
+        {
+            BINARY_LOG.removeGatewayErrorHandler(errorHandler);
+        }
+    }
+
     static String threadName()
     {
         return Thread.currentThread().getName();
@@ -844,6 +946,7 @@ public final class DebugLogger
         private final AsciiSequenceView asciiView = new AsciiSequenceView();
         private final UnsafeBuffer buffer = new UnsafeBuffer(bytes);
         private final ThreadLocalAppender appender;
+        private final BinaryDebugLogger binaryLogger;
 
         final boolean isThreadEnabled;
 
@@ -851,7 +954,8 @@ public final class DebugLogger
         {
             final String threadName = threadName();
             isThreadEnabled = DEBUG_PRINT_THREAD == null || DEBUG_PRINT_THREAD.equals(threadName);
-            appender = APPENDER.makeLocalAppender();
+            binaryLogger = BINARY_LOG == null ? null : BINARY_LOG.newLogger(threadName);
+            appender = binaryLogger == null ? APPENDER.makeLocalAppender() : null;
         }
 
         public void logSbeMessage(final LogTag tag, final StartReplayEncoder encoder)
@@ -1412,6 +1516,14 @@ public final class DebugLogger
 
         public void log(final LogTag tag, final String prefixString, final ByteBuffer byteBuffer, final int length)
         {
+            if (binaryLogger != null)
+            {
+                final int position = byteBuffer.position();
+                binaryLogger.start(tag).with(prefixString).with(byteBuffer, position, length).commit();
+                ByteBufferUtil.position(byteBuffer, position + length);
+                return;
+            }
+
             final byte[] data = getByteArray(length);
             byteBuffer.get(data, 0, length);
             substituteSeparator(data);
@@ -1477,6 +1589,12 @@ public final class DebugLogger
         public void log(
             final LogTag tag, final String message)
         {
+            if (binaryLogger != null)
+            {
+                binaryLogger.start(tag).with(message).commit();
+                return;
+            }
+
             appendStart();
             builder.append(message);
             finish(tag);
@@ -1485,6 +1603,12 @@ public final class DebugLogger
         public void log(
             final LogTag tag, final String prefixString, final DirectBuffer buffer, final int offset, final int length)
         {
+            if (binaryLogger != null)
+            {
+                binaryLogger.start(tag).with(prefixString).with(buffer, offset, length).commit();
+                return;
+            }
+
             appendStart();
             builder.append(prefixString);
 
@@ -1525,6 +1649,12 @@ public final class DebugLogger
             final String prefixString,
             final String suffixString)
         {
+            if (binaryLogger != null)
+            {
+                binaryLogger.start(tag).with(prefixString).with(suffixString).commit();
+                return;
+            }
+
             appendStart();
             final StringBuilder builder = this.builder;
             builder.append(prefixString);
@@ -1544,8 +1674,16 @@ public final class DebugLogger
         private void finish(final LogTag tag)
         {
             final StringBuilder builder = this.builder;
-            builder.append(System.lineSeparator());
-            appender.log(tag, builder);
+            if (binaryLogger != null)
+            {
+                // Messages without a binary encoding are formatted as before, but still kept off the logging thread.
+                binaryLogger.start(tag).with(builder).commit();
+            }
+            else
+            {
+                builder.append(System.lineSeparator());
+                appender.log(tag, builder);
+            }
         }
     }
 }
@@ -47,7 +47,10 @@ public class FixCounters implements AutoCloseable
         CURRENT_REPLAY_COUNT_TYPE_ID(10_008),
         NEGATIVE_TIMESTAMP_TYPE_ID(10_009),
         FAILED_ADMIN_TYPE_ID(10_010),
-        FAILED_ADMIN_REPLY_TYPE_ID(10_011);
+        FAILED_ADMIN_REPLY_TYPE_ID(10_011),
+        TIMER_LATENCY_TYPE_ID(10_012),
+        INDEX_CATCHUP_TYPE_ID(10_013),
+        DEBUG_LOG_ERRORS_TYPE_ID(10_014);
 
         final int id;
 
@@ -70,6 +73,7 @@ public class FixCounters implements AutoCloseable
     private final AtomicCounter currentReplayCount;
     private final AtomicCounter negativeTimestamps;
     private final Aeron aeron;
+    private final int libraryId;
 
     public static IntHashSet lookupCounterIds(
         final FixCountersId counterTypeId, final CountersReader countersReader)
@@ -95,6 +99,7 @@ public class FixCounters implements AutoCloseable
     FixCounters(final Aeron aeron, final boolean isEngine, final int libraryId)
     {
         this.aeron = aeron;
+        this.libraryId = libraryId;
         aeron.addUnavailableCounterHandler((countersReader, registrationId, counterId) ->
             counters.removeIf(counter -> counter.id() == counterId));
         failedInboundPublications = newCounter(FAILED_INBOUND_TYPE_ID.id(),
@@ -149,6 +154,23 @@ public class FixCounters implements AutoCloseable
         return negativeTimestamps;
     }
 
+    // Summarises a latency timer's histogram, such as its p99, each time that the histograms are logged
+    public AtomicCounter timerLatency(final String timerName, final String statistic)
+    {
+        return newCounter(TIMER_LATENCY_TYPE_ID.id(),
+            timerName + " " + statistic + " latency in ns " + libraryId);
+    }
+
+    public AtomicCounter indexCatchup(final String statistic)
+    {
+        return newCounter(FixCountersId.INDEX_CATCHUP_TYPE_ID.id(), "Index catchup remaining " + statistic);
+    }
+
+    public AtomicCounter binaryDebugLogErrors()
+    {
+        return newCounter(FixCountersId.DEBUG_LOG_ERRORS_TYPE_ID.id(), "Binary debug log errors " + libraryId);
+    }
+
     public AtomicCounter messagesRead(final long connectionId, final String address)
     {
         return newCounter(FixCountersId.MESSAGES_READ_TYPE_ID.id(),
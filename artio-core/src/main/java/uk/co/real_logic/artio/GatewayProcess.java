@@ -81,6 +81,7 @@ public abstract class GatewayProcess implements AutoCloseable
         aeron = Aeron.connect(context);
         CloseChecker.onOpen(context.aeronDirectoryName(), aeron);
         fixCounters = new FixCounters(aeron, this instanceof FixEngine, libraryId);
+        DebugLogger.onGatewayStart(errorHandler, fixCounters);
     }
 
     protected Aeron.Context configureAeronContext(final CommonConfiguration configuration)
@@ -112,6 +113,13 @@ public abstract class GatewayProcess implements AutoCloseable
         final List<Agent> agents = new ArrayList<>();
         if (TIME_MESSAGES)
         {
+            for (final Timer timer : timers)
+            {
+                timer.summaryCounters(
+                    fixCounters.timerLatency(timer.name(), "p99"),
+                    fixCounters.timerLatency(timer.name(), "max"));
+            }
+
             agents.add(new HistogramLogAgent(
                 timers,
                 configuration.histogramLoggingFile(),
@@ -145,6 +153,7 @@ public abstract class GatewayProcess implements AutoCloseable
 
     public void close()
     {
+        DebugLogger.onGatewayClose(errorHandler);
         closeAll(
             fixCounters,
             () ->
@@ -21,7 +21,6 @@ import org.agrona.concurrent.AtomicBuffer;
 import java.nio.ByteBuffer;
 import java.util.zip.CRC32;
 
-// TODO: optimisation: write and checksum only needed bytes
 public class ChecksumFramer extends SectorFramer
 {
     private final CRC32 crc32 = new CRC32();
@@ -32,6 +31,8 @@ public class ChecksumFramer extends SectorFramer
     private final ChecksumConsumer validateChecksumFunc;
     private final String fileName;
     private final boolean indexChecksumEnabled;
+    private final ChecksumConsumer checkChecksumFunc;
+    private boolean validChecksum;
 
     public ChecksumFramer(
         final AtomicBuffer buffer,
@@ -49,13 +50,15 @@ public class ChecksumFramer extends SectorFramer
         this.fileName = fileName;
         this.indexChecksumEnabled = indexChecksumEnabled;
         validateChecksumFunc = this::validateChecksum;
+        checkChecksumFunc = (checksumOffset, calculatedChecksum) ->
+            validChecksum = buffer.getInt(checksumOffset) == calculatedChecksum;
     }
 
     public void validateCheckSums()
     {
         if (indexChecksumEnabled)
         {
-            withChecksums(validateChecksumFunc);
+            withChecksums(validateChecksumFunc, 0, capacity);
         }
     }
 
@@ -63,10 +66,41 @@ public class ChecksumFramer extends SectorFramer
     {
         if (indexChecksumEnabled)
         {
-            withChecksums(saveChecksumFunc);
+            withChecksums(saveChecksumFunc, 0, capacity);
         }
     }
 
+    /**
+     * Update the checksums of the sectors between start and end.
+     *
+     * @param start the sector aligned start offset.
+     * @param end the sector aligned end offset, exclusive.
+     */
+    public void updateChecksums(final int start, final int end)
+    {
+        if (indexChecksumEnabled)
+        {
+            withChecksums(saveChecksumFunc, start, Math.min(end, capacity));
+        }
+    }
+
+    /**
+     * Check the checksum of a single sector without reporting an error if it's invalid.
+     *
+     * @param sectorStart the sector aligned start offset.
+     * @return true if the sector's checksum is valid or checksums are disabled, false otherwise.
+     */
+    public boolean hasValidChecksum(final int sectorStart)
+    {
+        if (indexChecksumEnabled)
+        {
+            withChecksums(checkChecksumFunc, sectorStart, sectorStart + SECTOR_SIZE);
+            return validChecksum;
+        }
+
+        return true;
+    }
+
     private void validateChecksum(final int checksumOffset, final int calculatedChecksum)
     {
         final int savedChecksum = buffer.getInt(checksumOffset);
@@ -75,14 +109,13 @@ public class ChecksumFramer extends SectorFramer
         validateCheckSum(fileName, start, end, savedChecksum, calculatedChecksum, errorHandler);
     }
 
-    private void withChecksums(final ChecksumConsumer consumer)
+    private void withChecksums(final ChecksumConsumer consumer, final int start, final int end)
     {
         final byte[] inMemoryBytes = buffer.byteArray();
         final ByteBuffer inMemoryByteBuffer = buffer.byteBuffer();
         final int wrapAdjustment = buffer.wrapAdjustment();
-        final int capacity = this.capacity;
 
-        for (int sectorEnd = SECTOR_SIZE; sectorEnd <= capacity; sectorEnd += SECTOR_SIZE)
+        for (int sectorEnd = start + SECTOR_SIZE; sectorEnd <= end; sectorEnd += SECTOR_SIZE)
         {
             final int sectorStart = sectorEnd - SECTOR_SIZE + wrapAdjustment;
             final int checksumOffset = sectorEnd - CHECKSUM_SIZE;
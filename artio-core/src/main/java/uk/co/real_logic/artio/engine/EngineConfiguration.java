@@ -35,6 +35,7 @@ import uk.co.real_logic.artio.decoder.AbstractLogonDecoder;
 import uk.co.real_logic.artio.dictionary.FixDictionary;
 import uk.co.real_logic.artio.dictionary.SessionConstants;
 import uk.co.real_logic.artio.engine.framer.DefaultTcpChannelSupplier;
+import uk.co.real_logic.artio.engine.framer.FixContexts;
 import uk.co.real_logic.artio.engine.framer.TcpChannelSupplier;
 import uk.co.real_logic.artio.engine.logger.FixArchiveScanner;
 import uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor;
@@ -99,6 +100,17 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      */
     public static final String REPLAY_INDEX_RECORD_CAPACITY_PROP = "logging.index.records";
 
+    /**
+     * Property name for storing the replay indices of all sessions in shared files rather than files per session
+     */
+    public static final String REPLAY_INDEX_STORE_ENABLED_PROP = "logging.index.store.enabled";
+
+    /**
+     * Property name for enabling the scan index, used to narrow down {@link FixArchiveScanner} queries by session or
+     * message type
+     */
+    public static final String SCAN_INDEX_ENABLED_PROP = "logging.index.scan.enabled";
+
     /**
      * Property name for enabling or disabling checksum calculation for index files
      */
@@ -137,6 +149,31 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the max number of bytes to read from all TCP Connections.
      */
     public static final String INBOUND_BYTES_RECEIVED_LIMIT_PROP = "fix.core.inbound_bytes_limit";
+    /**
+     * Property name for whether the Framer batches the outbound messages for each TCP connection.
+     */
+    public static final String OUTBOUND_BATCHING_ENABLED_PROP = "fix.core.outbound_batching";
+    /**
+     * Property name for the size in bytes of each session's cache of recently sent messages, 0 disables the cache.
+     */
+    public static final String RESEND_CACHE_CAPACITY_PROP = "fix.core.resend_cache_capacity";
+    /**
+     * Property name for the maximum age in milliseconds of messages in the resend cache.
+     */
+    public static final String RESEND_CACHE_MAX_AGE_IN_MS_PROP = "fix.core.resend_cache_max_age_in_ms";
+    /**
+     * Property name for whether the session contexts are indexed off-heap rather than all being loaded on startup.
+     */
+    public static final String SESSION_CONTEXTS_OFF_HEAP_PROP = "fix.core.session_contexts_off_heap";
+    /**
+     * Property name for whether engine managed sessions are polled by their deadlines rather than every duty cycle.
+     */
+    public static final String SESSION_TIMER_WHEEL_PROP = "fix.engine.session_timer_wheel";
+    /**
+     * Property name for the maximum number of recordings replayed at the same time when catching up indices on start.
+     */
+    public static final String INDEX_CATCHUP_MAX_CONCURRENT_REPLAYS_PROP =
+        "fix.core.index_catchup_max_concurrent_replays";
     /**
      * Property name for the size in bytes of the receiver end point's framing buffer.
      */
@@ -153,6 +190,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the size in bytes of the sequence number cache file
      */
     public static final String SEQUENCE_NUMBER_INDEX_SIZE_PROP = "fix.core.sequence_number_cache_size";
+    /**
+     * Property name for enabling incremental, dirty sector only, flushing of the sequence number cache files
+     */
+    public static final String SEQUENCE_NUMBER_INDEX_INCREMENTAL_FLUSH_PROP =
+        "fix.core.sequence_number_cache_incremental_flush";
     /**
      * Property name for the size in bytes of the session id file
      */
@@ -173,12 +215,21 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final String DEFAULT_LOG_FILE_DIR = "logs";
     public static final int DEFAULT_REPLAY_INDEX_RECORD_CAPACITY = 262144;
     public static final int DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY = 65536;
+    public static final boolean DEFAULT_REPLAY_INDEX_STORE_ENABLED = false;
+    public static final boolean DEFAULT_SCAN_INDEX_ENABLED = false;
+    public static final int DEFAULT_SCAN_INDEX_BLOCK_SIZE_IN_BYTES = 64 * 1024;
     public static final int DEFAULT_LOGGER_CACHE_NUM_SETS = 8;
     public static final int DEFAULT_LOGGER_CACHE_SET_SIZE = 4;
 
     public static final int DEFAULT_OUTBOUND_LIBRARY_FRAGMENT_LIMIT = 20;
     public static final int DEFAULT_REPLAY_FRAGMENT_LIMIT = 5;
     public static final int DEFAULT_INBOUND_BYTES_RECEIVED_LIMIT = 8 * 1024;
+    public static final boolean DEFAULT_OUTBOUND_BATCHING_ENABLED = false;
+    public static final int DEFAULT_RESEND_CACHE_CAPACITY = 0;
+    public static final boolean DEFAULT_SESSION_CONTEXTS_OFF_HEAP = false;
+    public static final boolean DEFAULT_SESSION_TIMER_WHEEL = false;
+    public static final long DEFAULT_RESEND_CACHE_MAX_AGE_IN_MS = 60_000;
+    public static final int DEFAULT_INDEX_CATCHUP_MAX_CONCURRENT_REPLAYS = 4;
     public static final int DEFAULT_RECEIVER_BUFFER_SIZE = 16 * 1024;
     public static final int DEFAULT_RECEIVER_SOCKET_BUFFER_SIZE = 1024 * 1024;
     public static final int DEFAULT_SENDER_SOCKET_BUFFER_SIZE = 1024 * 1024;
@@ -189,6 +240,7 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final int DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT_IN_MS = (int)SECONDS.toMillis(5);
     public static final String DEFAULT_SESSION_ID_FILE = "session_id_buffer";
     public static final String DEFAULT_FIXP_ID_FILE = "fixp_id_buffer";
+    public static final String DEFAULT_SESSION_ID_INDEX_FILE = "session_id_index";
     public static final String DEFAULT_SEQUENCE_NUMBERS_SENT_FILE = "sequence_numbers_sent";
     public static final String DEFAULT_SEQUENCE_NUMBERS_RECEIVED_FILE = "sequence_numbers_received";
     public static final long DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS = 10_000;
@@ -209,6 +261,7 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final long DEFAULT_DUPLICATE_ENGINE_TIMEOUT_IN_MS = SECONDS.toMillis(10);
     public static final int NO_THROTTLE_WINDOW = MISSING_INT;
     public static final boolean DEFAULT_INDEX_CHECKSUM_ENABLED = true;
+    public static final boolean DEFAULT_SEQUENCE_NUMBER_INDEX_INCREMENTAL_FLUSH = false;
 
     public static final long MAX_COD_TIMEOUT_IN_NS = 60_000_000_000L;
     public static final long MAX_COD_TIMEOUT_IN_MS = 60_000L;
@@ -241,6 +294,10 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private int replayIndexFileRecordCapacity = getInteger(
         REPLAY_INDEX_RECORD_CAPACITY_PROP, DEFAULT_REPLAY_INDEX_RECORD_CAPACITY);
     private int replayIndexSegmentRecordCapacity = DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY;
+    private boolean replayIndexStoreEnabled = getBoolean(
+        REPLAY_INDEX_STORE_ENABLED_PROP, DEFAULT_REPLAY_INDEX_STORE_ENABLED);
+    private boolean scanIndexEnabled = getBoolean(SCAN_INDEX_ENABLED_PROP, DEFAULT_SCAN_INDEX_ENABLED);
+    private int scanIndexBlockSizeInBytes = DEFAULT_SCAN_INDEX_BLOCK_SIZE_IN_BYTES;
     private String logFileDir = getProperty(LOG_FILE_DIR_PROP, DEFAULT_LOG_FILE_DIR);
     private int loggerCacheNumSets = DEFAULT_LOGGER_CACHE_NUM_SETS;
     private int loggerCacheSetSize = DEFAULT_LOGGER_CACHE_SET_SIZE;
@@ -249,11 +306,14 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private boolean printStartupWarnings = true;
     private IdleStrategy framerIdleStrategy = backoffIdleStrategy();
     private IdleStrategy archiverIdleStrategy = backoffIdleStrategy();
+    private IdleStrategy inboundIndexerIdleStrategy = backoffIdleStrategy();
+    private IdleStrategy outboundIndexerIdleStrategy = backoffIdleStrategy();
     private AtomicBuffer sentSequenceNumberBuffer;
     private AtomicBuffer receivedSequenceNumberBuffer;
     private MappedFile sentSequenceNumberIndex;
     private MappedFile receivedSequenceNumberIndex;
     private MappedFile sessionIdBuffer;
+    private MappedFile sessionIdIndexBuffer;
     private MappedFile fixPBuffer;
     private Set<String> gapfillOnReplayMessageTypes = new HashSet<>(DEFAULT_GAPFILL_ON_REPLAY_MESSAGE_TYPES);
     private IntHashSet gapfillOnRetransmitILinkTemplateIds = new IntHashSet();
@@ -267,6 +327,17 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         getInteger(REPLAY_FRAGMENT_LIMIT_PROP, DEFAULT_REPLAY_FRAGMENT_LIMIT);
     private int inboundBytesReceivedLimit =
         getInteger(INBOUND_BYTES_RECEIVED_LIMIT_PROP, DEFAULT_INBOUND_BYTES_RECEIVED_LIMIT);
+    private boolean outboundBatchingEnabled =
+        getBoolean(OUTBOUND_BATCHING_ENABLED_PROP, DEFAULT_OUTBOUND_BATCHING_ENABLED);
+    private int resendCacheCapacity =
+        getInteger(RESEND_CACHE_CAPACITY_PROP, DEFAULT_RESEND_CACHE_CAPACITY);
+    private long resendCacheMaxAgeInMs =
+        Long.getLong(RESEND_CACHE_MAX_AGE_IN_MS_PROP, DEFAULT_RESEND_CACHE_MAX_AGE_IN_MS);
+    private boolean sessionContextsOffHeap =
+        getBoolean(SESSION_CONTEXTS_OFF_HEAP_PROP, DEFAULT_SESSION_CONTEXTS_OFF_HEAP);
+    private boolean sessionTimerWheelEnabled = getBoolean(SESSION_TIMER_WHEEL_PROP, DEFAULT_SESSION_TIMER_WHEEL);
+    private int indexCatchupMaxConcurrentReplays =
+        getInteger(INDEX_CATCHUP_MAX_CONCURRENT_REPLAYS_PROP, DEFAULT_INDEX_CATCHUP_MAX_CONCURRENT_REPLAYS);
     private int receiverBufferSize =
         getInteger(RECEIVER_BUFFER_SIZE_PROP, DEFAULT_RECEIVER_BUFFER_SIZE);
     private int receiverSocketBufferSize =
@@ -282,6 +353,8 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private int noLogonDisconnectTimeoutInMs =
         getInteger(NO_LOGON_DISCONNECT_TIMEOUT_PROP, DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT_IN_MS);
     private boolean indexChecksumEnabled = getBoolean(INDEX_CHECKSUM_ENABLED_PROP, DEFAULT_INDEX_CHECKSUM_ENABLED);
+    private boolean sequenceNumberIndexIncrementalFlush = getBoolean(
+        SEQUENCE_NUMBER_INDEX_INCREMENTAL_FLUSH_PROP, DEFAULT_SEQUENCE_NUMBER_INDEX_INCREMENTAL_FLUSH);
 
     private String libraryAeronChannel = null;
     private Function<EngineConfiguration, TcpChannelSupplier> channelSupplierFactory = DefaultTcpChannelSupplier::new;
@@ -488,6 +561,25 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Stores the replay indices of all FIX sessions on a stream in a small number of large shared files, rather than
+     * a header file and up to {@link #replayIndexFileRecordCapacity(int)} /
+     * {@link #replayIndexSegmentRecordCapacity(int)} segment files per session. Each session's index retains the same
+     * capacity, but its segments are allocated from the shared files when first written to, so the number of files
+     * and memory mappings no longer grows with the number of sessions. This is recommended for engines with many
+     * thousands of sessions, where the per session files can exhaust file descriptor and memory map count limits.
+     *
+     * Existing per session index files aren't migrated, so this should be enabled on a fresh log file directory.
+     *
+     * @param replayIndexStoreEnabled true to store replay indices in shared files, false for files per session.
+     * @return this
+     */
+    public EngineConfiguration replayIndexStoreEnabled(final boolean replayIndexStoreEnabled)
+    {
+        this.replayIndexStoreEnabled = replayIndexStoreEnabled;
+        return this;
+    }
+
     /**
      * Convert the number of records in a replay index file to a file size. Note: because replay index file sizes must
      * be a power of two this method can return a file size greater than the requested number of records but never less.
@@ -602,6 +694,35 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the idle strategy for the inbound indexer thread. Only used when the scheduler runs the indexers and
+     * the replayer on their own threads, otherwise they share the {@link #archiverIdleStrategy(IdleStrategy)}.
+     *
+     * @param inboundIndexerIdleStrategy the idle strategy for the inbound indexer thread.
+     * @return this
+     * @see SplitArchivingEngineScheduler
+     */
+    public EngineConfiguration inboundIndexerIdleStrategy(final IdleStrategy inboundIndexerIdleStrategy)
+    {
+        this.inboundIndexerIdleStrategy = inboundIndexerIdleStrategy;
+        return this;
+    }
+
+    /**
+     * Sets the idle strategy for the outbound indexer thread. Only used when the scheduler runs the indexers and
+     * the replayer on their own threads, otherwise they share the {@link #archiverIdleStrategy(IdleStrategy)}. The
+     * replayer always uses the archiver idle strategy.
+     *
+     * @param outboundIndexerIdleStrategy the idle strategy for the outbound indexer thread.
+     * @return this
+     * @see SplitArchivingEngineScheduler
+     */
+    public EngineConfiguration outboundIndexerIdleStrategy(final IdleStrategy outboundIndexerIdleStrategy)
+    {
+        this.outboundIndexerIdleStrategy = outboundIndexerIdleStrategy;
+        return this;
+    }
+
     /**
      * Sets the fragment limit for the subscription to outbound messages from libraries.
      *
@@ -641,6 +762,24 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets whether the Framer batches the outbound messages for each TCP connection. When enabled the messages that
+     * are polled from the library subscription in a single duty cycle are staged for each connection and written
+     * with one write call per connection, rather than one per message. This reduces the number of system calls when
+     * libraries send bursts of messages on the same session.
+     *
+     * Batching isn't used when writing or running a reproduction log.
+     *
+     * @param outboundBatchingEnabled true to batch outbound messages, false to write each message individually.
+     * @return this
+     * @see EngineConfiguration#OUTBOUND_BATCHING_ENABLED_PROP
+     */
+    public EngineConfiguration outboundBatchingEnabled(final boolean outboundBatchingEnabled)
+    {
+        this.outboundBatchingEnabled = outboundBatchingEnabled;
+        return this;
+    }
+
     public EngineConfiguration senderMaxBytesInBuffer(final int senderMaxBytesInBuffer)
     {
         this.senderMaxBytesInBuffer = senderMaxBytesInBuffer;
@@ -1046,6 +1185,86 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the size of each session's cache of recently sent messages. Resend requests whose range is completely
+     * held in the cache are replayed from memory rather than by starting a replay from the archive, which is the
+     * common case when the counterparty has only missed the last few messages. The cache is off-heap and allocated
+     * for each session once it sends a message, so the total memory used is this multiplied by the number of
+     * sessions. Requires outbound messages to be logged.
+     *
+     * @param resendCacheCapacity the size in bytes of each session's cache, 0 disables the cache.
+     * @return this
+     * @see EngineConfiguration#RESEND_CACHE_CAPACITY_PROP
+     */
+    public EngineConfiguration resendCacheCapacity(final int resendCacheCapacity)
+    {
+        this.resendCacheCapacity = resendCacheCapacity;
+        return this;
+    }
+
+    /**
+     * Sets whether the session contexts are indexed off-heap. By default the engine loads an object for every session
+     * in the session id file on startup. When this is enabled the file is indexed by composite key and session id
+     * in off-heap tables and the objects are only loaded for sessions that are logged on, which reduces the heap
+     * size and startup time when there are millions of sessions. Offline sessions are loaded from the file when
+     * they're looked up and {@link FixEngine#allSessions()} returns a snapshot rather than a live list.
+     *
+     * The index is saved in the {@link #DEFAULT_SESSION_ID_INDEX_FILE} of the log file directory, so on startup only
+     * the sessions added since the engine last ran are read from the session id file.
+     *
+     * @param sessionContextsOffHeap true to index the session contexts off-heap, false otherwise.
+     * @return this
+     * @see EngineConfiguration#SESSION_CONTEXTS_OFF_HEAP_PROP
+     */
+    public EngineConfiguration sessionContextsOffHeap(final boolean sessionContextsOffHeap)
+    {
+        this.sessionContextsOffHeap = sessionContextsOffHeap;
+        return this;
+    }
+
+    /**
+     * Sets whether sessions managed by the engine are polled only when their heartbeat, test request or logout
+     * deadlines are due, using a timer wheel, rather than polling every session on every duty cycle. Connections that
+     * haven't logged on yet are only checked until their no logon or authentication timeout no longer applies.
+     *
+     * @param sessionTimerWheelEnabled true to poll sessions by their deadlines, false to poll them every duty cycle.
+     * @return this
+     * @see EngineConfiguration#SESSION_TIMER_WHEEL_PROP
+     * @see uk.co.real_logic.artio.library.LibraryConfiguration#sessionTimerWheelEnabled(boolean)
+     */
+    public EngineConfiguration sessionTimerWheelEnabled(final boolean sessionTimerWheelEnabled)
+    {
+        this.sessionTimerWheelEnabled = sessionTimerWheelEnabled;
+        return this;
+    }
+
+    /**
+     * Sets the maximum age of messages in the resend cache, older messages are replayed from the archive.
+     *
+     * @param resendCacheMaxAgeInMs the maximum age in milliseconds of messages in the resend cache.
+     * @return this
+     * @see EngineConfiguration#RESEND_CACHE_MAX_AGE_IN_MS_PROP
+     */
+    public EngineConfiguration resendCacheMaxAgeInMs(final long resendCacheMaxAgeInMs)
+    {
+        this.resendCacheMaxAgeInMs = resendCacheMaxAgeInMs;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of recordings that are replayed at the same time when indices are caught up with the
+     * archive on start. Indices that need the same recording always share a single replay of it.
+     *
+     * @param indexCatchupMaxConcurrentReplays the maximum number of concurrent replays, at least 1.
+     * @return this
+     * @see EngineConfiguration#INDEX_CATCHUP_MAX_CONCURRENT_REPLAYS_PROP
+     */
+    public EngineConfiguration indexCatchupMaxConcurrentReplays(final int indexCatchupMaxConcurrentReplays)
+    {
+        this.indexCatchupMaxConcurrentReplays = indexCatchupMaxConcurrentReplays;
+        return this;
+    }
+
     /**
      * Sets the initial sequenceIndex for the new session.
      * Doesnt affects existing session.
@@ -1168,6 +1387,39 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Enables the scan index, used for optimizing {@link FixArchiveScanner} queries that filter by
+     * {@link uk.co.real_logic.artio.engine.logger.FixMessagePredicates#sessionOf(long)} or
+     * {@link uk.co.real_logic.artio.engine.logger.FixMessagePredicates#messageTypeOf(String...)}. The index records
+     * the sessions and message types within each block of the archive so that the scan only replays the blocks
+     * that could match. Parts of the archive written whilst the index was disabled are always scanned.
+     *
+     * @param scanIndexEnabled true to write the scan index, false otherwise.
+     * @return this
+     * @see EngineConfiguration#SCAN_INDEX_ENABLED_PROP
+     */
+    public EngineConfiguration scanIndexEnabled(final boolean scanIndexEnabled)
+    {
+        this.scanIndexEnabled = scanIndexEnabled;
+        return this;
+    }
+
+    /**
+     * Sets the approximate size of the archive blocks summarised by each scan index entry.
+     *
+     * Larger blocks reduce scan index disk space consumption, smaller blocks let selective scans skip more of the
+     * archive.
+     *
+     * @param scanIndexBlockSizeInBytes the size of archive covered by each scan index entry.
+     * @return this
+     * @see EngineConfiguration#scanIndexEnabled(boolean)
+     */
+    public EngineConfiguration scanIndexBlockSizeInBytes(final int scanIndexBlockSizeInBytes)
+    {
+        this.scanIndexBlockSizeInBytes = scanIndexBlockSizeInBytes;
+        return this;
+    }
+
     /**
      * Allows disabling of the checksum calculation and validation of index files. Note: this does not affect the
      * checksum calculation for AeronArchiver - only artio itself.
@@ -1181,6 +1433,25 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Enables incremental flushing of the sequence number index files. By default, every flush of the index copies
+     * the whole in memory index into a second file, forces it and then swaps the files with atomic renames. When this
+     * is enabled only the sectors that have changed since the previous flush are written and forced, in place, so
+     * the cost of a flush scales with the number of sessions that have been updated rather than the size of the index.
+     *
+     * The changed sectors are written and forced to the second file before the index file, so a sector torn by a
+     * crash is detected by its checksum and recovered from the other file on restart. This requires
+     * {@link #indexChecksumEnabled(boolean)}.
+     *
+     * @param sequenceNumberIndexIncrementalFlush true to enable, false to disable
+     * @return this
+     */
+    public EngineConfiguration sequenceNumberIndexIncrementalFlush(final boolean sequenceNumberIndexIncrementalFlush)
+    {
+        this.sequenceNumberIndexIncrementalFlush = sequenceNumberIndexIncrementalFlush;
+        return this;
+    }
+
     /**
      * Sets the message handler for outbound messages to be passed to when reproduction mode is enabled.
      *
@@ -1706,6 +1977,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return replayIndexSegmentRecordCapacity;
     }
 
+    public boolean replayIndexStoreEnabled()
+    {
+        return replayIndexStoreEnabled;
+    }
+
     public int loggerCacheSetSize()
     {
         return loggerCacheSetSize;
@@ -1771,6 +2047,16 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return archiverIdleStrategy;
     }
 
+    public IdleStrategy inboundIndexerIdleStrategy()
+    {
+        return inboundIndexerIdleStrategy;
+    }
+
+    public IdleStrategy outboundIndexerIdleStrategy()
+    {
+        return outboundIndexerIdleStrategy;
+    }
+
     public int outboundLibraryFragmentLimit()
     {
         return outboundLibraryFragmentLimit;
@@ -1786,6 +2072,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return inboundBytesReceivedLimit;
     }
 
+    public boolean outboundBatchingEnabled()
+    {
+        return outboundBatchingEnabled;
+    }
+
     public MappedFile sentSequenceNumberIndex()
     {
         return sentSequenceNumberIndex;
@@ -1811,6 +2102,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return sessionIdBuffer;
     }
 
+    public MappedFile sessionIdIndexBuffer()
+    {
+        return sessionIdIndexBuffer;
+    }
+
     public MappedFile fixPIdBuffer()
     {
         if (fixPBuffer == null)
@@ -1915,6 +2211,31 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return maxConcurrentSessionReplays;
     }
 
+    public int resendCacheCapacity()
+    {
+        return resendCacheCapacity;
+    }
+
+    public boolean sessionContextsOffHeap()
+    {
+        return sessionContextsOffHeap;
+    }
+
+    public boolean sessionTimerWheelEnabled()
+    {
+        return sessionTimerWheelEnabled;
+    }
+
+    public long resendCacheMaxAgeInMs()
+    {
+        return resendCacheMaxAgeInMs;
+    }
+
+    public int indexCatchupMaxConcurrentReplays()
+    {
+        return indexCatchupMaxConcurrentReplays;
+    }
+
     public int replayPositionBufferSize()
     {
         return replayPositionBufferSize;
@@ -2015,6 +2336,16 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return timeIndexReplayFlushIntervalInNs;
     }
 
+    public boolean scanIndexEnabled()
+    {
+        return scanIndexEnabled;
+    }
+
+    public int scanIndexBlockSizeInBytes()
+    {
+        return scanIndexBlockSizeInBytes;
+    }
+
     public CancelOnDisconnectOption cancelOnDisconnectOption()
     {
         return cancelOnDisconnectOption;
@@ -2030,6 +2361,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return indexChecksumEnabled;
     }
 
+    public boolean sequenceNumberIndexIncrementalFlush()
+    {
+        return sequenceNumberIndexIncrementalFlush;
+    }
+
     public EngineReproductionConfiguration reproductionConfiguration()
     {
         return reproductionConfiguration;
@@ -2099,6 +2435,12 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
             throw new IllegalArgumentException("FIXP acceptor is not supported without logging messages");
         }
 
+        if (sequenceNumberIndexIncrementalFlush() && !indexChecksumEnabled())
+        {
+            throw new IllegalArgumentException(
+                "Incremental sequence number index flushing needs index checksums to recover from a torn write");
+        }
+
         if (deleteLogFileDirOnStart())
         {
             final File logFileDir = new File(logFileDir());
@@ -2133,6 +2475,18 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
             sessionIdBuffer = mapFile(DEFAULT_SESSION_ID_FILE, sessionIdBufferSize);
         }
 
+        if (sessionContextsOffHeap() && sessionIdIndexBuffer() == null)
+        {
+            final int indexFileSize = FixContexts.indexFileSize(sessionIdBuffer.buffer().capacity());
+            final File indexFile = new File(logFileDir(), DEFAULT_SESSION_ID_INDEX_FILE);
+            if (indexFile.exists() && indexFile.length() != indexFileSize)
+            {
+                // Sized for a different session id file, so it gets rebuilt on startup
+                IoUtil.deleteIfExists(indexFile);
+            }
+            sessionIdIndexBuffer = mapFile(DEFAULT_SESSION_ID_INDEX_FILE, indexFileSize);
+        }
+
         if (sessionPersistenceStrategy() == null)
         {
             sessionPersistenceStrategy(alwaysTransient());
@@ -2175,6 +2529,7 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         CloseHelper.close(sentSequenceNumberIndex);
         CloseHelper.close(receivedSequenceNumberIndex);
         CloseHelper.close(sessionIdBuffer);
+        CloseHelper.close(sessionIdIndexBuffer);
         CloseHelper.close(fixPBuffer);
     }
 }
@@ -35,6 +35,7 @@ import uk.co.real_logic.artio.fields.EpochFractionFormat;
 import uk.co.real_logic.artio.messages.FixPProtocolType;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.protocol.Streams;
+import uk.co.real_logic.artio.timing.EngineTimers;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -61,19 +62,24 @@ public class EngineContext implements AutoCloseable
     private final AeronArchive aeronArchive;
     private final RecordingCoordinator recordingCoordinator;
     private final ExclusivePublication replayPublication;
+    private final EngineTimers timers;
     private final SequenceNumberIndexWriter sentSequenceNumberIndex;
     private final SequenceNumberIndexWriter receivedSequenceNumberIndex;
 
     private final ReplayEvictionHandler inboundEvictionHandler;
     private final ReplayEvictionHandler outboundEvictionHandler;
+    private final boolean splitArchiving;
+    private final boolean replayerOnOutboundIndexerThread;
 
     private Streams inboundLibraryStreams;
     private Streams outboundLibraryStreams;
 
-    // Indexers are owned by the indexingAgent
+    // Indexers and the replayer are owned by the scheduler's agent runners
     private Indexer inboundIndexer;
     private Indexer outboundIndexer;
-    private Agent indexingAgent;
+    private ResendCache resendCache;
+    private Agent outboundIndexingAgent;
+    private Agent replayingAgent;
     private ReplayQuery pruneInboundReplayQuery;
     private ReplayQuery outboundReplayQuery;
     private FramerContext framerContext;
@@ -87,7 +93,8 @@ public class EngineContext implements AutoCloseable
         final FixCounters fixCounters,
         final Aeron aeron,
         final AeronArchive aeronArchive,
-        final RecordingCoordinator recordingCoordinator)
+        final RecordingCoordinator recordingCoordinator,
+        final EngineTimers timers)
     {
         this.configuration = configuration;
         this.errorHandler = errorHandler;
@@ -97,10 +104,27 @@ public class EngineContext implements AutoCloseable
         this.replayPublication = replayPublication;
         this.aeronArchive = aeronArchive;
         this.recordingCoordinator = recordingCoordinator;
-
-        inboundEvictionHandler = new ReplayEvictionHandler(errorHandler);
-        outboundEvictionHandler = new ReplayEvictionHandler(errorHandler);
+        this.timers = timers;
+
+        splitArchiving = configuration.scheduler().splitsArchivingAgent();
+        // The resend cache is written by the outbound indexer and read by the replayer, so they must share a thread
+        replayerOnOutboundIndexerThread = !splitArchiving ||
+            (configuration.logOutboundMessages() && configuration.resendCacheCapacity() > 0);
+        final IdleStrategy archiverIdleStrategy = configuration.archiverIdleStrategy();
+        inboundEvictionHandler = new ReplayEvictionHandler(
+            errorHandler, splitArchiving ? configuration.inboundIndexerIdleStrategy() : archiverIdleStrategy);
+        outboundEvictionHandler = new ReplayEvictionHandler(
+            errorHandler,
+            replayerOnOutboundIndexerThread ? archiverIdleStrategy : configuration.outboundIndexerIdleStrategy());
         replayerCommandQueue = new ReplayerCommandQueue(configuration.framerIdleStrategy());
+        if (splitArchiving)
+        {
+            inboundEvictionHandler.replayerCommandQueue(replayerCommandQueue);
+        }
+        if (!replayerOnOutboundIndexerThread)
+        {
+            outboundEvictionHandler.replayerCommandQueue(replayerCommandQueue);
+        }
         senderSequenceNumbers = new SenderSequenceNumbers(replayerCommandQueue);
 
         try
@@ -109,6 +133,7 @@ public class EngineContext implements AutoCloseable
             final Long2LongHashMap connectionIdToFixPSessionId = new Long2LongHashMap(UNK_SESSION);
             final FixPProtocolType fixPProtocolType = configuration.supportedFixPProtocolType();
             final boolean indexChecksumEnabled = configuration.indexChecksumEnabled();
+            final boolean incrementalFlush = configuration.sequenceNumberIndexIncrementalFlush();
             sentSequenceNumberIndex = new SequenceNumberIndexWriter(
                 sentSequenceNumberExtractor,
                 configuration.sentSequenceNumberBuffer(),
@@ -122,7 +147,8 @@ public class EngineContext implements AutoCloseable
                 connectionIdToFixPSessionId,
                 fixPProtocolType,
                 indexChecksumEnabled,
-                configuration.logOutboundMessages());
+                configuration.logOutboundMessages(),
+                incrementalFlush);
             receivedSequenceNumberIndex = new SequenceNumberIndexWriter(
                 recvSequenceNumberExtractor,
                 configuration.receivedSequenceNumberBuffer(),
@@ -136,7 +162,8 @@ public class EngineContext implements AutoCloseable
                 connectionIdToFixPSessionId,
                 fixPProtocolType,
                 indexChecksumEnabled,
-                configuration.logInboundMessages());
+                configuration.logInboundMessages(),
+                incrementalFlush);
 
             newStreams();
             newArchivingAgent();
@@ -201,7 +228,9 @@ public class EngineContext implements AutoCloseable
             reader,
             configuration.timeIndexReplayFlushIntervalInNs(),
             indexChecksumEnabled,
-            evictionHandler);
+            evictionHandler,
+            configuration.replayIndexStoreEnabled(),
+            configuration.scanIndexEnabled() ? configuration.scanIndexBlockSizeInBytes() : ReplayIndex.NO_SCAN_INDEX);
     }
 
     private ReplayQuery newReplayQuery(final IdleStrategy idleStrategy, final int streamId)
@@ -223,7 +252,8 @@ public class EngineContext implements AutoCloseable
             NoOpReplayQueryListener.INSTANCE,
             archiveReplayStream,
             configuration.replayIndexFileRecordCapacity(),
-            configuration.replayIndexSegmentRecordCapacity());
+            configuration.replayIndexSegmentRecordCapacity(),
+            configuration.replayIndexStoreEnabled());
     }
 
     private Replayer newReplayer(
@@ -252,7 +282,9 @@ public class EngineContext implements AutoCloseable
             configuration.maxConcurrentSessionReplays(),
             clock,
             configuration.supportedFixPProtocolType(),
-            configuration);
+            configuration,
+            timers.replayQueryToResendTimer(),
+            resendCache);
     }
 
     private void newIndexers()
@@ -305,6 +337,16 @@ public class EngineContext implements AutoCloseable
                     indexChecksumEnabled,
                     outboundEvictionHandler);
                 outboundIndices.add(outboundReplayIndex);
+
+                if (configuration.resendCacheCapacity() > 0)
+                {
+                    resendCache = new ResendCache(
+                        configuration.outboundLibraryStream(),
+                        configuration.resendCacheCapacity(),
+                        configuration.resendCacheMaxAgeInMs(),
+                        clock);
+                    outboundIndices.add(resendCache);
+                }
             }
             outboundIndices.add(sentSequenceNumberIndex);
 
@@ -375,27 +417,41 @@ public class EngineContext implements AutoCloseable
                 clock);
         }
 
-        final List<Agent> agents = new ArrayList<>();
-        agents.add(inboundIndexer);
-        agents.add(outboundIndexer);
-        agents.add(replayer);
-
-        indexingAgent = new CompositeAgent(agents);
+        if (splitArchiving && replayerOnOutboundIndexerThread)
+        {
+            outboundIndexingAgent = new CompositeAgent(outboundIndexer, replayer);
+            replayingAgent = null;
+        }
+        else
+        {
+            outboundIndexingAgent = outboundIndexer;
+            replayingAgent = replayer;
+        }
     }
 
     public void catchupIndices()
     {
+        final IndexCatchup indexCatchup = new IndexCatchup(
+            aeronArchive,
+            errorHandler,
+            configuration.archiveReplayStream(),
+            configuration.indexCatchupMaxConcurrentReplays(),
+            fixCounters.indexCatchup("recordings"),
+            fixCounters.indexCatchup("bytes"));
+
         // when inbound logging disabled
         if (configuration.logInboundMessages())
         {
-            inboundIndexer.catchIndexUp(aeronArchive, errorHandler);
+            indexCatchup.add(inboundIndexer);
         }
 
         // when outbound logging disabled
         if (configuration.logOutboundMessages())
         {
-            outboundIndexer.catchIndexUp(aeronArchive, errorHandler);
+            indexCatchup.add(outboundIndexer);
         }
+
+        indexCatchup.run();
     }
 
     public Streams outboundLibraryStreams()
@@ -458,9 +514,20 @@ public class EngineContext implements AutoCloseable
         outboundLibraryCompletionPosition.completeDuringStartup();
     }
 
-    Agent indexingAgent()
+    Agent inboundIndexingAgent()
+    {
+        return inboundIndexer;
+    }
+
+    Agent outboundIndexingAgent()
+    {
+        return outboundIndexingAgent;
+    }
+
+    // Null if the replayer is part of the outbound indexing agent
+    Agent replayingAgent()
     {
-        return indexingAgent;
+        return replayingAgent;
     }
 
     public SenderSequenceNumbers senderSequenceNumbers()
@@ -19,6 +19,7 @@ import io.aeron.Aeron;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.CompositeAgent;
 
 /**
  * Interface for determining how an Engine's Agents are allocated to threads.
@@ -45,6 +46,61 @@ public interface EngineScheduler extends AutoCloseable
         Agent conductorAgent,
         RecordingCoordinator recordingCoordinator);
 
+    /**
+     * Invoked by the FIX Engine to start the threads, with the archiving agent split into its parts. By default
+     * they're combined and passed to
+     * {@link #launch(EngineConfiguration, ErrorHandler, Agent, Agent, Agent, Agent, RecordingCoordinator)}.
+     * Should only return once they are started.
+     *
+     * @param configuration the engine's configuration object.
+     * @param errorHandler the ErrorHandler used by the engine.
+     * @param framer the framer agent to schedule.
+     * @param inboundIndexer the agent that indexes the inbound stream.
+     * @param outboundIndexer the agent that indexes the outbound stream.
+     * @param replayer the agent that replays messages, null if it is part of the outboundIndexer agent because
+     *                 they must share a thread.
+     * @param monitoringAgent the monitoring agent to schedule.
+     * @param conductorAgent if aeron has useConductorInvoker enable it
+     * @param recordingCoordinator must be shut down after the Framer but before the conductorAgent.
+     * @see #splitsArchivingAgent()
+     */
+    default void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final Agent inboundIndexer,
+        final Agent outboundIndexer,
+        final Agent replayer,
+        final Agent monitoringAgent,
+        final Agent conductorAgent,
+        final RecordingCoordinator recordingCoordinator)
+    {
+        final Agent indexingAgent = replayer == null ?
+            new CompositeAgent(inboundIndexer, outboundIndexer) :
+            new CompositeAgent(inboundIndexer, outboundIndexer, replayer);
+
+        launch(
+            configuration,
+            errorHandler,
+            framer,
+            indexingAgent,
+            monitoringAgent,
+            conductorAgent,
+            recordingCoordinator);
+    }
+
+    /**
+     * Whether this scheduler runs the inbound indexer, the outbound indexer and the replayer on different threads.
+     * If it does then the engine hands state between them through thread-safe queues, rather than calling into each
+     * other directly, and each indexer uses its own idle strategy.
+     *
+     * @return true if the archiving agent's parts run on different threads, false by default.
+     */
+    default boolean splitsArchivingAgent()
+    {
+        return false;
+    }
+
     /**
      * Invoked by the FIX Engine to stop the threads. Should only return once they are completed stopped.
      */
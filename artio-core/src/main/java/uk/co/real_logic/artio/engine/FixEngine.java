@@ -230,6 +230,7 @@ public final class FixEngine extends GatewayProcess
      * Gets session info for all FIX sessions the FixEngine is aware of including offline ones.
      * Can be used to acquire offline sessions or for administration purposes.
      * The returned list is updated in a thread-safe manner when new sessions are created.
+     * If {@link EngineConfiguration#sessionContextsOffHeap(boolean)} is enabled then the list is a snapshot instead.
      *
      * @return the list of session infos.
      */
@@ -314,7 +315,8 @@ public final class FixEngine extends GatewayProcess
                     fixCounters,
                     aeron,
                     aeronArchive,
-                    recordingCoordinator);
+                    recordingCoordinator,
+                    timers);
                 engineContext.catchupIndices();
                 initFramer(configuration, fixCounters, replayPublication.sessionId());
                 initMonitoringAgent(timers.all(), configuration, aeronArchive, duplicateEngineChecker);
@@ -399,7 +401,9 @@ public final class FixEngine extends GatewayProcess
             configuration,
             errorHandler,
             framerContext.framer(),
-            engineContext.indexingAgent(),
+            engineContext.inboundIndexingAgent(),
+            engineContext.outboundIndexingAgent(),
+            engineContext.replayingAgent(),
             monitoringCompositeAgent,
             conductorAgent(),
             recordingCoordinator);
@@ -16,7 +16,7 @@
 package uk.co.real_logic.artio.engine;
 
 import org.agrona.concurrent.IdleStrategy;
-import org.agrona.concurrent.OneToOneConcurrentArrayQueue;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
 
 import java.util.function.Consumer;
 
@@ -27,23 +27,32 @@ public class ReplayerCommandQueue
     // Framer state
     private final IdleStrategy framerIdleStrategy;
 
-    // Written on Framer, Read on Indexer
-    private final OneToOneConcurrentArrayQueue<ReplayerCommand> queue
-        = new OneToOneConcurrentArrayQueue<>(CAPACITY);
+    // Written on Framer and on the Outbound Indexer when it doesn't share the Replayer's thread, Read on Replayer
+    private final ManyToOneConcurrentArrayQueue<ReplayerCommand> queue
+        = new ManyToOneConcurrentArrayQueue<>(CAPACITY);
     private final Consumer<ReplayerCommand> onReplayerCommand = this::onReplayerCommand;
 
+    // Set by the Replayer when it closes, so that threads waiting on a command don't wait forever
+    private volatile boolean closed = false;
+
     public ReplayerCommandQueue(final IdleStrategy framerIdleStrategy)
     {
         this.framerIdleStrategy = framerIdleStrategy;
     }
 
     public void enqueue(final ReplayerCommand command)
+    {
+        enqueue(command, framerIdleStrategy);
+    }
+
+    // The idle strategy must belong to the calling thread
+    public void enqueue(final ReplayerCommand command, final IdleStrategy idleStrategy)
     {
         while (!offer(command))
         {
-            framerIdleStrategy.idle();
+            idleStrategy.idle();
         }
-        framerIdleStrategy.reset();
+        idleStrategy.reset();
     }
 
     public boolean offer(final ReplayerCommand command)
@@ -56,6 +65,16 @@ public class ReplayerCommandQueue
         return queue.drain(onReplayerCommand, CAPACITY);
     }
 
+    public void close()
+    {
+        closed = true;
+    }
+
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
     private void onReplayerCommand(final ReplayerCommand command)
     {
         command.execute();
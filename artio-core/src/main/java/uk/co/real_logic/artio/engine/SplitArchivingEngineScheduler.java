@@ -0,0 +1,167 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import io.aeron.Aeron;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+
+import java.util.concurrent.ThreadFactory;
+
+import static org.agrona.concurrent.AgentRunner.startOnThread;
+
+/**
+ * A scheduler that runs the inbound indexer, the outbound indexer and the replayer on their own threads, rather than
+ * sharing the archiving thread of the {@link DefaultEngineScheduler}. This stops a slow replay or a busy stream
+ * delaying the indexing of the other stream.
+ *
+ * The indexers use the {@link EngineConfiguration#inboundIndexerIdleStrategy()} and
+ * {@link EngineConfiguration#outboundIndexerIdleStrategy()}, the replayer uses the
+ * {@link EngineConfiguration#archiverIdleStrategy()}. If the resend cache is enabled then the replayer runs on the
+ * outbound indexer's thread, with the archiver idle strategy, as the cache isn't thread-safe.
+ *
+ * NB: Ensure that a new instance is created for each engine.
+ */
+public class SplitArchivingEngineScheduler implements EngineScheduler
+{
+    private AgentRunner framerRunner;
+    private AgentRunner inboundIndexerRunner;
+    private AgentRunner outboundIndexerRunner;
+    private AgentRunner replayerRunner;
+    private AgentRunner monitoringRunner;
+    private RecordingCoordinator recordingCoordinator;
+
+    public void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final Agent inboundIndexer,
+        final Agent outboundIndexer,
+        final Agent replayer,
+        final Agent monitoringAgent,
+        final Agent conductorAgent,
+        final RecordingCoordinator recordingCoordinator)
+    {
+        this.recordingCoordinator = recordingCoordinator;
+        if (framerRunner != null)
+        {
+            EngineScheduler.fail();
+        }
+
+        framerRunner = new AgentRunner(
+            configuration.framerIdleStrategy(), errorHandler, null, framer);
+        inboundIndexerRunner = new AgentRunner(
+            configuration.inboundIndexerIdleStrategy(), errorHandler, null, inboundIndexer);
+        if (replayer != null)
+        {
+            outboundIndexerRunner = new AgentRunner(
+                configuration.outboundIndexerIdleStrategy(), errorHandler, null, outboundIndexer);
+            replayerRunner = new AgentRunner(
+                configuration.archiverIdleStrategy(), errorHandler, null, replayer);
+        }
+        else
+        {
+            outboundIndexerRunner = new AgentRunner(
+                configuration.archiverIdleStrategy(), errorHandler, null, outboundIndexer);
+        }
+
+        final ThreadFactory threadFactory = configuration.threadFactory();
+        startOnThread(framerRunner, threadFactory);
+        startOnThread(inboundIndexerRunner, threadFactory);
+        startOnThread(outboundIndexerRunner, threadFactory);
+        if (replayerRunner != null)
+        {
+            startOnThread(replayerRunner, threadFactory);
+        }
+
+        launchMonitoring(configuration, errorHandler, monitoringAgent);
+    }
+
+    public void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final Agent indexingAgent,
+        final Agent monitoringAgent,
+        final Agent conductorAgent,
+        final RecordingCoordinator recordingCoordinator)
+    {
+        // Only called with an already combined archiving agent, so there's nothing to split.
+        this.recordingCoordinator = recordingCoordinator;
+        if (framerRunner != null)
+        {
+            EngineScheduler.fail();
+        }
+
+        framerRunner = new AgentRunner(
+            configuration.framerIdleStrategy(), errorHandler, null, framer);
+        replayerRunner = new AgentRunner(
+            configuration.archiverIdleStrategy(), errorHandler, null, indexingAgent);
+
+        final ThreadFactory threadFactory = configuration.threadFactory();
+        startOnThread(framerRunner, threadFactory);
+        startOnThread(replayerRunner, threadFactory);
+
+        launchMonitoring(configuration, errorHandler, monitoringAgent);
+    }
+
+    private void launchMonitoring(
+        final EngineConfiguration configuration, final ErrorHandler errorHandler, final Agent monitoringAgent)
+    {
+        if (monitoringAgent != null)
+        {
+            monitoringRunner = new AgentRunner(
+                configuration.monitoringThreadIdleStrategy(),
+                errorHandler,
+                null,
+                monitoringAgent);
+            startOnThread(monitoringRunner, configuration.threadFactory());
+        }
+    }
+
+    public boolean splitsArchivingAgent()
+    {
+        return true;
+    }
+
+    public void close()
+    {
+        EngineScheduler.awaitRunnerStart(framerRunner);
+        EngineScheduler.awaitRunnerStart(inboundIndexerRunner);
+        EngineScheduler.awaitRunnerStart(outboundIndexerRunner);
+        EngineScheduler.awaitRunnerStart(replayerRunner);
+        EngineScheduler.awaitRunnerStart(monitoringRunner);
+
+        Exceptions.closeAll(
+            framerRunner,
+            inboundIndexerRunner,
+            outboundIndexerRunner,
+            replayerRunner,
+            recordingCoordinator,
+            monitoringRunner);
+    }
+
+    public int pollFramer()
+    {
+        return 0;
+    }
+
+    public void configure(final Aeron.Context aeronContext)
+    {
+    }
+}
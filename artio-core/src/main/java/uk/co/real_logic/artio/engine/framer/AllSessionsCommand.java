@@ -0,0 +1,49 @@
+/*
+ * Copyright 2021 Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import uk.co.real_logic.artio.engine.SessionInfo;
+
+import java.util.List;
+
+class AllSessionsCommand implements AdminCommand
+{
+    private volatile boolean done = false;
+    // write to sessions only before setting done
+    private List<SessionInfo> sessions;
+
+    public void execute(final Framer framer)
+    {
+        try
+        {
+            sessions = framer.onAllSessions();
+        }
+        finally
+        {
+            done = true;
+        }
+    }
+
+    public boolean isDone()
+    {
+        return done;
+    }
+
+    public List<SessionInfo> sessions()
+    {
+        return sessions;
+    }
+}
@@ -51,6 +51,17 @@ public class DefaultTcpChannel extends TcpChannel
         return written;
     }
 
+    public int write(final ByteBuffer[] srcs, final int length, final int seqNum) throws IOException
+    {
+        final long written = socketChannel.write(srcs, 0, length);
+        if (written < 0)
+        {
+            // normalise the negative return and the exceptional path
+            throw new IOException("Disconnected " + remoteAddress + ", written=" + written);
+        }
+        return (int)written;
+    }
+
     public int read(final ByteBuffer dst) throws IOException
     {
         return socketChannel.read(dst);
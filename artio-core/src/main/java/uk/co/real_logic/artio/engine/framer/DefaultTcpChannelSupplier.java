@@ -107,7 +107,7 @@ public class DefaultTcpChannelSupplier extends TcpChannelSupplier
     protected void onFinishConnect(
         final InitiatedChannelHandler channelHandler, final SocketChannel channel) throws IOException
     {
-        channelHandler.onInitiatedChannel(newTcpChannel(channel), null);
+        channelHandler.onInitiatedChannel(newInitiatedTcpChannel(channel), null);
         openingSocketChannels.remove(channel);
     }
 
@@ -189,6 +189,11 @@ public class DefaultTcpChannelSupplier extends TcpChannelSupplier
         return new DefaultTcpChannel(channel);
     }
 
+    protected TcpChannel newInitiatedTcpChannel(final SocketChannel channel) throws IOException
+    {
+        return newTcpChannel(channel);
+    }
+
     public void stopConnecting(final InetSocketAddress address) throws IOException
     {
         final Iterator<SocketChannel> iterator = openingSocketChannels.iterator();
@@ -16,6 +16,7 @@
 package uk.co.real_logic.artio.engine.framer;
 
 import org.agrona.ErrorHandler;
+import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
@@ -35,10 +36,10 @@ import uk.co.real_logic.artio.storage.messages.SessionIdEncoder;
 
 import java.io.File;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.zip.CRC32;
 
@@ -53,6 +54,17 @@ import static uk.co.real_logic.artio.storage.messages.SessionIdEncoder.BLOCK_LEN
  * The session ids table is saved into a file. Records are written out using the {@link SessionIdEncoder}
  * and aren't allowed to span sectors. Each sector has a CRC32 checksum and each checksum is updated after writing
  * each session id record.
+ * <p>
+ * By default every session in the file is loaded into a {@link SessionContext} on startup. When the contexts are
+ * stored off-heap the file is only indexed, see {@link OffHeapSessionIndex}, and contexts are loaded from the file
+ * when they're used. Contexts are kept on the heap while their session is in use, so that every caller shares the
+ * same instance. The index can be saved into its own file, in which case only the records written since it was last
+ * saved are read on startup.
+ * <p>
+ * Records are relocated to the end of the file when they grow. By default the space that they leave behind is
+ * reclaimed by rewriting the file on startup. Off-heap it is reclaimed by compacting the file in the background, a
+ * few records per duty cycle, see {@link #doCompactionWork()}. Each step leaves the file readable: the gap between
+ * the compacted and uncompacted records is zeroed or covered by relocated filler records.
  */
 public class FixContexts implements SessionContexts
 {
@@ -79,8 +91,11 @@ public class FixContexts implements SessionContexts
         null, false);
     static final long LOWEST_VALID_SESSION_ID = 1L;
     static final int VERSION_WITHOUT_FIX_DICTIONARY = 2;
+    static final int COMPACTION_RECORDS_PER_DUTY_CYCLE = 16;
 
     private static final int HEADER_SIZE = MessageHeaderDecoder.ENCODED_LENGTH;
+    private static final int NO_MORE_RECORDS = -1;
+    private static final int MIN_FILLER_LENGTH = BLOCK_LENGTH + SessionIdEncoder.lastFixDictionaryHeaderLength();
 
     private static final int ENCODING_BUFFER_SIZE = SECTOR_SIZE - CHECKSUM_SIZE;
     private final UnsafeBuffer compositeKeyBuffer = new UnsafeBuffer(new byte[ENCODING_BUFFER_SIZE]);
@@ -94,7 +109,12 @@ public class FixContexts implements SessionContexts
 
     private final LongHashSet currentlyAuthenticatedSessionIds = new LongHashSet();
     private final CopyOnWriteArrayList<SessionInfo> allSessions = new CopyOnWriteArrayList<>();
+    // Not used when off-heap, except to upgrade the file on startup
     private final Map<CompositeKey, SessionContext> compositeToContext = new HashMap<>();
+    // Reverse index of compositeToContext, sessions never change their id so it only needs updating on additions
+    // When off-heap it only contains the contexts that are in use
+    private final Long2ObjectHashMap<SessionContext> sessionIdToContext = new Long2ObjectHashMap<>();
+    private final Map<String, FixDictionary> nameToFixDictionary = new HashMap<>();
 
     private final CRC32 crc32 = new CRC32();
     private final SectorFramer sectorFramer;
@@ -106,16 +126,48 @@ public class FixContexts implements SessionContexts
     private final ErrorHandler errorHandler;
     private final MappedFile mappedFile;
     private final int initialSequenceIndex;
+    // null unless the session contexts are stored off-heap
+    private final OffHeapSessionIndex offHeapIndex;
+    // null unless the off-heap index is saved
+    private final MappedFile indexFile;
 
     private int filePosition;
     private long counter = LOWEST_VALID_SESSION_ID;
 
+    private boolean compactionPending;
+    private boolean compacting;
+    private int compactionReadPosition;
+    private int compactionWritePosition;
+
     public FixContexts(
         final MappedFile mappedFile,
         final SessionIdStrategy idStrategy,
         final int initialSequenceIndex,
         final ErrorHandler errorHandler,
         final boolean reproductionEnabled)
+    {
+        this(mappedFile, idStrategy, initialSequenceIndex, errorHandler, reproductionEnabled, false);
+    }
+
+    public FixContexts(
+        final MappedFile mappedFile,
+        final SessionIdStrategy idStrategy,
+        final int initialSequenceIndex,
+        final ErrorHandler errorHandler,
+        final boolean reproductionEnabled,
+        final boolean offHeap)
+    {
+        this(mappedFile, idStrategy, initialSequenceIndex, errorHandler, reproductionEnabled, offHeap, null);
+    }
+
+    public FixContexts(
+        final MappedFile mappedFile,
+        final SessionIdStrategy idStrategy,
+        final int initialSequenceIndex,
+        final ErrorHandler errorHandler,
+        final boolean reproductionEnabled,
+        final boolean offHeap,
+        final MappedFile indexFile)
     {
         this.mappedFile = mappedFile;
         this.buffer = mappedFile.buffer();
@@ -125,6 +177,19 @@ public class FixContexts implements SessionContexts
         this.idStrategy = idStrategy;
         this.initialSequenceIndex = initialSequenceIndex;
         this.errorHandler = errorHandler;
+        this.indexFile = offHeap ? indexFile : null;
+        if (!offHeap)
+        {
+            offHeapIndex = null;
+        }
+        else if (indexFile == null)
+        {
+            offHeapIndex = new OffHeapSessionIndex(buffer, actingBlockLength, actingVersion);
+        }
+        else
+        {
+            offHeapIndex = new OffHeapSessionIndex(buffer, actingBlockLength, actingVersion, indexFile.buffer());
+        }
         loadBuffer();
         allSessions.addAll(compositeToContext.values());
     }
@@ -132,25 +197,83 @@ public class FixContexts implements SessionContexts
     private void loadBuffer()
     {
         checkByteBuffer();
-        initialiseBuffer();
+        final boolean newFile = initialiseBuffer();
 
         headerDecoder.wrap(buffer, 0);
         final boolean needsUpgrading = headerDecoder.version() <= VERSION_WITHOUT_FIX_DICTIONARY;
-        final FixDictionary dictionary = needsUpgrading ? FixDictionary.of(FixDictionary.findDefault()) : null;
-        final boolean requiresCompaction = readFileSessionInfos(dictionary);
-
-        if (needsUpgrading || requiresCompaction)
+        if (needsUpgrading)
         {
+            // Loaded onto the heap, even when off-heap, as the file gets rewritten
+            if (offHeapIndex != null)
+            {
+                offHeapIndex.clear();
+            }
+            readFileSessionInfos(FixDictionary.of(FixDictionary.findDefault()), false, HEADER_SIZE);
             resetBuffer();
             compositeToContext.values().forEach(this::allocateNewSlot);
+            compactionPending = false;
+        }
+        else if (offHeapIndex == null)
+        {
+            readFileSessionInfos(null, false, HEADER_SIZE);
+            if (compactionPending)
+            {
+                // Every context is on the heap, so the file is compacted by rewriting it
+                resetBuffer();
+                compositeToContext.values().forEach(this::allocateNewSlot);
+                compactionPending = false;
+            }
+        }
+        else if (indexFile != null && !newFile && hasValidIndex())
+        {
+            // Only the records written after the index was last saved need indexing
+            counter = offHeapIndex.counter();
+            compactionPending = offHeapIndex.compactionPending();
+            readFileSessionInfos(null, true, offHeapIndex.indexedPosition());
+        }
+        else
+        {
+            offHeapIndex.clear();
+            readFileSessionInfos(null, true, HEADER_SIZE);
+        }
+
+        if (offHeapIndex != null)
+        {
+            compositeToContext.clear();
+            sessionIdToContext.clear();
+            saveIndexState();
+
+            if (compactionPending)
+            {
+                startCompaction();
+            }
         }
     }
 
-    private boolean readFileSessionInfos(final FixDictionary dictionary)
+    private boolean hasValidIndex()
     {
-        boolean requiresCompaction = false;
-        int sectorEnd = 0;
-        filePosition = HEADER_SIZE;
+        if (!offHeapIndex.validateHeader())
+        {
+            return false;
+        }
+
+        final int indexedPosition = offHeapIndex.indexedPosition();
+        final long lastSessionId = offHeapIndex.counter() - 1;
+        if (indexedPosition < HEADER_SIZE || indexedPosition > buffer.capacity() ||
+            lastSessionId < LOWEST_VALID_SESSION_ID - 1)
+        {
+            return false;
+        }
+
+        // Guard against the session id file being replaced without its index
+        final int lastPosition = offHeapIndex.positionOf(lastSessionId);
+        return lastPosition == OffHeapSessionIndex.MISSING || wrap(sessionIdDecoder, lastPosition) == lastSessionId;
+    }
+
+    private void readFileSessionInfos(final FixDictionary dictionary, final boolean indexOnly, final int startPosition)
+    {
+        int sectorEnd = startPosition - (startPosition % SECTOR_SIZE);
+        filePosition = startPosition;
         final int lastRecordStart = buffer.capacity() - BLOCK_LENGTH;
         while (filePosition < lastRecordStart)
         {
@@ -167,13 +290,13 @@ public class FixContexts implements SessionContexts
                 final int nextSectorPeekPosition = sectorEnd;
                 if (nextSectorPeekPosition > lastRecordStart)
                 {
-                    return requiresCompaction;
+                    return;
                 }
 
                 sessionId = wrap(sessionIdDecoder, nextSectorPeekPosition);
                 if (sessionId == 0)
                 {
-                    return requiresCompaction;
+                    return;
                 }
                 else
                 {
@@ -186,7 +309,19 @@ public class FixContexts implements SessionContexts
                 final int compositeKeyLength = sessionIdDecoder.compositeKeyLength();
                 sessionIdDecoder.skipLastFixDictionary();
                 filePosition = sessionIdDecoder.limit() + compositeKeyLength;
-                requiresCompaction = true;
+                compactionPending = true;
+            }
+            else if (indexOnly)
+            {
+                final int recordPosition = sessionIdDecoder.offset();
+                final int compositeKeyLength = sessionIdDecoder.compositeKeyLength();
+                sessionIdDecoder.skipLastFixDictionary();
+                filePosition = sessionIdDecoder.limit();
+                offHeapIndex.put(sessionId, buffer, filePosition, compositeKeyLength, recordPosition);
+
+                counter = Math.max(counter, sessionId + 1);
+
+                filePosition += compositeKeyLength;
             }
             else
             {
@@ -201,18 +336,19 @@ public class FixContexts implements SessionContexts
                     buffer, filePosition, compositeKeyLength);
                 if (compositeKey == null)
                 {
-                    return requiresCompaction;
+                    return;
                 }
 
                 try
                 {
                     final FixDictionary thisDictionary = (dictionary == null) ?
-                        FixDictionary.of(FixDictionary.find(lastFixDictionary)) : dictionary;
+                        fixDictionary(lastFixDictionary) : dictionary;
                     final SessionContext sessionContext = new SessionContext(compositeKey,
                         sessionId, sequenceIndex, lastLogonTime, lastSequenceResetTime, this,
                         sessionIdDecoder.offset(),
                         initialSequenceIndex, thisDictionary, reproductionEnabled);
                     compositeToContext.put(compositeKey, sessionContext);
+                    sessionIdToContext.put(sessionId, sessionContext);
                 }
                 catch (final Exception e)
                 {
@@ -226,7 +362,6 @@ public class FixContexts implements SessionContexts
                 filePosition += compositeKeyLength;
             }
         }
-        return requiresCompaction;
     }
 
     private long wrap(final SessionIdDecoder sessionIdDecoder, final int nextSectorPeekPosition)
@@ -243,9 +378,9 @@ public class FixContexts implements SessionContexts
         }
     }
 
-    private void initialiseBuffer()
+    private boolean initialiseBuffer()
     {
-        if (LoggerUtil.initialiseBuffer(
+        final boolean initialised = LoggerUtil.initialiseBuffer(
             buffer,
             headerEncoder,
             headerDecoder,
@@ -253,11 +388,14 @@ public class FixContexts implements SessionContexts
             sessionIdEncoder.sbeTemplateId(),
             actingVersion,
             actingBlockLength,
-            errorHandler))
+            errorHandler);
+        if (initialised)
         {
             updateChecksum(0, FIRST_CHECKSUM_LOCATION);
             mappedFile.force();
         }
+
+        return initialised;
     }
 
     private int validateSectorChecksum(final int position, final int sectorEnd)
@@ -295,9 +433,9 @@ public class FixContexts implements SessionContexts
 
     SessionContext newSessionContext(final CompositeKey compositeKey, final FixDictionary fixDictionary)
     {
-        final SessionContext context = compositeToContext.computeIfAbsent(
-            compositeKey,
-            key -> onNewLogon(key, fixDictionary));
+        final SessionContext context = offHeapIndex == null ?
+            compositeToContext.computeIfAbsent(compositeKey, key -> onNewLogon(key, fixDictionary)) :
+            offHeapSessionContext(compositeKey, fixDictionary);
         if (context.lastFixDictionary() != fixDictionary)
         {
             context.ensureFixDictionary(fixDictionary);
@@ -305,6 +443,85 @@ public class FixContexts implements SessionContexts
         return context;
     }
 
+    private SessionContext offHeapSessionContext(final CompositeKey compositeKey, final FixDictionary fixDictionary)
+    {
+        final int position = findPosition(compositeKey);
+        if (position != OffHeapSessionIndex.MISSING)
+        {
+            final long sessionId = wrap(sessionIdDecoder, position);
+            SessionContext context = sessionIdToContext.get(sessionId);
+            if (context == null)
+            {
+                context = loadSessionContext(position);
+                if (context != null)
+                {
+                    sessionIdToContext.put(sessionId, context);
+                    return context;
+                }
+            }
+            else
+            {
+                return context;
+            }
+        }
+
+        return onNewLogon(compositeKey, fixDictionary);
+    }
+
+    private int findPosition(final CompositeKey compositeKey)
+    {
+        final int compositeKeyLength = idStrategy.save(compositeKey, compositeKeyBuffer, 0);
+        if (compositeKeyLength == INSUFFICIENT_SPACE)
+        {
+            return OffHeapSessionIndex.MISSING;
+        }
+
+        return offHeapIndex.find(compositeKeyBuffer, 0, compositeKeyLength);
+    }
+
+    private SessionContext loadSessionContext(final int position)
+    {
+        sessionIdDecoder.wrap(buffer, position, actingBlockLength, actingVersion);
+        final long sessionId = sessionIdDecoder.sessionId();
+        final int sequenceIndex = sessionIdDecoder.sequenceIndex();
+        final long lastLogonTime = sessionIdDecoder.logonTime();
+        final long lastSequenceResetTime = sessionIdDecoder.lastSequenceResetTime();
+        final int compositeKeyLength = sessionIdDecoder.compositeKeyLength();
+        final String lastFixDictionary = sessionIdDecoder.lastFixDictionary();
+
+        final CompositeKey compositeKey = idStrategy.load(buffer, sessionIdDecoder.limit(), compositeKeyLength);
+        if (compositeKey == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            return new SessionContext(compositeKey,
+                sessionId, sequenceIndex, lastLogonTime, lastSequenceResetTime, this,
+                position,
+                initialSequenceIndex, fixDictionary(lastFixDictionary), reproductionEnabled);
+        }
+        catch (final Exception e)
+        {
+            errorHandler.onError(e);
+            return null;
+        }
+    }
+
+    // Interned as most sessions share a handful of dictionaries, which are expensive to look up reflectively
+    private FixDictionary fixDictionary(final String name)
+    {
+        FixDictionary fixDictionary = nameToFixDictionary.get(name);
+        if (fixDictionary == null)
+        {
+            fixDictionary = FixDictionary.of(FixDictionary.find(name));
+            nameToFixDictionary.put(name, fixDictionary);
+        }
+
+        return fixDictionary;
+    }
+
     private SessionContext onNewLogon(final CompositeKey compositeKey, final FixDictionary fixDictionary)
     {
         final long sessionId = counter++;
@@ -313,7 +530,11 @@ public class FixContexts implements SessionContexts
             sessionId,
             SessionInfo.UNKNOWN_SEQUENCE_INDEX,
             fixDictionary);
-        allSessions.add(sessionContext);
+        sessionIdToContext.put(sessionId, sessionContext);
+        if (offHeapIndex == null)
+        {
+            allSessions.add(sessionContext);
+        }
         return sessionContext;
     }
 
@@ -386,7 +607,14 @@ public class FixContexts implements SessionContexts
                     filePosition += compositeKeyLength;
 
                     updateChecksum(sectorFramer.sectorStart(), sectorFramer.checksumOffset());
-                    mappedFile.force();
+
+                    if (offHeapIndex != null)
+                    {
+                        offHeapIndex.put(sessionId, compositeKeyBuffer, 0, compositeKeyLength, keyPosition);
+                        saveIndexState();
+                    }
+
+                    force();
                 }
             }
         }
@@ -401,35 +629,40 @@ public class FixContexts implements SessionContexts
 
     public void sequenceReset(final long sessionId, final long resetTimeInNs)
     {
-        final Entry<CompositeKey, SessionContext> entry = lookupById(sessionId);
-        if (entry != null)
+        final SessionContext context = lookupById(sessionId);
+        if (context != null)
         {
-            final SessionContext context = entry.getValue();
             context.onSequenceReset(resetTimeInNs);
         }
     }
 
     public void onSequenceIndex(final long sessionId, final long resetTimeInNs, final int sequenceIndex)
     {
-        final Entry<CompositeKey, SessionContext> entry = lookupById(sessionId);
-        if (entry != null)
+        final SessionContext context = lookupById(sessionId);
+        if (context != null)
         {
-            final SessionContext context = entry.getValue();
             context.onSequenceIndex(resetTimeInNs, sequenceIndex);
         }
     }
 
-    Entry<CompositeKey, SessionContext> lookupById(final long sessionId)
+    SessionContext lookupById(final long sessionId)
     {
-        for (final Entry<CompositeKey, SessionContext> entry : compositeToContext.entrySet())
+        SessionContext context = sessionIdToContext.get(sessionId);
+        if (context == null && offHeapIndex != null)
         {
-            if (entry.getValue().sessionId() == sessionId)
+            // Kept on the heap until the session disconnects, as callers can update or hold onto the context
+            final int position = offHeapIndex.positionOf(sessionId);
+            if (position != OffHeapSessionIndex.MISSING)
             {
-                return entry;
+                context = loadSessionContext(position);
+                if (context != null)
+                {
+                    sessionIdToContext.put(sessionId, context);
+                }
             }
         }
 
-        return null;
+        return context;
     }
 
     // TODO: optimisation, more efficient checksumming, only checksum new data
@@ -448,6 +681,10 @@ public class FixContexts implements SessionContexts
     public void onDisconnect(final long sessionId)
     {
         currentlyAuthenticatedSessionIds.remove(sessionId);
+        if (offHeapIndex != null)
+        {
+            sessionIdToContext.remove(sessionId);
+        }
     }
 
     public void reset(final File backupLocation)
@@ -459,8 +696,15 @@ public class FixContexts implements SessionContexts
         }
 
         counter = LOWEST_VALID_SESSION_ID;
+        compactionPending = false;
+        compacting = false;
         compositeToContext.clear();
+        sessionIdToContext.clear();
         allSessions.clear();
+        if (offHeapIndex != null)
+        {
+            offHeapIndex.clear();
+        }
 
         if (backupLocation != null)
         {
@@ -468,6 +712,11 @@ public class FixContexts implements SessionContexts
         }
 
         resetBuffer();
+        if (offHeapIndex != null)
+        {
+            saveIndexState();
+            force();
+        }
     }
 
     private void resetBuffer()
@@ -477,8 +726,20 @@ public class FixContexts implements SessionContexts
         filePosition = HEADER_SIZE;
     }
 
-    void updateSavedData(final SessionContext context, final int filePosition)
+    void updateSavedData(final SessionContext context, final int savedFilePosition)
     {
+        int filePosition = savedFilePosition;
+        if (offHeapIndex != null && wrap(sessionIdDecoder, filePosition) != context.sessionId())
+        {
+            // Contexts that aren't kept on the heap aren't updated when compaction moves their record
+            filePosition = offHeapIndex.positionOf(context.sessionId());
+            if (filePosition == OffHeapSessionIndex.MISSING)
+            {
+                return;
+            }
+            context.filePosition(filePosition);
+        }
+
         final String fixDictionaryName = nameOf(context.lastFixDictionary());
 
         sessionIdDecoder.wrap(buffer, filePosition, actingBlockLength, actingVersion);
@@ -487,6 +748,7 @@ public class FixContexts implements SessionContexts
         {
             // delete old slot
             sessionIdEncoder.sessionId(Session.UNKNOWN);
+            compactionPending = true;
 
             allocateNewSlot(context);
 
@@ -513,11 +775,258 @@ public class FixContexts implements SessionContexts
         final int checksumOffset = start + SECTOR_DATA_LENGTH;
         updateChecksum(start, checksumOffset);
 
+        force();
+    }
+
+    private void force()
+    {
         mappedFile.force();
+        if (indexFile != null)
+        {
+            indexFile.force();
+        }
+    }
+
+    private void saveIndexState()
+    {
+        offHeapIndex.saveState(filePosition, counter, compactionPending);
+    }
+
+    /**
+     * Compacts the next few records of the file if a compaction is in progress. Must be called on the thread that
+     * owns these contexts, normally the Framer's duty cycle.
+     *
+     * @return the amount of work done.
+     */
+    public int doCompactionWork()
+    {
+        return doCompactionWork(COMPACTION_RECORDS_PER_DUTY_CYCLE);
+    }
+
+    int doCompactionWork(final int recordLimit)
+    {
+        if (!compacting)
+        {
+            return 0;
+        }
+
+        for (int i = 0; i < recordLimit; i++)
+        {
+            if (!compactRecord())
+            {
+                finishCompaction();
+                return i + 1;
+            }
+        }
+
+        force();
+        return recordLimit;
+    }
+
+    boolean isCompacting()
+    {
+        return compacting;
+    }
+
+    private void startCompaction()
+    {
+        compacting = true;
+        compactionReadPosition = HEADER_SIZE;
+        compactionWritePosition = HEADER_SIZE;
+    }
+
+    // Moves the next live record down to the write position, or skips it if it has been relocated.
+    private boolean compactRecord()
+    {
+        final int readPosition = nextRecordPosition(compactionReadPosition);
+        if (readPosition == NO_MORE_RECORDS)
+        {
+            return false;
+        }
+
+        final long sessionId = wrap(sessionIdDecoder, readPosition);
+        final int compositeKeyLength = sessionIdDecoder.compositeKeyLength();
+        sessionIdDecoder.skipLastFixDictionary();
+        final int keyOffset = sessionIdDecoder.limit() - readPosition;
+        final int length = keyOffset + compositeKeyLength;
+
+        if (sessionId != Session.UNKNOWN)
+        {
+            // Can't be after the read position as the compacted records are at least as densely packed
+            final int writePosition = sectorFramer.claim(compactionWritePosition, length);
+            if (writePosition != readPosition)
+            {
+                moveRecord(sessionId, readPosition, writePosition, length, keyOffset, compositeKeyLength);
+            }
+            compactionWritePosition = writePosition + length;
+        }
+
+        compactionReadPosition = readPosition + length;
+        fillCompactionGap(sectorStartOf(readPosition));
+
+        return true;
+    }
+
+    private void moveRecord(
+        final long sessionId,
+        final int readPosition,
+        final int writePosition,
+        final int length,
+        final int keyOffset,
+        final int compositeKeyLength)
+    {
+        // Copied via the scratch buffer as the old and new records can overlap
+        final UnsafeBuffer recordBuffer = compositeKeyBuffer;
+        recordBuffer.putBytes(0, buffer, readPosition, length);
+
+        // Indexed before the old record is overwritten as the index compares keys against it
+        if (offHeapIndex != null)
+        {
+            offHeapIndex.put(sessionId, recordBuffer, keyOffset, compositeKeyLength, writePosition);
+        }
+
+        buffer.putBytes(writePosition, recordBuffer, 0, length);
+
+        final SessionContext context = sessionIdToContext.get(sessionId);
+        if (context != null)
+        {
+            context.filePosition(writePosition);
+        }
+    }
+
+    // Keeps the file readable from the start: the rest of the write sector is either zeroed or covered by a filler
+    // up to the next record, and any sector between is reduced to a filler so that it links to the next sector.
+    private void fillCompactionGap(final int previousReadSector)
+    {
+        final int readPosition = nextRecordPosition(compactionReadPosition);
+        if (readPosition == NO_MORE_RECORDS)
+        {
+            return;
+        }
+
+        final int writePosition = compactionWritePosition;
+        final int writeSector = sectorStartOf(writePosition);
+        final int readSector = sectorStartOf(readPosition);
+
+        if (previousReadSector != readSector && previousReadSector != writeSector)
+        {
+            writeFiller(previousReadSector, MIN_FILLER_LENGTH);
+            zero(previousReadSector + MIN_FILLER_LENGTH, previousReadSector + SECTOR_DATA_LENGTH);
+            updateChecksum(previousReadSector, previousReadSector + SECTOR_DATA_LENGTH);
+        }
+
+        if (writeSector == readSector)
+        {
+            if (readPosition > writePosition)
+            {
+                writeFiller(writePosition, readPosition - writePosition);
+            }
+        }
+        else
+        {
+            zero(writePosition, writeSector + SECTOR_DATA_LENGTH);
+            if (readPosition > readSector)
+            {
+                writeFiller(readSector, readPosition - readSector);
+            }
+            updateChecksum(readSector, readSector + SECTOR_DATA_LENGTH);
+        }
+
+        updateChecksum(writeSector, writeSector + SECTOR_DATA_LENGTH);
+    }
+
+    private void finishCompaction()
+    {
+        final int writePosition = compactionWritePosition;
+        final int writeSector = sectorStartOf(writePosition);
+        final int end = compactionReadPosition;
+
+        // Zeroed from the end so that the file never links to a partially zeroed record
+        for (int sector = sectorStartOf(end); sector > writeSector; sector -= SECTOR_SIZE)
+        {
+            zero(sector, sector + SECTOR_SIZE);
+        }
+        zero(writePosition, writeSector + SECTOR_DATA_LENGTH);
+        updateChecksum(writeSector, writeSector + SECTOR_DATA_LENGTH);
+
+        filePosition = writePosition;
+        compacting = false;
+        compactionPending = false;
+        if (offHeapIndex != null)
+        {
+            saveIndexState();
+        }
+        force();
+    }
+
+    private void writeFiller(final int position, final int length)
+    {
+        sessionIdEncoder
+            .wrap(buffer, position)
+            .sessionId(Session.UNKNOWN)
+            .sequenceIndex(0)
+            .logonTime(0)
+            .lastSequenceResetTime(0)
+            .compositeKeyLength(length - MIN_FILLER_LENGTH)
+            .lastFixDictionary("");
+    }
+
+    private void zero(final int start, final int end)
+    {
+        if (end > start)
+        {
+            buffer.setMemory(start, end - start, (byte)0);
+        }
+    }
+
+    private int nextRecordPosition(final int position)
+    {
+        final int lastRecordStart = buffer.capacity() - BLOCK_LENGTH;
+        if (position >= lastRecordStart)
+        {
+            return NO_MORE_RECORDS;
+        }
+
+        final int sectorStart = sectorStartOf(position);
+        final int endOfSessionId = position + SessionIdDecoder.sessionIdEncodingLength();
+        if (endOfSessionId > sectorStart + SECTOR_DATA_LENGTH || wrap(sessionIdDecoder, position) == 0)
+        {
+            final int nextSectorStart = sectorStart + SECTOR_SIZE;
+            if (nextSectorStart > lastRecordStart || wrap(sessionIdDecoder, nextSectorStart) == 0)
+            {
+                return NO_MORE_RECORDS;
+            }
+
+            return nextSectorStart;
+        }
+
+        return position;
+    }
+
+    /**
+     * Gets the size of the file required to save the off-heap index of a session id file.
+     *
+     * @param sessionIdFileSize the size of the session id file.
+     * @return the size of the index file in bytes.
+     */
+    public static int indexFileSize(final int sessionIdFileSize)
+    {
+        return OffHeapSessionIndex.indexFileSize(sessionIdFileSize);
+    }
+
+    private static int sectorStartOf(final int position)
+    {
+        return position - (position % SECTOR_SIZE);
     }
 
     long lookupSessionId(final CompositeKey compositeKey)
     {
+        if (offHeapIndex != null)
+        {
+            final int position = findPosition(compositeKey);
+            return position == OffHeapSessionIndex.MISSING ? Session.UNKNOWN : wrap(sessionIdDecoder, position);
+        }
+
         final SessionContext sessionContext = compositeToContext.get(compositeKey);
         if (sessionContext == null)
         {
@@ -533,16 +1042,114 @@ public class FixContexts implements SessionContexts
 
     public boolean isKnownSessionId(final long sessionId)
     {
+        if (offHeapIndex != null)
+        {
+            return offHeapIndex.positionOf(sessionId) != OffHeapSessionIndex.MISSING;
+        }
+
         return lookupById(sessionId) != null;
     }
 
+    /**
+     * Gets all the sessions. When stored off-heap the sessions that aren't in use are read from the file into
+     * read-only snapshots, rather than loaded into contexts, so this must be called on the Framer thread.
+     *
+     * @return all the sessions.
+     */
     public List<SessionInfo> allSessions()
     {
+        if (offHeapIndex != null)
+        {
+            final List<SessionInfo> sessions = new ArrayList<>();
+            for (long sessionId = LOWEST_VALID_SESSION_ID; sessionId < counter; sessionId++)
+            {
+                final SessionContext context = sessionIdToContext.get(sessionId);
+                if (context != null)
+                {
+                    sessions.add(context);
+                }
+                else
+                {
+                    final int position = offHeapIndex.positionOf(sessionId);
+                    if (position != OffHeapSessionIndex.MISSING)
+                    {
+                        final SessionInfo snapshot = loadSnapshot(position);
+                        if (snapshot != null)
+                        {
+                            sessions.add(snapshot);
+                        }
+                    }
+                }
+            }
+            return sessions;
+        }
+
         return allSessions;
     }
 
+    private SessionInfo loadSnapshot(final int position)
+    {
+        sessionIdDecoder.wrap(buffer, position, actingBlockLength, actingVersion);
+        final long sessionId = sessionIdDecoder.sessionId();
+        final int sequenceIndex = sessionIdDecoder.sequenceIndex();
+        final int compositeKeyLength = sessionIdDecoder.compositeKeyLength();
+        sessionIdDecoder.skipLastFixDictionary();
+
+        final CompositeKey compositeKey = idStrategy.load(buffer, sessionIdDecoder.limit(), compositeKeyLength);
+        if (compositeKey == null)
+        {
+            return null;
+        }
+
+        return new SessionSnapshot(sessionId, compositeKey, sequenceIndex);
+    }
+
+    boolean isOffHeap()
+    {
+        return offHeapIndex != null;
+    }
+
     int filePosition()
     {
         return filePosition;
     }
+
+    // Can't be updated, unlike a SessionContext, so changes can't be lost by being made to a copy
+    static final class SessionSnapshot implements SessionInfo
+    {
+        private final long sessionId;
+        private final CompositeKey sessionKey;
+        private final int sequenceIndex;
+
+        SessionSnapshot(final long sessionId, final CompositeKey sessionKey, final int sequenceIndex)
+        {
+            this.sessionId = sessionId;
+            this.sessionKey = sessionKey;
+            this.sequenceIndex = sequenceIndex;
+        }
+
+        public long sessionId()
+        {
+            return sessionId;
+        }
+
+        public CompositeKey sessionKey()
+        {
+            return sessionKey;
+        }
+
+        public int sequenceIndex()
+        {
+            return sequenceIndex;
+        }
+
+        public String toString()
+        {
+            return "SessionSnapshot{" +
+                "sessionId=" + sessionId +
+                ", sessionKey=" + sessionKey +
+                ", sequenceIndex=" + sequenceIndex +
+                '}';
+        }
+    }
 }
@@ -116,7 +116,8 @@ public class FixGatewaySessions extends GatewaySessions
             outboundPublication,
             errorHandler,
             sentSequenceNumberIndex,
-            receivedSequenceNumberIndex);
+            receivedSequenceNumberIndex,
+            configuration);
 
         this.sessionIdStrategy = sessionIdStrategy;
         this.customisationStrategy = customisationStrategy;
@@ -224,6 +225,10 @@ public class FixGatewaySessions extends GatewaySessions
             sessions.add(gatewaySession);
         }
         gatewaySession.manage(sessionParser, session, proxy);
+        if (sessionTimerWheel != null)
+        {
+            sessionTimerWheel.add(session);
+        }
 
         if (DebugLogger.isEnabled(FIX_CONNECTION))
         {
@@ -282,6 +287,20 @@ public class FixGatewaySessions extends GatewaySessions
         ((FixGatewaySession)session).lastSequenceResetTime(sessionContext.lastSequenceResetTime());
     }
 
+    protected void stopPolling(final GatewaySession gatewaySession)
+    {
+        super.stopPolling(gatewaySession);
+
+        if (sessionTimerWheel != null)
+        {
+            final InternalSession session = ((FixGatewaySession)gatewaySession).session();
+            if (session != null)
+            {
+                sessionTimerWheel.remove(session);
+            }
+        }
+    }
+
     final class FixPendingAcceptorLogon extends GatewaySessions.PendingAcceptorLogon implements AuthenticationProxy
     {
         private static final int ENCODE_BUFFER_SIZE = 1024;
@@ -19,6 +19,7 @@ import org.agrona.ErrorHandler;
 import org.agrona.Verify;
 import org.agrona.collections.CollectionUtil;
 import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.EpochNanoClock;
 import uk.co.real_logic.artio.engine.FixPSessionInfo;
@@ -36,6 +37,7 @@ import java.util.function.Function;
 
 import static uk.co.real_logic.artio.GatewayProcess.NO_CONNECTION_ID;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_LONG;
+import static uk.co.real_logic.artio.engine.SessionInfo.UNK_SESSION;
 import static uk.co.real_logic.artio.fixp.FixPFirstMessageResponse.*;
 
 
@@ -58,6 +60,8 @@ public class FixPContexts implements SessionContexts
 
     private final Long2LongHashMap authenticatedSessionIdToConnectionId = new Long2LongHashMap(MISSING_LONG);
     private final Map<FixPKey, InternalFixPContext> keyToContext = new HashMap<>();
+    // Only contains the contexts whose keys have a session id, eg: iLink3 sessions are identified by their uuid
+    private final Long2ObjectHashMap<InternalFixPContext> sessionIdToContext = new Long2ObjectHashMap<>();
     private final List<FixPSessionInfo> sessionInfos = new ArrayList<>();
 
     private int offset;
@@ -112,7 +116,13 @@ public class FixPContexts implements SessionContexts
 
     private void addContext(final InternalFixPContext context)
     {
-        final InternalFixPContext oldContext = keyToContext.put(context.key(), context);
+        final FixPKey key = context.key();
+        final InternalFixPContext oldContext = keyToContext.put(key, context);
+        final long sessionId = key.sessionIdIfExists();
+        if (sessionId != UNK_SESSION)
+        {
+            sessionIdToContext.put(sessionId, context);
+        }
         sessionInfos.add(new InfoWrapper(context));
         if (oldContext != null)
         {
@@ -269,16 +279,7 @@ public class FixPContexts implements SessionContexts
 
     InternalFixPContext lookupContext(final long sessionId)
     {
-        final Iterator<Map.Entry<FixPKey, InternalFixPContext>> it = keyToContext.entrySet().iterator();
-        while (it.hasNext())
-        {
-            final Map.Entry<FixPKey, InternalFixPContext> entry = it.next();
-            if (entry.getKey().sessionIdIfExists() == sessionId)
-            {
-                return entry.getValue();
-            }
-        }
-        return null;
+        return sessionIdToContext.get(sessionId);
     }
 
     public boolean isAuthenticated(final long sessionId)
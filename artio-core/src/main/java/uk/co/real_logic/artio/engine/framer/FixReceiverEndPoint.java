@@ -29,7 +29,7 @@ import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
 import uk.co.real_logic.artio.messages.DisconnectReason;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
-import uk.co.real_logic.artio.session.CompositeKey;
+import uk.co.real_logic.artio.timing.Timer;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.CharFormatter;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
@@ -38,7 +38,6 @@ import java.io.IOException;
 import java.nio.ByteOrder;
 import java.nio.channels.ClosedChannelException;
 import java.util.Arrays;
-import java.util.Map;
 import java.util.Objects;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
@@ -157,6 +156,8 @@ class FixReceiverEndPoint extends ReceiverEndPoint
     private final AcceptorFixDictionaryLookup acceptorFixDictionaryLookup;
     private final FixReceiverEndPointFormatters formatters;
     private final boolean reproductionEnabled;
+    private final Timer readToFrameTimer;
+    private final Timer frameToPublicationTimer;
 
     private FixGatewaySession gatewaySession;
     private long sessionId;
@@ -192,7 +193,9 @@ class FixReceiverEndPoint extends ReceiverEndPoint
         final FixReceiverEndPointFormatters formatters,
         final int throttleWindowInMs,
         final int throttleLimitOfMessages,
-        final boolean reproductionEnabled)
+        final boolean reproductionEnabled,
+        final Timer readToFrameTimer,
+        final Timer frameToPublicationTimer)
     {
         super(publication, channel, connectionId, bufferSize, errorHandler, framer, libraryId,
             throttleWindowInMs, throttleLimitOfMessages);
@@ -209,6 +212,8 @@ class FixReceiverEndPoint extends ReceiverEndPoint
         this.clock = clock;
         this.acceptorFixDictionaryLookup = acceptorFixDictionaryLookup;
         this.reproductionEnabled = reproductionEnabled;
+        this.readToFrameTimer = readToFrameTimer;
+        this.frameToPublicationTimer = frameToPublicationTimer;
 
         address = channel.remoteAddr();
     }
@@ -863,6 +868,7 @@ class FixReceiverEndPoint extends ReceiverEndPoint
                 length = passwordCleaner.cleanedLength();
             }
 
+            final long framedTimestamp = readToFrameTimer.now();
             final long position = publication.saveMessage(
                 buffer,
                 offset,
@@ -883,6 +889,10 @@ class FixReceiverEndPoint extends ReceiverEndPoint
             }
             else
             {
+                // Only recorded once the message is published, so that back-pressure retries aren't counted twice
+                readToFrameTimer.recordBetween(readTimestamp, framedTimestamp);
+                frameToPublicationTimer.recordSince(framedTimestamp);
+
                 gatewaySession.onMessage(buffer, offset, length, messageType, position);
                 return true;
             }
@@ -1095,10 +1105,9 @@ class FixReceiverEndPoint extends ReceiverEndPoint
 
     void cleanupDisconnectState(final DisconnectReason reason)
     {
-        final Map.Entry<CompositeKey, SessionContext> entry = fixContexts.lookupById(sessionId);
-        if (entry != null)
+        final SessionContext sessionContext = fixContexts.lookupById(sessionId);
+        if (sessionContext != null)
         {
-            final SessionContext sessionContext = entry.getValue();
             final int currentSequenceIndex = sessionContext.sequenceIndex();
             if (pendingSequenceIndex > currentSequenceIndex)
             {
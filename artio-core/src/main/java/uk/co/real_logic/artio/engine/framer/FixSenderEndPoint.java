@@ -35,6 +35,7 @@ import uk.co.real_logic.artio.util.CharFormatter;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
@@ -59,6 +60,7 @@ class FixSenderEndPoint extends SenderEndPoint
     static final int ENQ_MESSAGE_BLOCK_LEN = SIZE_OF_INT + SIZE_OF_INT + SIZE_OF_INT + SIZE_OF_INT;
 
     protected static final int NO_REATTEMPT = 0;
+    private static final int INITIAL_BATCH_CAPACITY = 16;
 
     static class Formatters
     {
@@ -108,6 +110,20 @@ class FixSenderEndPoint extends SenderEndPoint
 
     private boolean disconnected;
 
+    // Messages from a single poll of the library subscription are staged here and written with one gathering write.
+    // Bodies aren't copied, each one has a view of the term buffer that it was polled from. The publication can't
+    // reuse that part of the term until the subscription has moved more than a term past it, so the views stay valid
+    // until the batch is flushed at the end of the poll. The entries hold the seqNum, body offset, body length and
+    // meta data of each one.
+    private ByteBuffer[] batchViews = new ByteBuffer[INITIAL_BATCH_CAPACITY];
+    private ByteBuffer[] batchViewSources = new ByteBuffer[INITIAL_BATCH_CAPACITY];
+    private DirectBuffer[] batchBuffers = new DirectBuffer[INITIAL_BATCH_CAPACITY];
+    private ExpandableDirectByteBuffer batchEntries;
+    private int batchSize;
+    private int batchEntriesLength;
+    private int batchLastSeqNum;
+    private long batchTimeInMs;
+
     FixSenderEndPoint(
         final long connectionId,
         final int libraryId,
@@ -151,6 +167,31 @@ class FixSenderEndPoint extends SenderEndPoint
         final long messageType,
         final long timeInMs,
         final int metaDataLength)
+    {
+        onOutboundMessage(
+            libraryId,
+            directBuffer,
+            offset,
+            bodyLength,
+            sequenceNumber,
+            sequenceIndex,
+            messageType,
+            timeInMs,
+            metaDataLength,
+            false);
+    }
+
+    void onOutboundMessage(
+        final int libraryId,
+        final DirectBuffer directBuffer,
+        final int offset,
+        final int bodyLength,
+        final int sequenceNumber,
+        final int sequenceIndex,
+        final long messageType,
+        final long timeInMs,
+        final int metaDataLength,
+        final boolean batch)
     {
         if (isWrongLibraryId(libraryId))
         {
@@ -158,7 +199,7 @@ class FixSenderEndPoint extends SenderEndPoint
             return;
         }
 
-        onMessage(directBuffer, offset, bodyLength, metaDataLength, sequenceNumber, timeInMs, false);
+        onMessage(directBuffer, offset, bodyLength, metaDataLength, sequenceNumber, timeInMs, false, batch);
 
         senderSequenceNumber.onNewMessage(sequenceNumber);
 
@@ -238,11 +279,27 @@ class FixSenderEndPoint extends SenderEndPoint
     public void onMessage(
         final DirectBuffer directBuffer, final int offset, final int bodyLength, final int metaDataLength,
         final int seqNum, final long timeInMs, final boolean replay)
+    {
+        onMessage(directBuffer, offset, bodyLength, metaDataLength, seqNum, timeInMs, replay, false);
+    }
+
+    private void onMessage(
+        final DirectBuffer directBuffer, final int offset, final int bodyLength, final int metaDataLength,
+        final int seqNum, final long timeInMs, final boolean replay, final boolean batch)
     {
         try
         {
             final int metaDataOffset = offset - FixMessageDecoder.bodyHeaderLength() - metaDataLength;
 
+            if (batch && !replay && !replaying && !requiresRetry)
+            {
+                stageMessage(directBuffer, offset, bodyLength, metaDataOffset, metaDataLength, seqNum, timeInMs);
+                return;
+            }
+
+            // Messages that can't be staged are written after the staged ones in order to keep the stream in order
+            flushBatch();
+
             if ((replaying && !replay) || (!replaying && replay) || requiresRetry)
             {
                 enqueueMessage(directBuffer, offset, bodyLength, metaDataOffset, metaDataLength, seqNum, replay);
@@ -300,6 +357,139 @@ class FixSenderEndPoint extends SenderEndPoint
         }
     }
 
+    private void stageMessage(
+        final DirectBuffer srcBuffer, final int srcOffset, final int bodyLength,
+        final int metaDataOffset, final int metaDataLength, final int sequenceNumber, final long timeInMs)
+    {
+        final int batchSize = this.batchSize;
+        if (batchSize == batchViews.length)
+        {
+            final int newCapacity = batchSize * 2;
+            batchViews = Arrays.copyOf(batchViews, newCapacity);
+            batchViewSources = Arrays.copyOf(batchViewSources, newCapacity);
+            batchBuffers = Arrays.copyOf(batchBuffers, newCapacity);
+        }
+
+        ExpandableDirectByteBuffer batchEntries = this.batchEntries;
+        if (batchEntries == null)
+        {
+            batchEntries = this.batchEntries = new ExpandableDirectByteBuffer();
+        }
+
+        // Views are reused for as long as the library's log buffer is, so they're only allocated when it changes
+        final ByteBuffer srcByteBuffer = srcBuffer.byteBuffer();
+        ByteBuffer view = batchViews[batchSize];
+        if (batchViewSources[batchSize] != srcByteBuffer)
+        {
+            view = batchViews[batchSize] = srcByteBuffer.duplicate();
+            batchViewSources[batchSize] = srcByteBuffer;
+        }
+
+        final int viewOffset = srcBuffer.wrapAdjustment() + srcOffset;
+        view.clear();
+        ByteBufferUtil.position(view, viewOffset);
+        ByteBufferUtil.limit(view, viewOffset + bodyLength);
+        batchBuffers[batchSize] = srcBuffer;
+        this.batchSize = batchSize + 1;
+
+        int entryOffset = batchEntriesLength;
+        batchEntries.putInt(entryOffset, sequenceNumber);
+        entryOffset += SIZE_OF_INT;
+
+        batchEntries.putInt(entryOffset, srcOffset);
+        entryOffset += SIZE_OF_INT;
+
+        batchEntries.putInt(entryOffset, bodyLength);
+        entryOffset += SIZE_OF_INT;
+
+        batchEntries.putInt(entryOffset, metaDataLength);
+        entryOffset += SIZE_OF_INT;
+
+        batchEntries.putBytes(entryOffset, srcBuffer, metaDataOffset, metaDataLength);
+        batchEntriesLength = entryOffset + metaDataLength;
+
+        batchLastSeqNum = sequenceNumber;
+        batchTimeInMs = timeInMs;
+    }
+
+    boolean hasBatch()
+    {
+        return batchSize > 0;
+    }
+
+    // Writes the staged messages with a single gathering write, messages that weren't completely written are enqueued
+    // to be reattempted in the same way as an individually written message.
+    void flushBatch()
+    {
+        final int batchSize = this.batchSize;
+        if (batchSize == 0)
+        {
+            return;
+        }
+
+        this.batchSize = 0;
+        this.batchEntriesLength = 0;
+
+        try
+        {
+            final DirectBuffer[] batchBuffers = this.batchBuffers;
+            final ExpandableDirectByteBuffer batchEntries = this.batchEntries;
+            final int written = channel.write(batchViews, batchSize, batchLastSeqNum);
+
+            int remaining = written;
+            boolean backPressured = false;
+            int entryOffset = 0;
+            for (int i = 0; i < batchSize; i++)
+            {
+                final DirectBuffer srcBuffer = batchBuffers[i];
+                batchBuffers[i] = null;
+
+                final int sequenceNumber = batchEntries.getInt(entryOffset);
+                final int bodyOffset = batchEntries.getInt(entryOffset + SIZE_OF_INT);
+                final int bodyLength = batchEntries.getInt(entryOffset + 2 * SIZE_OF_INT);
+                final int metaDataLength = batchEntries.getInt(entryOffset + 3 * SIZE_OF_INT);
+                final int metaDataOffset = entryOffset + 4 * SIZE_OF_INT;
+
+                if (backPressured)
+                {
+                    enqueueMessage(srcBuffer, bodyOffset, bodyLength,
+                        batchEntries, metaDataOffset, metaDataLength, sequenceNumber, false);
+                }
+                else if (remaining < bodyLength)
+                {
+                    backPressured = true;
+                    this.reattemptBytesWritten = remaining;
+                    DebugLogger.log(FIX_MESSAGE_TCP, "Written  ", srcBuffer, bodyOffset, remaining);
+                    enqueueMessage(srcBuffer, bodyOffset, bodyLength,
+                        batchEntries, metaDataOffset, metaDataLength, sequenceNumber, false);
+
+                    tryLogBackPressure(sequenceNumber, false, remaining);
+                }
+                else
+                {
+                    remaining -= bodyLength;
+                    DebugLogger.log(FIX_MESSAGE_TCP, "Written  ", srcBuffer, bodyOffset, bodyLength);
+
+                    final MessageTimingHandler messageTimingHandler = this.messageTimingHandler;
+                    if (messageTimingHandler != null)
+                    {
+                        messageTimingHandler.onMessage(
+                            sequenceNumber, connectionId, batchEntries, metaDataOffset, metaDataLength);
+                    }
+                }
+
+                entryOffset = metaDataOffset + metaDataLength;
+            }
+
+            updateSendingTimeoutTimeInMs(batchTimeInMs, written);
+        }
+        catch (final IOException e)
+        {
+            Arrays.fill(batchBuffers, 0, batchSize, null);
+            errorHandler.onError(e);
+        }
+    }
+
     private void tryLogBackPressure(final int seqNum, final boolean replay, final int written)
     {
         final ReproductionLogWriter reproductionLogWriter = this.reproductionLogWriter;
@@ -345,11 +535,18 @@ class FixSenderEndPoint extends SenderEndPoint
         final DirectBuffer srcBuffer, final int srcOffset, final int bodyLength,
         final int metaDataOffset, final int metaDataLength, final int sequenceNumber, final boolean replay)
     {
-        final int totalLength = ENQ_MESSAGE_BLOCK_LEN + bodyLength + metaDataLength;
-        final ReattemptState reattemptState = enqueue(totalLength, replay);
+        enqueueMessage(
+            srcBuffer, srcOffset, bodyLength, srcBuffer, metaDataOffset, metaDataLength, sequenceNumber, replay);
+    }
 
-        int reattemptOffset = reattemptState.usage - totalLength;
-        final ExpandableDirectByteBuffer buffer = reattemptState.buffer();
+    private void enqueueMessage(
+        final DirectBuffer srcBuffer, final int srcOffset, final int bodyLength,
+        final DirectBuffer metaDataBuffer, final int metaDataOffset, final int metaDataLength,
+        final int sequenceNumber, final boolean replay)
+    {
+        final int totalLength = ENQ_MESSAGE_BLOCK_LEN + bodyLength + metaDataLength;
+        int reattemptOffset = enqueue(totalLength, replay);
+        final ExpandableDirectByteBuffer buffer = reattemptState(replay).buffer;
 
         buffer.putInt(reattemptOffset, ENQ_MSG);
         reattemptOffset += SIZE_OF_INT;
@@ -366,7 +563,7 @@ class FixSenderEndPoint extends SenderEndPoint
         buffer.putInt(reattemptOffset, metaDataLength);
         reattemptOffset += SIZE_OF_INT;
 
-        buffer.putBytes(reattemptOffset, srcBuffer, metaDataOffset, metaDataLength);
+        buffer.putBytes(reattemptOffset, metaDataBuffer, metaDataOffset, metaDataLength);
     }
 
     private void enqueueReplayComplete(final long correlationId)
@@ -381,10 +578,8 @@ class FixSenderEndPoint extends SenderEndPoint
 
     private void enqueueCorrelation(final long correlationId, final int messageType)
     {
-        final ReattemptState reattemptState = enqueue(ENQ_REPLAY_COMPLETE_LEN, true);
-
-        int reattemptOffset = reattemptState.usage - ENQ_REPLAY_COMPLETE_LEN;
-        final ExpandableDirectByteBuffer buffer = reattemptState.buffer();
+        int reattemptOffset = enqueue(ENQ_REPLAY_COMPLETE_LEN, true);
+        final ExpandableDirectByteBuffer buffer = replayBuffer.buffer;
 
         buffer.putInt(reattemptOffset, messageType);
         reattemptOffset += SIZE_OF_INT;
@@ -392,7 +587,8 @@ class FixSenderEndPoint extends SenderEndPoint
         buffer.putLong(reattemptOffset, correlationId);
     }
 
-    private ReattemptState enqueue(final int length, final boolean replay)
+    // returns the offset within the reattempt state's buffer to write the entry at
+    private int enqueue(final int length, final boolean replay)
     {
         // we only need re-attempting when we've got messages buffered for the current state
         final boolean currentStream = replay == replaying;
@@ -404,8 +600,8 @@ class FixSenderEndPoint extends SenderEndPoint
 
         final ReattemptState reattemptState = reattemptState(replay);
 
-        final int bufferUsage = reattemptState.usage + length;
-        reattemptState.usage = bufferUsage;
+        final int reattemptOffset = reattemptState.claim(length);
+        final int bufferUsage = reattemptState.usage;
         if (currentStream)
         {
             if (bufferUsage > maxBytesInBuffer)
@@ -424,7 +620,7 @@ class FixSenderEndPoint extends SenderEndPoint
 
             bytesInBuffer.setOrdered(bufferUsage);
         }
-        return reattemptState;
+        return reattemptOffset;
     }
 
     private ReattemptState reattemptState(final boolean replay)
@@ -436,15 +632,14 @@ class FixSenderEndPoint extends SenderEndPoint
     {
         final ReattemptState reattemptState = reattemptState(replay);
         final ExpandableDirectByteBuffer buffer = reattemptState.buffer;
-        final int reattemptBufferUsage = reattemptState.usage;
-        if (reattemptBufferUsage == 0)
+        if (reattemptState.usage == 0)
         {
             return true;
         }
 
-        int offset = 0;
-        while (offset < reattemptBufferUsage)
+        while (reattemptState.usage > 0)
         {
+            final int offset = reattemptState.head;
             try
             {
                 final int enqueueType = buffer.getInt(offset);
@@ -480,8 +675,8 @@ class FixSenderEndPoint extends SenderEndPoint
                     }
                     else
                     {
-                        offset = onProcessMsgComplete(
-                            replay, buffer, offset, sequenceNumber, bodyLength, bodyOffset, totalWritten);
+                        reattemptState.consume(onProcessMsgComplete(
+                            replay, buffer, offset, sequenceNumber, bodyLength, bodyOffset, totalWritten));
                     }
                 }
                 else if (enqueueType == ENQ_REPLAY_COMPLETE)
@@ -491,14 +686,13 @@ class FixSenderEndPoint extends SenderEndPoint
                     this.reattemptBytesWritten = NO_REATTEMPT;
 
                     // Complete
-                    final int endOfReplayEntry = idOffset + SIZE_OF_LONG;
+                    reattemptState.consume(ENQ_REPLAY_COMPLETE_LEN);
 
                     // peek the next message to see if we need to continue replaying
                     // If not then we end the replay, otherwise we keep replaying
-                    if (buffer.getInt(endOfReplayEntry) != ENQ_START_REPLAY)
+                    if (reattemptState.peekType() != ENQ_START_REPLAY)
                     {
                         replaying(false, correlationId);
-                        reattemptState.shuffleWritten(endOfReplayEntry);
                         bytesInBuffer.setOrdered(normalBuffer.usage);
                         return true;
                     }
@@ -506,7 +700,7 @@ class FixSenderEndPoint extends SenderEndPoint
                 else if (enqueueType == ENQ_START_REPLAY)
                 {
                     // We just ensure that we're still replaying and skip these messages
-                    offset += ENQ_START_REPLAY_LEN;
+                    reattemptState.consume(ENQ_START_REPLAY_LEN);
                 }
                 else
                 {
@@ -522,11 +716,12 @@ class FixSenderEndPoint extends SenderEndPoint
             }
         }
 
-        final int usage = reattemptState.shuffleWritten(offset);
+        final int usage = reattemptState.usage;
         bytesInBuffer.setOrdered(usage);
         return usage == 0;
     }
 
+    // returns the length of the completed entry
     private int onProcessMsgComplete(
         final boolean replay,
         final ExpandableDirectByteBuffer buffer,
@@ -550,11 +745,13 @@ class FixSenderEndPoint extends SenderEndPoint
 
         this.reattemptBytesWritten = NO_REATTEMPT;
 
-        return offset + ENQ_MESSAGE_BLOCK_LEN + totalWritten + metaDataLength;
+        return metaDataOffset + metaDataLength - offset;
     }
 
     public boolean reattempt()
     {
+        flushBatch();
+
         return reattempt(replaying);
     }
 
@@ -686,6 +883,8 @@ class FixSenderEndPoint extends SenderEndPoint
                 formatters.replayComplete.clear().with(connectionId).with(correlationId));
         }
 
+        flushBatch();
+
         // can receive this when we're not replaying, but if we've already detected the end
         // of the current replay then replayCorrelationId = correlationId
         if ((!replaying && replayCorrelationId != correlationId) || !reattempt(true))
@@ -732,6 +931,8 @@ class FixSenderEndPoint extends SenderEndPoint
                 .with(connectionId).with(correlationId));
         }
 
+        flushBatch();
+
         // We start the replay with this message, rather than VRR because it doesn't race with replay complete.
         if (replaying || requiresRetry)
         {
@@ -791,12 +992,27 @@ class FixSenderEndPoint extends SenderEndPoint
         return reattemptBytesWritten;
     }
 
+    /**
+     * Queue of entries that are waiting to be written to the TCP channel. The entries are stored in a ring, so
+     * draining from the head never moves the remaining bytes. Each entry is kept contiguous so it can be written
+     * to the channel straight from the buffer. If an entry doesn't fit at the end of the buffer, it wraps around
+     * to the start, and the head skips the gap once it reaches the wrap limit.
+     *
+     * <code>usage</code> is the total length of the queued entries, so it doesn't count that gap.
+     */
     static class ReattemptState
     {
+        static final int NOT_WRAPPED = -1;
+        static final int NO_ENTRY = 0;
+
         ExpandableDirectByteBuffer buffer;
         int usage;
+        int head;
+        int tail;
+        // end of the entries at the top of the buffer when the tail has wrapped around to the start
+        int wrapLimit = NOT_WRAPPED;
 
-        ExpandableDirectByteBuffer buffer()
+        int claim(final int length)
         {
             ExpandableDirectByteBuffer buffer = this.buffer;
             if (buffer == null)
@@ -804,22 +1020,72 @@ class FixSenderEndPoint extends SenderEndPoint
                 buffer = this.buffer = new ExpandableDirectByteBuffer();
             }
 
-            buffer.checkLimit(usage);
+            final int tail = this.tail;
+            final int wrapLimit = this.wrapLimit;
+            final int claimOffset;
+            if (wrapLimit == NOT_WRAPPED)
+            {
+                if (tail + length > buffer.capacity() && length <= head)
+                {
+                    this.wrapLimit = tail;
+                    claimOffset = 0;
+                }
+                else
+                {
+                    buffer.checkLimit(tail + length);
+                    claimOffset = tail;
+                }
+            }
+            else if (tail + length > head)
+            {
+                // Out of space: grow and unwrap by moving the entries at the start after those at the top.
+                buffer.checkLimit(wrapLimit + tail + length);
+                buffer.putBytes(wrapLimit, buffer, 0, tail);
+                this.wrapLimit = NOT_WRAPPED;
+                claimOffset = wrapLimit + tail;
+            }
+            else
+            {
+                claimOffset = tail;
+            }
+
+            this.tail = claimOffset + length;
+            usage += length;
 
-            return buffer;
+            return claimOffset;
         }
 
-        int shuffleWritten(final int written)
+        int consume(final int length)
         {
-            int usage = this.usage;
-            if (written > 0)
+            final int usage = this.usage - length;
+            this.usage = usage;
+            if (usage == 0)
             {
-                usage -= written;
-                buffer.putBytes(0, buffer, written, usage);
-                this.usage = usage;
+                head = 0;
+                tail = 0;
+                wrapLimit = NOT_WRAPPED;
+            }
+            else
+            {
+                final int head = this.head + length;
+                if (head == wrapLimit)
+                {
+                    this.head = 0;
+                    wrapLimit = NOT_WRAPPED;
+                }
+                else
+                {
+                    this.head = head;
+                }
             }
+
             return usage;
         }
+
+        int peekType()
+        {
+            return usage == 0 ? NO_ENTRY : buffer.getInt(head);
+        }
     }
 
     protected void sendSlowStatus(final boolean hasBecomeSlow)
@@ -19,14 +19,18 @@ import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongArrayList;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.LogTag;
 import uk.co.real_logic.artio.engine.FixEngine;
+import uk.co.real_logic.artio.timing.Timer;
 import uk.co.real_logic.artio.util.CharFormatter;
 
+import java.util.ArrayList;
 import java.util.function.LongToIntFunction;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static uk.co.real_logic.artio.CommonConfiguration.TIME_MESSAGES;
 import static uk.co.real_logic.artio.DebugLogger.IS_REPLAY_LOG_TAG_ENABLED;
 
 class FixSenderEndPoints implements AutoCloseable
@@ -35,7 +39,14 @@ class FixSenderEndPoints implements AutoCloseable
         "SEPs.missReplayComplete, connId=%s, corrId=%s, slow=%s");
 
     private final Long2ObjectHashMap<FixSenderEndPoint> connectionIdToSenderEndpoint = new Long2ObjectHashMap<>();
+    private final boolean outboundBatchingEnabled;
+    // End points that have staged messages during the current library poll, may contain duplicates
+    private final ArrayList<FixSenderEndPoint> batchedEndPoints = new ArrayList<>();
+    // When the framer picked up each message staged during the current library poll, only used when timing
+    private final LongArrayList stagedPickupTimestamps = new LongArrayList();
     private final ErrorHandler errorHandler;
+    // From the framer picking the message up to it being written to the TCP channel
+    private final Timer sendTimer;
     private final LongToIntFunction libraryLookup = this::libraryLookup;
 
     private int libraryLookup(final long sessionId)
@@ -53,9 +64,11 @@ class FixSenderEndPoints implements AutoCloseable
 
     private long timeInMs;
 
-    FixSenderEndPoints(final ErrorHandler errorHandler)
+    FixSenderEndPoints(final ErrorHandler errorHandler, final boolean outboundBatchingEnabled, final Timer sendTimer)
     {
         this.errorHandler = errorHandler;
+        this.outboundBatchingEnabled = outboundBatchingEnabled;
+        this.sendTimer = sendTimer;
     }
 
     public void add(final FixSenderEndPoint senderEndPoint)
@@ -68,6 +81,7 @@ class FixSenderEndPoints implements AutoCloseable
         final FixSenderEndPoint senderEndPoint = connectionIdToSenderEndpoint.remove(connectionId);
         if (senderEndPoint != null)
         {
+            senderEndPoint.flushBatch();
             senderEndPoint.close();
         }
     }
@@ -81,11 +95,17 @@ class FixSenderEndPoints implements AutoCloseable
         final int sequenceNumber,
         final int sequenceIndex,
         final long messageType,
-        final int metaDataLength)
+        final int metaDataLength,
+        final long pickupTimestamp,
+        final boolean inTermBuffer)
     {
         final FixSenderEndPoint endPoint = connectionIdToSenderEndpoint.get(connectionId);
         if (endPoint != null)
         {
+            // Staged messages are referenced rather than copied, so reassembled messages, whose buffer is reused by
+            // the next one, are written individually.
+            final boolean outboundBatchingEnabled = this.outboundBatchingEnabled && inTermBuffer;
+            final boolean hadBatch = outboundBatchingEnabled && endPoint.hasBatch();
             endPoint.onOutboundMessage(
                 libraryId,
                 buffer,
@@ -95,13 +115,68 @@ class FixSenderEndPoints implements AutoCloseable
                 sequenceIndex,
                 messageType,
                 timeInMs,
-                metaDataLength);
+                metaDataLength,
+                outboundBatchingEnabled);
+
+            final boolean staged = outboundBatchingEnabled && endPoint.hasBatch();
+            if (staged && !hadBatch)
+            {
+                batchedEndPoints.add(endPoint);
+            }
+
+            if (!staged)
+            {
+                sendTimer.recordSince(pickupTimestamp);
+            }
+            else if (TIME_MESSAGES)
+            {
+                stagedPickupTimestamps.addLong(pickupTimestamp);
+            }
             return true;
         }
 
         return false;
     }
 
+    // Called after each poll of the library subscription so that staged messages aren't held between duty cycles
+    int flushBatches()
+    {
+        final ArrayList<FixSenderEndPoint> batchedEndPoints = this.batchedEndPoints;
+        final int size = batchedEndPoints.size();
+        if (size == 0)
+        {
+            return 0;
+        }
+
+        for (int i = 0; i < size; i++)
+        {
+            batchedEndPoints.get(i).flushBatch();
+        }
+        batchedEndPoints.clear();
+
+        recordStagedSends();
+
+        return size;
+    }
+
+    // Staged messages are written when their batch is flushed, which is usually here but may be earlier if a message
+    // that can't be staged is sent on the same connection, so this is an upper bound for those ones.
+    private void recordStagedSends()
+    {
+        final LongArrayList stagedPickupTimestamps = this.stagedPickupTimestamps;
+        final int size = stagedPickupTimestamps.size();
+        if (size > 0)
+        {
+            final Timer sendTimer = this.sendTimer;
+            final long now = sendTimer.now();
+            for (int i = 0; i < size; i++)
+            {
+                sendTimer.recordBetween(stagedPickupTimestamps.getLong(i), now);
+            }
+            stagedPickupTimestamps.clear();
+        }
+    }
+
     Action onThrottleReject(
         final int libraryId,
         final long connectionId,
@@ -137,7 +137,6 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private final EpochClock epochClock;
     private final EpochNanoClock clock;
     private final Timer outboundTimer;
-    private final Timer sendTimer;
 
     private final ControlledFragmentHandler librarySubscriber;
     private final ControlledFragmentHandler replaySubscriber;
@@ -243,7 +242,6 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         this.epochClock = epochClock;
         this.clock = configuration.epochNanoClock();
         this.outboundTimer = outboundTimer;
-        this.sendTimer = sendTimer;
         this.configuration = configuration;
         this.adminEngineSubscription = adminEngineSubscription;
         this.adminReplyPublication = adminReplyPublication;
@@ -258,7 +256,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         this.agentNamePrefix = agentNamePrefix;
         this.inboundCompletionPosition = inboundCompletionPosition;
         this.outboundLibraryCompletionPosition = outboundLibraryCompletionPosition;
-        this.fixSenderEndPoints = new FixSenderEndPoints(errorHandler);
+        this.fixSenderEndPoints = new FixSenderEndPoints(
+            errorHandler, outboundBatchingEnabled(configuration), sendTimer);
         this.countersReader = countersReader;
         this.inboundIndexRegistrationId = inboundIndexRegistrationId;
         this.outboundIndexRegistrationId = outboundIndexRegistrationId;
@@ -417,7 +416,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         return removeIf(replies, ResetSequenceNumberCommand::poll) +
             resendSaveNotifications(resendSlowStatus, SlowStatus.SLOW) +
             resendSaveNotifications(resendNotSlowStatus, SlowStatus.NOT_SLOW) +
-            timerWheel.poll(timeInMs, timerEventHandler, 10);
+            timerWheel.poll(timeInMs, timerEventHandler, 10) +
+            fixContexts.doCompactionWork();
     }
 
     private int resendSaveNotifications(final Long2LongHashMap resend, final SlowStatus status)
@@ -448,10 +448,19 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         return replayImage.controlledPoll(replaySubscriber, replayFragmentLimit);
     }
 
+    private static boolean outboundBatchingEnabled(final EngineConfiguration configuration)
+    {
+        // Reproduction logs back-pressure per message write, so it can't reproduce batched writes
+        return configuration.outboundBatchingEnabled() &&
+            !configuration.isReproductionEnabled() &&
+            !configuration.writeReproductionLog();
+    }
+
     private int sendOutboundMessages()
     {
         return fixPSenderEndPoints.reattempt() +
             librarySubscription.controlledPoll(librarySubscriber, outboundLibraryFragmentLimit) +
+            fixSenderEndPoints.flushBatches() +
             adminEngineSubscription.poll(adminEngineProtocolSubscription, outboundLibraryFragmentLimit);
     }
 
@@ -910,14 +919,14 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         final CancelOnDisconnectTimeoutHandler handler = configuration.cancelOnDisconnectTimeoutHandler();
         if (handler != null)
         {
-            final Map.Entry<CompositeKey, SessionContext> entry = fixContexts.lookupById(sessionId);
-            if (entry == null)
+            final SessionContext context = fixContexts.lookupById(sessionId);
+            if (context == null)
             {
                 cancelOnDisconnectError(sessionId);
                 return;
             }
 
-            final CompositeKey sessionKey = entry.getKey();
+            final CompositeKey sessionKey = context.sessionKey();
             schedule(new CancelOnDisconnectTimeoutOperation(sessionId, timeInNs, clock, errorHandler)
             {
                 protected void onCancelOnDisconnectTimeout()
@@ -1691,15 +1700,15 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             sequenceNumber,
             sequenceIndex,
             messageType,
-            metaDataLength);
+            metaDataLength,
+            now,
+            buffer == header.buffer());
 
         if (!online)
         {
             checkOfflineSequenceReset(sessionId, messageType, sequenceIndex);
         }
 
-        sendTimer.recordSince(now);
-
         return CONTINUE;
     }
 
@@ -1717,10 +1726,9 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     {
         if (messageType == LOGON_MESSAGE_TYPE || messageType == SEQUENCE_RESET_MESSAGE_TYPE)
         {
-            final Map.Entry<CompositeKey, SessionContext> entry = fixContexts.lookupById(sessionId);
-            if (entry != null)
+            final SessionContext context = fixContexts.lookupById(sessionId);
+            if (context != null)
             {
-                final SessionContext context = entry.getValue();
                 final int currentSequenceIndex = context.sequenceIndex();
                 if (sequenceIndex > currentSequenceIndex)
                 {
@@ -2425,8 +2433,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         final int replayFromSequenceIndex,
         final int replayFromSequenceNumber)
     {
-        final Map.Entry<CompositeKey, SessionContext> entry = fixContexts.lookupById(sessionId);
-        if (entry == null)
+        final SessionContext context = fixContexts.lookupById(sessionId);
+        if (context == null)
         {
             return false;
         }
@@ -2443,8 +2451,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                 correlationId,
                 replayFromSequenceIndex,
                 replayFromSequenceNumber,
-                entry.getKey(),
-                entry.getValue()));
+                context.sessionKey(),
+                context));
         }
 
         return true;
@@ -3164,6 +3172,11 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         command.success(libraries);
     }
 
+    List<SessionInfo> onAllSessions()
+    {
+        return fixContexts.allSessions();
+    }
+
     void onResetSessionIds(final File backupLocation, final ResetSessionIdsCommand command)
     {
         schedule(new UnitOfWork(
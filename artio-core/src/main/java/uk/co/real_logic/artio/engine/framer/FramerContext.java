@@ -33,6 +33,7 @@ import uk.co.real_logic.artio.timing.EngineTimers;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -81,7 +82,8 @@ public class FramerContext
 
         this.fixContexts = new FixContexts(
             configuration.sessionIdBuffer(), sessionIdStrategy, configuration.initialSequenceIndex(), errorHandler,
-            configuration.isReproductionEnabled());
+            configuration.isReproductionEnabled(), configuration.sessionContextsOffHeap(),
+            configuration.sessionIdIndexBuffer());
         this.fixPContexts = new FixPContexts(
             configuration.fixPIdBuffer(),
             errorHandler,
@@ -144,7 +146,8 @@ public class FramerContext
                 errorHandler,
                 (FixGatewaySessions)gatewaySessions,
                 engineContext.senderSequenceNumbers(),
-                configuration.messageTimingHandler());
+                configuration.messageTimingHandler(),
+                timers);
         }
 
         final FinalImagePositions finalImagePositions = new FinalImagePositions();
@@ -368,7 +371,29 @@ public class FramerContext
 
     public List<SessionInfo> allSessions()
     {
-        return fixContexts.allSessions();
+        if (!fixContexts.isOffHeap())
+        {
+            return fixContexts.allSessions();
+        }
+
+        // Off-heap sessions are loaded from the session id file, which is only safe on the Framer thread
+        final AllSessionsCommand command = new AllSessionsCommand();
+        final IdleStrategy idleStrategy = CommonConfiguration.backoffIdleStrategy();
+        final EngineScheduler scheduler = configuration.scheduler();
+
+        while (!adminCommands.offer(command) && !startingClose)
+        {
+            idleStrategy.idle(scheduler.pollFramer());
+        }
+        idleStrategy.reset();
+
+        while (!command.isDone() && !startingClose)
+        {
+            idleStrategy.idle(scheduler.pollFramer());
+        }
+        idleStrategy.reset();
+
+        return command.isDone() ? command.sessions() : Collections.emptyList();
     }
 
     public List<FixPSessionInfo> allFixPSessions()
@@ -389,8 +414,8 @@ public class FramerContext
         return null;
     }
 
-    // Called on replayer thread
-    public void resetOutboundReplayQuery(final long fixSessionId)
+    // Called on inbound indexer thread, the idle strategy must belong to that thread
+    public void resetOutboundReplayQuery(final long fixSessionId, final IdleStrategy idleStrategy)
     {
         if (startingClose)
         {
@@ -399,7 +424,6 @@ public class FramerContext
 
         final ResetReplayQueryCommand command = new ResetReplayQueryCommand(fixSessionId);
 
-        final IdleStrategy idleStrategy = configuration.archiverIdleStrategy();
         // Need to poll the scheduler here in case we're in low resource mode where this blocking poll will
         // block the framer thread
         final EngineScheduler scheduler = configuration.scheduler();
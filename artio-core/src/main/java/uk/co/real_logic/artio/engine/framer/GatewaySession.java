@@ -88,6 +88,11 @@ abstract class GatewaySession implements AbstractConnectedSessionInfo
         return receiverEndPoint == null || receiverEndPoint.hasDisconnected();
     }
 
+    boolean hasNoLogonTimeout()
+    {
+        return disconnectTimeInMs != NO_TIMEOUT;
+    }
+
     int checkNoLogonDisconnect(final long timeInMs)
     {
         if (disconnectTimeInMs == NO_TIMEOUT)
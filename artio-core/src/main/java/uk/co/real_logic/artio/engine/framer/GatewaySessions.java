@@ -21,7 +21,9 @@ import org.agrona.collections.Long2LongHashMap;
 import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.EpochClock;
 import uk.co.real_logic.artio.FixGatewayException;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
 import uk.co.real_logic.artio.engine.logger.SequenceNumberIndexReader;
+import uk.co.real_logic.artio.library.SessionTimerWheel;
 import uk.co.real_logic.artio.messages.DisconnectReason;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.util.CharFormatter;
@@ -43,11 +45,14 @@ abstract class GatewaySessions
     protected final LongHashSet disconnectedSessionIds = new LongHashSet();
     protected final CharFormatter acquiredConnection = new CharFormatter("Gateway Acquired Connection %s");
     protected final List<GatewaySession> sessions = new ArrayList<>();
+    // When the timer wheel is enabled only these sessions have their no logon or authentication timeouts checked
+    private final List<GatewaySession> timeoutSessions = new ArrayList<>();
     protected final EpochClock epochClock;
     protected final GatewayPublication inboundPublication;
     protected final GatewayPublication outboundPublication;
     protected final SequenceNumberIndexReader sentSequenceNumberIndex;
     protected final SequenceNumberIndexReader receivedSequenceNumberIndex;
+    protected final SessionTimerWheel sessionTimerWheel;
     protected ErrorHandler errorHandler;
 
     GatewaySessions(
@@ -56,7 +61,8 @@ abstract class GatewaySessions
         final GatewayPublication outboundPublication,
         final ErrorHandler errorHandler,
         final SequenceNumberIndexReader sentSequenceNumberIndex,
-        final SequenceNumberIndexReader receivedSequenceNumberIndex)
+        final SequenceNumberIndexReader receivedSequenceNumberIndex,
+        final EngineConfiguration configuration)
     {
         this.epochClock = epochClock;
         this.inboundPublication = inboundPublication;
@@ -64,6 +70,8 @@ abstract class GatewaySessions
         this.errorHandler = errorHandler;
         this.sentSequenceNumberIndex = sentSequenceNumberIndex;
         this.receivedSequenceNumberIndex = receivedSequenceNumberIndex;
+        this.sessionTimerWheel = configuration.sessionTimerWheelEnabled() ?
+            new SessionTimerWheel(configuration.epochNanoClock().nanoTime()) : null;
     }
 
     static GatewaySession removeSessionByConnectionId(final long connectionId, final List<GatewaySession> sessions)
@@ -89,7 +97,9 @@ abstract class GatewaySessions
             return null;
         }
 
-        return sessions.remove(index);
+        final GatewaySession session = sessions.remove(index);
+        stopPolling(session);
+        return session;
     }
 
     GatewaySession sessionById(final long sessionId)
@@ -129,6 +139,7 @@ abstract class GatewaySessions
         final GatewaySession session = removeSessionByConnectionId(connectionId, sessions);
         if (session != null)
         {
+            stopPolling(session);
             session.onDisconnectReleasedByOwner();
             session.close();
 
@@ -142,6 +153,12 @@ abstract class GatewaySessions
 
     int pollSessions(final long timeInMs, final long timeInNs)
     {
+        final SessionTimerWheel sessionTimerWheel = this.sessionTimerWheel;
+        if (sessionTimerWheel != null)
+        {
+            return sessionTimerWheel.poll(timeInNs) + pollTimeoutSessions(timeInMs);
+        }
+
         final List<GatewaySession> sessions = this.sessions;
 
         int eventsProcessed = 0;
@@ -161,6 +178,32 @@ abstract class GatewaySessions
         return eventsProcessed;
     }
 
+    private int pollTimeoutSessions(final long timeInMs)
+    {
+        final List<GatewaySession> timeoutSessions = this.timeoutSessions;
+
+        int eventsProcessed = 0;
+        // Iterate backwards so that sessions released by a disconnect don't move the ones that are yet to be checked
+        for (int i = timeoutSessions.size() - 1; i >= 0; i--)
+        {
+            final GatewaySession session = timeoutSessions.get(i);
+            eventsProcessed += session.checkNoLogonDisconnect(timeInMs);
+            if (!session.hasDisconnected() && !session.hasNoLogonTimeout())
+            {
+                timeoutSessions.remove(i);
+            }
+        }
+        return eventsProcessed;
+    }
+
+    protected void stopPolling(final GatewaySession gatewaySession)
+    {
+        if (sessionTimerWheel != null)
+        {
+            timeoutSessions.remove(gatewaySession);
+        }
+    }
+
     List<GatewaySession> sessions()
     {
         return sessions;
@@ -198,6 +241,10 @@ abstract class GatewaySessions
     void track(final GatewaySession gatewaySession)
     {
         sessions.add(gatewaySession);
+        if (sessionTimerWheel != null)
+        {
+            timeoutSessions.add(gatewaySession);
+        }
     }
 
     public LongHashSet findDisconnectedSessions(final int libraryId)
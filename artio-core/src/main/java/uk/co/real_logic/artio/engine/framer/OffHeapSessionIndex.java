@@ -0,0 +1,392 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Hashing;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.storage.messages.SessionIdDecoder;
+import uk.co.real_logic.artio.storage.messages.SessionIdEncoder;
+
+import java.nio.ByteBuffer;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * Indexes the records of the session id file by the saved bytes of their composite key and by their session id,
+ * so that {@link FixContexts} doesn't need to keep an object for every session that it knows about.
+ * <p>
+ * Both tables are off-heap and only hold file positions. The composite key table uses open addressing with linear
+ * probing, each slot holding the hash of the key's bytes and the position of its record, with 0 marking an empty
+ * slot as records always start after the file's header. Keys are compared against the bytes in the file.
+ * The session id table is indexed directly by session id as they're allocated from a counter.
+ * <p>
+ * The index can be stored in its own file so that it doesn't need rebuilding on startup. The file is a header,
+ * recording how much of the session id file has been indexed, followed by both tables. As a session id file of a
+ * given size can only hold a bounded number of records the tables are sized up front from that and never resized.
+ */
+final class OffHeapSessionIndex
+{
+    static final int MISSING = -1;
+    static final int VERSION = 1;
+
+    private static final int VERSION_OFFSET = 0;
+    private static final int KEY_CAPACITY_OFFSET = VERSION_OFFSET + SIZE_OF_INT;
+    private static final int ID_CAPACITY_OFFSET = KEY_CAPACITY_OFFSET + SIZE_OF_INT;
+    private static final int INDEXED_POSITION_OFFSET = ID_CAPACITY_OFFSET + SIZE_OF_INT;
+    private static final int COUNTER_OFFSET = INDEXED_POSITION_OFFSET + SIZE_OF_INT;
+    private static final int COMPACTION_PENDING_OFFSET = COUNTER_OFFSET + SIZE_OF_LONG;
+    private static final int HEADER_LENGTH = 64;
+    private static final int MIN_RECORD_LENGTH =
+        SessionIdEncoder.BLOCK_LENGTH + SessionIdEncoder.lastFixDictionaryHeaderLength();
+
+    private static final int EMPTY = 0;
+    private static final int INITIAL_KEY_CAPACITY = 1024;
+    private static final int INITIAL_ID_CAPACITY = 1024;
+    private static final int SLOT_SIZE = 2 * SIZE_OF_INT;
+    private static final int POSITION_OFFSET = SIZE_OF_INT;
+
+    private final SessionIdDecoder sessionIdDecoder = new SessionIdDecoder();
+    private final AtomicBuffer fileBuffer;
+    private final int actingBlockLength;
+    private final int actingVersion;
+    private final boolean resizable;
+    private final UnsafeBuffer header;
+
+    private UnsafeBuffer keyTable;
+    private int keyCapacity;
+    private int keyMask;
+    private int resizeThreshold;
+    private int size;
+
+    private UnsafeBuffer idTable;
+    private int idCapacity;
+
+    OffHeapSessionIndex(final AtomicBuffer fileBuffer, final int actingBlockLength, final int actingVersion)
+    {
+        this.fileBuffer = fileBuffer;
+        this.actingBlockLength = actingBlockLength;
+        this.actingVersion = actingVersion;
+        resizable = true;
+        header = allocate(HEADER_LENGTH);
+        keyTable(allocate(INITIAL_KEY_CAPACITY * SLOT_SIZE), INITIAL_KEY_CAPACITY);
+        idCapacity = INITIAL_ID_CAPACITY;
+        idTable = allocate(idCapacity * SIZE_OF_INT);
+        clear();
+    }
+
+    OffHeapSessionIndex(
+        final AtomicBuffer fileBuffer,
+        final int actingBlockLength,
+        final int actingVersion,
+        final AtomicBuffer indexBuffer)
+    {
+        this.fileBuffer = fileBuffer;
+        this.actingBlockLength = actingBlockLength;
+        this.actingVersion = actingVersion;
+        resizable = false;
+
+        final int maxRecords = maxRecords(fileBuffer.capacity());
+        final int keyCapacity = keyCapacity(maxRecords);
+        idCapacity = idCapacity(maxRecords);
+        final int requiredLength = indexLength(keyCapacity, idCapacity);
+        if (indexBuffer.capacity() < requiredLength)
+        {
+            throw new IllegalArgumentException(String.format(
+                "Session id index of %d bytes is too small, %d bytes are required",
+                indexBuffer.capacity(),
+                requiredLength));
+        }
+
+        final int keyTableLength = keyCapacity * SLOT_SIZE;
+        header = new UnsafeBuffer(indexBuffer, 0, HEADER_LENGTH);
+        keyTable(new UnsafeBuffer(indexBuffer, HEADER_LENGTH, keyTableLength), keyCapacity);
+        idTable = new UnsafeBuffer(indexBuffer, HEADER_LENGTH + keyTableLength, idCapacity * SIZE_OF_INT);
+    }
+
+    /**
+     * Gets the size of the file required to index a session id file.
+     *
+     * @param sessionIdFileSize the size of the session id file.
+     * @return the size of the index file in bytes.
+     */
+    static int indexFileSize(final int sessionIdFileSize)
+    {
+        final int maxRecords = maxRecords(sessionIdFileSize);
+        return indexLength(keyCapacity(maxRecords), idCapacity(maxRecords));
+    }
+
+    /**
+     * Checks whether the index has been saved by the same version with the same capacity, if it hasn't then the
+     * index is cleared.
+     *
+     * @return true if the index is valid, false if it needs rebuilding.
+     */
+    boolean validateHeader()
+    {
+        if (header.getInt(VERSION_OFFSET) == VERSION &&
+            header.getInt(KEY_CAPACITY_OFFSET) == keyCapacity &&
+            header.getInt(ID_CAPACITY_OFFSET) == idCapacity)
+        {
+            return true;
+        }
+
+        clear();
+        return false;
+    }
+
+    int indexedPosition()
+    {
+        return header.getInt(INDEXED_POSITION_OFFSET);
+    }
+
+    long counter()
+    {
+        return header.getLong(COUNTER_OFFSET);
+    }
+
+    boolean compactionPending()
+    {
+        return header.getInt(COMPACTION_PENDING_OFFSET) != 0;
+    }
+
+    /**
+     * Saves how much of the session id file has been indexed, records after this position are read on startup.
+     *
+     * @param indexedPosition the position in the session id file up to which all records are indexed.
+     * @param counter the next session id to be allocated.
+     * @param compactionPending whether the session id file has relocated records that need compacting.
+     */
+    void saveState(final int indexedPosition, final long counter, final boolean compactionPending)
+    {
+        header.putInt(INDEXED_POSITION_OFFSET, indexedPosition);
+        header.putLong(COUNTER_OFFSET, counter);
+        header.putInt(COMPACTION_PENDING_OFFSET, compactionPending ? 1 : 0);
+    }
+
+    /**
+     * Finds the record of a composite key.
+     *
+     * @param key the buffer holding the key as saved by the session id strategy.
+     * @param keyOffset the offset of the key within the buffer.
+     * @param keyLength the length of the key.
+     * @return the position of the record within the file, or {@link #MISSING} if the key isn't indexed.
+     */
+    int find(final DirectBuffer key, final int keyOffset, final int keyLength)
+    {
+        final int hash = hash(key, keyOffset, keyLength);
+        int slot = hash & keyMask;
+        while (true)
+        {
+            final int slotOffset = slot * SLOT_SIZE;
+            final int position = keyTable.getInt(slotOffset + POSITION_OFFSET);
+            if (position == EMPTY)
+            {
+                return MISSING;
+            }
+
+            if (keyTable.getInt(slotOffset) == hash && keyEquals(position, key, keyOffset, keyLength))
+            {
+                return position;
+            }
+
+            slot = (slot + 1) & keyMask;
+        }
+    }
+
+    /**
+     * Indexes a record, replacing any previous record of the same key, eg: when a record has been relocated.
+     *
+     * @param sessionId the session id of the record.
+     * @param key the buffer holding the key as saved by the session id strategy.
+     * @param keyOffset the offset of the key within the buffer.
+     * @param keyLength the length of the key.
+     * @param position the position of the record within the file.
+     */
+    void put(
+        final long sessionId,
+        final DirectBuffer key,
+        final int keyOffset,
+        final int keyLength,
+        final int position)
+    {
+        final int hash = hash(key, keyOffset, keyLength);
+        int slot = hash & keyMask;
+        while (true)
+        {
+            final int slotOffset = slot * SLOT_SIZE;
+            final int oldPosition = keyTable.getInt(slotOffset + POSITION_OFFSET);
+            if (oldPosition == EMPTY)
+            {
+                keyTable.putInt(slotOffset, hash);
+                keyTable.putInt(slotOffset + POSITION_OFFSET, position);
+                if (resizable && ++size > resizeThreshold)
+                {
+                    resizeKeyTable();
+                }
+                break;
+            }
+
+            if (keyTable.getInt(slotOffset) == hash && keyEquals(oldPosition, key, keyOffset, keyLength))
+            {
+                keyTable.putInt(slotOffset + POSITION_OFFSET, position);
+                break;
+            }
+
+            slot = (slot + 1) & keyMask;
+        }
+
+        putPositionOf(sessionId, position);
+    }
+
+    int positionOf(final long sessionId)
+    {
+        if (sessionId < 0 || sessionId >= idCapacity)
+        {
+            return MISSING;
+        }
+
+        final int position = idTable.getInt((int)sessionId * SIZE_OF_INT);
+        return position == EMPTY ? MISSING : position;
+    }
+
+    void clear()
+    {
+        keyTable.setMemory(0, keyTable.capacity(), (byte)0);
+        idTable.setMemory(0, idTable.capacity(), (byte)0);
+        size = 0;
+
+        header.setMemory(0, HEADER_LENGTH, (byte)0);
+        header.putInt(KEY_CAPACITY_OFFSET, keyCapacity);
+        header.putInt(ID_CAPACITY_OFFSET, idCapacity);
+        header.putInt(VERSION_OFFSET, VERSION);
+    }
+
+    private void putPositionOf(final long sessionId, final int position)
+    {
+        if (sessionId >= idCapacity)
+        {
+            if (!resizable || sessionId >= Integer.MAX_VALUE / SIZE_OF_INT)
+            {
+                throw new IllegalStateException("Session id too large to index off-heap: " + sessionId);
+            }
+
+            final int newCapacity = BitUtil.findNextPositivePowerOfTwo((int)sessionId + 1);
+            final UnsafeBuffer newIdTable = allocate(newCapacity * SIZE_OF_INT);
+            newIdTable.putBytes(0, idTable, 0, idTable.capacity());
+            idTable = newIdTable;
+            idCapacity = newCapacity;
+            header.putInt(ID_CAPACITY_OFFSET, idCapacity);
+        }
+
+        idTable.putInt((int)sessionId * SIZE_OF_INT, position);
+    }
+
+    private void resizeKeyTable()
+    {
+        final UnsafeBuffer oldKeyTable = keyTable;
+        final int oldCapacity = keyCapacity;
+        keyTable(allocate(oldCapacity * 2 * SLOT_SIZE), oldCapacity * 2);
+        header.putInt(KEY_CAPACITY_OFFSET, keyCapacity);
+
+        for (int oldSlot = 0; oldSlot < oldCapacity; oldSlot++)
+        {
+            final int oldSlotOffset = oldSlot * SLOT_SIZE;
+            final int position = oldKeyTable.getInt(oldSlotOffset + POSITION_OFFSET);
+            if (position != EMPTY)
+            {
+                final int hash = oldKeyTable.getInt(oldSlotOffset);
+                int slot = hash & keyMask;
+                while (keyTable.getInt(slot * SLOT_SIZE + POSITION_OFFSET) != EMPTY)
+                {
+                    slot = (slot + 1) & keyMask;
+                }
+
+                keyTable.putInt(slot * SLOT_SIZE, hash);
+                keyTable.putInt(slot * SLOT_SIZE + POSITION_OFFSET, position);
+            }
+        }
+    }
+
+    private void keyTable(final UnsafeBuffer keyTable, final int capacity)
+    {
+        this.keyTable = keyTable;
+        keyCapacity = capacity;
+        keyMask = capacity - 1;
+        resizeThreshold = capacity / 2;
+    }
+
+    private boolean keyEquals(final int position, final DirectBuffer key, final int keyOffset, final int keyLength)
+    {
+        sessionIdDecoder.wrap(fileBuffer, position, actingBlockLength, actingVersion);
+        if (sessionIdDecoder.compositeKeyLength() != keyLength)
+        {
+            return false;
+        }
+
+        sessionIdDecoder.skipLastFixDictionary();
+        final int fileKeyOffset = sessionIdDecoder.limit();
+        for (int i = 0; i < keyLength; i++)
+        {
+            if (fileBuffer.getByte(fileKeyOffset + i) != key.getByte(keyOffset + i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int hash(final DirectBuffer key, final int keyOffset, final int keyLength)
+    {
+        int hash = 0;
+        for (int i = 0; i < keyLength; i++)
+        {
+            hash = 31 * hash + key.getByte(keyOffset + i);
+        }
+
+        return Hashing.hash(hash);
+    }
+
+    private static int maxRecords(final int sessionIdFileSize)
+    {
+        return sessionIdFileSize / MIN_RECORD_LENGTH;
+    }
+
+    private static int keyCapacity(final int maxRecords)
+    {
+        // Keeps the load factor at or below 50%
+        return BitUtil.findNextPositivePowerOfTwo(2 * maxRecords);
+    }
+
+    private static int idCapacity(final int maxRecords)
+    {
+        return BitUtil.findNextPositivePowerOfTwo(maxRecords + 1);
+    }
+
+    private static int indexLength(final int keyCapacity, final int idCapacity)
+    {
+        return HEADER_LENGTH + keyCapacity * SLOT_SIZE + idCapacity * SIZE_OF_INT;
+    }
+
+    private static UnsafeBuffer allocate(final int length)
+    {
+        return new UnsafeBuffer(ByteBuffer.allocateDirect(length));
+    }
+}
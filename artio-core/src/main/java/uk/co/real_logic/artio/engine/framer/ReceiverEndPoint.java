@@ -159,6 +159,16 @@ public abstract class ReceiverEndPoint
         selectionKey = channel.register(selector, OP_READ, this);
     }
 
+    boolean buffersData()
+    {
+        return channel.buffersData();
+    }
+
+    boolean hasBufferedData()
+    {
+        return channel.hasBufferedData();
+    }
+
     void onDisconnectDetected()
     {
         completeDisconnect(REMOTE_DISCONNECT);
@@ -83,6 +83,8 @@ class ReceiverEndPoints extends TransportPoller
     // An endpoint that has read data out of the TCP layer but has been back-pressured when attempting to write
     // the data into the Aeron stream.
     private ReceiverEndPoint backpressuredEndPoint = null;
+    // Whether any endpoint's channel can hold data that its socket's readiness doesn't signal, eg: decrypted data.
+    private boolean hasBufferingChannels = false;
 
     ReceiverEndPoints(final ErrorHandler errorHandler)
     {
@@ -122,6 +124,7 @@ class ReceiverEndPoints extends TransportPoller
         try
         {
             endPoints = ArrayUtil.add(endPoints, endPoint);
+            hasBufferingChannels |= endPoint.buffersData();
             if (register)
             {
                 endPoint.register(selector);
@@ -311,6 +314,33 @@ class ReceiverEndPoints extends TransportPoller
                     selectedKeySet.reset(skipCount);
                 }
             }
+
+            if (hasBufferingChannels && backpressuredEndPoint == null)
+            {
+                bytesReceived += pollBufferedEndPoints(endPoints, numEndPoints);
+            }
+        }
+        return bytesReceived;
+    }
+
+    private int pollBufferedEndPoints(final ReceiverEndPoint[] endPoints, final int numEndPoints)
+    {
+        int bytesReceived = 0;
+        for (int i = 0; i < numEndPoints; i++)
+        {
+            final ReceiverEndPoint endPoint = endPoints[i];
+            if (endPoint.hasBufferedData())
+            {
+                final int polledBytes = endPoint.poll();
+                if (polledBytes < 0)
+                {
+                    backpressuredEndPoint = endPoint;
+                    bytesReceived -= polledBytes;
+                    break;
+                }
+
+                bytesReceived += polledBytes;
+            }
         }
         return bytesReceived;
     }
@@ -43,9 +43,55 @@ public abstract class TcpChannel implements AutoCloseable
     // Any subclass should maintain the API that negative numbers of bytes are never returned
     public abstract int write(ByteBuffer src, int seqNum, boolean replay) throws IOException;
 
+    /**
+     * Writes several buffers in order, as a gathering write where the channel supports it. By default each buffer is
+     * written in turn until one of them isn't completely written.
+     *
+     * @param srcs the buffers to write from, their positions are advanced by the number of bytes written from each.
+     * @param length the number of buffers, starting from the first, to write.
+     * @param seqNum the sequence number of the last message in the buffers.
+     * @return the total number of bytes written, never negative.
+     * @throws IOException if the channel can't be written to.
+     */
+    public int write(final ByteBuffer[] srcs, final int length, final int seqNum) throws IOException
+    {
+        int written = 0;
+        for (int i = 0; i < length; i++)
+        {
+            final ByteBuffer src = srcs[i];
+            written += write(src, seqNum, false);
+            if (src.hasRemaining())
+            {
+                break;
+            }
+        }
+        return written;
+    }
+
     public abstract int read(ByteBuffer dst) throws IOException;
 
     public abstract void close();
 
     public abstract void onReplayComplete(long correlationId);
+
+    /**
+     * Whether this channel may hold data that has been read from its socket but not yet returned by
+     * {@link #read(ByteBuffer)}, or written to it but not yet sent, for example in order to decrypt or encrypt it.
+     *
+     * @return true if {@link #hasBufferedData()} can ever return true.
+     */
+    public boolean buffersData()
+    {
+        return false;
+    }
+
+    /**
+     * Such a channel needs polling even when its socket isn't ready to read, see {@link #buffersData()}.
+     *
+     * @return true if a call to {@link #read(ByteBuffer)} can make progress without the socket being readable.
+     */
+    public boolean hasBufferedData()
+    {
+        return false;
+    }
 }
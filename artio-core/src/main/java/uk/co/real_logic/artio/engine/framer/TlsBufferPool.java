@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Pool of the direct buffers that hold encrypted packets and overflowing decrypted data for {@link TlsTcpChannel}s,
+ * so that connecting and disconnecting sessions doesn't allocate new direct memory each time.
+ */
+final class TlsBufferPool
+{
+    private final ArrayDeque<ByteBuffer> packetBuffers = new ArrayDeque<>();
+    private final ArrayDeque<ByteBuffer> applicationBuffers = new ArrayDeque<>();
+    private final int packetBufferSize;
+    private final int applicationBufferSize;
+
+    TlsBufferPool(final int packetBufferSize, final int applicationBufferSize)
+    {
+        this.packetBufferSize = packetBufferSize;
+        this.applicationBufferSize = applicationBufferSize;
+    }
+
+    synchronized ByteBuffer acquirePacketBuffer()
+    {
+        final ByteBuffer buffer = packetBuffers.pollFirst();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(packetBufferSize);
+    }
+
+    synchronized ByteBuffer acquireApplicationBuffer()
+    {
+        final ByteBuffer buffer = applicationBuffers.pollFirst();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(applicationBufferSize);
+    }
+
+    synchronized void releasePacketBuffer(final ByteBuffer buffer)
+    {
+        buffer.clear();
+        packetBuffers.addFirst(buffer);
+    }
+
+    synchronized void releaseApplicationBuffer(final ByteBuffer buffer)
+    {
+        buffer.clear();
+        applicationBuffers.addFirst(buffer);
+    }
+}
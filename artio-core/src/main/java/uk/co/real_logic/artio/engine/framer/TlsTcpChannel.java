@@ -0,0 +1,461 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.LangUtil;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLEngineResult.Status;
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static javax.net.ssl.SSLEngineResult.HandshakeStatus.FINISHED;
+import static javax.net.ssl.SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING;
+
+/**
+ * A {@link TcpChannel} that encrypts and decrypts its data with an {@link SSLEngine}. The handshake is driven by the
+ * reads and writes that the Framer makes anyway, so it never blocks the duty cycle: until it completes reads return
+ * nothing and writes are back-pressured.
+ *
+ * Records are decrypted straight into the receiver end point's buffer, so messages are framed in place. Only a record
+ * that doesn't fit into the space left in that buffer is decrypted into an overflow buffer and copied across.
+ */
+public class TlsTcpChannel extends TcpChannel
+{
+    private static final int SOCKET_DISCONNECTED = -1;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocateDirect(0);
+
+    private final SocketChannel socketChannel;
+    private final SSLEngine engine;
+    private final TlsBufferPool bufferPool;
+    private final Executor delegatedTaskExecutor;
+    private final AtomicInteger runningTasks = new AtomicInteger();
+
+    // Between calls each of these buffers is ready to be written into, so its position is the length of its data.
+    private ByteBuffer netIn;
+    private ByteBuffer netOut;
+    private ByteBuffer appIn;
+
+    private boolean handshaking = true;
+    private boolean disconnected = false;
+    private boolean hasUnreadPackets = false;
+
+    TlsTcpChannel(
+        final SocketChannel socketChannel,
+        final SSLEngine engine,
+        final TlsBufferPool bufferPool,
+        final Executor delegatedTaskExecutor) throws IOException
+    {
+        super(socketChannel.getRemoteAddress().toString());
+        this.socketChannel = socketChannel;
+        this.engine = engine;
+        this.bufferPool = bufferPool;
+        this.delegatedTaskExecutor = delegatedTaskExecutor;
+
+        netIn = bufferPool.acquirePacketBuffer();
+        netOut = bufferPool.acquirePacketBuffer();
+        appIn = bufferPool.acquireApplicationBuffer();
+
+        engine.beginHandshake();
+    }
+
+    public SelectionKey register(final Selector sel, final int ops, final Object att) throws ClosedChannelException
+    {
+        return socketChannel.register(sel, ops, att);
+    }
+
+    // Any subclass should maintain the API that negative numbers of bytes are never returned
+    public int write(final ByteBuffer src, final int seqNum, final boolean replay) throws IOException
+    {
+        checkOpen();
+        if ((handshaking && !handshake()) || !flush())
+        {
+            checkDisconnected();
+            return 0;
+        }
+
+        final int startPosition = src.position();
+        while (src.hasRemaining())
+        {
+            final SSLEngineResult result = engine.wrap(src, netOut);
+            final Status status = result.getStatus();
+            if (status == Status.BUFFER_OVERFLOW)
+            {
+                if (!flush())
+                {
+                    break;
+                }
+            }
+            else if (status == Status.CLOSED)
+            {
+                throw new IOException("Disconnected " + remoteAddress + ", TLS session closed");
+            }
+
+            if (isHandshaking(result.getHandshakeStatus()))
+            {
+                handshaking = true;
+                break;
+            }
+        }
+        flush();
+
+        return src.position() - startPosition;
+    }
+
+    public int write(final ByteBuffer[] srcs, final int length, final int seqNum) throws IOException
+    {
+        checkOpen();
+        if ((handshaking && !handshake()) || !flush())
+        {
+            checkDisconnected();
+            return 0;
+        }
+
+        // Wrapping the buffers together packs their messages into as few records, and socket writes, as possible
+        final ByteBuffer last = srcs[length - 1];
+        int written = 0;
+        while (last.hasRemaining())
+        {
+            final SSLEngineResult result = engine.wrap(srcs, 0, length, netOut);
+            written += result.bytesConsumed();
+            final Status status = result.getStatus();
+            if (status == Status.BUFFER_OVERFLOW)
+            {
+                if (!flush())
+                {
+                    break;
+                }
+            }
+            else if (status == Status.CLOSED)
+            {
+                throw new IOException("Disconnected " + remoteAddress + ", TLS session closed");
+            }
+
+            if (isHandshaking(result.getHandshakeStatus()))
+            {
+                handshaking = true;
+                break;
+            }
+        }
+        flush();
+
+        return written;
+    }
+
+    public int read(final ByteBuffer dst) throws IOException
+    {
+        checkOpen();
+        flush();
+        if (handshaking && !handshake())
+        {
+            return disconnected ? SOCKET_DISCONNECTED : 0;
+        }
+
+        final int startPosition = dst.position();
+        drainApplicationData(dst);
+        if (appIn.position() > 0)
+        {
+            return dst.position() - startPosition;
+        }
+
+        if (!disconnected && socketChannel.read(netIn) == SOCKET_DISCONNECTED)
+        {
+            disconnected = true;
+        }
+        unwrapInto(dst);
+
+        final int bytesRead = dst.position() - startPosition;
+        return bytesRead == 0 && disconnected && !hasUnreadPackets ? SOCKET_DISCONNECTED : bytesRead;
+    }
+
+    private void unwrapInto(final ByteBuffer dst) throws IOException
+    {
+        final ByteBuffer netIn = this.netIn;
+        final ByteBuffer appIn = this.appIn;
+        netIn.flip();
+        try
+        {
+            while (netIn.hasRemaining() && dst.hasRemaining())
+            {
+                SSLEngineResult result = engine.unwrap(netIn, dst);
+                if (result.getStatus() == Status.BUFFER_OVERFLOW)
+                {
+                    // Not enough space left for the whole record, so decrypt it to the side and copy what fits.
+                    result = engine.unwrap(netIn, appIn);
+                    drainApplicationData(dst);
+                }
+
+                final Status status = result.getStatus();
+                if (status == Status.BUFFER_UNDERFLOW)
+                {
+                    break;
+                }
+                else if (status == Status.CLOSED)
+                {
+                    disconnected = true;
+                    netIn.position(netIn.limit());
+                    break;
+                }
+
+                if (isHandshaking(result.getHandshakeStatus()))
+                {
+                    handshaking = true;
+                    break;
+                }
+            }
+
+            hasUnreadPackets = netIn.hasRemaining() && !dst.hasRemaining();
+        }
+        finally
+        {
+            netIn.compact();
+        }
+
+        if (handshaking)
+        {
+            // Renegotiations and TLSv1.3 key updates happen part way through a session
+            handshake();
+        }
+    }
+
+    private void drainApplicationData(final ByteBuffer dst)
+    {
+        final ByteBuffer appIn = this.appIn;
+        if (appIn.position() > 0)
+        {
+            appIn.flip();
+            final int limit = appIn.limit();
+            appIn.limit(appIn.position() + Math.min(appIn.remaining(), dst.remaining()));
+            dst.put(appIn);
+            appIn.limit(limit);
+            appIn.compact();
+        }
+    }
+
+    // returns true when the handshake has completed
+    private boolean handshake() throws IOException
+    {
+        final SSLEngine engine = this.engine;
+        while (runningTasks.get() == 0 && flush())
+        {
+            switch (engine.getHandshakeStatus())
+            {
+                case NOT_HANDSHAKING:
+                case FINISHED:
+                    handshaking = false;
+                    return true;
+
+                case NEED_TASK:
+                    runDelegatedTasks();
+                    break;
+
+                case NEED_WRAP:
+                    if (engine.wrap(EMPTY, netOut).getStatus() == Status.CLOSED)
+                    {
+                        throw new SSLException("TLS session closed during handshake with " + remoteAddress);
+                    }
+                    break;
+
+                default:
+                    if (!handshakeUnwrap())
+                    {
+                        return false;
+                    }
+                    break;
+            }
+        }
+
+        return false;
+    }
+
+    // returns true if the handshake made progress
+    private boolean handshakeUnwrap() throws IOException
+    {
+        final ByteBuffer netIn = this.netIn;
+        final int bytesRead = disconnected ? SOCKET_DISCONNECTED : socketChannel.read(netIn);
+        if (bytesRead == SOCKET_DISCONNECTED)
+        {
+            disconnected = true;
+        }
+
+        netIn.flip();
+        final SSLEngineResult result;
+        try
+        {
+            // Application data can follow the last handshake record, so keep it for the next read
+            result = engine.unwrap(netIn, appIn);
+        }
+        finally
+        {
+            netIn.compact();
+        }
+
+        final Status status = result.getStatus();
+        if (status == Status.CLOSED)
+        {
+            disconnected = true;
+            return false;
+        }
+
+        return status == Status.OK;
+    }
+
+    private void runDelegatedTasks()
+    {
+        final Executor delegatedTaskExecutor = this.delegatedTaskExecutor;
+        Runnable task;
+        while ((task = engine.getDelegatedTask()) != null)
+        {
+            if (delegatedTaskExecutor == null)
+            {
+                task.run();
+            }
+            else
+            {
+                final Runnable delegatedTask = task;
+                runningTasks.incrementAndGet();
+                delegatedTaskExecutor.execute(() ->
+                {
+                    try
+                    {
+                        delegatedTask.run();
+                    }
+                    finally
+                    {
+                        runningTasks.decrementAndGet();
+                    }
+                });
+            }
+        }
+    }
+
+    // returns true if there's no more data to flush
+    private boolean flush() throws IOException
+    {
+        final ByteBuffer netOut = this.netOut;
+        if (netOut.position() == 0)
+        {
+            return true;
+        }
+
+        netOut.flip();
+        final int written;
+        try
+        {
+            written = socketChannel.write(netOut);
+        }
+        finally
+        {
+            netOut.compact();
+        }
+
+        if (written < 0)
+        {
+            // normalise the negative return and the exceptional path
+            throw new IOException("Disconnected " + remoteAddress + ", written=" + written);
+        }
+
+        return netOut.position() == 0;
+    }
+
+    private void checkOpen() throws ClosedChannelException
+    {
+        if (appIn == null)
+        {
+            throw new ClosedChannelException();
+        }
+    }
+
+    private void checkDisconnected() throws IOException
+    {
+        if (disconnected)
+        {
+            throw new IOException("Disconnected " + remoteAddress + " during TLS handshake");
+        }
+    }
+
+    private static boolean isHandshaking(final HandshakeStatus handshakeStatus)
+    {
+        return handshakeStatus != NOT_HANDSHAKING && handshakeStatus != FINISHED;
+    }
+
+    public boolean buffersData()
+    {
+        return true;
+    }
+
+    public boolean hasBufferedData()
+    {
+        final ByteBuffer appIn = this.appIn;
+        return appIn != null && (appIn.position() > 0 || hasUnreadPackets || netOut.position() > 0);
+    }
+
+    public void close()
+    {
+        if (socketChannel.isOpen())
+        {
+            try
+            {
+                // Best effort close_notify, without waiting for the peer's reply
+                engine.closeOutbound();
+                engine.wrap(EMPTY, netOut);
+                flush();
+            }
+            catch (final IOException ignore)
+            {
+                // The peer may already have gone, the socket is closed regardless.
+            }
+
+            try
+            {
+                socketChannel.close();
+            }
+            catch (final IOException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+        }
+
+        releaseBuffers();
+    }
+
+    private void releaseBuffers()
+    {
+        final TlsBufferPool bufferPool = this.bufferPool;
+        if (appIn != null)
+        {
+            bufferPool.releasePacketBuffer(netIn);
+            bufferPool.releasePacketBuffer(netOut);
+            bufferPool.releaseApplicationBuffer(appIn);
+            netIn = null;
+            netOut = null;
+            appIn = null;
+        }
+    }
+
+    public void onReplayComplete(final long correlationId)
+    {
+    }
+}
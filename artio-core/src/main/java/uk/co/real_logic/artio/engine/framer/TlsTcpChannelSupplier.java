@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+
+/**
+ * Supplies {@link TlsTcpChannel}s, so the engine terminates TLS itself rather than relying on a proxy in front of it.
+ * Accepted connections use the server side of the handshake and initiated connections the client side. Configure it
+ * with {@link EngineConfiguration#channelSupplierFactory(java.util.function.Function)}, for example
+ * <code>configuration.channelSupplierFactory(config -&gt; new TlsTcpChannelSupplier(config, sslContext))</code>.
+ *
+ * Override {@link #configureEngine(SSLEngine, boolean)} in order to require client authentication, restrict
+ * protocols or cipher suites or enable endpoint identification.
+ */
+public class TlsTcpChannelSupplier extends DefaultTcpChannelSupplier
+{
+    private final SSLContext sslContext;
+    private final Executor delegatedTaskExecutor;
+    private final TlsBufferPool bufferPool;
+
+    public TlsTcpChannelSupplier(final EngineConfiguration configuration, final SSLContext sslContext)
+    {
+        this(configuration, sslContext, null);
+    }
+
+    /**
+     * Create the supplier.
+     *
+     * @param configuration the engine's configuration.
+     * @param sslContext the context to create each connection's {@link SSLEngine} from.
+     * @param delegatedTaskExecutor runs the handshake's delegated tasks, such as certificate validation, off the
+     *                              Framer thread. If null then they're run by the Framer itself.
+     */
+    public TlsTcpChannelSupplier(
+        final EngineConfiguration configuration, final SSLContext sslContext, final Executor delegatedTaskExecutor)
+    {
+        super(configuration);
+        this.sslContext = sslContext;
+        this.delegatedTaskExecutor = delegatedTaskExecutor;
+
+        final SSLSession session = sslContext.createSSLEngine().getSession();
+        bufferPool = new TlsBufferPool(session.getPacketBufferSize(), session.getApplicationBufferSize());
+    }
+
+    protected TcpChannel newTcpChannel(final SocketChannel channel) throws IOException
+    {
+        return newTlsTcpChannel(channel, false);
+    }
+
+    protected TcpChannel newInitiatedTcpChannel(final SocketChannel channel) throws IOException
+    {
+        return newTlsTcpChannel(channel, true);
+    }
+
+    private TcpChannel newTlsTcpChannel(final SocketChannel channel, final boolean clientMode) throws IOException
+    {
+        final InetSocketAddress remoteAddress = (InetSocketAddress)channel.getRemoteAddress();
+        final SSLEngine engine = sslContext.createSSLEngine(remoteAddress.getHostString(), remoteAddress.getPort());
+        engine.setUseClientMode(clientMode);
+        configureEngine(engine, clientMode);
+        return new TlsTcpChannel(channel, engine, bufferPool, delegatedTaskExecutor);
+    }
+
+    /**
+     * Hook to customise each connection's {@link SSLEngine} before its handshake starts.
+     *
+     * @param engine the engine to customise.
+     * @param clientMode true if the engine initiated the connection and is the client side of the handshake.
+     */
+    protected void configureEngine(final SSLEngine engine, final boolean clientMode)
+    {
+    }
+}
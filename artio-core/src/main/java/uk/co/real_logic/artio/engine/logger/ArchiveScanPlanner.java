@@ -15,9 +15,13 @@
  */
 package uk.co.real_logic.artio.engine.logger;
 
+import org.agrona.collections.LongHashSet;
 import uk.co.real_logic.artio.engine.logger.FixMessagePredicates.FilterBy;
 import uk.co.real_logic.artio.engine.logger.FixMessagePredicates.From;
+import uk.co.real_logic.artio.engine.logger.FixMessagePredicates.MessageTypeOf;
+import uk.co.real_logic.artio.engine.logger.FixMessagePredicates.SessionOf;
 import uk.co.real_logic.artio.engine.logger.FixMessagePredicates.To;
+import uk.co.real_logic.artio.engine.logger.FixMessageQuery.CompiledQuery;
 
 final class ArchiveScanPlanner
 {
@@ -41,13 +45,22 @@ final class ArchiveScanPlanner
     }
 
     private static void extractIndexQuery(final FixMessagePredicate predicate, final IndexQuery indexQuery)
+    {
+        extractIndexQuery(predicate, indexQuery, true);
+    }
+
+    private static void extractIndexQuery(
+        final FixMessagePredicate predicate, final IndexQuery indexQuery, final boolean conjunctive)
     {
         // NB: range returned by the index plan still needs filtering afterwards to ensure correctness
         if (predicate instanceof CompositeFixMessagePredicate)
         {
-            final CompositeFixMessagePredicate and = (CompositeFixMessagePredicate)predicate;
-            extractIndexQuery(and.left(), indexQuery);
-            extractIndexQuery(and.right(), indexQuery);
+            final CompositeFixMessagePredicate composite = (CompositeFixMessagePredicate)predicate;
+            // Either side of an or can match a message, so neither side's sessions or message types can narrow
+            // the scan down on their own.
+            final boolean conjunctiveChildren = conjunctive && composite instanceof FixMessageAnd;
+            extractIndexQuery(composite.left(), indexQuery, conjunctiveChildren);
+            extractIndexQuery(composite.right(), indexQuery, conjunctiveChildren);
         }
         else if (predicate instanceof From)
         {
@@ -59,5 +72,31 @@ final class ArchiveScanPlanner
             final To to = (To)predicate;
             indexQuery.to(to.endTimestampExclusive());
         }
+        else if (conjunctive)
+        {
+            extractScanFilter(predicate, indexQuery);
+        }
+    }
+
+    private static void extractScanFilter(final FixMessagePredicate predicate, final IndexQuery indexQuery)
+    {
+        if (predicate instanceof SessionOf)
+        {
+            final LongHashSet sessionIds = new LongHashSet();
+            sessionIds.add(((SessionOf)predicate).sessionId());
+            indexQuery.sessionIds(sessionIds);
+        }
+        else if (predicate instanceof MessageTypeOf)
+        {
+            indexQuery.messageTypes(((MessageTypeOf)predicate).messageTypes());
+        }
+        else if (predicate instanceof CompiledQuery)
+        {
+            final LongHashSet messageTypes = ((CompiledQuery)predicate).messageTypes();
+            if (messageTypes != null)
+            {
+                indexQuery.messageTypes(messageTypes);
+            }
+        }
     }
 }
@@ -18,12 +18,18 @@ package uk.co.real_logic.artio.engine.logger;
 import io.aeron.Aeron;
 import io.aeron.CommonContext;
 import io.aeron.archive.client.AeronArchive;
+import org.agrona.BitUtil;
 import org.agrona.collections.IntHashSet;
 import org.agrona.concurrent.IdleStrategy;
+import uk.co.real_logic.artio.CommonConfiguration;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.logger.FixArchiveScanningAgent.ScanChunk;
 import uk.co.real_logic.artio.fixp.FixPMessageConsumer;
 
+import java.util.List;
+import java.util.function.Supplier;
+
 import static uk.co.real_logic.artio.LogTag.ARCHIVE_SCAN;
 import static uk.co.real_logic.artio.engine.logger.FixMessageLogger.Configuration.*;
 
@@ -37,6 +43,9 @@ import static uk.co.real_logic.artio.engine.logger.FixMessageLogger.Configuratio
 public class FixArchiveScanner implements AutoCloseable
 {
     public static final int DEFAULT_FRAGMENT_LIMIT = 10000;
+    public static final int DEFAULT_SCAN_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+    public static final long DEFAULT_SCAN_CHUNK_SIZE_IN_BYTES = 16 * 1024 * 1024;
+    public static final int DEFAULT_SCAN_QUEUE_CAPACITY = 2 * 1024 * 1024;
 
     static final boolean DEBUG_LOG_ARCHIVE_SCAN = DebugLogger.isEnabled(ARCHIVE_SCAN);
 
@@ -50,6 +59,9 @@ public class FixArchiveScanner implements AutoCloseable
         private String logFileDir;
         private boolean enableIndexScan;
         private AeronArchive.Context archiveContext;
+        private int scanThreadCount = DEFAULT_SCAN_THREAD_COUNT;
+        private long scanChunkSizeInBytes = DEFAULT_SCAN_CHUNK_SIZE_IN_BYTES;
+        private int scanQueueCapacity = DEFAULT_SCAN_QUEUE_CAPACITY;
 
         public Configuration()
         {
@@ -136,7 +148,10 @@ public class FixArchiveScanner implements AutoCloseable
         /**
          * Sets the logFileDir used by your {@link EngineConfiguration}. This configuration option isn't required, it
          * allows faster FixArchiveScanner operations for predicates where you're searching by time by using the
-         * {@link FixMessagePredicates#to(long)} or {@link FixMessagePredicates#from(long)} predicates.
+         * {@link FixMessagePredicates#to(long)} or {@link FixMessagePredicates#from(long)} predicates. If the engine
+         * has {@link EngineConfiguration#scanIndexEnabled(boolean)} then scans that only request FIX messages can
+         * also skip parts of the archive using the {@link FixMessagePredicates#sessionOf(long)} or
+         * {@link FixMessagePredicates#messageTypeOf(String...)} predicates.
          * Setting this configuration option automatically enables index scanning.
          *
          * @param logFileDir the logFileDir configured in your {@link EngineConfiguration}.
@@ -186,8 +201,81 @@ public class FixArchiveScanner implements AutoCloseable
             return this;
         }
 
+        /**
+         * Sets the number of worker threads that a {@link FixArchiveScanner#parallelScan} uses. Each worker has its
+         * own archive client and replays its chunks on its own stream id.
+         *
+         * @param scanThreadCount the number of worker threads used by a parallel scan.
+         * @return this
+         */
+        public Configuration scanThreadCount(final int scanThreadCount)
+        {
+            this.scanThreadCount = scanThreadCount;
+            return this;
+        }
+
+        public int scanThreadCount()
+        {
+            return scanThreadCount;
+        }
+
+        /**
+         * Sets the minimum size of the chunks that a {@link FixArchiveScanner#parallelScan} splits a recording into.
+         * Recordings can only be split up when the engine has {@link EngineConfiguration#scanIndexEnabled(boolean)}
+         * and a {@link #logFileDir(String)} is configured, otherwise each recording is a single chunk.
+         *
+         * @param scanChunkSizeInBytes the minimum size of a chunk in bytes.
+         * @return this
+         */
+        public Configuration scanChunkSizeInBytes(final long scanChunkSizeInBytes)
+        {
+            this.scanChunkSizeInBytes = scanChunkSizeInBytes;
+            return this;
+        }
+
+        public long scanChunkSizeInBytes()
+        {
+            return scanChunkSizeInBytes;
+        }
+
+        /**
+         * Sets the capacity of the queue that each {@link FixArchiveScanner#parallelScan} worker hands its matching
+         * messages to the calling thread over. Workers wait for space when their queue is full, so this bounds the
+         * memory used by a scan. The largest message that can be scanned is an eighth of this capacity.
+         *
+         * @param scanQueueCapacity the capacity of each worker's queue in bytes, must be a power of two.
+         * @return this
+         */
+        public Configuration scanQueueCapacity(final int scanQueueCapacity)
+        {
+            this.scanQueueCapacity = scanQueueCapacity;
+            return this;
+        }
+
+        public int scanQueueCapacity()
+        {
+            return scanQueueCapacity;
+        }
+
         private void conclude()
         {
+            if (scanThreadCount < 1)
+            {
+                throw new IllegalArgumentException("scanThreadCount must be at least 1, but was " + scanThreadCount);
+            }
+
+            if (scanChunkSizeInBytes < 1)
+            {
+                throw new IllegalArgumentException(
+                    "scanChunkSizeInBytes must be at least 1, but was " + scanChunkSizeInBytes);
+            }
+
+            if (!BitUtil.isPowerOfTwo(scanQueueCapacity))
+            {
+                throw new IllegalArgumentException(
+                    "scanQueueCapacity must be a power of two, but was " + scanQueueCapacity);
+            }
+
             if (enableIndexScan && logFileDir == null)
             {
                 throw new IllegalArgumentException("Please configure a logFileDir if you want to enable index scan");
@@ -199,6 +287,12 @@ public class FixArchiveScanner implements AutoCloseable
 
     private final IdleStrategy idleStrategy;
     private final FixArchiveScanningAgent agent;
+    private final Configuration configuration;
+    private final Aeron aeron;
+    private final AeronArchive.Context workerArchiveContext;
+    private final String logFileDir;
+
+    private ParallelArchiveScan parallelArchiveScan;
 
     public FixArchiveScanner(final Configuration configuration)
     {
@@ -221,6 +315,8 @@ public class FixArchiveScanner implements AutoCloseable
                 archiveContext.controlResponseChannel(CommonContext.IPC_CHANNEL);
             }
         }
+        // Parallel scan workers share the Aeron instance and connect their own archive clients when first used.
+        workerArchiveContext = archiveContext.clone();
         // Context closes Aeron instance if this fails to connect.
         final AeronArchive aeronArchive = AeronArchive.connect(archiveContext.aeron(aeron).ownsAeronClient(true));
 
@@ -230,6 +326,9 @@ public class FixArchiveScanner implements AutoCloseable
             logFileDir = null;
         }
 
+        this.configuration = configuration;
+        this.aeron = aeron;
+        this.logFileDir = logFileDir;
         idleStrategy = configuration.idleStrategy();
         agent = new FixArchiveScanningAgent(
             idleStrategy,
@@ -286,8 +385,80 @@ public class FixArchiveScanner implements AutoCloseable
         }
     }
 
+    /**
+     * Scans the archive on the {@link Configuration#scanThreadCount(int)} worker threads. The recordings, narrowed
+     * down by any index, are split into chunks that the workers replay and filter concurrently, with the matching
+     * messages handed to the handler on the calling thread as they're scanned. The worker threads are started by the
+     * first parallel scan and reused by later ones until this scanner is closed.
+     *
+     * Each worker hands its messages over through a bounded queue of {@link Configuration#scanQueueCapacity(int)}
+     * bytes and waits when it's full, so a scan's memory use doesn't grow with the number of matching messages.
+     * FIXP messages aren't scanned and the scan can't follow the archive as it's written to.
+     *
+     * @param aeronChannel the channel of the recordings to scan.
+     * @param queryStreamIds the stream ids of the recordings to scan.
+     * @param predicateFactory creates the predicate that messages must match, called once for each worker as
+     *                         predicates aren't thread-safe.
+     * @param handler the handler of the matching messages, always invoked on the calling thread.
+     * @param ordered true to hand off each stream's messages in log order, merged across streams by timestamp, false
+     *                to hand off each chunk's messages, in log order, as soon as they've been scanned. An ordered scan
+     *                uses at least one worker per stream, even if that is more than the configured thread count.
+     * @param archiveScannerStreamId the first of the consecutive stream ids that the workers replay on, one for each
+     *                               worker.
+     */
+    public void parallelScan(
+        final String aeronChannel,
+        final IntHashSet queryStreamIds,
+        final Supplier<FixMessagePredicate> predicateFactory,
+        final FixMessageConsumer handler,
+        final boolean ordered,
+        final int archiveScannerStreamId)
+    {
+        // Only used to narrow the scan down using the index, the workers filter the messages
+        final FixMessageConsumer planningHandler = FixMessagePredicates.filterBy(
+            (message, buffer, offset, length, header) -> {}, predicateFactory.get());
+        final List<ScanChunk> chunks = agent.planChunks(
+            aeronChannel, queryStreamIds, planningHandler, configuration.scanChunkSizeInBytes());
+
+        parallelArchiveScan().scan(chunks, predicateFactory, handler, ordered, archiveScannerStreamId);
+    }
+
+    private ParallelArchiveScan parallelArchiveScan()
+    {
+        ParallelArchiveScan parallelArchiveScan = this.parallelArchiveScan;
+        if (parallelArchiveScan == null)
+        {
+            parallelArchiveScan = new ParallelArchiveScan(
+                idleStrategy,
+                this::newWorkerAgent,
+                configuration.scanThreadCount(),
+                configuration.scanQueueCapacity());
+            this.parallelArchiveScan = parallelArchiveScan;
+        }
+
+        return parallelArchiveScan;
+    }
+
+    private FixArchiveScanningAgent newWorkerAgent(final int workerIndex)
+    {
+        final AeronArchive aeronArchive = AeronArchive.connect(
+            workerArchiveContext.clone().aeron(aeron).ownsAeronClient(false));
+        return new FixArchiveScanningAgent(
+            CommonConfiguration.backoffIdleStrategy(),
+            configuration.compactionSize,
+            configuration.maximumBufferSize,
+            configuration.fragmentLimit,
+            logFileDir,
+            aeron,
+            aeronArchive);
+    }
+
     public void close()
     {
+        if (parallelArchiveScan != null)
+        {
+            parallelArchiveScan.close();
+        }
         agent.close();
     }
 }
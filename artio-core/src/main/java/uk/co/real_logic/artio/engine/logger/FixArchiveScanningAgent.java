@@ -19,13 +19,13 @@ import io.aeron.*;
 import io.aeron.archive.client.AeronArchive;
 import org.agrona.collections.IntHashSet;
 import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongArrayList;
 import org.agrona.concurrent.IdleStrategy;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 import uk.co.real_logic.artio.fixp.FixPMessageConsumer;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import static io.aeron.CommonContext.IPC_CHANNEL;
@@ -45,6 +45,7 @@ public class FixArchiveScanningAgent implements AutoCloseable
     private final String logFileDir;
 
     private final Long2ObjectHashMap<TimeIndexReader> streamIdToInboundTimeIndex = new Long2ObjectHashMap<>();
+    private final Long2ObjectHashMap<ScanIndexReader> streamIdToScanIndex = new Long2ObjectHashMap<>();
 
     private StreamTimestampZipper timestampZipper;
     private Subscription replaySubscription;
@@ -82,13 +83,12 @@ public class FixArchiveScanningAgent implements AutoCloseable
             fixHandler.reset();
         }
 
-        final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange =
-            scanIndexIfPossible(fixHandler, follow, queryStreamIds);
+        final IndexScan indexScan = scanIndexIfPossible(fixHandler, fixPHandler, follow, queryStreamIds);
 
         this.follow = follow;
         replaySubscription = aeron.addSubscription(IPC_CHANNEL, archiveScannerStreamId);
         pollers = makeRecordingPollers(
-            aeronChannel, queryStreamIds, follow, recordingIdToPositionRange, replaySubscription);
+            aeronChannel, queryStreamIds, follow, indexScan, replaySubscription);
 
         if (DEBUG_LOG_ARCHIVE_SCAN)
         {
@@ -117,29 +117,134 @@ public class FixArchiveScanningAgent implements AutoCloseable
         return false;
     }
 
+    /**
+     * Splits a scan of the query streams into chunks that can be replayed independently of each other. Recordings
+     * with a scan index are split into chunks of roughly <code>chunkSizeInBytes</code>, others are a single chunk.
+     *
+     * @param aeronChannel the channel of the recordings to scan.
+     * @param queryStreamIds the stream ids of the recordings to scan.
+     * @param fixHandler the handler of the scan, used to narrow the chunks down using the index.
+     * @param chunkSizeInBytes the minimum size of a chunk when a recording is split.
+     * @return the chunks in stream, recording and position order.
+     */
+    List<ScanChunk> planChunks(
+        final String aeronChannel,
+        final IntHashSet queryStreamIds,
+        final FixMessageConsumer fixHandler,
+        final long chunkSizeInBytes)
+    {
+        final IndexScan indexScan = scanIndexIfPossible(fixHandler, null, false, queryStreamIds);
+
+        final List<ScanChunk> chunks = new ArrayList<>();
+        for (final int streamId : queryStreamIds)
+        {
+            final Long2ObjectHashMap<LongArrayList> recordingIdToSplitPositions = new Long2ObjectHashMap<>();
+            if (logFileDir != null)
+            {
+                scanIndexReader(streamId).findSplitPositions(recordingIdToSplitPositions, chunkSizeInBytes);
+            }
+
+            for (final List<ArchiveLocation> locations :
+                lookupArchiveLocations(streamId, false, aeronChannel, indexScan))
+            {
+                for (final ArchiveLocation location : locations)
+                {
+                    final LongArrayList splitPositions = recordingIdToSplitPositions.get(location.recordingId);
+                    if (splitPositions == null)
+                    {
+                        chunks.add(new ScanChunk(chunks.size(), streamId, location));
+                    }
+                    else
+                    {
+                        for (final ArchiveLocation splitLocation : location.split(splitPositions))
+                        {
+                            chunks.add(new ScanChunk(chunks.size(), streamId, splitLocation));
+                        }
+                    }
+                }
+            }
+        }
+
+        if (DEBUG_LOG_ARCHIVE_SCAN)
+        {
+            DebugLogger.log(ARCHIVE_SCAN, "chunks = " + chunks);
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Replays a single chunk to completion, handing its messages off to the handler in log order.
+     *
+     * @param chunk the chunk to replay.
+     * @param fixHandler the handler of the chunk's messages.
+     * @param replaySubscription the subscription to replay the chunk on, owned by the caller.
+     */
+    void scanChunk(final ScanChunk chunk, final FixMessageConsumer fixHandler, final Subscription replaySubscription)
+    {
+        fixHandler.reset();
+
+        final List<ArchiveLocation> archiveLocations = new ArrayList<>();
+        archiveLocations.add(chunk.location);
+        final RecordingPoller poller = new RecordingPoller(replaySubscription, chunk.streamId, archiveLocations);
+
+        // With a single poller there's no other stream to wait for, so nothing gets reordered
+        final StreamTimestampZipper timestampZipper = new StreamTimestampZipper(
+            fixHandler, null, compactionSize, maximumBufferSize, true, poller);
+        try
+        {
+            while (!poller.isComplete())
+            {
+                if (timestampZipper.poll(fragmentLimit) > 0)
+                {
+                    idleStrategy.reset();
+                }
+                else
+                {
+                    idleStrategy.idle();
+                }
+            }
+        }
+        finally
+        {
+            timestampZipper.close();
+        }
+    }
+
+    private ScanIndexReader scanIndexReader(final int streamId)
+    {
+        ScanIndexReader reader = streamIdToScanIndex.get(streamId);
+        if (reader == null)
+        {
+            reader = new ScanIndexReader(logFileDir, streamId);
+            streamIdToScanIndex.put(streamId, reader);
+        }
+        return reader;
+    }
+
     private RecordingPoller[] makeRecordingPollers(
         final String aeronChannel,
         final IntHashSet queryStreamIds,
         final boolean follow,
-        final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange,
+        final IndexScan indexScan,
         final Subscription replaySubscription)
     {
         return queryStreamIds
             .stream()
             .flatMap(id ->
                 lookupArchiveLocations(
-                    id, follow, aeronChannel, recordingIdToPositionRange)
+                    id, follow, aeronChannel, indexScan)
                     .stream()
-                    // filter out empty streams as
-                    // 1) they are empty - we don't need to poll them
-                    // 2) we use empty length later within polling as a test for polling being finished
-                    .filter(archiveLocation -> archiveLocation.length() != 0L)
-                    .map(archiveLocation -> new RecordingPoller(replaySubscription, id, archiveLocation)))
+                    .filter(archiveLocations -> !archiveLocations.isEmpty())
+                    .map(archiveLocations -> new RecordingPoller(replaySubscription, id, archiveLocations)))
             .toArray(RecordingPoller[]::new);
     }
 
-    private Long2ObjectHashMap<PositionRange> scanIndexIfPossible(
-        final FixMessageConsumer fixHandler, final boolean follow, final IntHashSet queryStreamIds)
+    private IndexScan scanIndexIfPossible(
+        final FixMessageConsumer fixHandler,
+        final FixPMessageConsumer fixPHandler,
+        final boolean follow,
+        final IntHashSet queryStreamIds)
     {
         if (DEBUG_LOG_ARCHIVE_SCAN)
         {
@@ -175,28 +280,59 @@ public class FixArchiveScanningAgent implements AutoCloseable
                 return null;
             }
 
-            final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange = new Long2ObjectHashMap<>();
-            for (final int streamId : queryStreamIds)
+            final boolean timeIndexed = indexQuery.hasTimeRange();
+            // FIXP messages aren't in the scan index, so skipping blocks would lose them.
+            final boolean scanIndexed = indexQuery.hasScanFilter() && fixPHandler == null;
+            if (!timeIndexed && !scanIndexed)
             {
-                TimeIndexReader reader = streamIdToInboundTimeIndex.get(streamId);
-                if (reader == null)
+                return null;
+            }
+
+            final Long2ObjectHashMap<List<PositionRange>> recordingIdToPositionRanges = new Long2ObjectHashMap<>();
+            if (timeIndexed)
+            {
+                final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange = new Long2ObjectHashMap<>();
+                for (final int streamId : queryStreamIds)
                 {
-                    reader = new TimeIndexReader(logFileDir, streamId);
-                    streamIdToInboundTimeIndex.put(streamId, reader);
+                    TimeIndexReader reader = streamIdToInboundTimeIndex.get(streamId);
+                    if (reader == null)
+                    {
+                        reader = new TimeIndexReader(logFileDir, streamId);
+                        streamIdToInboundTimeIndex.put(streamId, reader);
+                    }
+
+                    if (!reader.findPositionRange(indexQuery, recordingIdToPositionRange))
+                    {
+                        return null;
+                    }
                 }
 
-                if (!reader.findPositionRange(indexQuery, recordingIdToPositionRange))
+                final Long2ObjectHashMap<PositionRange>.EntryIterator it =
+                    recordingIdToPositionRange.entrySet().iterator();
+                while (it.hasNext())
                 {
-                    return null;
+                    it.next();
+
+                    final List<PositionRange> positionRanges = new ArrayList<>();
+                    positionRanges.add(it.getValue());
+                    recordingIdToPositionRanges.put(it.getLongKey(), positionRanges);
+                }
+            }
+
+            if (scanIndexed)
+            {
+                for (final int streamId : queryStreamIds)
+                {
+                    scanIndexReader(streamId).findPositionRanges(indexQuery, recordingIdToPositionRanges, timeIndexed);
                 }
             }
 
             if (DEBUG_LOG_ARCHIVE_SCAN)
             {
-                DebugLogger.log(ARCHIVE_SCAN, "recordingIdToPositionRange = " + recordingIdToPositionRange);
+                DebugLogger.log(ARCHIVE_SCAN, "recordingIdToPositionRanges = " + recordingIdToPositionRanges);
             }
 
-            return recordingIdToPositionRange;
+            return new IndexScan(recordingIdToPositionRanges, timeIndexed);
         }
         catch (final IllegalArgumentException e)
         {
@@ -218,16 +354,21 @@ public class FixArchiveScanningAgent implements AutoCloseable
         return true;
     }
 
+    Aeron aeron()
+    {
+        return aeron;
+    }
+
     public void close()
     {
         aeronArchive.close();
     }
 
-    private List<ArchiveLocation> lookupArchiveLocations(
+    private List<List<ArchiveLocation>> lookupArchiveLocations(
         final int queryStreamId,
         final boolean follow,
         final String aeronChannel,
-        final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange)
+        final IndexScan indexScan)
     {
         final List<ArchiveLocation> archiveLocations = new ArrayList<>();
 
@@ -259,38 +400,73 @@ public class FixArchiveScanningAgent implements AutoCloseable
             }
         }
 
-        // try to narrow down the scan range using the index
-        if (recordingIdToPositionRange != null)
+        // try to narrow down the scan range using the index, each recording may be split into several ranges
+        final List<List<ArchiveLocation>> recordingLocations = new ArrayList<>();
+        for (final ArchiveLocation location : archiveLocations)
         {
-            final Iterator<ArchiveLocation> iterator = archiveLocations.iterator();
-            while (iterator.hasNext())
+            final List<PositionRange> positionRanges = indexScan == null ?
+                null : indexScan.recordingIdToPositionRanges.get(location.recordingId);
+            final List<ArchiveLocation> locations;
+            if (positionRanges == null)
             {
-                final ArchiveLocation location = iterator.next();
-
-                final PositionRange positionRange = recordingIdToPositionRange.get(location.recordingId);
-                if (positionRange == null)
+                // Recordings without a time index are excluded from a time based scan
+                if (indexScan != null && indexScan.timeIndexed)
                 {
-                    iterator.remove();
+                    continue;
                 }
-                else
-                {
-                    final long startPosition = positionRange.startPosition();
-                    final long endPosition = positionRange.endPosition();
 
-                    if (location.stopPosition > endPosition)
-                    {
-                        location.stopPosition = endPosition;
-                    }
-
-                    if (location.startPosition < startPosition)
-                    {
-                        location.startPosition = startPosition;
-                    }
-                }
+                locations = new ArrayList<>();
+                locations.add(location);
+            }
+            else
+            {
+                locations = location.narrow(positionRanges);
             }
+
+            // filter out empty locations as
+            // 1) they are empty - we don't need to poll them
+            // 2) we use empty length later within polling as a test for polling being finished
+            locations.removeIf(archiveLocation -> archiveLocation.length() == 0L);
+            recordingLocations.add(locations);
+        }
+
+        return recordingLocations;
+    }
+
+    static final class IndexScan
+    {
+        final Long2ObjectHashMap<List<PositionRange>> recordingIdToPositionRanges;
+        final boolean timeIndexed;
+
+        IndexScan(
+            final Long2ObjectHashMap<List<PositionRange>> recordingIdToPositionRanges, final boolean timeIndexed)
+        {
+            this.recordingIdToPositionRanges = recordingIdToPositionRanges;
+            this.timeIndexed = timeIndexed;
+        }
+    }
+
+    static final class ScanChunk
+    {
+        final int index;
+        final int streamId;
+        final ArchiveLocation location;
+
+        ScanChunk(final int index, final int streamId, final ArchiveLocation location)
+        {
+            this.index = index;
+            this.streamId = streamId;
+            this.location = location;
         }
 
-        return archiveLocations;
+        public String toString()
+        {
+            return "ScanChunk{" +
+                "index=" + index +
+                ", streamId=" + streamId +
+                ", location=" + location +
+                '}';
+        }
     }
 
     static class ArchiveLocation
@@ -318,6 +494,39 @@ public class FixArchiveScanningAgent implements AutoCloseable
             return startPosition == NULL_POSITION ? NULL_POSITION : stopPosition - startPosition;
         }
 
+        List<ArchiveLocation> narrow(final List<PositionRange> positionRanges)
+        {
+            final List<ArchiveLocation> locations = new ArrayList<>();
+            for (final PositionRange positionRange : positionRanges)
+            {
+                final long startPosition = Math.max(this.startPosition, positionRange.startPosition());
+                final long stopPosition = Math.min(this.stopPosition, positionRange.endPosition());
+                if (startPosition < stopPosition)
+                {
+                    locations.add(new ArchiveLocation(recordingId, startPosition, stopPosition));
+                }
+            }
+            return locations;
+        }
+
+        // Split positions are the start of a message, so each part can be replayed on its own
+        List<ArchiveLocation> split(final LongArrayList splitPositions)
+        {
+            final List<ArchiveLocation> locations = new ArrayList<>();
+            long startPosition = this.startPosition;
+            for (int i = 0; i < splitPositions.size(); i++)
+            {
+                final long splitPosition = splitPositions.getLong(i);
+                if (splitPosition > startPosition && splitPosition < stopPosition)
+                {
+                    locations.add(new ArchiveLocation(recordingId, startPosition, splitPosition));
+                    startPosition = splitPosition;
+                }
+            }
+            locations.add(new ArchiveLocation(recordingId, startPosition, stopPosition));
+            return locations;
+        }
+
         public String toString()
         {
             return "ArchiveLocation{" +
@@ -332,7 +541,9 @@ public class FixArchiveScanningAgent implements AutoCloseable
     {
         private final Subscription replaySubscription;
         private final int originalStreamId;
+        private final List<ArchiveLocation> archiveLocations;
 
+        private int nextArchiveLocation;
         private ArchiveLocation archiveLocation;
 
         long stopPosition;
@@ -341,11 +552,27 @@ public class FixArchiveScanningAgent implements AutoCloseable
         RecordingPoller(
             final Subscription replaySubscription,
             final int originalStreamId,
-            final ArchiveLocation archiveLocation)
+            final List<ArchiveLocation> archiveLocations)
         {
             this.replaySubscription = replaySubscription;
             this.originalStreamId = originalStreamId;
-            this.archiveLocation = archiveLocation;
+            this.archiveLocations = archiveLocations;
+            nextArchiveLocation();
+        }
+
+        // The ranges of a recording are replayed one after another, in position order
+        private void nextArchiveLocation()
+        {
+            final int nextArchiveLocation = this.nextArchiveLocation;
+            if (nextArchiveLocation < archiveLocations.size())
+            {
+                archiveLocation = archiveLocations.get(nextArchiveLocation);
+                this.nextArchiveLocation = nextArchiveLocation + 1;
+            }
+            else
+            {
+                archiveLocation = null;
+            }
         }
 
         public boolean isComplete()
@@ -373,7 +600,7 @@ public class FixArchiveScanningAgent implements AutoCloseable
 
                     image = lookupImage(sessionId);
                     stopPosition = archiveLocation.stopPosition;
-                    archiveLocation = null;
+                    nextArchiveLocation();
                 }
 
                 return 1;
@@ -419,7 +646,7 @@ public class FixArchiveScanningAgent implements AutoCloseable
         public String toString()
         {
             return "RecordingPoller{" +
-                "archiveLocations=" + archiveLocation +
+                "archiveLocations=" + archiveLocations +
                 ", replaySubscription=" + replaySubscription +
                 ", originalStreamId=" + originalStreamId +
                 ", stopPosition=" + stopPosition +
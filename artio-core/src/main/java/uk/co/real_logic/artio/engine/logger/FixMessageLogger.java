@@ -207,9 +207,10 @@ public class FixMessageLogger implements Agent
 
         /**
          * Provide the compaction size to within the reorder buffer. The FixMessageLogger re-orders its messages
-         * internally in order to hand them off the consumer in timestamp order. A larger compaction size allows it's
-         * internal reorder buffer to grow larger before compaction is attempted. A larger compaction size results in
-         * less compaction and thus less CPU usage at the cost of more memory being consumed.
+         * internally in order to hand them off the consumer in timestamp order. The reorder buffer is made up of
+         * segments of the compaction size, up to 1MB, that are reused once the messages within them have been handed
+         * off. When lazily processing the reorder buffer, as the {@link FixArchiveScanner} does, it's only processed
+         * once it holds more than the compaction size.
          *
          * @param compactionSize the compaction size to within the reorder buffer.
          * @return this
@@ -229,11 +229,28 @@ public final class FixMessagePredicates
 
     private static FixMessagePredicate messageTypeOf(final LongHashSet hashSet)
     {
-        return (message) ->
+        return new MessageTypeOf(hashSet);
+    }
+
+    static class MessageTypeOf implements FixMessagePredicate
+    {
+        private final LongHashSet messageTypes;
+
+        MessageTypeOf(final LongHashSet messageTypes)
+        {
+            this.messageTypes = messageTypes;
+        }
+
+        public boolean test(final FixMessageDecoder message)
         {
             final long messageType = MessageTypeExtractor.getMessageType(message);
-            return hashSet.contains(messageType);
-        };
+            return messageTypes.contains(messageType);
+        }
+
+        LongHashSet messageTypes()
+        {
+            return messageTypes;
+        }
     }
 
     /**
@@ -532,7 +549,27 @@ public final class FixMessagePredicates
      */
     public static FixMessagePredicate sessionOf(final long sessionId)
     {
-        return (message) -> message.session() == sessionId;
+        return new SessionOf(sessionId);
+    }
+
+    static class SessionOf implements FixMessagePredicate
+    {
+        private final long sessionId;
+
+        SessionOf(final long sessionId)
+        {
+            this.sessionId = sessionId;
+        }
+
+        public boolean test(final FixMessageDecoder message)
+        {
+            return message.session() == sessionId;
+        }
+
+        long sessionId()
+        {
+            return sessionId;
+        }
     }
 
     public static FixMessagePredicate bodyMatches(final Pattern pattern)
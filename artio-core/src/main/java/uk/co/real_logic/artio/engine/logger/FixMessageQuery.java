@@ -0,0 +1,410 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.DirectBuffer;
+import org.agrona.collections.LongHashSet;
+import uk.co.real_logic.artio.engine.framer.MessageTypeExtractor;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.util.AsciiBuffer;
+import uk.co.real_logic.artio.util.MessageTypeEncoding;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static uk.co.real_logic.artio.util.AsciiBuffer.UNKNOWN_INDEX;
+
+/**
+ * Builds a {@link FixMessagePredicate} from tag-equality, tag-range, message type and time window filters that is
+ * run straight against the bytes of the message body. Unlike {@link FixMessagePredicates#whereHeader} or
+ * {@link FixMessagePredicates#bodyMatches} nothing is decoded, copied or allocated when a message is tested, and
+ * a message is rejected as soon as the first field that fails a filter has been scanned.
+ *
+ * The time window is compiled into {@link FixMessagePredicates#from(long)} and {@link FixMessagePredicates#to(long)}
+ * predicates so that a {@link FixArchiveScanner} can still use its index to narrow the scan.
+ *
+ * Each tag filter is tested against the first occurrence of its tag in the message, so a filter on a tag inside a
+ * repeating group only looks at the first entry. All the filters must pass for a message to match.
+ *
+ * <pre>
+ * final FixMessagePredicate predicate = FixMessageQuery.query()
+ *     .between(begin, end)
+ *     .messageTypeIn("D", "8")
+ *     .tagEquals(49, "INITIATOR")
+ *     .tagBetween(38, 100, 1_000)
+ *     .compile();
+ * </pre>
+ */
+public final class FixMessageQuery
+{
+    /**
+     * The maximum number of tag filters that can be compiled into a single predicate.
+     */
+    public static final int MAX_TAG_FILTERS = Long.SIZE;
+
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private final List<TagFilter> tagFilters = new ArrayList<>();
+    private LongHashSet messageTypes;
+    private long beginTimestampInclusive = NO_TIMESTAMP;
+    private long endTimestampExclusive = NO_TIMESTAMP;
+
+    private FixMessageQuery()
+    {
+    }
+
+    /**
+     * Start building a new query, with no filters a query matches every message.
+     *
+     * @return the new query.
+     */
+    public static FixMessageQuery query()
+    {
+        return new FixMessageQuery();
+    }
+
+    /**
+     * Only match messages whose value for the given tag is exactly the given ascii string.
+     *
+     * @param tag the tag of the field to filter on.
+     * @param value the value that the field must have.
+     * @return this
+     */
+    public FixMessageQuery tagEquals(final int tag, final String value)
+    {
+        return addTagFilter(new TagFilter(tag, value.getBytes(StandardCharsets.US_ASCII), 0, 0));
+    }
+
+    /**
+     * Only match messages whose value for the given tag is exactly the given integer, compared as its ascii
+     * representation, so a value with leading zeros doesn't match.
+     *
+     * @param tag the tag of the field to filter on.
+     * @param value the value that the field must have.
+     * @return this
+     */
+    public FixMessageQuery tagEquals(final int tag, final long value)
+    {
+        return tagEquals(tag, Long.toString(value));
+    }
+
+    /**
+     * Only match messages whose value for the given tag is an integer within the given range. Values that aren't
+     * integers, such as prices with a decimal point, or that have more than 18 digits don't match.
+     *
+     * @param tag the tag of the field to filter on.
+     * @param minInclusive the value of the field must be &gt;= this value.
+     * @param maxInclusive the value of the field must be &lt;= this value.
+     * @return this
+     */
+    public FixMessageQuery tagBetween(final int tag, final long minInclusive, final long maxInclusive)
+    {
+        if (minInclusive > maxInclusive)
+        {
+            throw new IllegalArgumentException(
+                "minInclusive (" + minInclusive + ") must be <= maxInclusive (" + maxInclusive + ")");
+        }
+
+        return addTagFilter(new TagFilter(tag, null, minInclusive, maxInclusive));
+    }
+
+    /**
+     * Only match messages of one of the given message types. Can be called repeatedly to add further types. The
+     * message type is read from the archived message's metadata rather than the body.
+     *
+     * @param messageTypes the fix message type strings that you see in the message.
+     * @return this
+     */
+    public FixMessageQuery messageTypeIn(final String... messageTypes)
+    {
+        if (this.messageTypes == null)
+        {
+            this.messageTypes = new LongHashSet();
+        }
+
+        for (final String messageType : messageTypes)
+        {
+            this.messageTypes.add(MessageTypeEncoding.packMessageType(messageType));
+        }
+
+        return this;
+    }
+
+    /**
+     * Only match messages with a timestamp between these begin and end times.
+     *
+     * @param beginTimestampInclusive the message's timestamp must be &gt;= this value.
+     * @param endTimestampExclusive the message's timestamp must be &lt; this value.
+     * @return this
+     * @see FixMessagePredicates#between(long, long)
+     */
+    public FixMessageQuery between(final long beginTimestampInclusive, final long endTimestampExclusive)
+    {
+        return from(beginTimestampInclusive).to(endTimestampExclusive);
+    }
+
+    /**
+     * Only match messages with a timestamp from a given begin time.
+     *
+     * @param beginTimestampInclusive the message's timestamp must be &gt;= this value.
+     * @return this
+     * @see FixMessagePredicates#from(long)
+     */
+    public FixMessageQuery from(final long beginTimestampInclusive)
+    {
+        this.beginTimestampInclusive = beginTimestampInclusive;
+        return this;
+    }
+
+    /**
+     * Only match messages with a timestamp before a given end time.
+     *
+     * @param endTimestampExclusive the message's timestamp must be &lt; this value.
+     * @return this
+     * @see FixMessagePredicates#to(long)
+     */
+    public FixMessageQuery to(final long endTimestampExclusive)
+    {
+        this.endTimestampExclusive = endTimestampExclusive;
+        return this;
+    }
+
+    /**
+     * Compile the query into a predicate. The time window is tested first, then the message type and finally the
+     * tag filters in a single pass over the body. Like other predicates the result shouldn't be shared between
+     * concurrent scans, but the query can be compiled again for each of them.
+     *
+     * @return the compiled predicate.
+     */
+    public FixMessagePredicate compile()
+    {
+        FixMessagePredicate timeWindow = null;
+        if (beginTimestampInclusive != NO_TIMESTAMP)
+        {
+            timeWindow = FixMessagePredicates.from(beginTimestampInclusive);
+        }
+
+        if (endTimestampExclusive != NO_TIMESTAMP)
+        {
+            final FixMessagePredicate to = FixMessagePredicates.to(endTimestampExclusive);
+            timeWindow = timeWindow == null ? to : timeWindow.and(to);
+        }
+
+        final LongHashSet messageTypes = this.messageTypes == null ? null : copyOf(this.messageTypes);
+        final CompiledQuery compiledQuery = new CompiledQuery(
+            messageTypes, tagFilters.toArray(new TagFilter[0]));
+        return timeWindow == null ? compiledQuery : timeWindow.and(compiledQuery);
+    }
+
+    private FixMessageQuery addTagFilter(final TagFilter tagFilter)
+    {
+        if (tagFilters.size() == MAX_TAG_FILTERS)
+        {
+            throw new IllegalStateException("Unable to add more than " + MAX_TAG_FILTERS + " tag filters");
+        }
+
+        tagFilters.add(tagFilter);
+        return this;
+    }
+
+    private static LongHashSet copyOf(final LongHashSet messageTypes)
+    {
+        final LongHashSet copy = new LongHashSet();
+        copy.addAll(messageTypes);
+        return copy;
+    }
+
+    static final class TagFilter
+    {
+        final int tag;
+        final byte[] value;
+        final long minInclusive;
+        final long maxInclusive;
+
+        TagFilter(final int tag, final byte[] value, final long minInclusive, final long maxInclusive)
+        {
+            if (tag <= 0)
+            {
+                throw new IllegalArgumentException("Invalid tag: " + tag);
+            }
+
+            this.tag = tag;
+            this.value = value;
+            this.minInclusive = minInclusive;
+            this.maxInclusive = maxInclusive;
+        }
+
+        boolean test(final DirectBuffer buffer, final int valueOffset, final int valueEnd)
+        {
+            return value != null ?
+                equalTo(buffer, valueOffset, valueEnd) :
+                inRange(buffer, valueOffset, valueEnd);
+        }
+
+        private boolean equalTo(final DirectBuffer buffer, final int valueOffset, final int valueEnd)
+        {
+            final byte[] value = this.value;
+            final int length = value.length;
+            if (valueEnd - valueOffset != length)
+            {
+                return false;
+            }
+
+            for (int i = 0; i < length; i++)
+            {
+                if (buffer.getByte(valueOffset + i) != value[i])
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private boolean inRange(final DirectBuffer buffer, final int valueOffset, final int valueEnd)
+        {
+            final boolean negative = valueOffset < valueEnd && buffer.getByte(valueOffset) == '-';
+            final int digitsOffset = negative ? valueOffset + 1 : valueOffset;
+            final int digitCount = valueEnd - digitsOffset;
+            if (digitCount <= 0 || digitCount > MAX_LONG_DIGITS)
+            {
+                return false;
+            }
+
+            long value = 0;
+            for (int i = digitsOffset; i < valueEnd; i++)
+            {
+                final int digit = buffer.getByte(i) - '0';
+                if (digit < 0 || digit > 9)
+                {
+                    return false;
+                }
+                value = value * 10 + digit;
+            }
+
+            if (negative)
+            {
+                value = -value;
+            }
+
+            return value >= minInclusive && value <= maxInclusive;
+        }
+
+        public String toString()
+        {
+            return value != null ?
+                tag + "=" + new String(value, StandardCharsets.US_ASCII) :
+                tag + " in [" + minInclusive + ", " + maxInclusive + "]";
+        }
+    }
+
+    static final class CompiledQuery implements FixMessagePredicate
+    {
+        private final MutableAsciiBuffer asciiBuffer = new MutableAsciiBuffer();
+        private final LongHashSet messageTypes;
+        private final TagFilter[] tagFilters;
+        private final long allFiltersPassed;
+
+        CompiledQuery(final LongHashSet messageTypes, final TagFilter[] tagFilters)
+        {
+            this.messageTypes = messageTypes;
+            this.tagFilters = tagFilters;
+            allFiltersPassed = tagFilters.length == Long.SIZE ? -1L : (1L << tagFilters.length) - 1;
+        }
+
+        public boolean test(final FixMessageDecoder message)
+        {
+            final LongHashSet messageTypes = this.messageTypes;
+            if (messageTypes != null && !messageTypes.contains(MessageTypeExtractor.getMessageType(message)))
+            {
+                return false;
+            }
+
+            final TagFilter[] tagFilters = this.tagFilters;
+            final int filterCount = tagFilters.length;
+            if (filterCount == 0)
+            {
+                return true;
+            }
+
+            final MutableAsciiBuffer asciiBuffer = this.asciiBuffer;
+            final int bodyOffset = message.limit() + FixMessageDecoder.bodyHeaderLength();
+            final int end = bodyOffset + message.bodyLength();
+            asciiBuffer.wrap(message.buffer());
+
+            final long allFiltersPassed = this.allFiltersPassed;
+            long passedFilters = 0;
+            int position = bodyOffset;
+            while (position < end)
+            {
+                final long tagAndEqualsIndex = asciiBuffer.scanTag(position, end);
+                final int equalsIndex = AsciiBuffer.scannedEqualsIndex(tagAndEqualsIndex);
+                if (equalsIndex == UNKNOWN_INDEX)
+                {
+                    return false;
+                }
+
+                final int tag = AsciiBuffer.scannedTag(tagAndEqualsIndex);
+                final int valueOffset = equalsIndex + 1;
+                int endOfField = asciiBuffer.scanSeparator(valueOffset, end);
+                if (endOfField == UNKNOWN_INDEX)
+                {
+                    endOfField = end;
+                }
+
+                for (int i = 0; i < filterCount; i++)
+                {
+                    final long filterBit = 1L << i;
+                    final TagFilter tagFilter = tagFilters[i];
+                    if (tagFilter.tag == tag && (passedFilters & filterBit) == 0)
+                    {
+                        if (!tagFilter.test(asciiBuffer, valueOffset, endOfField))
+                        {
+                            return false;
+                        }
+
+                        passedFilters |= filterBit;
+                        if (passedFilters == allFiltersPassed)
+                        {
+                            return true;
+                        }
+                    }
+                }
+
+                position = endOfField + 1;
+            }
+
+            return false;
+        }
+
+        LongHashSet messageTypes()
+        {
+            return messageTypes;
+        }
+
+        public String toString()
+        {
+            return "CompiledQuery{" +
+                "messageTypes=" + messageTypes +
+                ", tagFilters=" + Arrays.toString(tagFilters) +
+                '}';
+        }
+    }
+}
@@ -40,6 +40,7 @@ import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import static uk.co.real_logic.artio.DebugLogger.IS_REPLAY_LOG_TAG_ENABLED;
 import static uk.co.real_logic.artio.LogTag.*;
 import static uk.co.real_logic.artio.dictionary.SessionConstants.BUSINESS_MESSAGE_REJECT_MESSAGE_TYPE;
@@ -47,6 +48,7 @@ import static uk.co.real_logic.artio.dictionary.SessionConstants.SEQUENCE_RESET_
 import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
 import static uk.co.real_logic.artio.engine.framer.SenderEndPoint.NOT_LAST_REPLAY_MSG;
 import static uk.co.real_logic.artio.engine.logger.Replayer.MESSAGE_FRAME_BLOCK_LENGTH;
+import static uk.co.real_logic.artio.engine.logger.Replayer.SIZE_OF_LENGTH_FIELD;
 import static uk.co.real_logic.artio.messages.FixMessageDecoder.metaDataHeaderLength;
 import static uk.co.real_logic.artio.messages.FixMessageDecoder.metaDataSinceVersion;
 
@@ -80,6 +82,13 @@ class FixReplayerSession extends ReplayerSession
 
     private State state;
 
+    // Only set whilst the replay is served from the ResendCache
+    private ResendCache.SessionCache cachedMessages;
+    private int cacheEpoch;
+    private long cachePosition;
+    private int nextCachedSeqNum;
+    private int cachedReplayedMessages;
+
     FixReplayerSession(
         final BufferClaim bufferClaim,
         final IdleStrategy idleStrategy,
@@ -137,6 +146,68 @@ class FixReplayerSession extends ReplayerSession
         return new FixMessageTracker(REPLAY_MESSAGE, this, sessionId);
     }
 
+    boolean queryCache()
+    {
+        final ResendCache resendCache = replayer.resendCache;
+        if (resendCache == null)
+        {
+            return false;
+        }
+
+        final ResendCache.SessionCache cachedMessages = resendCache.lookup(
+            sessionId, sequenceIndex, beginSeqNo, endSeqNo);
+        if (cachedMessages == null)
+        {
+            return false;
+        }
+
+        DebugLogger.log(REPLAY, "ReplayerSession: replaying from the resend cache");
+        this.cachedMessages = cachedMessages;
+        cacheEpoch = cachedMessages.epoch();
+        cachePosition = cachedMessages.position(beginSeqNo);
+        nextCachedSeqNum = beginSeqNo;
+        return true;
+    }
+
+    private boolean pollCachedReplay()
+    {
+        final ResendCache.SessionCache cachedMessages = this.cachedMessages;
+        while (nextCachedSeqNum <= endSeqNo)
+        {
+            if (!cachedMessages.isAvailable(cacheEpoch, cachePosition))
+            {
+                // Evicted since the replay started, so replay the rest of the range from the archive instead
+                this.cachedMessages = null;
+                replayOperation = replayQuery.query(
+                    sessionId,
+                    nextCachedSeqNum,
+                    sequenceIndex,
+                    endSeqNo,
+                    sequenceIndex,
+                    REPLAY,
+                    messageTracker());
+                return false;
+            }
+
+            final long position = cachedMessages.replay(cachePosition, this);
+            if (position == cachePosition)
+            {
+                return false;
+            }
+
+            cachePosition = position;
+            nextCachedSeqNum++;
+            cachedReplayedMessages++;
+        }
+
+        return true;
+    }
+
+    private boolean pollReplay()
+    {
+        return cachedMessages != null ? pollCachedReplay() : replayOperation.pollReplay();
+    }
+
     private void onPreCommit(final MutableDirectBuffer buffer, final int offset)
     {
         final int frameOffset = offset + MessageHeaderEncoder.ENCODED_LENGTH;
@@ -172,7 +243,7 @@ class FixReplayerSession extends ReplayerSession
         {
             case FixMessageDecoder.TEMPLATE_ID:
             {
-                return onFixMessage(srcBuffer, srcOffset, srcLength, actingBlockLength, offset, version);
+                return onFixMessage(srcBuffer, srcOffset, actingBlockLength, offset, version);
             }
 
             case ThrottleRejectDecoder.TEMPLATE_ID:
@@ -187,7 +258,6 @@ class FixReplayerSession extends ReplayerSession
     private Action onFixMessage(
         final DirectBuffer srcBuffer,
         final int srcOffset,
-        final int srcLength,
         final int actingBlockLength,
         final int offset,
         final int version)
@@ -205,7 +275,10 @@ class FixReplayerSession extends ReplayerSession
                 metaDataHeaderLength() + fixMessageDecoder.metaDataLength() : 0;
             final int messageFrameBlockLength = MESSAGE_FRAME_BLOCK_LENGTH + metaDataAdjustment;
             final int messageOffset = srcOffset + messageFrameBlockLength;
-            final int messageLength = srcLength - messageFrameBlockLength;
+            // Use the encoded body length rather than the fragment length as claimed messages can have unused
+            // bytes at the end of their fragment.
+            final int messageLength = srcBuffer.getInt(messageOffset - SIZE_OF_LENGTH_FIELD, LITTLE_ENDIAN);
+            final int frameLength = messageFrameBlockLength + messageLength;
 
             final int msgSeqNum = sequenceNumberExtractor.extract(srcBuffer, messageOffset, messageLength);
             final long messageType = MessageTypeExtractor.getMessageType(fixMessageDecoder);
@@ -250,7 +323,7 @@ class FixReplayerSession extends ReplayerSession
 
                 headerSeqNum = msgSeqNum == endSeqNo ? msgSeqNum : NOT_LAST_REPLAY_MSG;
                 final Action action = possDupEnabler.enablePossDupFlag(
-                    srcBuffer, messageOffset, messageLength, srcOffset, srcLength, metaDataAdjustment, messageType);
+                    srcBuffer, messageOffset, messageLength, srcOffset, frameLength, metaDataAdjustment, messageType);
                 if (action != ABORT)
                 {
                     lastSeqNo = msgSeqNum;
@@ -381,7 +454,7 @@ class FixReplayerSession extends ReplayerSession
         {
             case REPLAYING:
                 DebugLogger.log(REPLAY_ATTEMPT, "ReplayerSession: REPLAYING step");
-                if (replayOperation.pollReplay())
+                if (pollReplay())
                 {
                     state = State.CHECK_REPLAY;
                     return attemptReplay();
@@ -401,7 +474,7 @@ class FixReplayerSession extends ReplayerSession
 
             case CLOSING:
             {
-                return replayOperation.pollReplay();
+                return replayOperation == null || replayOperation.pollReplay();
             }
 
             default:
@@ -412,7 +485,11 @@ class FixReplayerSession extends ReplayerSession
     private boolean completeReplay()
     {
         // Load state needed to complete the replay
-        final int replayedMessages = replayOperation.replayedMessages();
+        int replayedMessages = cachedReplayedMessages;
+        if (replayOperation != null)
+        {
+            replayedMessages += replayOperation.replayedMessages();
+        }
 
         // If the last N messages were admin messages then we need to send a gapfill
         // after the replay query has run.
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Image;
+import io.aeron.Subscription;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.client.ArchiveException;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongArrayList;
+import org.agrona.concurrent.AgentInvoker;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.status.AtomicCounter;
+import uk.co.real_logic.artio.CommonConfiguration;
+import uk.co.real_logic.artio.DebugLogger;
+import uk.co.real_logic.artio.LogTag;
+import uk.co.real_logic.artio.util.CharFormatter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static io.aeron.logbuffer.FrameDescriptor.END_FRAG_FLAG;
+
+/**
+ * Catches indices up with the parts of their recordings that they hadn't indexed when the engine last stopped.
+ *
+ * All the indices that need part of the same recording share a single replay of it, starting from the earliest
+ * position that any of them needs, and replays of different recordings run concurrently up to a maximum. The replays
+ * are polled in turn, but never in the middle of a fragmented message, so each index still sees complete messages.
+ */
+public class IndexCatchup
+{
+    private static final int LIMIT = 20;
+
+    private final CharFormatter catchupFormatter = new CharFormatter(
+        "Catchup [%s]: recordingId = %s, recordingStopped @ %s, indexStopped @ %s");
+
+    private final Long2ObjectHashMap<RecordingCatchup> recordingIdToCatchup = new Long2ObjectHashMap<>();
+    private final AeronArchive aeronArchive;
+    private final ErrorHandler errorHandler;
+    private final int archiveReplayStream;
+    private final int maxConcurrentReplays;
+    private final AtomicCounter remainingRecordings;
+    private final AtomicCounter remainingBytes;
+
+    /**
+     * Creates a catchup.
+     *
+     * @param aeronArchive the archive that contains the recordings to catch up with.
+     * @param errorHandler the handler for errors from the archive.
+     * @param archiveReplayStream the stream id to replay recordings on.
+     * @param maxConcurrentReplays the maximum number of recordings that are replayed at the same time.
+     * @param remainingRecordings counter for the number of recordings left to catch up with, can be null.
+     * @param remainingBytes counter for the number of bytes left to catch up with, can be null.
+     */
+    public IndexCatchup(
+        final AeronArchive aeronArchive,
+        final ErrorHandler errorHandler,
+        final int archiveReplayStream,
+        final int maxConcurrentReplays,
+        final AtomicCounter remainingRecordings,
+        final AtomicCounter remainingBytes)
+    {
+        this.aeronArchive = aeronArchive;
+        this.errorHandler = errorHandler;
+        this.archiveReplayStream = archiveReplayStream;
+        this.maxConcurrentReplays = Math.max(1, maxConcurrentReplays);
+        this.remainingRecordings = remainingRecordings;
+        this.remainingBytes = remainingBytes;
+    }
+
+    public IndexCatchup add(final Indexer indexer)
+    {
+        final List<Index> indices = indexer.indices;
+        for (int i = 0, size = indices.size(); i < size; i++)
+        {
+            add(indices.get(i));
+        }
+        return this;
+    }
+
+    public IndexCatchup add(final Index index)
+    {
+        index.readLastPosition((aeronSessionId, recordingId, indexStoppedPosition) ->
+        {
+            RecordingCatchup catchup = recordingIdToCatchup.get(recordingId);
+            if (catchup == null)
+            {
+                try
+                {
+                    catchup = new RecordingCatchup(recordingId, aeronArchive.getStopPosition(recordingId));
+                    recordingIdToCatchup.put(recordingId, catchup);
+                }
+                catch (final ArchiveException ex)
+                {
+                    errorHandler.onError(ex);
+                    return;
+                }
+            }
+
+            if (catchup.recordingStoppedPosition > indexStoppedPosition)
+            {
+                DebugLogger.log(
+                    LogTag.INDEX,
+                    catchupFormatter,
+                    index.getName(),
+                    recordingId,
+                    catchup.recordingStoppedPosition,
+                    indexStoppedPosition);
+
+                catchup.add(index, indexStoppedPosition);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Replays the recordings until every index has caught up with them.
+     */
+    public void run()
+    {
+        final ArrayDeque<RecordingCatchup> pending = new ArrayDeque<>();
+        long totalBytes = 0;
+        for (final RecordingCatchup catchup : recordingIdToCatchup.values())
+        {
+            if (catchup.hasIndices())
+            {
+                pending.add(catchup);
+                totalBytes += catchup.length();
+            }
+        }
+        recordingIdToCatchup.clear();
+        setCounter(remainingRecordings, pending.size());
+        setCounter(remainingBytes, totalBytes);
+        if (pending.isEmpty())
+        {
+            return;
+        }
+
+        final IdleStrategy idleStrategy = CommonConfiguration.backoffIdleStrategy();
+        final AgentInvoker aeronInvoker = aeronArchive.context().aeron().conductorAgentInvoker();
+        final List<RecordingCatchup> active = new ArrayList<>();
+        RecordingCatchup fragmentedCatchup = null;
+
+        try
+        {
+            while (!pending.isEmpty() || !active.isEmpty())
+            {
+                int workCount = 0;
+                while (active.size() < maxConcurrentReplays && !pending.isEmpty())
+                {
+                    final RecordingCatchup catchup = pending.poll();
+                    if (catchup.startReplay())
+                    {
+                        active.add(catchup);
+                    }
+                    else
+                    {
+                        onRecordingComplete();
+                    }
+                    workCount++;
+                }
+
+                checkForErrorResponse();
+
+                if (fragmentedCatchup != null)
+                {
+                    // Keep polling the same replay until its message is complete
+                    workCount += fragmentedCatchup.poll();
+                    if (!fragmentedCatchup.midMessage)
+                    {
+                        fragmentedCatchup = null;
+                    }
+                }
+                else
+                {
+                    for (int i = 0, size = active.size(); i < size; i++)
+                    {
+                        final RecordingCatchup catchup = active.get(i);
+                        workCount += catchup.poll();
+                        if (catchup.midMessage)
+                        {
+                            fragmentedCatchup = catchup;
+                            break;
+                        }
+                    }
+                }
+
+                for (int i = active.size() - 1; i >= 0; i--)
+                {
+                    final RecordingCatchup catchup = active.get(i);
+                    if (catchup.isComplete())
+                    {
+                        // A recording can stop, or its replay close, part way through a fragmented message
+                        if (catchup == fragmentedCatchup)
+                        {
+                            fragmentedCatchup = null;
+                        }
+                        active.remove(i);
+                        catchup.close();
+                        onRecordingComplete();
+                    }
+                }
+
+                idle(idleStrategy, aeronInvoker, workCount);
+            }
+        }
+        finally
+        {
+            CloseHelper.closeAll(active);
+        }
+    }
+
+    private void checkForErrorResponse()
+    {
+        try
+        {
+            aeronArchive.checkForErrorResponse();
+        }
+        catch (final ArchiveException ex)
+        {
+            errorHandler.onError(ex);
+        }
+    }
+
+    private void onRecordingComplete()
+    {
+        if (remainingRecordings != null)
+        {
+            remainingRecordings.decrementOrdered();
+        }
+    }
+
+    private static void setCounter(final AtomicCounter counter, final long value)
+    {
+        if (counter != null)
+        {
+            counter.setOrdered(value);
+        }
+    }
+
+    private void idle(final IdleStrategy idleStrategy, final AgentInvoker aeronInvoker, final int workCount)
+    {
+        int totalWork = workCount;
+        if (aeronInvoker != null)
+        {
+            totalWork += aeronInvoker.invoke();
+        }
+
+        idleStrategy.idle(totalWork);
+    }
+
+    private final class RecordingCatchup implements FragmentHandler, AutoCloseable
+    {
+        private final List<Index> indices = new ArrayList<>();
+        private final LongArrayList indexStoppedPositions = new LongArrayList();
+        private final long recordingId;
+        private final long recordingStoppedPosition;
+
+        private long startPosition = Long.MAX_VALUE;
+        private long polledPosition;
+        private Subscription subscription;
+        private Image image;
+        private boolean midMessage;
+
+        RecordingCatchup(final long recordingId, final long recordingStoppedPosition)
+        {
+            this.recordingId = recordingId;
+            this.recordingStoppedPosition = recordingStoppedPosition;
+        }
+
+        void add(final Index index, final long indexStoppedPosition)
+        {
+            indices.add(index);
+            indexStoppedPositions.addLong(indexStoppedPosition);
+            startPosition = Math.min(startPosition, indexStoppedPosition);
+        }
+
+        boolean hasIndices()
+        {
+            return !indices.isEmpty();
+        }
+
+        long length()
+        {
+            return recordingStoppedPosition - startPosition;
+        }
+
+        boolean startReplay()
+        {
+            try
+            {
+                subscription = aeronArchive.replay(
+                    recordingId, startPosition, length(), IPC_CHANNEL, archiveReplayStream);
+                polledPosition = startPosition;
+                return true;
+            }
+            catch (final ArchiveException ex)
+            {
+                errorHandler.onError(ex);
+                if (remainingBytes != null)
+                {
+                    remainingBytes.getAndAddOrdered(-length());
+                }
+                return false;
+            }
+        }
+
+        int poll()
+        {
+            if (image == null)
+            {
+                if (subscription.imageCount() == 0)
+                {
+                    return 0;
+                }
+                image = subscription.imageAtIndex(0);
+            }
+
+            final int workCount = image.poll(this, LIMIT);
+            final long position = image.position();
+            if (remainingBytes != null)
+            {
+                remainingBytes.getAndAddOrdered(polledPosition - position);
+            }
+            polledPosition = position;
+            return workCount;
+        }
+
+        public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+            final long endPosition = header.position();
+            final List<Index> indices = this.indices;
+            final LongArrayList indexStoppedPositions = this.indexStoppedPositions;
+            for (int i = 0, size = indices.size(); i < size; i++)
+            {
+                // Indices that stopped further along the recording skip the fragments that they've already indexed
+                if (endPosition > indexStoppedPositions.getLong(i))
+                {
+                    indices.get(i).onCatchup(buffer, offset, length, header, recordingId);
+                }
+            }
+
+            midMessage = (header.flags() & END_FRAG_FLAG) != END_FRAG_FLAG;
+        }
+
+        boolean isComplete()
+        {
+            if (image == null)
+            {
+                return false;
+            }
+
+            if (image.position() >= recordingStoppedPosition)
+            {
+                return true;
+            }
+
+            if (image.isClosed())
+            {
+                errorHandler.onError(new IllegalStateException(String.format(
+                    "Replay of recordingId = %d closed @ %d before it reached %d",
+                    recordingId, image.position(), recordingStoppedPosition)));
+                return true;
+            }
+
+            return false;
+        }
+
+        public void close()
+        {
+            CloseHelper.close(subscription);
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package uk.co.real_logic.artio.engine.logger;
 
+import org.agrona.collections.LongHashSet;
+
 class IndexQuery
 {
     static final long NO_BEGIN = Long.MIN_VALUE;
@@ -22,6 +24,8 @@ class IndexQuery
 
     private long beginTimestampInclusive = Long.MIN_VALUE;
     private long endTimestampExclusive = Long.MAX_VALUE;
+    private LongHashSet sessionIds;
+    private LongHashSet messageTypes;
 
     void from(final long beginTimestampInclusive)
     {
@@ -43,17 +47,53 @@ class IndexQuery
         }
     }
 
+    // Each call narrows the query, so only ids in every set passed in are kept
+    void sessionIds(final LongHashSet sessionIds)
+    {
+        this.sessionIds = retain(this.sessionIds, sessionIds);
+    }
+
+    void messageTypes(final LongHashSet messageTypes)
+    {
+        this.messageTypes = retain(this.messageTypes, messageTypes);
+    }
+
+    private static LongHashSet retain(final LongHashSet existing, final LongHashSet values)
+    {
+        if (existing == null)
+        {
+            final LongHashSet copy = new LongHashSet();
+            copy.addAll(values);
+            return copy;
+        }
+
+        existing.retainAll(values);
+        return existing;
+    }
+
     boolean needed()
+    {
+        return hasTimeRange() || hasScanFilter();
+    }
+
+    boolean hasTimeRange()
     {
         return beginTimestampInclusive != NO_BEGIN ||
             endTimestampExclusive != NO_END;
     }
 
+    boolean hasScanFilter()
+    {
+        return sessionIds != null || messageTypes != null;
+    }
+
     public String toString()
     {
         return "IndexPlan{" +
             "beginTimestampInclusive=" + beginTimestampInclusive +
             ", endTimestampExclusive=" + endTimestampExclusive +
+            ", sessionIds=" + sessionIds +
+            ", messageTypes=" + messageTypes +
             '}';
     }
 
@@ -66,4 +106,14 @@ class IndexQuery
     {
         return endTimestampExclusive;
     }
+
+    public LongHashSet sessionIds()
+    {
+        return sessionIds;
+    }
+
+    public LongHashSet messageTypes()
+    {
+        return messageTypes;
+    }
 }
@@ -28,6 +28,7 @@ import java.util.ArrayList;
 
 import static io.aeron.archive.status.RecordingPos.NULL_RECORDING_ID;
 import static uk.co.real_logic.artio.engine.SectorFramer.OUT_OF_SPACE;
+import static uk.co.real_logic.artio.engine.SectorFramer.nextSectorStart;
 
 /**
  * Writes out a log of the stream positions that we have indexed up to.
@@ -52,6 +53,7 @@ class IndexedPositionWriter implements AutoCloseable
     private final ChecksumFramer checksumFramer;
     // Iterated repeatedly in a loop, but only modified occasionally
     private final ArrayList<CheckPosition> recheckSessions = new ArrayList<>();
+    private int limit = HEADER_LENGTH;
 
     IndexedPositionWriter(
         final AtomicBuffer buffer,
@@ -85,6 +87,7 @@ class IndexedPositionWriter implements AutoCloseable
             if (decoder.position() != 0)
             {
                 recordOffsets.put(decoder.recordingId(), offset);
+                limit = offset + RECORD_LENGTH;
             }
             offset += RECORD_LENGTH;
         }
@@ -146,6 +149,7 @@ class IndexedPositionWriter implements AutoCloseable
                         .recordingId(recordingId);
 
                     recordOffsets.put(recordingId, offset);
+                    limit = Math.max(limit, offset + RECORD_LENGTH);
                     putPosition(position, buffer, offset);
                     return;
                 }
@@ -169,6 +173,21 @@ class IndexedPositionWriter implements AutoCloseable
         checksumFramer.updateChecksums();
     }
 
+    void updateChecksums(final int start, final int end)
+    {
+        checksumFramer.updateChecksums(start, end);
+    }
+
+    /**
+     * Gets the sector aligned length of the buffer that contains records, positions beyond this are all blank.
+     *
+     * @return the sector aligned length of the buffer that contains records.
+     */
+    int usedLength()
+    {
+        return Math.min(nextSectorStart(limit - 1), buffer.capacity());
+    }
+
     AtomicBuffer buffer()
     {
         return buffer;
@@ -15,19 +15,13 @@
  */
 package uk.co.real_logic.artio.engine.logger;
 
-import io.aeron.Image;
 import io.aeron.Subscription;
 import io.aeron.archive.client.AeronArchive;
-import io.aeron.archive.client.ArchiveException;
 import io.aeron.logbuffer.ControlledFragmentHandler;
-import io.aeron.logbuffer.FragmentHandler;
 import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.Agent;
-import org.agrona.concurrent.AgentInvoker;
-import org.agrona.concurrent.IdleStrategy;
-import uk.co.real_logic.artio.CommonConfiguration;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.LogTag;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
@@ -36,7 +30,6 @@ import uk.co.real_logic.artio.util.CharFormatter;
 
 import java.util.List;
 
-import static io.aeron.CommonContext.IPC_CHANNEL;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 
@@ -50,10 +43,8 @@ public class Indexer implements Agent, ControlledFragmentHandler
 
     private final CharFormatter indexingFormatter = new CharFormatter(
         "Indexing @ %s from [%s, %s]");
-    private final CharFormatter catchupFormatter = new CharFormatter(
-        "Catchup [%s]: recordingId = %s, recordingStopped @ %s, indexStopped @ %s");
 
-    private final List<Index> indices;
+    final List<Index> indices;
     private final Subscription subscription;
     private final String agentNamePrefix;
     private final CompletionPosition completionPosition;
@@ -95,71 +86,9 @@ public class Indexer implements Agent, ControlledFragmentHandler
 
     public void catchIndexUp(final AeronArchive aeronArchive, final ErrorHandler errorHandler)
     {
-        final IdleStrategy idleStrategy = CommonConfiguration.backoffIdleStrategy();
-        final AgentInvoker aeronInvoker = aeronArchive.context().aeron().conductorAgentInvoker();
-
-        for (int i = 0, size = indices.size(); i < size; i++)
-        {
-            final Index index = indices.get(i);
-
-            index.readLastPosition((aeronSessionId, recordingId, indexStoppedPosition) ->
-            {
-                try
-                {
-                    final long recordingStoppedPosition = aeronArchive.getStopPosition(recordingId);
-                    if (recordingStoppedPosition > indexStoppedPosition)
-                    {
-                        DebugLogger.log(
-                            LogTag.INDEX,
-                            catchupFormatter,
-                            index.getName(),
-                            recordingId,
-                            recordingStoppedPosition,
-                            indexStoppedPosition);
-
-                        final long length = recordingStoppedPosition - indexStoppedPosition;
-                        try (Subscription subscription = aeronArchive.replay(
-                            recordingId, indexStoppedPosition, length, IPC_CHANNEL, archiveReplayStream))
-                        {
-                            // Only do 1 replay at a time
-                            while (subscription.imageCount() != 1)
-                            {
-                                idle(idleStrategy, aeronInvoker, 0);
-                                aeronArchive.checkForErrorResponse();
-                            }
-                            idleStrategy.reset();
-
-                            final Image replayImage = subscription.imageAtIndex(0);
-
-                            final FragmentHandler handler = (buffer, offset, srcLength, header) ->
-                                index.onCatchup(buffer, offset, srcLength, header, recordingId);
-
-                            while (replayImage.position() < recordingStoppedPosition)
-                            {
-                                final int workCount = replayImage.poll(handler, LIMIT);
-                                idle(idleStrategy, aeronInvoker, workCount);
-                            }
-                            idleStrategy.reset();
-                        }
-                    }
-                }
-                catch (final ArchiveException ex)
-                {
-                    errorHandler.onError(ex);
-                }
-            });
-        }
-    }
-
-    private void idle(final IdleStrategy idleStrategy, final AgentInvoker aeronInvoker, final int workCount)
-    {
-        int totalWork = workCount;
-        if (aeronInvoker != null)
-        {
-            totalWork += aeronInvoker.invoke();
-        }
-
-        idleStrategy.idle(totalWork);
+        new IndexCatchup(aeronArchive, errorHandler, archiveReplayStream, 1, null, null)
+            .add(this)
+            .run();
     }
 
     public Action onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
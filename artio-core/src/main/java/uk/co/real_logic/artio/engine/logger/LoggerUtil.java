@@ -127,6 +127,31 @@ public final class LoggerUtil
         return validateField(sbeSchemaId, headerDecoder.schemaId(), "Schema Id", errorHandler);
     }
 
+    // Returns false if not valid or written by a version older than the minimum version
+    static boolean validateBuffer(
+        final AtomicBuffer buffer,
+        final MessageHeaderDecoder headerDecoder,
+        final int sbeSchemaId,
+        final int minimumVersion,
+        final ErrorHandler errorHandler)
+    {
+        if (!validateBuffer(buffer, headerDecoder, sbeSchemaId, errorHandler))
+        {
+            return false;
+        }
+
+        final int version = headerDecoder.version();
+        if (version < minimumVersion)
+        {
+            errorHandler.onError(new IllegalStateException(String.format(
+                "Unsupported Version: expected at least %d and got %d", minimumVersion, version)));
+
+            return false;
+        }
+
+        return true;
+    }
+
     private static boolean validateField(
         final int expected,
         final int read,
@@ -0,0 +1,698 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Subscription;
+import org.agrona.DirectBuffer;
+import org.agrona.LangUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.concurrent.ControlledMessageHandler;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.OneToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import uk.co.real_logic.artio.ArtioLogHeader;
+import uk.co.real_logic.artio.CommonConfiguration;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+import uk.co.real_logic.artio.engine.logger.FixArchiveScanningAgent.ScanChunk;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.TRAILER_LENGTH;
+import static uk.co.real_logic.artio.messages.FixMessageDecoder.metaDataSinceVersion;
+
+/**
+ * Replays and filters the chunks of an archive scan on a pool of worker threads that is kept for the lifetime of
+ * the {@link FixArchiveScanner}. Each worker has its own archive client, replay subscription and predicate, and
+ * hands its matching messages to the scanning thread over its own bounded queue, blocking when the scanning thread
+ * falls behind, so a scan only ever holds a queue's worth of messages per worker.
+ *
+ * When ordered, the chunks of each stream are taken in order by a lane of workers dedicated to that stream and the
+ * head chunk of every stream is merged by timestamp as it's scanned. Each stream is handed off in log order, which
+ * is the order that its messages were timestamped in.
+ */
+final class ParallelArchiveScan implements AutoCloseable
+{
+    private static final int MESSAGE_MSG_TYPE_ID = 1;
+    private static final int CHUNK_END_MSG_TYPE_ID = 2;
+    private static final int UNASSIGNED = -1;
+    private static final Scan CLOSE = new Scan(null, null, null, 0);
+
+    private final List<Worker> workers = new ArrayList<>();
+    private final Int2ObjectHashMap<ArtioLogHeader> headers = new Int2ObjectHashMap<>();
+    private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+    private final FixMessageDecoder fixMessage = new FixMessageDecoder();
+    private final MessageHandler discardHandler = (msgTypeId, buffer, index, length) -> {};
+
+    private final IdleStrategy idleStrategy;
+    private final IntFunction<FixArchiveScanningAgent> agentFactory;
+    private final int threadCount;
+    private final int queueCapacity;
+
+    private FixMessageConsumer handler;
+
+    ParallelArchiveScan(
+        final IdleStrategy idleStrategy,
+        final IntFunction<FixArchiveScanningAgent> agentFactory,
+        final int threadCount,
+        final int queueCapacity)
+    {
+        this.idleStrategy = idleStrategy;
+        this.agentFactory = agentFactory;
+        this.threadCount = threadCount;
+        this.queueCapacity = queueCapacity;
+    }
+
+    void scan(
+        final List<ScanChunk> chunks,
+        final Supplier<FixMessagePredicate> predicateFactory,
+        final FixMessageConsumer handler,
+        final boolean ordered,
+        final int archiveScannerStreamId)
+    {
+        handler.reset();
+
+        final int chunkCount = chunks.size();
+        if (chunkCount == 0)
+        {
+            return;
+        }
+
+        final Lane[] lanes = ordered ? streamLanes(chunks) : new Lane[]{ new Lane(allChunks(chunkCount)) };
+        final Lane[] workerLanes = assignWorkers(lanes, chunkCount);
+        final int workerCount = workerLanes.length;
+        ensureWorkers(workerCount);
+
+        final Scan scan = new Scan(chunks, workerLanes, new AtomicIntegerArray(chunkCount), archiveScannerStreamId);
+        for (int i = 0; i < chunkCount; i++)
+        {
+            scan.chunkWorkers.set(i, UNASSIGNED);
+        }
+
+        final FixMessagePredicate[] predicates = new FixMessagePredicate[workerCount];
+        for (int i = 0; i < workerCount; i++)
+        {
+            predicates[i] = predicateFactory.get();
+        }
+
+        for (int i = 0; i < workerCount; i++)
+        {
+            final Worker worker = workers.get(i);
+            discard(worker.queue);
+            worker.start(scan, predicates[i]);
+        }
+
+        this.handler = handler;
+        try
+        {
+            if (ordered)
+            {
+                merge(scan, lanes);
+            }
+            else
+            {
+                drain(scan, chunkCount);
+            }
+        }
+        finally
+        {
+            this.handler = null;
+            scan.aborted = true;
+            awaitWorkers(scan);
+        }
+
+        final Throwable throwable = scan.error.get();
+        if (throwable != null)
+        {
+            LangUtil.rethrowUnchecked(throwable);
+        }
+    }
+
+    private static int[] allChunks(final int chunkCount)
+    {
+        final int[] chunkIndices = new int[chunkCount];
+        for (int i = 0; i < chunkCount; i++)
+        {
+            chunkIndices[i] = i;
+        }
+        return chunkIndices;
+    }
+
+    // Chunks are planned in stream id order, so each stream's chunks are contiguous and in log order
+    private static Lane[] streamLanes(final List<ScanChunk> chunks)
+    {
+        final List<Lane> lanes = new ArrayList<>();
+        final int chunkCount = chunks.size();
+        int start = 0;
+        for (int i = 1; i <= chunkCount; i++)
+        {
+            if (i == chunkCount || chunks.get(i).streamId != chunks.get(start).streamId)
+            {
+                final int[] chunkIndices = new int[i - start];
+                for (int j = 0; j < chunkIndices.length; j++)
+                {
+                    chunkIndices[j] = start + j;
+                }
+                lanes.add(new Lane(chunkIndices));
+                start = i;
+            }
+        }
+        return lanes.toArray(new Lane[0]);
+    }
+
+    // Every lane needs a worker of its own for the merge to make progress, the rest go to the lanes with the most
+    // chunks left per worker.
+    private Lane[] assignWorkers(final Lane[] lanes, final int chunkCount)
+    {
+        final int workerCount = Math.max(lanes.length, Math.min(threadCount, chunkCount));
+        final Lane[] workerLanes = new Lane[workerCount];
+        for (int i = 0; i < lanes.length; i++)
+        {
+            workerLanes[i] = lanes[i];
+            lanes[i].workerCount = 1;
+        }
+
+        for (int i = lanes.length; i < workerCount; i++)
+        {
+            Lane busiest = lanes[0];
+            for (final Lane lane : lanes)
+            {
+                if ((long)lane.chunks.length * busiest.workerCount > (long)busiest.chunks.length * lane.workerCount)
+                {
+                    busiest = lane;
+                }
+            }
+            workerLanes[i] = busiest;
+            busiest.workerCount++;
+        }
+
+        return workerLanes;
+    }
+
+    private void ensureWorkers(final int workerCount)
+    {
+        for (int i = workers.size(); i < workerCount; i++)
+        {
+            final FixArchiveScanningAgent agent = agentFactory.apply(i);
+            final Worker worker = new Worker(i, agent, queueCapacity);
+            workers.add(worker);
+
+            final Thread thread = new Thread(worker, "fix-archive-scanner-" + i);
+            thread.setDaemon(true);
+            worker.thread = thread;
+            thread.start();
+        }
+    }
+
+    private void drain(final Scan scan, final int chunkCount)
+    {
+        final Lane[] workerLanes = scan.workerLanes;
+        final UnorderedHandler unorderedHandler = new UnorderedHandler();
+        while (unorderedHandler.completedChunks < chunkCount)
+        {
+            int messagesRead = 0;
+            for (int i = 0; i < workerLanes.length; i++)
+            {
+                messagesRead += workers.get(i).queue.read(unorderedHandler);
+            }
+
+            idle(scan, messagesRead);
+        }
+    }
+
+    private void merge(final Scan scan, final Lane[] lanes)
+    {
+        final PeekHandler peekHandler = new PeekHandler();
+        final ControlledMessageHandler deliverHandler = (msgTypeId, buffer, index, length) ->
+        {
+            onMessage(buffer, index);
+            return ControlledMessageHandler.Action.COMMIT;
+        };
+
+        int activeLanes = lanes.length;
+        while (activeLanes > 0)
+        {
+            Lane next = null;
+            for (final Lane lane : lanes)
+            {
+                if (lane.isComplete())
+                {
+                    continue;
+                }
+
+                if (!lane.hasHead && !peek(scan, lane, peekHandler))
+                {
+                    if (lane.isComplete())
+                    {
+                        activeLanes--;
+                        continue;
+                    }
+
+                    next = null;
+                    break;
+                }
+
+                if (next == null || lane.before(next))
+                {
+                    next = lane;
+                }
+            }
+
+            if (next != null)
+            {
+                next.hasHead = false;
+                queueOf(scan, next).controlledRead(deliverHandler, 1);
+            }
+
+            idle(scan, next == null ? 0 : 1);
+        }
+    }
+
+    private RingBuffer queueOf(final Scan scan, final Lane lane)
+    {
+        return workers.get(scan.chunkWorkers.get(lane.chunks[lane.head])).queue;
+    }
+
+    // Leaves the head message of the lane's head chunk in its worker's queue, moving on past any chunk that has ended
+    private boolean peek(final Scan scan, final Lane lane, final PeekHandler peekHandler)
+    {
+        while (!lane.isComplete())
+        {
+            if (scan.chunkWorkers.get(lane.chunks[lane.head]) == UNASSIGNED)
+            {
+                return false;
+            }
+
+            peekHandler.reset();
+            queueOf(scan, lane).controlledRead(peekHandler, 1);
+            if (peekHandler.chunkEnded)
+            {
+                lane.head++;
+            }
+            else if (peekHandler.hasMessage)
+            {
+                lane.hasHead = true;
+                lane.headTimestamp = peekHandler.timestamp;
+                return true;
+            }
+            else
+            {
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    private void idle(final Scan scan, final int workCount)
+    {
+        if (workCount > 0)
+        {
+            idleStrategy.reset();
+            return;
+        }
+
+        final Throwable throwable = scan.error.get();
+        if (throwable != null)
+        {
+            LangUtil.rethrowUnchecked(throwable);
+        }
+
+        idleStrategy.idle();
+    }
+
+    private void awaitWorkers(final Scan scan)
+    {
+        final int workerCount = scan.workerLanes.length;
+        while (scan.completedWorkers.get() < workerCount)
+        {
+            // Unblock any worker waiting on a full queue that the failed scan will no longer read
+            for (int i = 0; i < workerCount; i++)
+            {
+                discard(workers.get(i).queue);
+            }
+            idleStrategy.idle();
+        }
+        idleStrategy.reset();
+    }
+
+    // Clears out anything left behind by a scan that failed part way through
+    private void discard(final RingBuffer queue)
+    {
+        int messagesRead;
+        do
+        {
+            messagesRead = queue.read(discardHandler, Integer.MAX_VALUE);
+        }
+        while (messagesRead > 0);
+    }
+
+    private FixMessageDecoder wrap(final DirectBuffer buffer, final int start)
+    {
+        final MessageHeaderDecoder messageHeader = this.messageHeader;
+        final FixMessageDecoder fixMessage = this.fixMessage;
+
+        messageHeader.wrap(buffer, start);
+        final int version = messageHeader.version();
+        fixMessage.wrap(buffer, start + MessageHeaderDecoder.ENCODED_LENGTH, messageHeader.blockLength(), version);
+        return fixMessage;
+    }
+
+    private void onMessage(final DirectBuffer buffer, final int index)
+    {
+        final int streamId = buffer.getInt(index);
+        final FixMessageDecoder fixMessage = wrap(buffer, index + SIZE_OF_INT);
+        if (messageHeader.version() >= metaDataSinceVersion())
+        {
+            fixMessage.skipMetaData();
+        }
+
+        final int length = fixMessage.bodyLength();
+        final int offset = fixMessage.limit() + FixMessageDecoder.bodyHeaderLength();
+
+        ArtioLogHeader header = headers.get(streamId);
+        if (header == null)
+        {
+            header = new ArtioLogHeader(streamId);
+            headers.put(streamId, header);
+        }
+
+        handler.onMessage(fixMessage, buffer, offset, length, header);
+    }
+
+    public void close()
+    {
+        for (final Worker worker : workers)
+        {
+            worker.scans.offer(CLOSE);
+        }
+
+        boolean interrupted = false;
+        for (final Worker worker : workers)
+        {
+            while (true)
+            {
+                try
+                {
+                    worker.thread.join();
+                    break;
+                }
+                catch (final InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        final List<FixArchiveScanningAgent> agents = new ArrayList<>();
+        for (final Worker worker : workers)
+        {
+            agents.add(worker.agent);
+        }
+        workers.clear();
+        Exceptions.closeAll(agents);
+    }
+
+    /**
+     * The chunks of a scan that a group of workers take in order, the whole scan when unordered or a single stream
+     * when ordered. The head state is only accessed by the scanning thread.
+     */
+    private static final class Lane
+    {
+        private final int[] chunks;
+        private final AtomicInteger nextChunk = new AtomicInteger();
+
+        private int workerCount;
+        private int head;
+        private boolean hasHead;
+        private long headTimestamp;
+
+        Lane(final int[] chunks)
+        {
+            this.chunks = chunks;
+        }
+
+        int claimChunk()
+        {
+            final int next = nextChunk.getAndIncrement();
+            return next < chunks.length ? chunks[next] : UNASSIGNED;
+        }
+
+        boolean isComplete()
+        {
+            return head == chunks.length;
+        }
+
+        // Ties are broken by chunk order, which follows the stream id order of the scan plan
+        boolean before(final Lane other)
+        {
+            final long timestamp = headTimestamp;
+            final long otherTimestamp = other.headTimestamp;
+            return timestamp < otherTimestamp ||
+                (timestamp == otherTimestamp && chunks[head] < other.chunks[other.head]);
+        }
+    }
+
+    private static final class Scan
+    {
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final AtomicInteger completedWorkers = new AtomicInteger();
+
+        private final List<ScanChunk> chunks;
+        private final Lane[] workerLanes;
+        // The worker that scans each chunk, assigned before it writes any of the chunk's messages to its queue
+        private final AtomicIntegerArray chunkWorkers;
+        private final int archiveScannerStreamId;
+
+        private volatile boolean aborted;
+
+        Scan(
+            final List<ScanChunk> chunks,
+            final Lane[] workerLanes,
+            final AtomicIntegerArray chunkWorkers,
+            final int archiveScannerStreamId)
+        {
+            this.chunks = chunks;
+            this.workerLanes = workerLanes;
+            this.chunkWorkers = chunkWorkers;
+            this.archiveScannerStreamId = archiveScannerStreamId;
+        }
+    }
+
+    private final class UnorderedHandler implements MessageHandler
+    {
+        private int completedChunks;
+
+        public void onMessage(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length)
+        {
+            if (msgTypeId == MESSAGE_MSG_TYPE_ID)
+            {
+                ParallelArchiveScan.this.onMessage(buffer, index);
+            }
+            else
+            {
+                completedChunks++;
+            }
+        }
+    }
+
+    private final class PeekHandler implements ControlledMessageHandler
+    {
+        private boolean chunkEnded;
+        private boolean hasMessage;
+        private long timestamp;
+
+        void reset()
+        {
+            chunkEnded = false;
+            hasMessage = false;
+        }
+
+        public Action onMessage(
+            final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length)
+        {
+            if (msgTypeId == CHUNK_END_MSG_TYPE_ID)
+            {
+                chunkEnded = true;
+                return Action.COMMIT;
+            }
+
+            hasMessage = true;
+            timestamp = wrap(buffer, index + SIZE_OF_INT).timestamp();
+            return Action.ABORT;
+        }
+    }
+
+    private static final class Worker implements Runnable, FixMessageConsumer
+    {
+        private final BlockingQueue<Scan> scans = new ArrayBlockingQueue<>(1);
+        private final IdleStrategy idleStrategy = CommonConfiguration.backoffIdleStrategy();
+
+        private final int index;
+        private final FixArchiveScanningAgent agent;
+        private final RingBuffer queue;
+
+        private Thread thread;
+        private FixMessagePredicate predicate;
+        private Scan scan;
+        private int streamId;
+
+        Worker(final int index, final FixArchiveScanningAgent agent, final int queueCapacity)
+        {
+            this.index = index;
+            this.agent = agent;
+            queue = new OneToOneRingBuffer(new UnsafeBuffer(ByteBuffer.allocateDirect(queueCapacity + TRAILER_LENGTH)));
+        }
+
+        void start(final Scan scan, final FixMessagePredicate predicate)
+        {
+            this.predicate = predicate;
+            scans.add(scan);
+        }
+
+        public void run()
+        {
+            while (true)
+            {
+                final Scan scan;
+                try
+                {
+                    scan = scans.take();
+                }
+                catch (final InterruptedException e)
+                {
+                    return;
+                }
+
+                if (scan == CLOSE)
+                {
+                    return;
+                }
+
+                this.scan = scan;
+                try
+                {
+                    scanChunks(scan);
+                }
+                catch (final Throwable t)
+                {
+                    scan.error.compareAndSet(null, t);
+                    scan.aborted = true;
+                }
+                finally
+                {
+                    this.scan = null;
+                    predicate = null;
+                    scan.completedWorkers.incrementAndGet();
+                }
+            }
+        }
+
+        private void scanChunks(final Scan scan)
+        {
+            final Lane lane = scan.workerLanes[index];
+            final FixMessageConsumer filteredConsumer = FixMessagePredicates.filterBy(this, predicate);
+            try (Subscription replaySubscription = agent.aeron().addSubscription(
+                IPC_CHANNEL, scan.archiveScannerStreamId + index))
+            {
+                int chunkIndex;
+                while (!scan.aborted && (chunkIndex = lane.claimChunk()) != UNASSIGNED)
+                {
+                    final ScanChunk chunk = scan.chunks.get(chunkIndex);
+                    streamId = chunk.streamId;
+                    scan.chunkWorkers.set(chunkIndex, index);
+                    agent.scanChunk(chunk, filteredConsumer, replaySubscription);
+
+                    final int claimIndex = claim(CHUNK_END_MSG_TYPE_ID, SIZE_OF_INT);
+                    if (claimIndex >= 0)
+                    {
+                        queue.buffer().putInt(claimIndex, chunkIndex);
+                        queue.commit(claimIndex);
+                    }
+                }
+            }
+        }
+
+        public void onMessage(
+            final FixMessageDecoder message,
+            final DirectBuffer buffer,
+            final int offset,
+            final int length,
+            final ArtioLogHeader header)
+        {
+            // Copy the FixMessage header along with the body so that the scanning thread can decode it again
+            final int start = message.offset() - MessageHeaderDecoder.ENCODED_LENGTH;
+            final int copyLength = offset + length - start;
+            final int claimIndex = claim(MESSAGE_MSG_TYPE_ID, SIZE_OF_INT + copyLength);
+            if (claimIndex >= 0)
+            {
+                final MutableDirectBuffer queueBuffer = queue.buffer();
+                queueBuffer.putInt(claimIndex, streamId);
+                queueBuffer.putBytes(claimIndex + SIZE_OF_INT, buffer, start, copyLength);
+                queue.commit(claimIndex);
+            }
+        }
+
+        // Blocks until the scanning thread has made space, or returns -1 if the scan has been aborted
+        private int claim(final int msgTypeId, final int length)
+        {
+            if (length > queue.maxMsgLength())
+            {
+                throw new IllegalStateException(String.format(
+                    "Message of length %d is too large for the scan queue, whose maximum message length is %d, " +
+                    "please increase the scanQueueCapacity",
+                    length,
+                    queue.maxMsgLength()));
+            }
+
+            final IdleStrategy idleStrategy = this.idleStrategy;
+            final Scan scan = this.scan;
+            while (!scan.aborted)
+            {
+                final int claimIndex = queue.tryClaim(msgTypeId, length);
+                if (claimIndex >= 0)
+                {
+                    idleStrategy.reset();
+                    return claimIndex;
+                }
+
+                idleStrategy.idle();
+            }
+
+            return -1;
+        }
+    }
+}
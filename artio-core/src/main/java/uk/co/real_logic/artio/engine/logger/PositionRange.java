@@ -15,6 +15,9 @@
  */
 package uk.co.real_logic.artio.engine.logger;
 
+import java.util.ArrayList;
+import java.util.List;
+
 class PositionRange
 {
     private final long startPosition;
@@ -36,6 +39,69 @@ class PositionRange
         return endPosition;
     }
 
+    /**
+     * Appends a range to a list of ranges in position order, merging it with the last range if they overlap or touch.
+     *
+     * @param ranges the ranges to append to.
+     * @param startPosition the start of the new range.
+     * @param endPosition the end of the new range.
+     */
+    static void add(final List<PositionRange> ranges, final long startPosition, final long endPosition)
+    {
+        if (startPosition >= endPosition)
+        {
+            return;
+        }
+
+        final int lastIndex = ranges.size() - 1;
+        if (lastIndex >= 0)
+        {
+            final PositionRange last = ranges.get(lastIndex);
+            if (last.endPosition >= startPosition)
+            {
+                ranges.set(lastIndex, new PositionRange(
+                    last.startPosition, Math.max(last.endPosition, endPosition)));
+                return;
+            }
+        }
+
+        ranges.add(new PositionRange(startPosition, endPosition));
+    }
+
+    /**
+     * Intersect two lists of disjoint ranges that are in position order.
+     *
+     * @param left the first list of ranges.
+     * @param right the second list of ranges.
+     * @return the positions covered by both lists, as disjoint ranges in position order.
+     */
+    static List<PositionRange> intersect(final List<PositionRange> left, final List<PositionRange> right)
+    {
+        final List<PositionRange> result = new ArrayList<>();
+        int leftIndex = 0;
+        int rightIndex = 0;
+        while (leftIndex < left.size() && rightIndex < right.size())
+        {
+            final PositionRange leftRange = left.get(leftIndex);
+            final PositionRange rightRange = right.get(rightIndex);
+
+            add(result,
+                Math.max(leftRange.startPosition, rightRange.startPosition),
+                Math.min(leftRange.endPosition, rightRange.endPosition));
+
+            if (leftRange.endPosition < rightRange.endPosition)
+            {
+                leftIndex++;
+            }
+            else
+            {
+                rightIndex++;
+            }
+        }
+
+        return result;
+    }
+
     public String toString()
     {
         return "PositionRange{" +
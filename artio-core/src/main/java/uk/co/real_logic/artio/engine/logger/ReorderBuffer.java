@@ -0,0 +1,401 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.BufferUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.collections.IntArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Holds the messages that a {@link StreamTimestampZipper} has had to buffer in order to reorder them.
+ *
+ * Messages are appended to fixed size off-heap segments. A segment is returned to a pool once all the messages
+ * within it have been freed, so space is reclaimed without ever copying messages around. A message that is bigger
+ * than a segment gets a segment of its own that isn't pooled.
+ *
+ * Each buffered message is referenced by an int slot, whose details are held in primitive arrays. A {@link Heap}
+ * orders slots by timestamp and then by the order that they were buffered in.
+ */
+final class ReorderBuffer implements AutoCloseable
+{
+    static final int MAXIMUM_SEGMENT_SIZE = 1024 * 1024;
+
+    private static final int NO_SEGMENT = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int segmentSize;
+    private final int maximumSize;
+
+    // Segments, indexed by segment id
+    private final IntArrayList freeSegments = new IntArrayList();
+    private final IntArrayList unusedSegmentIds = new IntArrayList();
+    private UnsafeBuffer[] segmentBuffers = new UnsafeBuffer[INITIAL_CAPACITY];
+    private int[] segmentTails = new int[INITIAL_CAPACITY];
+    private int[] segmentMessageCounts = new int[INITIAL_CAPACITY];
+    private int segmentCount;
+    private int currentSegment = NO_SEGMENT;
+
+    // Messages, indexed by slot
+    private final IntArrayList freeSlots = new IntArrayList();
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private long[] sequences = new long[INITIAL_CAPACITY];
+    private int[] segments = new int[INITIAL_CAPACITY];
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int slotCount;
+    private long nextSequence;
+
+    private int bufferedBytes;
+    private int usedSegmentBytes;
+    private int allocatedBytes;
+
+    ReorderBuffer(final int compactionSize, final int maximumSize)
+    {
+        this.segmentSize = Math.min(compactionSize, MAXIMUM_SEGMENT_SIZE);
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Checks whether a message fits in without going over the maximum size of the buffer. An empty buffer always
+     * has space, even for a message bigger than the maximum size.
+     *
+     * @param length the length of the message.
+     * @return true if the message can be buffered, false if the buffer needs emptying first.
+     */
+    boolean hasSpaceFor(final int length)
+    {
+        if (bufferedBytes == 0)
+        {
+            return true;
+        }
+
+        final int currentSegment = this.currentSegment;
+        if (currentSegment != NO_SEGMENT &&
+            segmentTails[currentSegment] + length <= segmentBuffers[currentSegment].capacity())
+        {
+            return true;
+        }
+
+        return (long)usedSegmentBytes + Math.max(length, segmentSize) <= maximumSize;
+    }
+
+    int put(final DirectBuffer buffer, final int offset, final int length, final long timestamp)
+    {
+        final int segment = segmentFor(length);
+        final int segmentOffset = segmentTails[segment];
+        segmentBuffers[segment].putBytes(segmentOffset, buffer, offset, length);
+        segmentTails[segment] = segmentOffset + length;
+        segmentMessageCounts[segment]++;
+
+        final int slot = newSlot();
+        timestamps[slot] = timestamp;
+        sequences[slot] = nextSequence++;
+        segments[slot] = segment;
+        offsets[slot] = segmentOffset;
+        lengths[slot] = length;
+
+        bufferedBytes += length;
+
+        return slot;
+    }
+
+    void free(final int slot)
+    {
+        bufferedBytes -= lengths[slot];
+        freeSlots.pushInt(slot);
+
+        final int segment = segments[slot];
+        if (--segmentMessageCounts[segment] == 0)
+        {
+            if (segment == currentSegment)
+            {
+                // Still being appended to, so just start again from the beginning
+                segmentTails[segment] = 0;
+            }
+            else
+            {
+                releaseSegment(segment);
+            }
+        }
+    }
+
+    long timestamp(final int slot)
+    {
+        return timestamps[slot];
+    }
+
+    UnsafeBuffer buffer(final int slot)
+    {
+        return segmentBuffers[segments[slot]];
+    }
+
+    int offset(final int slot)
+    {
+        return offsets[slot];
+    }
+
+    int length(final int slot)
+    {
+        return lengths[slot];
+    }
+
+    boolean before(final int slot, final int otherSlot)
+    {
+        final long timestamp = timestamps[slot];
+        final long otherTimestamp = timestamps[otherSlot];
+        return timestamp < otherTimestamp || (timestamp == otherTimestamp && sequences[slot] < sequences[otherSlot]);
+    }
+
+    int bufferedBytes()
+    {
+        return bufferedBytes;
+    }
+
+    int allocatedBytes()
+    {
+        return allocatedBytes;
+    }
+
+    public void close()
+    {
+        for (int i = 0; i < segmentCount; i++)
+        {
+            final UnsafeBuffer segmentBuffer = segmentBuffers[i];
+            if (segmentBuffer != null)
+            {
+                BufferUtil.free(segmentBuffer.byteBuffer());
+                segmentBuffers[i] = null;
+            }
+        }
+
+        freeSegments.clear();
+        unusedSegmentIds.clear();
+        segmentCount = 0;
+        currentSegment = NO_SEGMENT;
+        usedSegmentBytes = 0;
+        allocatedBytes = 0;
+    }
+
+    private int segmentFor(final int length)
+    {
+        final int currentSegment = this.currentSegment;
+        if (currentSegment != NO_SEGMENT &&
+            segmentTails[currentSegment] + length <= segmentBuffers[currentSegment].capacity())
+        {
+            return currentSegment;
+        }
+
+        if (length > segmentSize)
+        {
+            return newSegment(length);
+        }
+
+        final int segment = freeSegments.isEmpty() ? newSegment(segmentSize) : claimPooledSegment();
+        this.currentSegment = segment;
+        return segment;
+    }
+
+    private int claimPooledSegment()
+    {
+        final int segment = freeSegments.popInt();
+        usedSegmentBytes += segmentSize;
+        return segment;
+    }
+
+    private int newSegment(final int capacity)
+    {
+        final int segment;
+        if (!unusedSegmentIds.isEmpty())
+        {
+            segment = unusedSegmentIds.popInt();
+        }
+        else
+        {
+            segment = segmentCount;
+            if (segment == segmentBuffers.length)
+            {
+                final int newLength = segment << 1;
+                segmentBuffers = Arrays.copyOf(segmentBuffers, newLength);
+                segmentTails = Arrays.copyOf(segmentTails, newLength);
+                segmentMessageCounts = Arrays.copyOf(segmentMessageCounts, newLength);
+            }
+            segmentCount = segment + 1;
+        }
+
+        segmentBuffers[segment] = new UnsafeBuffer(ByteBuffer.allocateDirect(capacity));
+        segmentTails[segment] = 0;
+        segmentMessageCounts[segment] = 0;
+        usedSegmentBytes += capacity;
+        allocatedBytes += capacity;
+
+        return segment;
+    }
+
+    private void releaseSegment(final int segment)
+    {
+        final UnsafeBuffer segmentBuffer = segmentBuffers[segment];
+        final int capacity = segmentBuffer.capacity();
+        usedSegmentBytes -= capacity;
+        segmentTails[segment] = 0;
+
+        if (segment == currentSegment)
+        {
+            currentSegment = NO_SEGMENT;
+        }
+
+        if (capacity == segmentSize)
+        {
+            freeSegments.pushInt(segment);
+        }
+        else
+        {
+            // Oversized segments aren't pooled, their id gets reused by the next segment allocated.
+            BufferUtil.free(segmentBuffer.byteBuffer());
+            allocatedBytes -= capacity;
+            segmentBuffers[segment] = null;
+            unusedSegmentIds.pushInt(segment);
+        }
+    }
+
+    private int newSlot()
+    {
+        if (!freeSlots.isEmpty())
+        {
+            return freeSlots.popInt();
+        }
+
+        final int slot = slotCount;
+        if (slot == timestamps.length)
+        {
+            final int newLength = slot << 1;
+            timestamps = Arrays.copyOf(timestamps, newLength);
+            sequences = Arrays.copyOf(sequences, newLength);
+            segments = Arrays.copyOf(segments, newLength);
+            offsets = Arrays.copyOf(offsets, newLength);
+            lengths = Arrays.copyOf(lengths, newLength);
+        }
+        slotCount = slot + 1;
+
+        return slot;
+    }
+
+    /**
+     * A binary min-heap of the slots of a {@link ReorderBuffer}, ordered by timestamp and then by the order that
+     * they were buffered in.
+     */
+    static final class Heap
+    {
+        private final ReorderBuffer reorderBuffer;
+
+        private int[] slots = new int[INITIAL_CAPACITY];
+        private int size;
+
+        Heap(final ReorderBuffer reorderBuffer)
+        {
+            this.reorderBuffer = reorderBuffer;
+        }
+
+        void add(final int slot)
+        {
+            if (size == slots.length)
+            {
+                slots = Arrays.copyOf(slots, size << 1);
+            }
+
+            final ReorderBuffer reorderBuffer = this.reorderBuffer;
+            final int[] slots = this.slots;
+            int i = size;
+            while (i > 0)
+            {
+                final int parent = (i - 1) >> 1;
+                final int parentSlot = slots[parent];
+                if (!reorderBuffer.before(slot, parentSlot))
+                {
+                    break;
+                }
+
+                slots[i] = parentSlot;
+                i = parent;
+            }
+            slots[i] = slot;
+            size++;
+        }
+
+        int peek()
+        {
+            return slots[0];
+        }
+
+        int poll()
+        {
+            final int[] slots = this.slots;
+            final int head = slots[0];
+            final int size = --this.size;
+            if (size > 0)
+            {
+                siftDown(slots[size], size);
+            }
+
+            return head;
+        }
+
+        boolean isEmpty()
+        {
+            return size == 0;
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        void clear()
+        {
+            size = 0;
+        }
+
+        private void siftDown(final int slot, final int size)
+        {
+            final ReorderBuffer reorderBuffer = this.reorderBuffer;
+            final int[] slots = this.slots;
+            int i = 0;
+            int child = 1;
+            while (child < size)
+            {
+                final int right = child + 1;
+                if (right < size && reorderBuffer.before(slots[right], slots[child]))
+                {
+                    child = right;
+                }
+
+                final int childSlot = slots[child];
+                if (!reorderBuffer.before(childSlot, slot))
+                {
+                    break;
+                }
+
+                slots[i] = childSlot;
+                i = child;
+                child = (i << 1) + 1;
+            }
+            slots[i] = slot;
+        }
+    }
+}
@@ -16,25 +16,40 @@
 package uk.co.real_logic.artio.engine.logger;
 
 import org.agrona.ErrorHandler;
+import org.agrona.concurrent.IdleStrategy;
+import uk.co.real_logic.artio.engine.ReplayerCommand;
+import uk.co.real_logic.artio.engine.ReplayerCommandQueue;
 import uk.co.real_logic.artio.engine.framer.FramerContext;
 
 public class ReplayEvictionHandler
 {
     private final ErrorHandler errorHandler;
+    // Belongs to the thread of the indexer that owns this handler
+    private final IdleStrategy idleStrategy;
     private ReplayQuery replayQuery;
     private ReplayQuery framerReplayQuery;
     private FramerContext framerContext;
+    private ReplayerCommandQueue replayerCommandQueue;
 
-    public ReplayEvictionHandler(final ErrorHandler errorHandler)
+    public ReplayEvictionHandler(final ErrorHandler errorHandler, final IdleStrategy idleStrategy)
     {
         this.errorHandler = errorHandler;
+        this.idleStrategy = idleStrategy;
     }
 
     public void onReset(final long fixSessionId)
     {
+        final ReplayQuery replayQuery = this.replayQuery;
         if (replayQuery != null)
         {
-            replayQuery.onReset(fixSessionId);
+            if (replayerCommandQueue == null)
+            {
+                replayQuery.onReset(fixSessionId);
+            }
+            else
+            {
+                resetOnReplayerThread(replayQuery, fixSessionId);
+            }
         }
 
         if (framerReplayQuery != null)
@@ -45,8 +60,25 @@ public class ReplayEvictionHandler
                 return;
             }
 
-            framerContext.resetOutboundReplayQuery(fixSessionId);
+            framerContext.resetOutboundReplayQuery(fixSessionId, idleStrategy);
+        }
+    }
+
+    // The index deletes or reuses the session's segments once this returns, so wait until the replayer has dropped
+    // its query of them, in the same way as the framer's reset.
+    private void resetOnReplayerThread(final ReplayQuery replayQuery, final long fixSessionId)
+    {
+        final ReplayerCommandQueue replayerCommandQueue = this.replayerCommandQueue;
+        final IdleStrategy idleStrategy = this.idleStrategy;
+        final ResetReplayQueryCommand command = new ResetReplayQueryCommand(replayQuery, fixSessionId);
+
+        replayerCommandQueue.enqueue(command, idleStrategy);
+
+        while (!command.isDone() && !replayerCommandQueue.isClosed())
+        {
+            idleStrategy.idle();
         }
+        idleStrategy.reset();
     }
 
     public void replayQuery(final ReplayQuery replayQuery)
@@ -59,6 +91,12 @@ public class ReplayEvictionHandler
         this.replayQuery = replayQuery;
     }
 
+    // Hands resets over to the replayer's thread, set when it doesn't share the indexer's thread
+    public void replayerCommandQueue(final ReplayerCommandQueue replayerCommandQueue)
+    {
+        this.replayerCommandQueue = replayerCommandQueue;
+    }
+
     public void framerReplayQuery(final ReplayQuery framerReplayQuery)
     {
         this.framerReplayQuery = framerReplayQuery;
@@ -68,4 +106,35 @@ public class ReplayEvictionHandler
     {
         this.framerContext = framerContext;
     }
+
+    static final class ResetReplayQueryCommand implements ReplayerCommand
+    {
+        private final ReplayQuery replayQuery;
+        private final long fixSessionId;
+
+        private volatile boolean done = false;
+
+        ResetReplayQueryCommand(final ReplayQuery replayQuery, final long fixSessionId)
+        {
+            this.replayQuery = replayQuery;
+            this.fixSessionId = fixSessionId;
+        }
+
+        public void execute()
+        {
+            try
+            {
+                replayQuery.onReset(fixSessionId);
+            }
+            finally
+            {
+                done = true;
+            }
+        }
+
+        boolean isDone()
+        {
+            return done;
+        }
+    }
 }
@@ -17,6 +17,7 @@ package uk.co.real_logic.artio.engine.logger;
 
 import io.aeron.logbuffer.Header;
 import org.agrona.BitUtil;
+import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.IoUtil;
@@ -26,6 +27,7 @@ import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 import uk.co.real_logic.artio.engine.SequenceNumberExtractor;
+import uk.co.real_logic.artio.engine.framer.MessageTypeExtractor;
 import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordEncoder;
 
@@ -40,6 +42,7 @@ import static io.aeron.logbuffer.FrameDescriptor.*;
 import static org.agrona.UnsafeAccess.UNSAFE;
 import static uk.co.real_logic.artio.dictionary.SessionConstants.SEQUENCE_RESET_MESSAGE_TYPE;
 import static uk.co.real_logic.artio.engine.SequenceNumberExtractor.NO_SEQUENCE_NUMBER;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexStore.NO_SLOT;
 import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
 import static uk.co.real_logic.artio.messages.FixMessageDecoder.*;
 import static uk.co.real_logic.artio.messages.MessageStatus.OK;
@@ -55,11 +58,16 @@ import static uk.co.real_logic.artio.messages.MessageStatus.OK;
  * Head position counter
  * Tail position counter
  * Multiple ReplayIndexRecord entries
+ *
+ * By default each session's index has its own header file and segment files, alternatively all sessions can share a
+ * {@link ReplayIndexStore}.
  */
 public class ReplayIndex implements Index
 {
     private static final long NO_TIMESTAMP = -1;
 
+    public static final int NO_SCAN_INDEX = 0;
+
     private final LongFunction<SessionIndex> newSessionIndex = SessionIndex::new;
     private final MessageHeaderDecoder frameHeaderDecoder = new MessageHeaderDecoder();
     private final FixMessageDecoder messageFrame = new FixMessageDecoder();
@@ -90,7 +98,9 @@ public class ReplayIndex implements Index
     private final ErrorHandler errorHandler;
     private final RecordingIdLookup recordingIdLookup;
     private final TimeIndexWriter timeIndex;
+    private final ScanIndexWriter scanIndex;
     private final SessionOwnershipTracker sessTracker;
+    private final ReplayIndexStore store;
 
     public ReplayIndex(
         final SequenceNumberExtractor sequenceNumberExtractor,
@@ -108,6 +118,82 @@ public class ReplayIndex implements Index
         final long timeIndexReplayFlushIntervalInNs,
         final boolean indexChecksumEnabled,
         final ReplayEvictionHandler evictionHandler)
+    {
+        this(
+            sequenceNumberExtractor,
+            logFileDir,
+            requiredStreamId,
+            indexFileCapacity,
+            indexSegmentCapacity,
+            bufferFactory,
+            positionBuffer,
+            errorHandler,
+            recordingIdLookup,
+            connectionIdToFixPSessionId,
+            fixPProtocolType,
+            reader,
+            timeIndexReplayFlushIntervalInNs,
+            indexChecksumEnabled,
+            evictionHandler,
+            false);
+    }
+
+    public ReplayIndex(
+        final SequenceNumberExtractor sequenceNumberExtractor,
+        final String logFileDir,
+        final int requiredStreamId,
+        final int indexFileCapacity,
+        final int indexSegmentCapacity,
+        final BufferFactory bufferFactory,
+        final AtomicBuffer positionBuffer,
+        final ErrorHandler errorHandler,
+        final RecordingIdLookup recordingIdLookup,
+        final Long2LongHashMap connectionIdToFixPSessionId,
+        final FixPProtocolType fixPProtocolType,
+        final SequenceNumberIndexReader reader,
+        final long timeIndexReplayFlushIntervalInNs,
+        final boolean indexChecksumEnabled,
+        final ReplayEvictionHandler evictionHandler,
+        final boolean replayIndexStoreEnabled)
+    {
+        this(
+            sequenceNumberExtractor,
+            logFileDir,
+            requiredStreamId,
+            indexFileCapacity,
+            indexSegmentCapacity,
+            bufferFactory,
+            positionBuffer,
+            errorHandler,
+            recordingIdLookup,
+            connectionIdToFixPSessionId,
+            fixPProtocolType,
+            reader,
+            timeIndexReplayFlushIntervalInNs,
+            indexChecksumEnabled,
+            evictionHandler,
+            replayIndexStoreEnabled,
+            NO_SCAN_INDEX);
+    }
+
+    public ReplayIndex(
+        final SequenceNumberExtractor sequenceNumberExtractor,
+        final String logFileDir,
+        final int requiredStreamId,
+        final int indexFileCapacity,
+        final int indexSegmentCapacity,
+        final BufferFactory bufferFactory,
+        final AtomicBuffer positionBuffer,
+        final ErrorHandler errorHandler,
+        final RecordingIdLookup recordingIdLookup,
+        final Long2LongHashMap connectionIdToFixPSessionId,
+        final FixPProtocolType fixPProtocolType,
+        final SequenceNumberIndexReader reader,
+        final long timeIndexReplayFlushIntervalInNs,
+        final boolean indexChecksumEnabled,
+        final ReplayEvictionHandler evictionHandler,
+        final boolean replayIndexStoreEnabled,
+        final int scanIndexBlockSizeInBytes)
     {
         this.sequenceNumberExtractor = sequenceNumberExtractor;
         this.logFileDir = logFileDir;
@@ -139,6 +225,10 @@ public class ReplayIndex implements Index
         positionReader = new IndexedPositionReader(positionBuffer);
         timeIndex = new TimeIndexWriter(
             logFileDir, requiredStreamId, timeIndexReplayFlushIntervalInNs, errorHandler);
+        scanIndex = scanIndexBlockSizeInBytes == NO_SCAN_INDEX ? null : new ScanIndexWriter(
+            logFileDir, requiredStreamId, scanIndexBlockSizeInBytes, errorHandler);
+        store = replayIndexStoreEnabled ? ReplayIndexStore.writer(
+            logFileDir, requiredStreamId, indexFileCapacity, indexSegmentCapacity, bufferFactory, errorHandler) : null;
     }
 
     private void checkPowerOfTwo(final String name, final int value)
@@ -191,6 +281,19 @@ public class ReplayIndex implements Index
                 return;
             }
         }
+        else if (store != null)
+        {
+            final int slotId = store.slotId(sessionId);
+            if (slotId != NO_SLOT)
+            {
+                final UnsafeBuffer headerBuffer = store.slotBuffer(slotId);
+                if (forNextSessionVersion(headerBuffer))
+                {
+                    flipNextSession(forNextSession, headerBuffer);
+                    return;
+                }
+            }
+        }
         else
         {
             // This session isn't in the cache
@@ -282,6 +385,18 @@ public class ReplayIndex implements Index
                 case FixMessageEncoder.TEMPLATE_ID:
                 {
                     messageFrame.wrap(srcBuffer, offset, blockLength, version);
+                    if (scanIndex != null)
+                    {
+                        // Every message is in the scan index, as the archive scanner doesn't filter any out.
+                        scanIndex.onMessage(
+                            knownRecordingId(aeronSessionId, recordingId),
+                            ReplayQuery.trueBeginPosition(endPosition - length),
+                            endPosition,
+                            messageFrame.session(),
+                            MessageTypeExtractor.getMessageType(messageFrame),
+                            (flags & END_FRAG_FLAG) == END_FRAG_FLAG);
+                    }
+
                     if (!sessTracker.messageFromWrongLibrary(messageFrame.session(), messageFrame.libraryId()))
                     {
                         onFixMessage(
@@ -351,6 +466,14 @@ public class ReplayIndex implements Index
         }
         else
         {
+            if (scanIndex != null)
+            {
+                scanIndex.onContinuedFragment(
+                    knownRecordingId(aeronSessionId, recordingId),
+                    endPosition,
+                    (flags & END_FRAG_FLAG) == END_FRAG_FLAG);
+            }
+
             sessionIndex(continuedFixSessionId).onRecord(
                 endPosition, length,
                 continuedSequenceNumber, continuedSequenceIndex, aeronSessionId, recordingId, continuedTimestamp);
@@ -360,6 +483,11 @@ public class ReplayIndex implements Index
         positionWriter.updateChecksums();
     }
 
+    private long knownRecordingId(final int aeronSessionId, final long recordingId)
+    {
+        return recordingId == NULL_RECORDING_ID ? recordingIdLookup.getRecordingId(aeronSessionId) : recordingId;
+    }
+
     private void onRedactSequenceUpdateDecoder()
     {
         // We only update the replay index in response to a redact if it is used to redact all the sequence
@@ -449,6 +577,15 @@ public class ReplayIndex implements Index
         {
             index.reset();
         }
+        else if (store != null)
+        {
+            evictionHandler.onReset(fixSessionId);
+            final int slotId = store.slotId(fixSessionId);
+            if (slotId != NO_SLOT)
+            {
+                store.reset(slotId);
+            }
+        }
         else
         {
             // File might be present but not within the cache.
@@ -484,9 +621,11 @@ public class ReplayIndex implements Index
     {
         Exceptions.closeAll(
             timeIndex,
+            scanIndex,
             positionWriter);
         fixSessionIdToIndex.values().forEach(SessionIndex::close);
         fixSessionIdToIndex.clear();
+        CloseHelper.close(store);
         IoUtil.unmap(positionBuffer.byteBuffer());
     }
 
@@ -503,6 +642,7 @@ public class ReplayIndex implements Index
 
         private final UnsafeBuffer headerBuffer;
         private final File headerFile;
+        private final int slotId;
 
         private final UnsafeBuffer[] segmentBuffers;
         private final File[] segmentBufferFiles;
@@ -517,6 +657,25 @@ public class ReplayIndex implements Index
             segmentBuffers = new UnsafeBuffer[segmentCount];
             segmentBufferFiles = new File[segmentCount];
 
+            if (store != null)
+            {
+                headerFile = null;
+                final int existingSlotId = store.slotId(fixSessionId);
+                if (existingSlotId == NO_SLOT)
+                {
+                    slotId = store.allocateSlot(fixSessionId);
+                    headerBuffer = store.slotBuffer(slotId);
+                }
+                else
+                {
+                    slotId = existingSlotId;
+                    headerBuffer = store.slotBuffer(slotId);
+                    resetChangePositions();
+                }
+                return;
+            }
+
+            slotId = NO_SLOT;
             headerFile = replayIndexHeaderFile(fixSessionId);
             final boolean exists = headerFile.exists();
             this.headerBuffer = mapUnsafeBuffer(HEADER_FILE_SIZE, headerFile);
@@ -537,12 +696,17 @@ public class ReplayIndex implements Index
             }
             else
             {
-                // Reset the positions in order to avoid wraps at the start.
-                final long resetPosition = beginChange(headerBuffer);
-                endChangeOrdered(headerBuffer, resetPosition);
+                resetChangePositions();
             }
         }
 
+        private void resetChangePositions()
+        {
+            // Reset the positions in order to avoid wraps at the start.
+            final long resetPosition = beginChange(headerBuffer);
+            endChangeOrdered(headerBuffer, resetPosition);
+        }
+
         private void checkSegmentFilesDoNotExist()
         {
             final List<File> existingSegmentFiles = new ArrayList<>();
@@ -607,9 +771,16 @@ public class ReplayIndex implements Index
             UnsafeBuffer segmentBuffer = segmentBuffers[segmentIndex];
             if (segmentBuffer == null)
             {
-                final File file = replayIndexSegmentFile(fixSessionId, segmentIndex);
-                segmentBufferFiles[segmentIndex] = file;
-                segmentBuffer = mapUnsafeBuffer(segmentSize, file);
+                if (store != null)
+                {
+                    segmentBuffer = store.segmentBuffer(headerBuffer, segmentIndex);
+                }
+                else
+                {
+                    final File file = replayIndexSegmentFile(fixSessionId, segmentIndex);
+                    segmentBufferFiles[segmentIndex] = file;
+                    segmentBuffer = mapUnsafeBuffer(segmentSize, file);
+                }
                 segmentBuffers[segmentIndex] = segmentBuffer;
             }
             return segmentBuffer;
@@ -620,6 +791,12 @@ public class ReplayIndex implements Index
             close();
 
             evictionHandler.onReset(fixSessionId);
+            if (store != null)
+            {
+                store.reset(slotId);
+                return;
+            }
+
             deleteFile(headerFile);
 
             for (int segmentIndex = 0; segmentIndex < segmentCount; segmentIndex++)
@@ -634,7 +811,11 @@ public class ReplayIndex implements Index
 
         public void close()
         {
-            ReplayIndexDescriptor.unmapBuffers(headerBuffer, segmentBuffers);
+            // Store buffers are views onto files that are shared between sessions
+            if (store == null)
+            {
+                ReplayIndexDescriptor.unmapBuffers(headerBuffer, segmentBuffers);
+            }
         }
 
         public void checkForNextSession(final boolean forNextSession)
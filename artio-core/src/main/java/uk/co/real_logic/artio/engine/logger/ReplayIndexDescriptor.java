@@ -60,6 +60,21 @@ public final class ReplayIndexDescriptor
             logFileDir + File.separator + "replay-index-" + fixSessionId + "-" + streamId + "-" + segmentIndex);
     }
 
+    static File replayIndexStoreHeaderFile(final String logFileDir, final int streamId)
+    {
+        return new File(logFileDir + File.separator + "replay-store-" + streamId + "-header");
+    }
+
+    static File replayIndexStoreSlotFile(final String logFileDir, final int streamId, final int fileIndex)
+    {
+        return new File(logFileDir + File.separator + "replay-store-" + streamId + "-sessions-" + fileIndex);
+    }
+
+    static File replayIndexStoreBlockFile(final String logFileDir, final int streamId, final int fileIndex)
+    {
+        return new File(logFileDir + File.separator + "replay-store-" + streamId + "-blocks-" + fileIndex);
+    }
+
     static LongHashSet listReplayIndexSessionIds(final File logFileDir, final int streamId)
     {
         final String prefix = "replay-index-";
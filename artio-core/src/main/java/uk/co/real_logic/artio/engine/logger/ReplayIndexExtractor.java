@@ -12,6 +12,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 import static io.aeron.Aeron.NULL_VALUE;
@@ -233,59 +234,23 @@ public final class ReplayIndexExtractor
         final String logFileDir,
         final ReplayIndexHandler handler)
     {
-        final long indexFileSize = capacityToBytes(indexFileCapacity);
-        final int segmentSize = capacityToBytesInt(indexSegmentCapacity);
         final int segmentCount = segmentCount(indexFileCapacity, indexSegmentCapacity);
         final UnsafeBuffer[] segmentBuffers = new UnsafeBuffer[segmentCount];
-        final int segmentSizeBitShift = Long.numberOfTrailingZeros(segmentSize);
 
         final UnsafeBuffer headerBuffer = new UnsafeBuffer(LoggerUtil.mapExistingFile(headerFile));
         try
         {
-            final MessageHeaderDecoder messageFrameHeader = new MessageHeaderDecoder();
-            final ReplayIndexRecordDecoder indexRecord = new ReplayIndexRecordDecoder();
-
-            messageFrameHeader.wrap(headerBuffer, 0);
-            final int actingBlockLength = messageFrameHeader.blockLength();
-            final int actingVersion = messageFrameHeader.version();
-
-            long iteratorPosition = Math.max(beginChangeVolatile(headerBuffer) - indexFileSize, 0);
-            long stopIteratingPosition = iteratorPosition + indexFileSize;
-
-            while (iteratorPosition < stopIteratingPosition)
+            extract(headerBuffer, indexFileCapacity, indexSegmentCapacity, handler, segmentIndex ->
             {
-                final long changePosition = endChangeVolatile(headerBuffer);
-
-                final long beginChangePosition;
-                if (changePosition > iteratorPosition &&
-                    (iteratorPosition + indexFileSize) < (beginChangePosition = beginChangeVolatile(headerBuffer)))
-                {
-                    handler.onLapped();
-                    iteratorPosition = beginChangePosition - indexFileSize;
-                    stopIteratingPosition = beginChangePosition;
-                }
-
-                final int offset = offsetInSegment(iteratorPosition, segmentSize);
-                if (offset == 0 && iteratorPosition >= changePosition)
-                {
-                    break; // beginning of a segment, the file might not exist yet if we caught up with the writer
-                }
-
-                final UnsafeBuffer segmentBuffer = segmentBuffer(
-                    iteratorPosition, segmentSizeBitShift, segmentBuffers, indexFileSize,
-                    fixSessionId, streamId, logFileDir);
-                indexRecord.wrap(segmentBuffer, offset, actingBlockLength, actingVersion);
-                final long beginPosition = indexRecord.position();
-
-                if (beginPosition == 0)
+                UnsafeBuffer segmentBuffer = segmentBuffers[segmentIndex];
+                if (segmentBuffer == null)
                 {
-                    break;
+                    final File file = replayIndexSegmentFile(logFileDir, fixSessionId, streamId, segmentIndex);
+                    segmentBuffer = new UnsafeBuffer(LoggerUtil.mapExistingFile(file));
+                    segmentBuffers[segmentIndex] = segmentBuffer;
                 }
-
-                handler.onEntry(indexRecord);
-
-                iteratorPosition += RECORD_LENGTH;
-            }
+                return segmentBuffer;
+            });
         }
         finally
         {
@@ -293,22 +258,99 @@ public final class ReplayIndexExtractor
         }
     }
 
-    private static UnsafeBuffer segmentBuffer(
-        final long position,
-        final int segmentSizeBitShift,
-        final UnsafeBuffer[] segmentBuffers,
-        final long indexFileSize,
+    /**
+     * Extract the entries of a session's replay index from a replay index store, see
+     * {@link uk.co.real_logic.artio.engine.EngineConfiguration#replayIndexStoreEnabled(boolean)}.
+     *
+     * @param indexFileCapacity the configured replay index file record capacity.
+     * @param indexSegmentCapacity the configured replay index segment record capacity.
+     * @param fixSessionId the FIX session id of the index to extract.
+     * @param streamId the stream id of the index to extract.
+     * @param logFileDir the log file directory of the engine.
+     * @param handler the handler that receives the entries.
+     */
+    public static void extractFromStore(
+        final int indexFileCapacity,
+        final int indexSegmentCapacity,
         final long fixSessionId,
-        final int streamId, final String logFileDir)
+        final int streamId,
+        final String logFileDir,
+        final ReplayIndexHandler handler)
+    {
+        try (ReplayIndexStore store = ReplayIndexStore.reader(
+            logFileDir, streamId, indexFileCapacity, indexSegmentCapacity, LoggerUtil::mapExistingFile))
+        {
+            final int slotId = store.slotId(fixSessionId);
+            if (slotId == ReplayIndexStore.NO_SLOT)
+            {
+                throw new IllegalArgumentException(
+                    "No replay index for session " + fixSessionId + " in the store for stream " + streamId);
+            }
+
+            final UnsafeBuffer headerBuffer = store.slotBuffer(slotId);
+            extract(headerBuffer, indexFileCapacity, indexSegmentCapacity, handler,
+                segmentIndex -> store.existingSegmentBuffer(headerBuffer, segmentIndex));
+        }
+    }
+
+    private static void extract(
+        final UnsafeBuffer headerBuffer,
+        final int indexFileCapacity,
+        final int indexSegmentCapacity,
+        final ReplayIndexHandler handler,
+        final IntFunction<UnsafeBuffer> segmentBuffers)
     {
-        final int segmentIndex = ReplayIndexDescriptor.segmentIndex(position, segmentSizeBitShift, indexFileSize);
-        UnsafeBuffer segmentBuffer = segmentBuffers[segmentIndex];
-        if (segmentBuffer == null)
+        final long indexFileSize = capacityToBytes(indexFileCapacity);
+        final int segmentSize = capacityToBytesInt(indexSegmentCapacity);
+        final int segmentSizeBitShift = Long.numberOfTrailingZeros(segmentSize);
+
+        final MessageHeaderDecoder messageFrameHeader = new MessageHeaderDecoder();
+        final ReplayIndexRecordDecoder indexRecord = new ReplayIndexRecordDecoder();
+
+        messageFrameHeader.wrap(headerBuffer, 0);
+        final int actingBlockLength = messageFrameHeader.blockLength();
+        final int actingVersion = messageFrameHeader.version();
+
+        long iteratorPosition = Math.max(beginChangeVolatile(headerBuffer) - indexFileSize, 0);
+        long stopIteratingPosition = iteratorPosition + indexFileSize;
+
+        while (iteratorPosition < stopIteratingPosition)
         {
-            final File file = replayIndexSegmentFile(logFileDir, fixSessionId, streamId, segmentIndex);
-            segmentBuffer = new UnsafeBuffer(LoggerUtil.mapExistingFile(file));
-            segmentBuffers[segmentIndex] = segmentBuffer;
+            final long changePosition = endChangeVolatile(headerBuffer);
+
+            final long beginChangePosition;
+            if (changePosition > iteratorPosition &&
+                (iteratorPosition + indexFileSize) < (beginChangePosition = beginChangeVolatile(headerBuffer)))
+            {
+                handler.onLapped();
+                iteratorPosition = beginChangePosition - indexFileSize;
+                stopIteratingPosition = beginChangePosition;
+            }
+
+            final int offset = offsetInSegment(iteratorPosition, segmentSize);
+            if (offset == 0 && iteratorPosition >= changePosition)
+            {
+                break; // beginning of a segment, the file might not exist yet if we caught up with the writer
+            }
+
+            final UnsafeBuffer segmentBuffer = segmentBuffers.apply(
+                ReplayIndexDescriptor.segmentIndex(iteratorPosition, segmentSizeBitShift, indexFileSize));
+            if (segmentBuffer == null)
+            {
+                break;
+            }
+
+            indexRecord.wrap(segmentBuffer, offset, actingBlockLength, actingVersion);
+            final long beginPosition = indexRecord.position();
+
+            if (beginPosition == 0)
+            {
+                break;
+            }
+
+            handler.onEntry(indexRecord);
+
+            iteratorPosition += RECORD_LENGTH;
         }
-        return segmentBuffer;
     }
 }
@@ -0,0 +1,415 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.BitUtil;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.collections.IntArrayList;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordEncoder;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
+
+/**
+ * Stores the replay indices of every FIX session on a stream in a small number of shared files, rather than a header
+ * file and a set of segment files per session. Each session keeps the same ring of records, with the same change
+ * positions, as the per session files, so it is queried in the same way, but its header lives in a fixed size slot
+ * and each of its segments is a block that is allocated from large shared block files when first written to. The
+ * number of files, and memory mappings, therefore scales with the total amount of index data rather than the number
+ * of sessions.
+ *
+ * Header File Consists of:
+ *
+ * MessageHeader
+ * Session slot count
+ * Allocated block count
+ * Segment size in bytes
+ * Segment count per session
+ *
+ * Session Slot Consists of:
+ *
+ * The same fields as a per session header file, see {@link ReplayIndexDescriptor#HEADER_FILE_SIZE}
+ * Generation, incremented every time that the session's index is reset
+ * Session id
+ * Block id of each segment of the session's ring, 0 if the segment hasn't been allocated
+ *
+ * Blocks are returned to a free list when a session's index is reset and zeroed before being reused. Readers check
+ * the generation of the slot after reading a record in order to detect a reset.
+ */
+final class ReplayIndexStore implements AutoCloseable
+{
+    static final int NO_SLOT = -1;
+    static final int SLOTS_PER_FILE = 16 * 1024;
+    static final int BLOCK_FILE_SIZE = 64 * 1024 * 1024;
+
+    private static final int NO_BLOCK = 0;
+
+    private static final int SLOT_COUNT_OFFSET = MessageHeaderEncoder.ENCODED_LENGTH;
+    private static final int BLOCK_COUNT_OFFSET = SLOT_COUNT_OFFSET + SIZE_OF_INT;
+    private static final int SEGMENT_SIZE_OFFSET = BLOCK_COUNT_OFFSET + SIZE_OF_INT;
+    private static final int SEGMENT_COUNT_OFFSET = SEGMENT_SIZE_OFFSET + SIZE_OF_INT;
+    static final int STORE_HEADER_FILE_SIZE = SEGMENT_COUNT_OFFSET + SIZE_OF_INT;
+
+    private static final int GENERATION_OFFSET = BitUtil.align(HEADER_FILE_SIZE, SIZE_OF_INT);
+    private static final int SESSION_ID_OFFSET = GENERATION_OFFSET + SIZE_OF_INT;
+    private static final int BLOCK_TABLE_OFFSET = SESSION_ID_OFFSET + SIZE_OF_LONG;
+    private static final int SLOT_ALIGNMENT = 64;
+
+    private final Long2LongHashMap sessionIdToSlot = new Long2LongHashMap(NO_SLOT);
+    private final ArrayList<UnsafeBuffer> slotFiles = new ArrayList<>();
+    private final ArrayList<UnsafeBuffer> slotBuffers = new ArrayList<>();
+    private final ArrayList<UnsafeBuffer> blockFiles = new ArrayList<>();
+    private final ArrayList<UnsafeBuffer> blockBuffers = new ArrayList<>();
+    private final IntArrayList freeBlocks = new IntArrayList();
+
+    private final String logFileDir;
+    private final int streamId;
+    private final BufferFactory bufferFactory;
+    private final boolean writable;
+    private final int segmentSize;
+    private final int segmentCount;
+    private final int slotSize;
+    private final int blocksPerFile;
+
+    private UnsafeBuffer headerBuffer;
+    private int scannedSlots;
+
+    static ReplayIndexStore writer(
+        final String logFileDir,
+        final int streamId,
+        final int indexFileCapacity,
+        final int indexSegmentCapacity,
+        final BufferFactory bufferFactory,
+        final ErrorHandler errorHandler)
+    {
+        final ReplayIndexStore store = new ReplayIndexStore(
+            logFileDir, streamId, indexFileCapacity, indexSegmentCapacity, bufferFactory, true);
+        store.initialiseHeader(errorHandler);
+        store.scanNewSlots();
+        store.findFreeBlocks();
+        return store;
+    }
+
+    static ReplayIndexStore reader(
+        final String logFileDir,
+        final int streamId,
+        final int indexFileCapacity,
+        final int indexSegmentCapacity,
+        final ExistingBufferFactory bufferFactory)
+    {
+        return new ReplayIndexStore(
+            logFileDir,
+            streamId,
+            indexFileCapacity,
+            indexSegmentCapacity,
+            (file, size) -> bufferFactory.map(file),
+            false);
+    }
+
+    private ReplayIndexStore(
+        final String logFileDir,
+        final int streamId,
+        final int indexFileCapacity,
+        final int indexSegmentCapacity,
+        final BufferFactory bufferFactory,
+        final boolean writable)
+    {
+        this.logFileDir = logFileDir;
+        this.streamId = streamId;
+        this.bufferFactory = bufferFactory;
+        this.writable = writable;
+        segmentSize = capacityToBytesInt(indexSegmentCapacity);
+        segmentCount = segmentCount(indexFileCapacity, indexSegmentCapacity);
+        slotSize = BitUtil.align(BLOCK_TABLE_OFFSET + segmentCount * SIZE_OF_INT, SLOT_ALIGNMENT);
+        blocksPerFile = Math.max(1, BLOCK_FILE_SIZE / segmentSize);
+    }
+
+    private void initialiseHeader(final ErrorHandler errorHandler)
+    {
+        final UnsafeBuffer headerBuffer = new UnsafeBuffer(bufferFactory.map(
+            replayIndexStoreHeaderFile(logFileDir, streamId), STORE_HEADER_FILE_SIZE));
+        final ReplayIndexRecordEncoder replayIndexRecord = new ReplayIndexRecordEncoder();
+        LoggerUtil.initialiseBuffer(
+            headerBuffer,
+            new MessageHeaderEncoder(),
+            new MessageHeaderDecoder(),
+            replayIndexRecord.sbeSchemaId(),
+            replayIndexRecord.sbeTemplateId(),
+            replayIndexRecord.sbeSchemaVersion(),
+            replayIndexRecord.sbeBlockLength(),
+            errorHandler);
+
+        if (headerBuffer.getInt(SEGMENT_SIZE_OFFSET) == 0)
+        {
+            headerBuffer.putInt(SEGMENT_SIZE_OFFSET, segmentSize);
+            headerBuffer.putInt(SEGMENT_COUNT_OFFSET, segmentCount);
+        }
+
+        validateLayout(headerBuffer);
+        this.headerBuffer = headerBuffer;
+    }
+
+    private void validateLayout(final UnsafeBuffer headerBuffer)
+    {
+        final int storedSegmentSize = headerBuffer.getInt(SEGMENT_SIZE_OFFSET);
+        final int storedSegmentCount = headerBuffer.getInt(SEGMENT_COUNT_OFFSET);
+        if (storedSegmentSize != segmentSize || storedSegmentCount != segmentCount)
+        {
+            IoUtil.unmap(headerBuffer.byteBuffer());
+            throw new IllegalStateException("Replay index store for stream " + streamId + " was created with " +
+                "segmentSize=" + storedSegmentSize + ",segmentCount=" + storedSegmentCount + " but configured with " +
+                "segmentSize=" + segmentSize + ",segmentCount=" + segmentCount);
+        }
+    }
+
+    private UnsafeBuffer headerBuffer()
+    {
+        UnsafeBuffer headerBuffer = this.headerBuffer;
+        if (headerBuffer == null)
+        {
+            final File headerFile = replayIndexStoreHeaderFile(logFileDir, streamId);
+            if (headerFile.exists())
+            {
+                headerBuffer = new UnsafeBuffer(bufferFactory.map(headerFile, STORE_HEADER_FILE_SIZE));
+                validateLayout(headerBuffer);
+                this.headerBuffer = headerBuffer;
+            }
+        }
+        return headerBuffer;
+    }
+
+    int slotId(final long fixSessionId)
+    {
+        int slotId = (int)sessionIdToSlot.get(fixSessionId);
+        if (slotId == NO_SLOT && !writable)
+        {
+            scanNewSlots();
+            slotId = (int)sessionIdToSlot.get(fixSessionId);
+        }
+        return slotId;
+    }
+
+    LongHashSet sessionIds()
+    {
+        scanNewSlots();
+
+        final LongHashSet sessionIds = new LongHashSet();
+        final Long2LongHashMap.KeyIterator it = sessionIdToSlot.keySet().iterator();
+        while (it.hasNext())
+        {
+            sessionIds.add(it.nextValue());
+        }
+        return sessionIds;
+    }
+
+    private void scanNewSlots()
+    {
+        final UnsafeBuffer headerBuffer = headerBuffer();
+        if (headerBuffer == null)
+        {
+            return;
+        }
+
+        final int slotCount = headerBuffer.getIntVolatile(SLOT_COUNT_OFFSET);
+        for (int slotId = scannedSlots; slotId < slotCount; slotId++)
+        {
+            sessionIdToSlot.put(slotBuffer(slotId).getLong(SESSION_ID_OFFSET), slotId);
+        }
+        scannedSlots = slotCount;
+    }
+
+    private void findFreeBlocks()
+    {
+        final int blockCount = headerBuffer.getInt(BLOCK_COUNT_OFFSET);
+        final boolean[] allocated = new boolean[blockCount + 1];
+        for (int slotId = 0; slotId < scannedSlots; slotId++)
+        {
+            final UnsafeBuffer slotBuffer = slotBuffer(slotId);
+            for (int segmentIndex = 0; segmentIndex < segmentCount; segmentIndex++)
+            {
+                allocated[slotBuffer.getInt(blockTableOffset(segmentIndex))] = true;
+            }
+        }
+
+        for (int blockId = blockCount; blockId > NO_BLOCK; blockId--)
+        {
+            if (!allocated[blockId])
+            {
+                freeBlocks.addInt(blockId);
+            }
+        }
+    }
+
+    int allocateSlot(final long fixSessionId)
+    {
+        final int slotId = scannedSlots;
+        final UnsafeBuffer slotBuffer = slotBuffer(slotId);
+        final ReplayIndexRecordEncoder replayIndexRecord = new ReplayIndexRecordEncoder();
+        new MessageHeaderEncoder()
+            .wrap(slotBuffer, 0)
+            .blockLength(replayIndexRecord.sbeBlockLength())
+            .templateId(replayIndexRecord.sbeTemplateId())
+            .schemaId(replayIndexRecord.sbeSchemaId())
+            .version(replayIndexRecord.sbeSchemaVersion());
+        ReplayIndex.notForNextSession(slotBuffer);
+        slotBuffer.putLong(SESSION_ID_OFFSET, fixSessionId);
+
+        scannedSlots = slotId + 1;
+        headerBuffer.putIntOrdered(SLOT_COUNT_OFFSET, scannedSlots);
+        sessionIdToSlot.put(fixSessionId, slotId);
+
+        return slotId;
+    }
+
+    UnsafeBuffer slotBuffer(final int slotId)
+    {
+        final ArrayList<UnsafeBuffer> slotBuffers = this.slotBuffers;
+        while (slotBuffers.size() <= slotId)
+        {
+            final int newSlotId = slotBuffers.size();
+            final int fileIndex = newSlotId / SLOTS_PER_FILE;
+            if (slotFiles.size() <= fileIndex)
+            {
+                slotFiles.add(new UnsafeBuffer(bufferFactory.map(
+                    replayIndexStoreSlotFile(logFileDir, streamId, fileIndex), SLOTS_PER_FILE * slotSize)));
+            }
+
+            final int offset = (newSlotId % SLOTS_PER_FILE) * slotSize;
+            slotBuffers.add(new UnsafeBuffer(slotFiles.get(fileIndex), offset, slotSize));
+        }
+
+        return slotBuffers.get(slotId);
+    }
+
+    // Writer only: allocates the segment's block if it hasn't been written to yet.
+    UnsafeBuffer segmentBuffer(final AtomicBuffer slotBuffer, final int segmentIndex)
+    {
+        final int tableOffset = blockTableOffset(segmentIndex);
+        int blockId = slotBuffer.getInt(tableOffset);
+        if (blockId == NO_BLOCK)
+        {
+            blockId = allocateBlock();
+            slotBuffer.putIntOrdered(tableOffset, blockId);
+        }
+
+        return blockBuffer(blockId);
+    }
+
+    // Returns null if the segment hasn't been written to yet.
+    UnsafeBuffer existingSegmentBuffer(final AtomicBuffer slotBuffer, final int segmentIndex)
+    {
+        final int blockId = slotBuffer.getIntVolatile(blockTableOffset(segmentIndex));
+        return blockId == NO_BLOCK ? null : blockBuffer(blockId);
+    }
+
+    private int allocateBlock()
+    {
+        final IntArrayList freeBlocks = this.freeBlocks;
+        if (!freeBlocks.isEmpty())
+        {
+            final int blockId = freeBlocks.popInt();
+            blockBuffer(blockId).setMemory(0, segmentSize, (byte)0);
+            return blockId;
+        }
+
+        final int blockId = headerBuffer.getInt(BLOCK_COUNT_OFFSET) + 1;
+        blockBuffer(blockId);
+        headerBuffer.putIntOrdered(BLOCK_COUNT_OFFSET, blockId);
+        return blockId;
+    }
+
+    private UnsafeBuffer blockBuffer(final int blockId)
+    {
+        final ArrayList<UnsafeBuffer> blockBuffers = this.blockBuffers;
+        final int blockIndex = blockId - 1;
+        while (blockBuffers.size() <= blockIndex)
+        {
+            final int newBlockIndex = blockBuffers.size();
+            final int fileIndex = newBlockIndex / blocksPerFile;
+            if (blockFiles.size() <= fileIndex)
+            {
+                blockFiles.add(new UnsafeBuffer(bufferFactory.map(
+                    replayIndexStoreBlockFile(logFileDir, streamId, fileIndex), blocksPerFile * segmentSize)));
+            }
+
+            final int offset = (newBlockIndex % blocksPerFile) * segmentSize;
+            blockBuffers.add(new UnsafeBuffer(blockFiles.get(fileIndex), offset, segmentSize));
+        }
+
+        return blockBuffers.get(blockIndex);
+    }
+
+    int blockCount()
+    {
+        final UnsafeBuffer headerBuffer = headerBuffer();
+        return headerBuffer == null ? 0 : headerBuffer.getIntVolatile(BLOCK_COUNT_OFFSET);
+    }
+
+    void reset(final int slotId)
+    {
+        final UnsafeBuffer slotBuffer = slotBuffer(slotId);
+        slotBuffer.putIntOrdered(GENERATION_OFFSET, slotBuffer.getInt(GENERATION_OFFSET) + 1);
+        beginChangeOrdered(slotBuffer, 0);
+        endChangeOrdered(slotBuffer, 0);
+        ReplayIndex.notForNextSession(slotBuffer);
+
+        for (int segmentIndex = 0; segmentIndex < segmentCount; segmentIndex++)
+        {
+            final int tableOffset = blockTableOffset(segmentIndex);
+            final int blockId = slotBuffer.getInt(tableOffset);
+            if (blockId != NO_BLOCK)
+            {
+                slotBuffer.putIntOrdered(tableOffset, NO_BLOCK);
+                freeBlocks.addInt(blockId);
+            }
+        }
+    }
+
+    static int generationVolatile(final AtomicBuffer slotBuffer)
+    {
+        return slotBuffer.getIntVolatile(GENERATION_OFFSET);
+    }
+
+    private static int blockTableOffset(final int segmentIndex)
+    {
+        return BLOCK_TABLE_OFFSET + segmentIndex * SIZE_OF_INT;
+    }
+
+    public void close()
+    {
+        if (headerBuffer != null)
+        {
+            IoUtil.unmap(headerBuffer.byteBuffer());
+        }
+        slotFiles.forEach(buffer -> IoUtil.unmap(buffer.byteBuffer()));
+        blockFiles.forEach(buffer -> IoUtil.unmap(buffer.byteBuffer()));
+        slotFiles.clear();
+        slotBuffers.clear();
+        blockFiles.clear();
+        blockBuffers.clear();
+    }
+}
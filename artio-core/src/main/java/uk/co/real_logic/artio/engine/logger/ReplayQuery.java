@@ -76,6 +76,7 @@ public class ReplayQuery implements AutoCloseable
     private final int segmentSizeBitShift;
     private final int segmentCount;
     private final long indexFileSize;
+    private final ReplayIndexStore store;
 
     private Subscription replaySubscription;
 
@@ -92,6 +93,37 @@ public class ReplayQuery implements AutoCloseable
         final int archiveReplayStream,
         final int indexFileCapacity,
         final int indexSegmentCapacity)
+    {
+        this(
+            logFileDir,
+            cacheNumSets,
+            cacheSetSize,
+            indexBufferFactory,
+            requiredStreamId,
+            idleStrategy,
+            aeronArchive,
+            errorHandler,
+            replayQueryListener,
+            archiveReplayStream,
+            indexFileCapacity,
+            indexSegmentCapacity,
+            false);
+    }
+
+    public ReplayQuery(
+        final String logFileDir,
+        final int cacheNumSets,
+        final int cacheSetSize,
+        final ExistingBufferFactory indexBufferFactory,
+        final int requiredStreamId,
+        final IdleStrategy idleStrategy,
+        final AeronArchive aeronArchive,
+        final ErrorHandler errorHandler,
+        final ReplayQueryListener replayQueryListener,
+        final int archiveReplayStream,
+        final int indexFileCapacity,
+        final int indexSegmentCapacity,
+        final boolean replayIndexStoreEnabled)
     {
         this.logFileDir = logFileDir;
         this.indexBufferFactory = indexBufferFactory;
@@ -109,6 +141,8 @@ public class ReplayQuery implements AutoCloseable
 
         logFileDirFile = new File(logFileDir);
         fixSessionToIndex = new Long2ObjectCache<>(cacheNumSets, cacheSetSize, SessionQuery::close);
+        store = replayIndexStoreEnabled ? ReplayIndexStore.reader(
+            logFileDir, requiredStreamId, indexFileCapacity, indexSegmentCapacity, indexBufferFactory) : null;
     }
 
     /**
@@ -143,7 +177,8 @@ public class ReplayQuery implements AutoCloseable
 
     public void queryStartPositions(final Long2LongHashMap newStartPositions)
     {
-        final LongHashSet allSessionIds = listReplayIndexSessionIds(logFileDirFile, requiredStreamId);
+        final LongHashSet allSessionIds = store != null ?
+            store.sessionIds() : listReplayIndexSessionIds(logFileDirFile, requiredStreamId);
 
         // Run over existing session queries first in order to minimise cache evictions then reloads.
         for (final SessionQuery query : fixSessionToIndex.values())
@@ -170,7 +205,7 @@ public class ReplayQuery implements AutoCloseable
     {
         fixSessionToIndex.clear();
 
-        CloseHelper.close(replaySubscription);
+        CloseHelper.closeAll(replaySubscription, store);
     }
 
     public void onReset(final long fixSessionId)
@@ -182,6 +217,12 @@ public class ReplayQuery implements AutoCloseable
     {
         try
         {
+            if (store != null)
+            {
+                final int slotId = store.slotId(fixSessionId);
+                return slotId == ReplayIndexStore.NO_SLOT ? null : new SessionQuery(fixSessionId, slotId);
+            }
+
             return new SessionQuery(fixSessionId);
         }
         catch (final IllegalStateException e)
@@ -197,7 +238,6 @@ public class ReplayQuery implements AutoCloseable
     {
         private final long fixSessionId;
 
-        private final File headerFile;
         private final UnsafeBuffer headerBuffer;
         private final UnsafeBuffer[] segmentBuffers;
 
@@ -206,9 +246,24 @@ public class ReplayQuery implements AutoCloseable
 
         SessionQuery(final long fixSessionId)
         {
-            segmentBuffers = new UnsafeBuffer[segmentCount];
-            headerFile = replayIndexHeaderFile(logFileDir, fixSessionId, requiredStreamId);
-            headerBuffer = new UnsafeBuffer(indexBufferFactory.map(headerFile));
+            this(
+                fixSessionId,
+                new UnsafeBuffer(indexBufferFactory.map(
+                    replayIndexHeaderFile(logFileDir, fixSessionId, requiredStreamId))),
+                new UnsafeBuffer[segmentCount]);
+        }
+
+        SessionQuery(final long fixSessionId, final int slotId)
+        {
+            // The store's segments are looked up on every read as blocks move between sessions on reset
+            this(fixSessionId, store.slotBuffer(slotId), null);
+        }
+
+        private SessionQuery(
+            final long fixSessionId, final UnsafeBuffer headerBuffer, final UnsafeBuffer[] segmentBuffers)
+        {
+            this.segmentBuffers = segmentBuffers;
+            this.headerBuffer = headerBuffer;
             this.fixSessionId = fixSessionId;
 
             messageFrameHeader.wrap(headerBuffer, 0);
@@ -243,6 +298,7 @@ public class ReplayQuery implements AutoCloseable
             final int actingVersion = this.actingVersion;
 
             final boolean upToMostRecentMessage = endSequenceNumber == MOST_RECENT_MESSAGE;
+            final int generation = generation();
 
             // LOOKUP THE RANGE FROM THE INDEX
             // NB: this is a List as we are looking up recordings in the correct order to replay them.
@@ -276,6 +332,10 @@ public class ReplayQuery implements AutoCloseable
 
                 final UnsafeBuffer segmentBuffer = segmentBuffer(
                     iteratorPosition, segmentSizeBitShift, segmentBuffers, indexFileSize);
+                if (segmentBuffer == null)
+                {
+                    break; // segment of the store hasn't been allocated yet
+                }
 
                 indexRecord.wrap(segmentBuffer, offset, actingBlockLength, actingVersion);
                 final long beginPosition = indexRecord.position();
@@ -286,6 +346,11 @@ public class ReplayQuery implements AutoCloseable
 
                 UNSAFE.loadFence(); // LoadLoad required so previous loads don't move past version check below.
 
+                if (generation != generation())
+                {
+                    break; // the session's index in the store has been reset whilst reading it
+                }
+
                 if (log)
                 {
                     DebugLogger.log(LogTag.REPLAY_ATTEMPT, onRowFormatter,
@@ -340,6 +405,11 @@ public class ReplayQuery implements AutoCloseable
             final long indexFileSize)
         {
             final int segmentIndex = ReplayIndexDescriptor.segmentIndex(position, segmentSizeBitShift, indexFileSize);
+            if (segmentBuffers == null)
+            {
+                return store.existingSegmentBuffer(headerBuffer, segmentIndex);
+            }
+
             UnsafeBuffer segmentBuffer = segmentBuffers[segmentIndex];
             if (segmentBuffer == null)
             {
@@ -423,6 +493,11 @@ public class ReplayQuery implements AutoCloseable
             return range;
         }
 
+        private int generation()
+        {
+            return segmentBuffers == null ? ReplayIndexStore.generationVolatile(headerBuffer) : 0;
+        }
+
         private long getIteratorPosition()
         {
             // positions on a monotonically increasing scale
@@ -444,6 +519,7 @@ public class ReplayQuery implements AutoCloseable
             final int segmentSize = ReplayQuery.this.segmentSize;
             final IdleStrategy idleStrategy = ReplayQuery.this.idleStrategy;
 
+            final int generation = generation();
             long iteratorPosition = getIteratorPosition();
             long stopIteratingPosition = iteratorPosition + indexFileSize;
 
@@ -468,6 +544,10 @@ public class ReplayQuery implements AutoCloseable
 
                 final UnsafeBuffer segmentBuffer = segmentBuffer(
                     iteratorPosition, segmentSizeBitShift, segmentBuffers, indexFileSize);
+                if (segmentBuffer == null)
+                {
+                    break; // segment of the store hasn't been allocated yet
+                }
 
                 indexRecord.wrap(segmentBuffer, offset, actingBlockLength, actingVersion);
                 final long beginPosition = indexRecord.position();
@@ -477,6 +557,11 @@ public class ReplayQuery implements AutoCloseable
 
                 UNSAFE.loadFence(); // LoadLoad required so previous loads don't move past version check below.
 
+                if (generation != generation())
+                {
+                    break; // the session's index in the store has been reset whilst reading it
+                }
+
                 // if the block was read atomically with no updates
                 if (changePosition == beginChangeVolatile(headerBuffer))
                 {
@@ -502,6 +587,11 @@ public class ReplayQuery implements AutoCloseable
 
         public void close()
         {
+            if (segmentBuffers == null)
+            {
+                return; // views onto the store's files, which are shared between sessions
+            }
+
             IoUtil.unmap(headerBuffer.byteBuffer());
             for (final UnsafeBuffer segmentBuffer : segmentBuffers)
             {
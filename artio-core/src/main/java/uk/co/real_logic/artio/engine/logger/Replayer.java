@@ -37,6 +37,7 @@ import uk.co.real_logic.artio.fields.EpochFractionFormat;
 import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
 import uk.co.real_logic.artio.fixp.*;
 import uk.co.real_logic.artio.messages.*;
+import uk.co.real_logic.artio.timing.Timer;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.CharFormatter;
 import uk.co.real_logic.artio.util.Lazy;
@@ -82,6 +83,8 @@ public class Replayer extends AbstractReplayer
     final FixMessageDecoder fixMessageDecoder = new FixMessageDecoder();
     final ThrottleRejectDecoder throttleRejectDecoder = new ThrottleRejectDecoder();
     final AsciiBuffer sessionAsciiBuffer = new MutableAsciiBuffer();
+    final Timer replayQueryToResendTimer;
+    final ResendCache resendCache;
 
     // Binary FIXP specific state
     private final IntHashSet gapfillOnRetransmitILinkTemplateIds;
@@ -140,7 +143,9 @@ public class Replayer extends AbstractReplayer
         final int maxConcurrentSessionReplays,
         final EpochNanoClock clock,
         final FixPProtocolType fixPProtocolType,
-        final EngineConfiguration configuration)
+        final EngineConfiguration configuration,
+        final Timer replayQueryToResendTimer,
+        final ResendCache resendCache)
     {
         super(publication, fixSessionCodecsFactory, bufferClaim, senderSequenceNumbers);
         this.outboundReplayQuery = outboundReplayQuery;
@@ -159,6 +164,8 @@ public class Replayer extends AbstractReplayer
         this.maxConcurrentSessionReplays = maxConcurrentSessionReplays;
         this.clock = clock;
         this.configuration = configuration;
+        this.replayQueryToResendTimer = replayQueryToResendTimer;
+        this.resendCache = resendCache;
 
         gapFillMessageTypes = packAllMessageTypes(gapfillOnReplayMessageTypes);
         utcTimestampEncoder = new UtcTimestampEncoder(epochFractionFormat);
@@ -526,6 +533,7 @@ public class Replayer extends AbstractReplayer
         currentReplayCount.set(0);
         currentReplayCount.close();
         outboundReplayQuery.close();
+        replayerCommandQueue.close();
         super.onClose();
     }
 
@@ -45,6 +45,9 @@ abstract class ReplayerSession implements ControlledFragmentHandler
 
     ReplayOperation replayOperation;
 
+    private long queryTimestamp;
+    private boolean awaitingFirstResend;
+
     protected ReplayerSession(
         final long connectionId,
         final long correlationId,
@@ -79,14 +82,29 @@ abstract class ReplayerSession implements ControlledFragmentHandler
 
     void query()
     {
-        replayOperation = replayQuery.query(
-            sessionId,
-            beginSeqNo,
-            sequenceIndex,
-            endSeqNo,
-            sequenceIndex,
-            REPLAY,
-            messageTracker());
+        queryTimestamp = replayer.replayQueryToResendTimer.now();
+        awaitingFirstResend = true;
+        if (!queryCache())
+        {
+            replayOperation = replayQuery.query(
+                sessionId,
+                beginSeqNo,
+                sequenceIndex,
+                endSeqNo,
+                sequenceIndex,
+                REPLAY,
+                messageTracker());
+        }
+    }
+
+    /**
+     * Checks whether the replay can be served without querying the archive.
+     *
+     * @return true if the replay is served from a cache, false if the archive should be queried.
+     */
+    boolean queryCache()
+    {
+        return false;
     }
 
     abstract MessageTracker messageTracker();
@@ -104,6 +122,11 @@ abstract class ReplayerSession implements ControlledFragmentHandler
             if (position > 0)
             {
                 idleStrategy.reset();
+                if (awaitingFirstResend)
+                {
+                    replayer.replayQueryToResendTimer.recordSince(queryTimestamp);
+                    awaitingFirstResend = false;
+                }
                 return true;
             }
             else if (Pressure.isBackPressured(position))
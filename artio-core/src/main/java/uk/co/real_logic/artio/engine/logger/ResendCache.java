@@ -0,0 +1,442 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.engine.SequenceNumberExtractor;
+import uk.co.real_logic.artio.messages.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
+import static io.aeron.logbuffer.FrameDescriptor.BEGIN_FRAG_FLAG;
+import static io.aeron.logbuffer.FrameDescriptor.UNFRAGMENTED;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.SEQUENCE_RESET_MESSAGE_TYPE;
+import static uk.co.real_logic.artio.engine.SequenceNumberExtractor.NO_SEQUENCE_NUMBER;
+import static uk.co.real_logic.artio.messages.FixMessageDecoder.*;
+import static uk.co.real_logic.artio.messages.MessageStatus.OK;
+
+/**
+ * Keeps the most recently sent messages of each FIX session in a bounded off-heap ring so that resend requests for
+ * them can be served without starting an archive replay.
+ *
+ * Each ring only ever holds a contiguous run of sequence numbers within a single sequence index. Anything that would
+ * break that, such as a sequence reset, a throttled message or a message that is too large for the ring, clears it.
+ * Messages are evicted once the ring runs out of space or once they are older than the maximum age.
+ *
+ * This index is run by the outbound indexer, which shares its thread with the {@link Replayer}.
+ */
+public class ResendCache implements Index
+{
+    private static final int RECORD_ALIGNMENT = 8;
+    private static final int LENGTH_OFFSET = 0;
+    private static final int SEQUENCE_NUMBER_OFFSET = 4;
+    private static final int TIMESTAMP_OFFSET = 8;
+    private static final int RECORD_HEADER_LENGTH = 16;
+    private static final int PADDING = -1;
+
+    private final MessageHeaderDecoder frameHeaderDecoder = new MessageHeaderDecoder();
+    private final FixMessageDecoder messageFrame = new FixMessageDecoder();
+    private final ResetSequenceNumberDecoder resetSequenceNumber = new ResetSequenceNumberDecoder();
+    private final RedactSequenceUpdateDecoder redactSequenceUpdate = new RedactSequenceUpdateDecoder();
+    private final ThrottleNotificationDecoder throttleNotification = new ThrottleNotificationDecoder();
+    private final ThrottleRejectDecoder throttleReject = new ThrottleRejectDecoder();
+    private final SequenceNumberExtractor sequenceNumberExtractor = new SequenceNumberExtractor();
+    private final SessionOwnershipTracker sessTracker = new SessionOwnershipTracker();
+    private final Long2ObjectHashMap<SessionCache> fixSessionIdToCache = new Long2ObjectHashMap<>();
+
+    private final int requiredStreamId;
+    private final int capacityPerSession;
+    private final long maxAgeInNs;
+    private final EpochNanoClock clock;
+
+    public ResendCache(
+        final int requiredStreamId,
+        final int capacityPerSession,
+        final long maxAgeInMs,
+        final EpochNanoClock clock)
+    {
+        this.requiredStreamId = requiredStreamId;
+        this.capacityPerSession = BitUtil.align(capacityPerSession, RECORD_ALIGNMENT);
+        this.maxAgeInNs = TimeUnit.MILLISECONDS.toNanos(maxAgeInMs);
+        this.clock = clock;
+    }
+
+    public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+    {
+        if (header.streamId() != requiredStreamId)
+        {
+            return;
+        }
+
+        final byte flags = header.flags();
+        final boolean unfragmented = (flags & UNFRAGMENTED) == UNFRAGMENTED;
+        if (!unfragmented && (flags & BEGIN_FRAG_FLAG) != BEGIN_FRAG_FLAG)
+        {
+            // The session of a continued fragment was already cleared by its first fragment.
+            return;
+        }
+
+        frameHeaderDecoder.wrap(buffer, offset);
+        final int templateId = frameHeaderDecoder.templateId();
+        final int blockLength = frameHeaderDecoder.blockLength();
+        final int version = frameHeaderDecoder.version();
+        final int messageOffset = offset + frameHeaderDecoder.encodedLength();
+
+        switch (templateId)
+        {
+            case FixMessageDecoder.TEMPLATE_ID:
+            {
+                messageFrame.wrap(buffer, messageOffset, blockLength, version);
+                if (!sessTracker.messageFromWrongLibrary(messageFrame.session(), messageFrame.libraryId()))
+                {
+                    onFixMessage(buffer, offset, messageOffset, blockLength, version, unfragmented);
+                }
+                break;
+            }
+
+            case ThrottleNotificationDecoder.TEMPLATE_ID:
+            {
+                throttleNotification.wrap(buffer, messageOffset, blockLength, version);
+                clear(throttleNotification.session());
+                break;
+            }
+
+            case ThrottleRejectDecoder.TEMPLATE_ID:
+            {
+                throttleReject.wrap(buffer, messageOffset, blockLength, version);
+                clear(throttleReject.session());
+                break;
+            }
+
+            case ResetSequenceNumberDecoder.TEMPLATE_ID:
+            {
+                resetSequenceNumber.wrap(buffer, messageOffset, blockLength, version);
+                clear(resetSequenceNumber.session());
+                break;
+            }
+
+            case RedactSequenceUpdateDecoder.TEMPLATE_ID:
+            {
+                redactSequenceUpdate.wrap(buffer, messageOffset, blockLength, version);
+                clear(redactSequenceUpdate.session());
+                break;
+            }
+
+            case ManageSessionDecoder.TEMPLATE_ID:
+            {
+                sessTracker.onManageSession(buffer, messageOffset, blockLength, version);
+                break;
+            }
+        }
+    }
+
+    private void onFixMessage(
+        final DirectBuffer buffer,
+        final int offset,
+        final int messageOffset,
+        final int blockLength,
+        final int version,
+        final boolean unfragmented)
+    {
+        if (messageFrame.status() != OK)
+        {
+            return;
+        }
+
+        final long fixSessionId = messageFrame.session();
+        if (!unfragmented || messageFrame.messageType() == SEQUENCE_RESET_MESSAGE_TYPE)
+        {
+            clear(fixSessionId);
+            return;
+        }
+
+        int bodyOffset = messageOffset + blockLength;
+        if (version >= metaDataSinceVersion())
+        {
+            bodyOffset += metaDataHeaderLength() + messageFrame.metaDataLength();
+            messageFrame.skipMetaData();
+        }
+        bodyOffset += bodyHeaderLength();
+
+        final int bodyLength = messageFrame.bodyLength();
+        final int sequenceNumber = sequenceNumberExtractor.extract(buffer, bodyOffset, bodyLength);
+        if (sequenceNumber != NO_SEQUENCE_NUMBER)
+        {
+            SessionCache sessionCache = fixSessionIdToCache.get(fixSessionId);
+            if (sessionCache == null)
+            {
+                sessionCache = new SessionCache(capacityPerSession);
+                fixSessionIdToCache.put(fixSessionId, sessionCache);
+            }
+
+            // Claimed messages can leave unused bytes at the end of the fragment, only cache up to the end of the body
+            final int frameLength = bodyOffset + bodyLength - offset;
+            sessionCache.append(
+                buffer, offset, frameLength, sequenceNumber, messageFrame.sequenceIndex(), clock.nanoTime());
+        }
+    }
+
+    static int recordLength(final int fragmentLength)
+    {
+        return BitUtil.align(RECORD_HEADER_LENGTH + fragmentLength, RECORD_ALIGNMENT);
+    }
+
+    private void clear(final long fixSessionId)
+    {
+        final SessionCache sessionCache = fixSessionIdToCache.get(fixSessionId);
+        if (sessionCache != null)
+        {
+            sessionCache.clear();
+        }
+    }
+
+    /**
+     * Looks up the cached messages of a session if they cover the whole of a resend request.
+     *
+     * @param fixSessionId the session whose messages are being resent.
+     * @param sequenceIndex the sequence index of the resend request.
+     * @param beginSeqNo the first sequence number to resend, inclusive.
+     * @param endSeqNo the last sequence number to resend, inclusive.
+     * @return the session's cached messages or null if they don't cover the request.
+     */
+    SessionCache lookup(final long fixSessionId, final int sequenceIndex, final int beginSeqNo, final int endSeqNo)
+    {
+        final SessionCache sessionCache = fixSessionIdToCache.get(fixSessionId);
+        if (sessionCache == null)
+        {
+            return null;
+        }
+
+        sessionCache.evictOlderThan(clock.nanoTime() - maxAgeInNs);
+
+        return sessionCache.covers(sequenceIndex, beginSeqNo, endSeqNo) ? sessionCache : null;
+    }
+
+    public void close()
+    {
+        fixSessionIdToCache.clear();
+    }
+
+    public void readLastPosition(final IndexedPositionConsumer consumer)
+    {
+        // Nothing is persisted, so there's nothing to catch up on.
+    }
+
+    public void onCatchup(
+        final DirectBuffer buffer, final int offset, final int length, final Header header, final long recordingId)
+    {
+    }
+
+    /**
+     * Ring of records where the record for a sequence number never moves once it's written, so a replay can hold onto
+     * the position of its next record and check whether it has been evicted in the meantime.
+     *
+     * Positions only ever increase, the index into the buffer is the position modulo the capacity. A record that
+     * doesn't fit before the end of the buffer is preceded by padding up to the end of it. Clearing the ring changes
+     * its epoch, so that replays don't carry on through records that are appended after it was cleared.
+     */
+    static final class SessionCache
+    {
+        private final UnsafeBuffer buffer;
+        private final int capacity;
+
+        private long head;
+        private long tail;
+        private int epoch;
+        private int sequenceIndex;
+        private int firstSequenceNumber;
+        private int lastSequenceNumber;
+
+        SessionCache(final int capacity)
+        {
+            this.capacity = capacity;
+            buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(capacity));
+        }
+
+        void append(
+            final DirectBuffer srcBuffer,
+            final int srcOffset,
+            final int srcLength,
+            final int sequenceNumber,
+            final int sequenceIndex,
+            final long timeInNs)
+        {
+            final int recordLength = recordLength(srcLength);
+            if (recordLength > capacity)
+            {
+                clear();
+                return;
+            }
+
+            if (!isEmpty() && (sequenceIndex != this.sequenceIndex || sequenceNumber != lastSequenceNumber + 1))
+            {
+                clear();
+            }
+
+            int tailIndex = index(tail);
+            final int remaining = capacity - tailIndex;
+            final int padding = recordLength > remaining ? remaining : 0;
+            while (!isEmpty() && capacity - (tail - head) < padding + recordLength)
+            {
+                evictOldest();
+            }
+
+            final UnsafeBuffer buffer = this.buffer;
+            if (isEmpty())
+            {
+                // Nothing to keep before the end of the buffer, so the record can start at the beginning of it
+                tail += padding;
+                head = tail;
+                this.sequenceIndex = sequenceIndex;
+                firstSequenceNumber = sequenceNumber;
+            }
+            else if (padding > 0)
+            {
+                buffer.putInt(tailIndex + LENGTH_OFFSET, PADDING);
+                tail += padding;
+            }
+            tailIndex = index(tail);
+
+            buffer.putInt(tailIndex + LENGTH_OFFSET, srcLength);
+            buffer.putInt(tailIndex + SEQUENCE_NUMBER_OFFSET, sequenceNumber);
+            buffer.putLong(tailIndex + TIMESTAMP_OFFSET, timeInNs);
+            buffer.putBytes(tailIndex + RECORD_HEADER_LENGTH, srcBuffer, srcOffset, srcLength);
+            tail += recordLength;
+            lastSequenceNumber = sequenceNumber;
+        }
+
+        void evictOlderThan(final long timeInNs)
+        {
+            while (!isEmpty() && buffer.getLong(skipPadding() + TIMESTAMP_OFFSET) < timeInNs)
+            {
+                evictOldest();
+            }
+        }
+
+        boolean covers(final int sequenceIndex, final int beginSeqNo, final int endSeqNo)
+        {
+            return !isEmpty() && sequenceIndex == this.sequenceIndex && beginSeqNo <= endSeqNo &&
+                firstSequenceNumber <= beginSeqNo && endSeqNo <= lastSequenceNumber;
+        }
+
+        int epoch()
+        {
+            return epoch;
+        }
+
+        /**
+         * Finds the position of a record, only valid if {@link #covers(int, int, int)} is true for it.
+         *
+         * @param sequenceNumber the sequence number of the record.
+         * @return the position of the record.
+         */
+        long position(final int sequenceNumber)
+        {
+            long position = head;
+            for (int i = firstSequenceNumber; i < sequenceNumber; i++)
+            {
+                position = next(position);
+            }
+            return position;
+        }
+
+        boolean isAvailable(final int epoch, final long position)
+        {
+            return this.epoch == epoch && head <= position && position < tail;
+        }
+
+        /**
+         * Passes the record at a position to a handler.
+         *
+         * @param position the position of the record, must be available.
+         * @param handler the handler to pass the cached fragment to.
+         * @return the position of the next record or the same position if the handler aborted.
+         */
+        long replay(final long position, final ControlledFragmentHandler handler)
+        {
+            final UnsafeBuffer buffer = this.buffer;
+            int index = index(position);
+            long recordPosition = position;
+            if (buffer.getInt(index + LENGTH_OFFSET) == PADDING)
+            {
+                recordPosition += capacity - index;
+                index = 0;
+            }
+
+            final int length = buffer.getInt(index + LENGTH_OFFSET);
+            if (handler.onFragment(buffer, index + RECORD_HEADER_LENGTH, length, null) == ABORT)
+            {
+                return position;
+            }
+
+            return recordPosition + recordLength(length);
+        }
+
+        void clear()
+        {
+            head = tail;
+            epoch++;
+        }
+
+        private boolean isEmpty()
+        {
+            return head == tail;
+        }
+
+        private long next(final long position)
+        {
+            int index = index(position);
+            long recordPosition = position;
+            if (buffer.getInt(index + LENGTH_OFFSET) == PADDING)
+            {
+                recordPosition += capacity - index;
+                index = 0;
+            }
+
+            return recordPosition + recordLength(buffer.getInt(index + LENGTH_OFFSET));
+        }
+
+        private void evictOldest()
+        {
+            head = next(head);
+            firstSequenceNumber++;
+        }
+
+        private int skipPadding()
+        {
+            final int index = index(head);
+            if (buffer.getInt(index + LENGTH_OFFSET) == PADDING)
+            {
+                head += capacity - index;
+                return 0;
+            }
+            return index;
+        }
+
+        private int index(final long position)
+        {
+            return (int)(position % capacity);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongArrayList;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.storage.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.storage.messages.ScanIndexBlockDecoder;
+import uk.co.real_logic.artio.storage.messages.ScanIndexBlockDecoder.SessionsDecoder;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static uk.co.real_logic.artio.engine.logger.ScanIndexWriter.FILE_NAME;
+
+/**
+ * Reads the index written by the {@link ScanIndexWriter} in order to find the parts of each recording that could
+ * contain messages matching a query's sessions and message types.
+ */
+class ScanIndexReader
+{
+    private final String logFileDir;
+    private final int streamId;
+
+    ScanIndexReader(final String logFileDir, final int streamId)
+    {
+        this.logFileDir = logFileDir;
+        this.streamId = streamId;
+    }
+
+    /**
+     * Narrows the position ranges to scan for each recording that has a scan index.
+     *
+     * @param indexQuery the query whose sessions and message types are searched for.
+     * @param recordingIdToPositionRanges the ranges found so far, a recording without an entry is either unindexed
+     *                                    or, if <code>timeIndexed</code> is true, excluded from the scan.
+     * @param timeIndexed true if the ranges have already been narrowed by the time index.
+     */
+    void findPositionRanges(
+        final IndexQuery indexQuery,
+        final Long2ObjectHashMap<List<PositionRange>> recordingIdToPositionRanges,
+        final boolean timeIndexed)
+    {
+        final File logDir = new File(logFileDir);
+        final String fileNamePrefix = FILE_NAME + streamId + "-";
+        final String[] files = logDir.list();
+        if (files == null)
+        {
+            return;
+        }
+
+        for (final String file : files)
+        {
+            if (file.startsWith(fileNamePrefix))
+            {
+                final long recordingId = Long.parseLong(file.substring(fileNamePrefix.length()));
+                final List<PositionRange> existingRanges = recordingIdToPositionRanges.get(recordingId);
+                if (existingRanges == null && timeIndexed)
+                {
+                    continue;
+                }
+
+                final List<PositionRange> matchingRanges = findPositionRanges(indexQuery, new File(logDir, file));
+                recordingIdToPositionRanges.put(recordingId, existingRanges == null ?
+                    matchingRanges : PositionRange.intersect(existingRanges, matchingRanges));
+            }
+        }
+    }
+
+    /**
+     * Finds positions that each indexed recording can be split at in order to scan it in several chunks. Every block
+     * starts with a complete message, so a replay can begin at any block's start position.
+     *
+     * @param recordingIdToSplitPositions the split positions, in ascending order, found for each recording.
+     * @param chunkLength the minimum number of bytes between two split positions.
+     */
+    void findSplitPositions(
+        final Long2ObjectHashMap<LongArrayList> recordingIdToSplitPositions, final long chunkLength)
+    {
+        final File logDir = new File(logFileDir);
+        final String fileNamePrefix = FILE_NAME + streamId + "-";
+        final String[] files = logDir.list();
+        if (files == null)
+        {
+            return;
+        }
+
+        for (final String file : files)
+        {
+            if (file.startsWith(fileNamePrefix))
+            {
+                final long recordingId = Long.parseLong(file.substring(fileNamePrefix.length()));
+                final LongArrayList splitPositions = findSplitPositions(new File(logDir, file), chunkLength);
+                if (!splitPositions.isEmpty())
+                {
+                    recordingIdToSplitPositions.put(recordingId, splitPositions);
+                }
+            }
+        }
+    }
+
+    private LongArrayList findSplitPositions(final File file, final long chunkLength)
+    {
+        final LongArrayList splitPositions = new LongArrayList();
+        long lastSplitPosition = 0;
+
+        final MappedByteBuffer mappedByteBuffer = LoggerUtil.mapExistingFile(file);
+        try
+        {
+            final UnsafeBuffer buffer = new UnsafeBuffer(mappedByteBuffer);
+            final int capacity = buffer.capacity();
+            if (capacity >= MessageHeaderDecoder.ENCODED_LENGTH)
+            {
+                final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+                final ScanIndexBlockDecoder block = new ScanIndexBlockDecoder();
+                headerDecoder.wrap(buffer, 0);
+
+                final int blockLength = headerDecoder.blockLength();
+                final int version = headerDecoder.version();
+
+                int offset = MessageHeaderDecoder.ENCODED_LENGTH;
+                while (offset + blockLength + SessionsDecoder.HEADER_SIZE <= capacity)
+                {
+                    block.wrap(buffer, offset, blockLength, version);
+                    final long startPosition = block.startPosition();
+                    final SessionsDecoder sessions = block.sessions();
+                    final int blockEnd = block.limit() + sessions.count() * SessionsDecoder.sbeBlockLength();
+                    if (blockEnd > capacity)
+                    {
+                        break;
+                    }
+
+                    if (startPosition - lastSplitPosition >= chunkLength)
+                    {
+                        splitPositions.addLong(startPosition);
+                        lastSplitPosition = startPosition;
+                    }
+
+                    offset = blockEnd;
+                }
+            }
+        }
+        finally
+        {
+            IoUtil.unmap(mappedByteBuffer);
+        }
+
+        return splitPositions;
+    }
+
+    private List<PositionRange> findPositionRanges(final IndexQuery indexQuery, final File file)
+    {
+        final LongHashSet sessionIds = indexQuery.sessionIds();
+        final LongHashSet messageTypes = indexQuery.messageTypes();
+        long messageTypeBits = 0;
+        if (messageTypes != null)
+        {
+            final LongHashSet.LongIterator it = messageTypes.iterator();
+            while (it.hasNext())
+            {
+                messageTypeBits |= ScanIndexWriter.messageTypeBit(it.nextValue());
+            }
+        }
+
+        final List<PositionRange> ranges = new ArrayList<>();
+        long indexedUpTo = 0;
+
+        final MappedByteBuffer mappedByteBuffer = LoggerUtil.mapExistingFile(file);
+        try
+        {
+            final UnsafeBuffer buffer = new UnsafeBuffer(mappedByteBuffer);
+            final int capacity = buffer.capacity();
+            if (capacity >= MessageHeaderDecoder.ENCODED_LENGTH)
+            {
+                final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+                final ScanIndexBlockDecoder block = new ScanIndexBlockDecoder();
+                headerDecoder.wrap(buffer, 0);
+
+                final int blockLength = headerDecoder.blockLength();
+                final int version = headerDecoder.version();
+
+                int offset = MessageHeaderDecoder.ENCODED_LENGTH;
+                // A partially written block at the end of the file is ignored, and so treated as unindexed.
+                while (offset + blockLength + SessionsDecoder.HEADER_SIZE <= capacity)
+                {
+                    block.wrap(buffer, offset, blockLength, version);
+                    final long startPosition = block.startPosition();
+                    final long endPosition = block.endPosition();
+                    final boolean messageTypeMatches = messageTypes == null ||
+                        (block.messageTypes() & messageTypeBits) != 0;
+
+                    final SessionsDecoder sessions = block.sessions();
+                    final int blockEnd = block.limit() + sessions.count() * SessionsDecoder.sbeBlockLength();
+                    if (blockEnd > capacity)
+                    {
+                        break;
+                    }
+
+                    boolean sessionMatches = sessionIds == null;
+                    while (!sessionMatches && sessions.hasNext())
+                    {
+                        sessionMatches = sessionIds.contains(sessions.next().sessionId());
+                    }
+
+                    if (startPosition > indexedUpTo)
+                    {
+                        PositionRange.add(ranges, indexedUpTo, startPosition);
+                    }
+
+                    if (messageTypeMatches && sessionMatches)
+                    {
+                        PositionRange.add(ranges, startPosition, endPosition);
+                    }
+
+                    indexedUpTo = Math.max(indexedUpTo, endPosition);
+                    offset = blockEnd;
+                }
+            }
+        }
+        finally
+        {
+            IoUtil.unmap(mappedByteBuffer);
+        }
+
+        PositionRange.add(ranges, indexedUpTo, Long.MAX_VALUE);
+        return ranges;
+    }
+}
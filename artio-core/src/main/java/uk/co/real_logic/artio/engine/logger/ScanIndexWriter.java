@@ -0,0 +1,289 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.ErrorHandler;
+import org.agrona.collections.Hashing;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+import uk.co.real_logic.artio.storage.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.storage.messages.ScanIndexBlockEncoder;
+import uk.co.real_logic.artio.storage.messages.ScanIndexBlockEncoder.SessionsEncoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Writes the scan index that lets a {@link FixArchiveScanner} skip the parts of a recording that can't match a query
+ * by session or message type. The FIX messages of each recording are split into blocks of roughly
+ * <code>blockSizeInBytes</code> and each block records its position range, the session ids of its messages and a
+ * bitmap of their message types.
+ *
+ * File consists of:
+ *
+ * MessageHeader
+ * Multiple ScanIndexBlock entries in position order
+ *
+ * Blocks are only written once they're full, or on close, so the part of a recording after its last block, or any
+ * gap between blocks, isn't indexed and always needs to be scanned.
+ */
+class ScanIndexWriter implements AutoCloseable
+{
+    static final String FILE_NAME = "scan-index-";
+
+    private static final int MAX_SESSIONS_PER_BLOCK = SessionsEncoder.countMaxValue();
+    private static final int BUFFER_SIZE = MessageHeaderEncoder.ENCODED_LENGTH + ScanIndexBlockEncoder.BLOCK_LENGTH +
+        SessionsEncoder.HEADER_SIZE + MAX_SESSIONS_PER_BLOCK * SessionsEncoder.sbeBlockLength();
+    private static final long NO_POSITION = -1;
+
+    static File fileLocation(final String logFileDir, final int streamId, final long recordingId)
+    {
+        return new File(logFileDir + File.separator + FILE_NAME + streamId + "-" + recordingId);
+    }
+
+    static long messageTypeBit(final long messageType)
+    {
+        return 1L << Hashing.hash(messageType, Long.SIZE - 1);
+    }
+
+    private final ScanIndexBlockEncoder blockEncoder = new ScanIndexBlockEncoder();
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[BUFFER_SIZE]);
+
+    private final Long2ObjectHashMap<RecordingWriter> recordingIdToWriter = new Long2ObjectHashMap<>();
+    private final String logFileDir;
+    private final int streamId;
+    private final int blockSizeInBytes;
+    private final ErrorHandler errorHandler;
+
+    ScanIndexWriter(
+        final String logFileDir,
+        final int streamId,
+        final int blockSizeInBytes,
+        final ErrorHandler errorHandler)
+    {
+        this.logFileDir = logFileDir;
+        this.streamId = streamId;
+        this.blockSizeInBytes = blockSizeInBytes;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Add a FIX message, or the first fragment of one, to the current block of its recording.
+     *
+     * @param recordingId the recording that the message is in.
+     * @param beginPosition the position of the start of the message's first frame.
+     * @param endPosition the position of the end of the message's frame.
+     * @param sessionId the surrogate session id of the message.
+     * @param messageType the packed message type of the message.
+     * @param complete false if further fragments of the message follow, true otherwise.
+     */
+    public void onMessage(
+        final long recordingId,
+        final long beginPosition,
+        final long endPosition,
+        final long sessionId,
+        final long messageType,
+        final boolean complete)
+    {
+        RecordingWriter writer = recordingIdToWriter.get(recordingId);
+        if (writer == null)
+        {
+            writer = new RecordingWriter(recordingId);
+            recordingIdToWriter.put(recordingId, writer);
+        }
+        writer.onMessage(beginPosition, endPosition, sessionId, messageType, complete);
+    }
+
+    /**
+     * Extend the current block of a recording over a further fragment of a FIX message.
+     *
+     * @param recordingId the recording that the fragment is in.
+     * @param endPosition the position of the end of the fragment's frame.
+     * @param complete true if this was the last fragment of the message, false otherwise.
+     */
+    public void onContinuedFragment(final long recordingId, final long endPosition, final boolean complete)
+    {
+        final RecordingWriter writer = recordingIdToWriter.get(recordingId);
+        if (writer != null)
+        {
+            writer.onContinuedFragment(endPosition, complete);
+        }
+    }
+
+    public void close()
+    {
+        recordingIdToWriter.values().forEach(RecordingWriter::close);
+        recordingIdToWriter.clear();
+    }
+
+    class RecordingWriter
+    {
+        private final LongHashSet sessionIds = new LongHashSet();
+        private final RandomAccessFile file;
+
+        private long blockStartPosition = NO_POSITION;
+        private long blockEndPosition;
+        private long messageTypes;
+        private boolean inMessage;
+
+        RecordingWriter(final long recordingId)
+        {
+            final File file = fileLocation(logFileDir, streamId, recordingId);
+            if (file.exists())
+            {
+                this.file = loadFile(file);
+            }
+            else
+            {
+                this.file = createFile(file);
+            }
+        }
+
+        private RandomAccessFile loadFile(final File file)
+        {
+            try
+            {
+                final RandomAccessFile raf = new RandomAccessFile(file, "rwd");
+                raf.seek(raf.length());
+                return raf;
+            }
+            catch (final IOException e)
+            {
+                errorHandler.onError(e);
+                return null;
+            }
+        }
+
+        private RandomAccessFile createFile(final File file)
+        {
+            try
+            {
+                final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+                blockEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+
+                final RandomAccessFile raf = new RandomAccessFile(file, "rwd");
+                raf.write(buffer.byteArray(), 0, MessageHeaderEncoder.ENCODED_LENGTH);
+                return raf;
+            }
+            catch (final IOException e)
+            {
+                errorHandler.onError(e);
+                return null;
+            }
+        }
+
+        void onMessage(
+            final long beginPosition,
+            final long endPosition,
+            final long sessionId,
+            final long messageType,
+            final boolean complete)
+        {
+            if (blockStartPosition == NO_POSITION)
+            {
+                blockStartPosition = beginPosition;
+            }
+            else if (sessionIds.size() == MAX_SESSIONS_PER_BLOCK && !sessionIds.contains(sessionId))
+            {
+                writeBlock();
+            }
+
+            sessionIds.add(sessionId);
+            messageTypes |= messageTypeBit(messageType);
+            blockEndPosition = endPosition;
+            inMessage = !complete;
+            checkBlockFull();
+        }
+
+        void onContinuedFragment(final long endPosition, final boolean complete)
+        {
+            if (inMessage)
+            {
+                blockEndPosition = endPosition;
+                inMessage = !complete;
+                checkBlockFull();
+            }
+        }
+
+        // Blocks never end part way through a fragmented message so that they can be scanned on their own.
+        private void checkBlockFull()
+        {
+            if (!inMessage && blockEndPosition - blockStartPosition >= blockSizeInBytes)
+            {
+                writeBlock();
+            }
+        }
+
+        private void writeBlock()
+        {
+            try
+            {
+                final RandomAccessFile file = this.file;
+                if (file != null)
+                {
+                    final ScanIndexBlockEncoder blockEncoder = ScanIndexWriter.this.blockEncoder;
+                    blockEncoder
+                        .wrap(buffer, 0)
+                        .startPosition(blockStartPosition)
+                        .endPosition(blockEndPosition)
+                        .messageTypes(messageTypes);
+
+                    final SessionsEncoder sessions = blockEncoder.sessionsCount(sessionIds.size());
+                    final LongHashSet.LongIterator it = sessionIds.iterator();
+                    while (it.hasNext())
+                    {
+                        sessions.next().sessionId(it.nextValue());
+                    }
+
+                    file.write(buffer.byteArray(), 0, blockEncoder.encodedLength());
+                }
+            }
+            catch (final IOException e)
+            {
+                errorHandler.onError(e);
+            }
+
+            // Subsequent blocks start where this one ended, so that any other messages in between are covered.
+            blockStartPosition = blockEndPosition;
+            sessionIds.clear();
+            messageTypes = 0;
+        }
+
+        void close()
+        {
+            if (!sessionIds.isEmpty())
+            {
+                writeBlock();
+            }
+
+            if (file != null)
+            {
+                try
+                {
+                    file.getFD().sync();
+                }
+                catch (final IOException e)
+                {
+                    errorHandler.onError(e);
+                }
+                Exceptions.closeAll(file);
+            }
+        }
+    }
+}
@@ -34,13 +34,17 @@ import static uk.co.real_logic.artio.engine.SectorFramer.nextSectorStart;
  * off-heap in a single-writer threadsafe manner.
  * <p>
  * Message Header
+ * Generation, incremented whenever the records are reset or reloaded so that readers know to re-index them
  * Series of LastKnownSequenceNumber records
  * ...
  * Positions Table
  */
 final class SequenceNumberIndexDescriptor
 {
-    static final int HEADER_SIZE = MessageHeaderDecoder.ENCODED_LENGTH;
+    // Files written before this version of the storage schema have no generation, so their records start earlier
+    static final int GENERATION_SINCE_VERSION = 13;
+    static final int GENERATION_OFFSET = MessageHeaderDecoder.ENCODED_LENGTH;
+    static final int HEADER_SIZE = GENERATION_OFFSET + SIZE_OF_LONG;
     static final int RECORD_SIZE = LastKnownSequenceNumberDecoder.BLOCK_LENGTH;
 
     static final int NO_META_DATA = -1;
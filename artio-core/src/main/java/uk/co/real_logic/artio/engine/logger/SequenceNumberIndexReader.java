@@ -19,6 +19,7 @@ import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.LangUtil;
+import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.AtomicBuffer;
 import uk.co.real_logic.artio.engine.SectorFramer;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
@@ -41,9 +42,16 @@ import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEnc
 
 /**
  * Designed to used on a single thread
+ * <p>
+ * Lookups go through an index of session id to record offset, records are only ever appended by the writer, so the
+ * index is maintained incrementally by scanning from where the previous scan stopped. The writer increments the
+ * generation in the file header when it resets or reloads the records, which is the only time that the index needs to
+ * be rebuilt.
  */
 public class SequenceNumberIndexReader implements AutoCloseable
 {
+    private static final int MISSING_RECORD = -1;
+
     private final MessageHeaderDecoder fileHeaderDecoder = new MessageHeaderDecoder();
     private final LastKnownSequenceNumberDecoder lastKnownDecoder = new LastKnownSequenceNumberDecoder();
     private final AtomicBuffer inMemoryBuffer;
@@ -52,6 +60,10 @@ public class SequenceNumberIndexReader implements AutoCloseable
     private final ErrorHandler errorHandler;
     private final RecordingIdLookup recordingIdLookup;
     private final RandomAccessFile metaDataFile;
+    private final boolean validLayout;
+    private final Long2LongHashMap recordOffsets = new Long2LongHashMap(MISSING_RECORD);
+    private int scannedUpTo = HEADER_SIZE;
+    private long indexedGeneration;
 
     public SequenceNumberIndexReader(
         final AtomicBuffer inMemoryBuffer,
@@ -64,9 +76,10 @@ public class SequenceNumberIndexReader implements AutoCloseable
         this.recordingIdLookup = recordingIdLookup;
         final int positionTableOffset = positionTableOffset(inMemoryBuffer.capacity());
         sectorFramer = new SectorFramer(positionTableOffset);
-        validateBuffer();
+        validLayout = validateBuffer();
         positions = new IndexedPositionReader(positionsBuffer(inMemoryBuffer, positionTableOffset));
         metaDataFile = openMetaDataFile(metaDataDir);
+        indexedGeneration = inMemoryBuffer.getLongVolatile(GENERATION_OFFSET);
     }
 
     private RandomAccessFile openMetaDataFile(final String metaDataDir)
@@ -89,21 +102,81 @@ public class SequenceNumberIndexReader implements AutoCloseable
 
     public int lastKnownSequenceNumber(final long sessionId)
     {
-        int position = SequenceNumberIndexDescriptor.HEADER_SIZE;
+        // The records of a file written by an older version aren't at the offsets this reader expects
+        if (!validLayout)
+        {
+            return UNK_SESSION;
+        }
+
+        final int recordOffset = recordOffset(sessionId);
+        if (recordOffset == OUT_OF_SPACE)
+        {
+            return UNK_SESSION;
+        }
+
+        lastKnownDecoder.wrap(inMemoryBuffer, recordOffset, BLOCK_LENGTH, SCHEMA_VERSION);
+        return lastKnownDecoder.sequenceNumber();
+    }
+
+    private int recordOffset(final long sessionId)
+    {
+        final long generation = inMemoryBuffer.getLongVolatile(GENERATION_OFFSET);
+        if (generation != indexedGeneration)
+        {
+            resetIndex();
+            indexedGeneration = generation;
+        }
+
+        final int indexedOffset = (int)recordOffsets.get(sessionId);
+        if (indexedOffset != MISSING_RECORD)
+        {
+            lastKnownDecoder.wrap(inMemoryBuffer, indexedOffset, BLOCK_LENGTH, SCHEMA_VERSION);
+            if (lastKnownDecoder.sessionId() == sessionId)
+            {
+                return indexedOffset;
+            }
+
+            // The writer reset the records after the generation was read
+            resetIndex();
+        }
+
+        return scanForRecord(sessionId);
+    }
+
+    private void resetIndex()
+    {
+        recordOffsets.clear();
+        scannedUpTo = HEADER_SIZE;
+    }
+
+    // Indexes records from where the last scan stopped, up until the record for sessionId or the end of the records
+    private int scanForRecord(final long sessionId)
+    {
+        final LastKnownSequenceNumberDecoder lastKnownDecoder = this.lastKnownDecoder;
+        final AtomicBuffer inMemoryBuffer = this.inMemoryBuffer;
+
+        int position = scannedUpTo;
         while (true)
         {
             position = sectorFramer.claim(position, RECORD_SIZE);
             if (position == OUT_OF_SPACE)
             {
-                return UNK_SESSION;
+                return OUT_OF_SPACE;
             }
 
             lastKnownDecoder.wrap(inMemoryBuffer, position, BLOCK_LENGTH, SCHEMA_VERSION);
+            final long recordSessionId = lastKnownDecoder.sessionId();
+            if (recordSessionId == 0)
+            {
+                return OUT_OF_SPACE;
+            }
 
-            if (lastKnownDecoder.sessionId() == sessionId)
+            recordOffsets.put(recordSessionId, position);
+            scannedUpTo = position + RECORD_SIZE;
+
+            if (recordSessionId == sessionId)
             {
-                final int sequenceNumber = lastKnownDecoder.sequenceNumber();
-                return sequenceNumber;
+                return position;
             }
 
             position += RECORD_SIZE;
@@ -125,12 +198,13 @@ public class SequenceNumberIndexReader implements AutoCloseable
         return positions.indexedPosition(recordingId);
     }
 
-    private void validateBuffer()
+    private boolean validateBuffer()
     {
-        LoggerUtil.validateBuffer(
+        return LoggerUtil.validateBuffer(
             inMemoryBuffer,
             fileHeaderDecoder,
             LastKnownSequenceNumberEncoder.SCHEMA_ID,
+            GENERATION_SINCE_VERSION,
             errorHandler);
     }
 
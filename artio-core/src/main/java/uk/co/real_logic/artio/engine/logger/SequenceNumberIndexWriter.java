@@ -22,6 +22,7 @@ import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.LangUtil;
 import org.agrona.collections.CollectionUtil;
+import org.agrona.collections.IntArrayList;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.AtomicBuffer;
@@ -59,6 +60,13 @@ import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEnc
 /**
  * Writes updates into an in-memory buffer. This buffer is then flushed down to disk. A passing place
  * file is used to ensure that there's a recoverable option if it fails.
+ * <p>
+ * When incremental flushing is enabled only the sectors that have changed since the last flush are written, in place.
+ * Rather than being flipped, the writable file is kept as a mirror of the index file: dirty sectors are written and
+ * forced to it before the index file. Each sector carries its own checksum and records never span sectors, so a
+ * sector of the index file torn by a crash is detected on startup and recovered from the mirror. The positions table
+ * is only written after the records have been forced to disk so that a crash results in re-indexing rather than
+ * lost updates.
  */
 public class SequenceNumberIndexWriter implements Index
 {
@@ -85,6 +93,8 @@ public class SequenceNumberIndexWriter implements Index
     private final LastKnownSequenceNumberEncoder lastKnownEncoder = new LastKnownSequenceNumberEncoder();
     private final LastKnownSequenceNumberDecoder lastKnownDecoder = new LastKnownSequenceNumberDecoder();
     private final Long2LongHashMap recordOffsets = new Long2LongHashMap(MISSING_RECORD);
+    private final IntArrayList dirtySectors = new IntArrayList();
+    private final boolean[] dirtySectorFlags;
 
     // Meta data state
     private final File metaDataLocation;
@@ -116,6 +126,7 @@ public class SequenceNumberIndexWriter implements Index
     private final EpochClock clock;
     private final SessionOwnershipTracker sessionOwnershipTracker;
     private final long indexFileStateFlushTimeoutInMs;
+    private final boolean incrementalFlush;
     private long lastUpdatedFileTimeInMs;
     private boolean hasSavedRecordSinceFileUpdate = false;
 
@@ -133,6 +144,39 @@ public class SequenceNumberIndexWriter implements Index
         final FixPProtocolType fixPProtocolType,
         final boolean indexChecksumEnabled,
         final boolean logMessages)
+    {
+        this(
+            sequenceNumberExtractor,
+            inMemoryBuffer,
+            indexFile,
+            errorHandler,
+            streamId,
+            recordingIdLookup,
+            indexFileStateFlushTimeoutInMs,
+            clock,
+            metaDataDir,
+            connectionIdToFixPSessionId,
+            fixPProtocolType,
+            indexChecksumEnabled,
+            logMessages,
+            false);
+    }
+
+    public SequenceNumberIndexWriter(
+        final SequenceNumberExtractor sequenceNumberExtractor,
+        final AtomicBuffer inMemoryBuffer,
+        final MappedFile indexFile,
+        final ErrorHandler errorHandler,
+        final int streamId,
+        final RecordingIdLookup recordingIdLookup,
+        final long indexFileStateFlushTimeoutInMs,
+        final EpochClock clock,
+        final String metaDataDir,
+        final Long2LongHashMap connectionIdToFixPSessionId,
+        final FixPProtocolType fixPProtocolType,
+        final boolean indexChecksumEnabled,
+        final boolean logMessages,
+        final boolean incrementalFlush)
     {
         this.sequenceNumberExtractor = sequenceNumberExtractor;
         this.inMemoryBuffer = inMemoryBuffer;
@@ -142,6 +186,7 @@ public class SequenceNumberIndexWriter implements Index
         this.fileCapacity = indexFile.buffer().capacity();
         this.indexFileStateFlushTimeoutInMs = indexFileStateFlushTimeoutInMs;
         this.clock = clock;
+        this.incrementalFlush = incrementalFlush;
 
         this.sessionOwnershipTracker = new SessionOwnershipTracker();
         final String indexFilePath = indexFile.file().getAbsolutePath();
@@ -153,12 +198,21 @@ public class SequenceNumberIndexWriter implements Index
 
         // TODO: Fsync parent directory
         indexedPositionsOffset = positionTableOffset(fileCapacity);
+        dirtySectorFlags = new boolean[indexedPositionsOffset / SECTOR_SIZE];
         checksumFramer = new ChecksumFramer(
             inMemoryBuffer, indexedPositionsOffset, errorHandler, 0, "SequenceNumberIndex",
             indexChecksumEnabled);
         try
         {
+            final long previousGeneration = inMemoryBuffer.getLongVolatile(GENERATION_OFFSET);
             initialiseBuffer();
+            nextGeneration(previousGeneration);
+            if (incrementalFlush)
+            {
+                // The mirror may be stale if the index was last written by a full flush
+                checksumFramer.updateChecksums();
+                saveFile();
+            }
             if (logMessages)
             {
                 positionWriter = new IndexedPositionWriter(
@@ -684,12 +738,23 @@ public class SequenceNumberIndexWriter implements Index
 
     void resetSequenceNumbers()
     {
+        final long previousGeneration = inMemoryBuffer.getLongVolatile(GENERATION_OFFSET);
         inMemoryBuffer.setMemory(0, indexedPositionsOffset, (byte)0);
         initialiseBlankBuffer();
+        nextGeneration(previousGeneration);
         recordOffsets.clear();
+        markAllSectorsDirty();
         resetMetaDataFile();
     }
 
+    // Readers on other threads index record offsets, so tell them that the records have been replaced
+    private void nextGeneration(final long previousGeneration)
+    {
+        final long generation = Math.max(previousGeneration, inMemoryBuffer.getLongVolatile(GENERATION_OFFSET)) + 1;
+        inMemoryBuffer.putLongOrdered(GENERATION_OFFSET, generation);
+        markDirty(GENERATION_OFFSET);
+    }
+
     private void resetMetaDataFile()
     {
         if (metaDataLocation != null)
@@ -724,17 +789,92 @@ public class SequenceNumberIndexWriter implements Index
 
     private void updateFile()
     {
-        checksumFramer.updateChecksums();
-        if (positionWriter != null)
+        if (incrementalFlush)
         {
-            positionWriter.updateChecksums();
+            saveDirtySectors();
+        }
+        else
+        {
+            checksumFramer.updateChecksums();
+            if (positionWriter != null)
+            {
+                positionWriter.updateChecksums();
+            }
+            saveFile();
+            flipFiles();
         }
-        saveFile();
-        flipFiles();
         hasSavedRecordSinceFileUpdate = false;
         lastUpdatedFileTimeInMs = clock.time();
     }
 
+    private void saveDirtySectors()
+    {
+        final AtomicBuffer inMemoryBuffer = this.inMemoryBuffer;
+        final AtomicBuffer fileBuffer = indexFile.buffer();
+        final ChecksumFramer checksumFramer = this.checksumFramer;
+        final IntArrayList dirtySectors = this.dirtySectors;
+        final boolean[] dirtySectorFlags = this.dirtySectorFlags;
+
+        final int size = dirtySectors.size();
+        if (size > 0)
+        {
+            // Make the recovery copy durable before overwriting any sector of the index file
+            final AtomicBuffer mirrorBuffer = writableFile.buffer();
+            for (int i = 0; i < size; i++)
+            {
+                final int sectorStart = dirtySectors.getInt(i) * SECTOR_SIZE;
+                checksumFramer.updateChecksums(sectorStart, sectorStart + SECTOR_SIZE);
+                mirrorBuffer.putBytes(sectorStart, inMemoryBuffer, sectorStart, SECTOR_SIZE);
+            }
+            writableFile.force();
+
+            for (int i = 0; i < size; i++)
+            {
+                final int sector = dirtySectors.getInt(i);
+                final int sectorStart = sector * SECTOR_SIZE;
+                fileBuffer.putBytes(sectorStart, inMemoryBuffer, sectorStart, SECTOR_SIZE);
+                dirtySectorFlags[sector] = false;
+            }
+            dirtySectors.clear();
+
+            indexFile.force();
+        }
+        syncMetaDataFile();
+
+        // Positions are only made durable after the records that they cover.
+        if (positionWriter != null)
+        {
+            final int usedLength = positionWriter.usedLength();
+            positionWriter.updateChecksums(0, usedLength);
+            writableFile.buffer().putBytes(indexedPositionsOffset, inMemoryBuffer, indexedPositionsOffset, usedLength);
+            writableFile.force();
+            fileBuffer.putBytes(indexedPositionsOffset, inMemoryBuffer, indexedPositionsOffset, usedLength);
+            indexFile.force();
+        }
+    }
+
+    private void markDirty(final int recordOffset)
+    {
+        if (incrementalFlush)
+        {
+            final int sector = recordOffset / SECTOR_SIZE;
+            final boolean[] dirtySectorFlags = this.dirtySectorFlags;
+            if (!dirtySectorFlags[sector])
+            {
+                dirtySectorFlags[sector] = true;
+                dirtySectors.addInt(sector);
+            }
+        }
+    }
+
+    private void markAllSectorsDirty()
+    {
+        for (int offset = 0; offset < indexedPositionsOffset; offset += SECTOR_SIZE)
+        {
+            markDirty(offset);
+        }
+    }
+
     private void saveFile()
     {
         writableFile.buffer().putBytes(0, inMemoryBuffer, 0, fileCapacity);
@@ -990,6 +1130,15 @@ public class SequenceNumberIndexWriter implements Index
         if (fileHasBeenInitialized(fileBuffer))
         {
             readFile(fileBuffer);
+            if (!LoggerUtil.validateBuffer(
+                inMemoryBuffer, fileHeaderDecoder, lastKnownEncoder.sbeSchemaId(), GENERATION_SINCE_VERSION,
+                errorHandler))
+            {
+                // The records of an older file are laid out differently, so it's re-indexed from the archive
+                inMemoryBuffer.setMemory(0, fileCapacity, (byte)0);
+                initialiseBlankBuffer();
+                markAllSectorsDirty();
+            }
         }
         else if (Files.exists(passingPlacePath))
         {
@@ -1010,6 +1159,7 @@ public class SequenceNumberIndexWriter implements Index
         else
         {
             initialiseBlankBuffer();
+            markAllSectorsDirty();
         }
     }
 
@@ -1055,9 +1205,43 @@ public class SequenceNumberIndexWriter implements Index
     private void readFile(final AtomicBuffer fileBuffer)
     {
         loadBuffer(fileBuffer);
+        if (incrementalFlush)
+        {
+            recoverTornSectors();
+        }
         checksumFramer.validateCheckSums();
     }
 
+    // A crash part way through an in place write leaves a sector whose checksum doesn't match, the mirror was forced
+    // before the write started so it has a complete copy of the sector.
+    private void recoverTornSectors()
+    {
+        final AtomicBuffer inMemoryBuffer = this.inMemoryBuffer;
+        final AtomicBuffer mirrorBuffer = writableFile.buffer();
+        final ChecksumFramer checksumFramer = this.checksumFramer;
+        for (int sectorStart = 0; sectorStart < indexedPositionsOffset; sectorStart += SECTOR_SIZE)
+        {
+            if (!checksumFramer.hasValidChecksum(sectorStart))
+            {
+                inMemoryBuffer.putBytes(sectorStart, mirrorBuffer, sectorStart, SECTOR_SIZE);
+                markDirty(sectorStart);
+            }
+        }
+
+        final int positionsLength = fileCapacity - indexedPositionsOffset;
+        final ChecksumFramer positionsChecksumFramer = new ChecksumFramer(
+            positionsBuffer(inMemoryBuffer, indexedPositionsOffset), positionsLength, errorHandler,
+            indexedPositionsOffset, "SequenceNumberIndex", true);
+        for (int sectorStart = 0; sectorStart < positionsLength; sectorStart += SECTOR_SIZE)
+        {
+            if (!positionsChecksumFramer.hasValidChecksum(sectorStart))
+            {
+                final int offset = indexedPositionsOffset + sectorStart;
+                inMemoryBuffer.putBytes(offset, mirrorBuffer, offset, SECTOR_SIZE);
+            }
+        }
+    }
+
     private void loadBuffer(final AtomicBuffer fileBuffer)
     {
         inMemoryBuffer.putBytes(0, fileBuffer, 0, fileCapacity);
@@ -1068,6 +1252,7 @@ public class SequenceNumberIndexWriter implements Index
         final long value)
     {
         inMemoryBuffer.putLongOrdered(recordOffset + MESSAGE_POSITION_OFFSET, value);
+        markDirty(recordOffset);
     }
 
     private void putSequenceNumber(
@@ -1075,6 +1260,7 @@ public class SequenceNumberIndexWriter implements Index
         final int value)
     {
         inMemoryBuffer.putIntOrdered(recordOffset + SEQUENCE_NUMBER_OFFSET, value);
+        markDirty(recordOffset);
     }
 
     private int getSequenceNumber(final int recordOffset)
@@ -1092,6 +1278,7 @@ public class SequenceNumberIndexWriter implements Index
         final int value)
     {
         inMemoryBuffer.putIntOrdered(recordOffset + META_DATA_OFFSET, value);
+        markDirty(recordOffset);
     }
 
     private int getMetaData(
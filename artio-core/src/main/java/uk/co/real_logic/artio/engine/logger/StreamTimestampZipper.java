@@ -19,37 +19,22 @@ import io.aeron.FragmentAssembler;
 import io.aeron.logbuffer.FragmentHandler;
 import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
-import org.agrona.ExpandableArrayBuffer;
 import uk.co.real_logic.artio.ArtioLogHeader;
 import uk.co.real_logic.artio.fixp.FixPMessageConsumer;
 import uk.co.real_logic.artio.messages.*;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-
 import static java.lang.Math.min;
 import static uk.co.real_logic.artio.messages.FixMessageDecoder.*;
 
 public class StreamTimestampZipper implements AutoCloseable
 {
-    private static final TimestampComparator TIMESTAMP_COMPARATOR = new TimestampComparator();
-    private static final UnstableReverseTimestampComparator REVERSE_TIMESTAMP_COMPARATOR =
-        new UnstableReverseTimestampComparator();
-    private static final OffsetComparator OFFSET_COMPARATOR = new OffsetComparator();
-
-    private final int maximumBufferSize;
     private final int compactionSize;
     private final StreamPoller[] pollers;
     private final FragmentAssembler fragmentAssembler;
     private final LogEntryHandler logEntryHandler;
-    private final ExpandableArrayBuffer reorderBuffer;
+    private final ReorderBuffer reorderBuffer;
     private final boolean lazilyCompact;
 
-    private final ArrayList<BufferedPosition> positions = new ArrayList<>();
-
-    private int reorderBufferOffset;
-
     public StreamTimestampZipper(
         final FixMessageConsumer fixMessageConsumer,
         final FixPMessageConsumer fixPMessageConsumer,
@@ -58,16 +43,16 @@ public class StreamTimestampZipper implements AutoCloseable
         final boolean lazilyCompact,
         final Poller... pollers)
     {
-        this.maximumBufferSize = maximumBufferSize;
         this.lazilyCompact = lazilyCompact;
         this.compactionSize = compactionSize;
+
+        reorderBuffer = new ReorderBuffer(compactionSize, maximumBufferSize);
         this.pollers = new StreamPoller[pollers.length];
         for (int i = 0; i < pollers.length; i++)
         {
             this.pollers[i] = new StreamPoller(pollers[i]);
         }
 
-        reorderBuffer = new ExpandableArrayBuffer(compactionSize);
         logEntryHandler = new LogEntryHandler(fixMessageConsumer, fixPMessageConsumer);
         fragmentAssembler = new FragmentAssembler(logEntryHandler);
     }
@@ -86,145 +71,114 @@ public class StreamTimestampZipper implements AutoCloseable
             }
         }
 
-        // Lazily compact: only process reorder buffer and compact when you hit the compaction size
+        // Lazily process the reorder buffer: only when it holds more than the compaction size.
         // Can generate a significant speed in batch archive scanning at the expense of greater latency
         // on handing off messages to the handler
-        if (read > 0 && (read <= fragmentLimit) && (!lazilyCompact || reorderBufferOffset > compactionSize))
+        if (read > 0 && (read <= fragmentLimit) && (!lazilyCompact || reorderBuffer.bufferedBytes() > compactionSize))
         {
             read += processReorderBuffer(pollers, fragmentLimit - read);
-
-            compact();
         }
 
         return read;
     }
 
+    // k-way merge of the streams' heaps of buffered messages, handing off messages until the earliest one could
+    // still be preceded by a message from another stream.
     private int processReorderBuffer(final StreamPoller[] pollers, final int fragmentLimit)
     {
-        final ArrayList<BufferedPosition> positions = this.positions;
-
         int read = 0;
-        positions.sort(REVERSE_TIMESTAMP_COMPARATOR);
-
-        final int lastIndex = positions.size() - 1;
-        int i = lastIndex;
-        for (; i >= 0; i--)
+        while (true)
         {
-            final BufferedPosition position = positions.get(i);
-            final long timestamp = position.timestamp;
-            final StreamPoller owner = position.owner;
-            final long timestampLowWaterMark = findMinLowWaterMark(pollers, owner);
-
-            if (timestamp <= timestampLowWaterMark)
+            final StreamPoller owner = earliestBufferedPoller(pollers);
+            if (owner == null)
             {
-                owner.handledTimestamp(timestamp);
-                owner.elementsInBuffer--;
-                logEntryHandler.owner = owner;
-                logEntryHandler.onBufferedMessage(position.offset, position.length);
-                read++;
-
-                updateOwnerTimestamp(positions, i, owner);
-
-                if (read >= fragmentLimit)
-                {
-                    break;
-                }
+                break;
             }
-            else
+
+            final int slot = owner.bufferedMessages.peek();
+            final long timestamp = reorderBuffer.timestamp(slot);
+            if (timestamp > findMinLowWaterMark(pollers, owner))
             {
                 break;
             }
-        }
 
-        i++;
+            owner.handledTimestamp(timestamp);
+            handBufferedMessage(owner);
+            read++;
 
-        for (int j = lastIndex; j >= i; j--)
-        {
-            positions.remove(j);
+            if (read >= fragmentLimit)
+            {
+                break;
+            }
         }
 
         return read;
     }
 
-    private void updateOwnerTimestamp(
-        final ArrayList<BufferedPosition> positions, final int i, final StreamPoller owner)
+    private StreamPoller earliestBufferedPoller(final StreamPoller[] pollers)
     {
-        // Find the next entry with the same owner and set the owner's timestamp to the next
-        // timestamp
-        for (int j = i - 1; j >= 0; j--)
+        final ReorderBuffer reorderBuffer = this.reorderBuffer;
+        StreamPoller earliest = null;
+        int earliestSlot = 0;
+        for (int i = 0; i < pollers.length; i++)
         {
-            final BufferedPosition remainingPosition = positions.get(j);
-            if (remainingPosition.owner == owner)
+            final StreamPoller poller = pollers[i];
+            final ReorderBuffer.Heap bufferedMessages = poller.bufferedMessages;
+            if (!bufferedMessages.isEmpty())
             {
-                // don't go through method here because this might increase the min buffered timestamp.
-                owner.minBufferedTimestamp = remainingPosition.timestamp;
-                return;
+                final int slot = bufferedMessages.peek();
+                if (earliest == null || reorderBuffer.before(slot, earliestSlot))
+                {
+                    earliest = poller;
+                    earliestSlot = slot;
+                }
             }
         }
 
-        owner.nothingBuffered();
+        return earliest;
     }
 
-    private boolean compact()
+    private void handBufferedMessage(final StreamPoller owner)
     {
-        if (reorderBufferOffset > compactionSize)
-        {
-            positions.sort(OFFSET_COMPARATOR);
-            int reorderBufferOffset = 0;
-            for (final BufferedPosition position : positions)
-            {
-                final int offset = position.offset;
-                // No compaction possible
-                if (offset == reorderBufferOffset)
-                {
-                    return false;
-                }
+        final ReorderBuffer reorderBuffer = this.reorderBuffer;
+        final int slot = owner.bufferedMessages.poll();
+        owner.updateMinBufferedTimestamp();
 
-                final int length = position.length;
-                position.offset = reorderBufferOffset;
-                reorderBuffer.putBytes(reorderBufferOffset, reorderBuffer, offset, length);
+        logEntryHandler.owner = owner;
+        logEntryHandler.onBufferedMessage(
+            reorderBuffer.buffer(slot), reorderBuffer.offset(slot), reorderBuffer.length(slot));
 
-                final int newReorderBufferOffset = reorderBufferOffset + length;
-                validateReorderBufferOffset(length, reorderBufferOffset, newReorderBufferOffset);
-                reorderBufferOffset = newReorderBufferOffset;
-            }
-            this.reorderBufferOffset = reorderBufferOffset;
-        }
-
-        return true;
+        reorderBuffer.free(slot);
     }
 
+    /**
+     * Gets the number of bytes of messages currently held in the reorder buffer.
+     *
+     * @return the number of bytes of messages currently held in the reorder buffer.
+     */
     public int bufferPosition()
     {
-        return reorderBufferOffset;
+        return reorderBuffer.bufferedBytes();
     }
 
+    /**
+     * Gets the number of bytes allocated for the reorder buffer.
+     *
+     * @return the number of bytes allocated for the reorder buffer.
+     */
     public int bufferCapacity()
     {
-        return reorderBuffer.capacity();
+        return reorderBuffer.allocatedBytes();
     }
 
     private void dumpBuffer()
     {
-        final LogEntryHandler logEntryHandler = this.logEntryHandler;
-        final List<BufferedPosition> positions = this.positions;
-        final int size = positions.size();
-
-        positions.sort(TIMESTAMP_COMPARATOR);
-
-        for (int i = 0; i < size; i++)
-        {
-            final BufferedPosition position = positions.get(i);
-            logEntryHandler.owner = position.owner;
-            logEntryHandler.onBufferedMessage(position.offset, position.length);
-        }
-
-        positions.clear();
-        for (final StreamPoller poller : pollers)
+        final StreamPoller[] pollers = this.pollers;
+        StreamPoller owner;
+        while ((owner = earliestBufferedPoller(pollers)) != null)
         {
-            poller.elementsInBuffer = 0;
+            handBufferedMessage(owner);
         }
-        reorderBufferOffset = 0;
     }
 
     public void close()
@@ -235,65 +189,8 @@ public class StreamTimestampZipper implements AutoCloseable
         {
             poller.close();
         }
-    }
-
-    static class BufferedPosition
-    {
-        final StreamPoller owner;
-        final long timestamp;
-        int offset;
-        final int length;
-
-        BufferedPosition(final StreamPoller owner, final long timestamp, final int offset, final int length)
-        {
-            this.owner = owner;
-            this.timestamp = timestamp;
-            this.offset = offset;
-            this.length = length;
-        }
-
-        public String toString()
-        {
-            return "BufferedPosition{" +
-                "owner=" + owner.poller.streamId() +
-                ", timestamp=" + timestamp +
-                ", offset=" + offset +
-                ", length=" + length +
-                '}';
-        }
-    }
-
-    static class TimestampComparator implements Comparator<BufferedPosition>
-    {
-        public int compare(final BufferedPosition o1, final BufferedPosition o2)
-        {
-            return Long.compare(o1.timestamp, o2.timestamp);
-        }
-    }
-
-    static class UnstableReverseTimestampComparator implements Comparator<BufferedPosition>
-    {
-        public int compare(final BufferedPosition o1, final BufferedPosition o2)
-        {
-            final int timestampCompare = Long.compare(o2.timestamp, o1.timestamp);
-
-            // When we have two messages with an equal timestamp we don't want to have a stable sort, we want it to
-            // reverse the origin positions, so we then compare based upon the offset of the positions.
-            if (timestampCompare == 0)
-            {
-                return Long.compare(o2.offset, o1.offset);
-            }
-
-            return timestampCompare;
-        }
-    }
 
-    static class OffsetComparator implements Comparator<BufferedPosition>
-    {
-        public int compare(final BufferedPosition o1, final BufferedPosition o2)
-        {
-            return Long.compare(o1.offset, o2.offset);
-        }
+        reorderBuffer.close();
     }
 
     class StreamPoller
@@ -304,8 +201,8 @@ public class StreamTimestampZipper implements AutoCloseable
         private final Poller poller;
         private long minBufferedTimestamp = NOTHING_BUFFERED;
         private long maxHandledTimestamp;
+        private final ReorderBuffer.Heap bufferedMessages = new ReorderBuffer.Heap(reorderBuffer);
         private boolean isDrained = false;
-        private int elementsInBuffer = 0;
 
         StreamPoller(final Poller poller)
         {
@@ -332,21 +229,18 @@ public class StreamTimestampZipper implements AutoCloseable
             maxHandledTimestamp = Math.max(maxHandledTimestamp, timestamp);
         }
 
-        void bufferedTimestamp(final long timestamp)
+        void buffered(final int slot)
         {
-            if (minBufferedTimestamp == NOTHING_BUFFERED)
-            {
-                minBufferedTimestamp = timestamp;
-            }
-            else
-            {
-                minBufferedTimestamp = min(minBufferedTimestamp, timestamp);
-            }
+            bufferedMessages.add(slot);
+            updateMinBufferedTimestamp();
         }
 
-        public void nothingBuffered()
+        // Set from the heap rather than taking a min, as handing off a message can increase the min buffered timestamp.
+        void updateMinBufferedTimestamp()
         {
-            minBufferedTimestamp = NOTHING_BUFFERED;
+            final ReorderBuffer.Heap bufferedMessages = this.bufferedMessages;
+            minBufferedTimestamp = bufferedMessages.isEmpty() ?
+                NOTHING_BUFFERED : reorderBuffer.timestamp(bufferedMessages.peek());
         }
 
         public String toString()
@@ -375,7 +269,7 @@ public class StreamTimestampZipper implements AutoCloseable
                 return false;
             }
 
-            if (elementsInBuffer > 0)
+            if (!bufferedMessages.isEmpty())
             {
                 return false;
             }
@@ -552,20 +446,15 @@ public class StreamTimestampZipper implements AutoCloseable
         private void putBufferedMessage(
             final DirectBuffer buffer, final int start, final int length, final long timestamp)
         {
-            if (reorderBufferOffset + length > maximumBufferSize)
+            final ReorderBuffer reorderBuffer = StreamTimestampZipper.this.reorderBuffer;
+            if (!reorderBuffer.hasSpaceFor(length))
             {
+                final StreamPoller owner = this.owner;
                 dumpBuffer();
+                this.owner = owner;
             }
 
-            final int reorderBufferOffset = StreamTimestampZipper.this.reorderBufferOffset;
-            owner.bufferedTimestamp(timestamp);
-            owner.elementsInBuffer++;
-            reorderBuffer.putBytes(reorderBufferOffset, buffer, start, length);
-            positions.add(new BufferedPosition(owner, timestamp, reorderBufferOffset, length));
-
-            final int newReorderBufferOffset = reorderBufferOffset + length;
-            StreamTimestampZipper.this.reorderBufferOffset = newReorderBufferOffset;
-            validateReorderBufferOffset(length, reorderBufferOffset, newReorderBufferOffset);
+            owner.buffered(reorderBuffer.put(buffer, start, length, timestamp));
         }
 
         void reset(final long minOtherTimestamp, final StreamPoller owner)
@@ -574,11 +463,10 @@ public class StreamTimestampZipper implements AutoCloseable
             this.owner = owner;
         }
 
-        public void onBufferedMessage(final int start, final int length)
+        public void onBufferedMessage(final DirectBuffer buffer, final int start, final int length)
         {
             int offset = start;
 
-            final ExpandableArrayBuffer buffer = StreamTimestampZipper.this.reorderBuffer;
             final MessageHeaderDecoder messageHeader = this.messageHeader;
             messageHeader.wrap(buffer, offset);
             final int templateId = messageHeader.templateId();
@@ -638,16 +526,6 @@ public class StreamTimestampZipper implements AutoCloseable
         }
     }
 
-    private static void validateReorderBufferOffset(
-        final int length, final int reorderBufferOffset, final int newReorderBufferOffset)
-    {
-        if (newReorderBufferOffset < 0)
-        {
-            throw new IllegalStateException("Detected negative newReorderBufferOffset: " +
-                newReorderBufferOffset + ", reorderBufferOffset=" + reorderBufferOffset + ", length=" + length);
-        }
-    }
-
     public interface Poller
     {
         int poll(FragmentAssembler fragmentAssembler, int fragmentLimit);
@@ -28,8 +28,7 @@ import static uk.co.real_logic.artio.engine.logger.TimeIndexWriter.FILE_NAME;
 
 class TimeIndexReader
 {
-    private static final int SCAN_START = 0;
-    private static final int SCAN_END = 1;
+    private static final int RECORD_LENGTH = TimeIndexRecordDecoder.BLOCK_LENGTH;
 
     private final String logFileDir;
     private final int streamid;
@@ -78,54 +77,32 @@ class TimeIndexReader
 
             final int blockLength = headerDecoder.blockLength();
             final int version = headerDecoder.version();
+            final int recordCount = (buffer.capacity() - MessageHeaderDecoder.ENCODED_LENGTH) / RECORD_LENGTH;
 
-            int offset = MessageHeaderDecoder.ENCODED_LENGTH;
-            final int capacity = buffer.capacity();
+            // timeIndexRecord.position() is the endPosition of the record. Records are written in timestamp order,
+            // so the range can be found with a binary search rather than a walk over every record.
 
             long startPosition = 0;
-            long endPosition = Long.MAX_VALUE;
-
-            int state = beginTimestampInclusive == IndexQuery.NO_BEGIN ? SCAN_END : SCAN_START;
-
-            loop: while ((offset + TimeIndexRecordDecoder.BLOCK_LENGTH) <= capacity)
+            int startIndex = 0;
+            if (beginTimestampInclusive != IndexQuery.NO_BEGIN)
             {
-                timeIndexRecord.wrap(buffer, offset, blockLength, version);
-
-                final long timestampInNs = timeIndexRecord.timestamp();
-
-                // timeIndexRecord.position() is the endPosition of the record
-
-                switch (state)
+                startIndex = firstRecordAtOrAfter(
+                    buffer, timeIndexRecord, blockLength, version, 0, recordCount, beginTimestampInclusive);
+                if (startIndex > 0)
                 {
-                    case SCAN_START:
-                    {
-                        if (timestampInNs >= beginTimestampInclusive)
-                        {
-                            state = SCAN_END;
-                            // Deliberate fall through
-                        }
-                        else
-                        {
-                            startPosition = timeIndexRecord.position();
-                            break;
-                        }
-                    }
-
-                    /* fall-thru */
-                    case SCAN_END:
-                    default:
-                    {
-                        if (timestampInNs >= endTimestampExclusive)
-                        {
-                            endPosition = timeIndexRecord.position();
-                            break loop;
-                        }
-
-                        break;
-                    }
+                    startPosition = wrap(buffer, timeIndexRecord, blockLength, version, startIndex - 1).position();
                 }
+            }
 
-                offset += TimeIndexRecordDecoder.BLOCK_LENGTH;
+            long endPosition = Long.MAX_VALUE;
+            if (endTimestampExclusive != IndexQuery.NO_END)
+            {
+                final int endIndex = firstRecordAtOrAfter(
+                    buffer, timeIndexRecord, blockLength, version, startIndex, recordCount, endTimestampExclusive);
+                if (endIndex < recordCount)
+                {
+                    endPosition = wrap(buffer, timeIndexRecord, blockLength, version, endIndex).position();
+                }
             }
 
             return new PositionRange(startPosition, endPosition);
@@ -135,4 +112,44 @@ class TimeIndexReader
             IoUtil.unmap(mappedByteBuffer);
         }
     }
+
+    // Returns the index of the first record, within [fromIndex, toIndex), whose timestamp is >= timestamp or toIndex
+    // if there isn't one.
+    private static int firstRecordAtOrAfter(
+        final UnsafeBuffer buffer,
+        final TimeIndexRecordDecoder timeIndexRecord,
+        final int blockLength,
+        final int version,
+        final int fromIndex,
+        final int toIndex,
+        final long timestamp)
+    {
+        int low = fromIndex;
+        int high = toIndex;
+        while (low < high)
+        {
+            final int middle = (low + high) >>> 1;
+            if (wrap(buffer, timeIndexRecord, blockLength, version, middle).timestamp() < timestamp)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private static TimeIndexRecordDecoder wrap(
+        final UnsafeBuffer buffer,
+        final TimeIndexRecordDecoder timeIndexRecord,
+        final int blockLength,
+        final int version,
+        final int index)
+    {
+        return timeIndexRecord.wrap(
+            buffer, MessageHeaderDecoder.ENCODED_LENGTH + index * RECORD_LENGTH, blockLength, version);
+    }
 }
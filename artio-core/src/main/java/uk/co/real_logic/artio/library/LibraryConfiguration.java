@@ -69,6 +69,11 @@ public final class LibraryConfiguration extends CommonConfiguration
 
     public static final SessionProxyFactory DEFAULT_SESSION_PROXY_FACTORY = DirectSessionProxy::new;
 
+    /**
+     * Property name for whether sessions are polled when their deadlines are due rather than on every duty cycle.
+     */
+    public static final String SESSION_TIMER_WHEEL_PROP = "fix.library.session_timer_wheel";
+
     private int libraryId = ENGINE_LIBRARY_ID;
 
     private SessionAcquireHandler sessionAcquireHandler;
@@ -83,6 +88,7 @@ public final class LibraryConfiguration extends CommonConfiguration
     private FixPConnectionExistsHandler fixPConnectionExistsHandler;
     private FixPConnectionAcquiredHandler fixPConnectionAcquiredHandler;
     private LibraryReproductionConfiguration reproductionConfiguration;
+    private boolean sessionTimerWheelEnabled = getBoolean(SESSION_TIMER_WHEEL_PROP, false);
 
     /**
      * When a new FIX session connects to the gateway you register a callback handler to find
@@ -214,6 +220,27 @@ public final class LibraryConfiguration extends CommonConfiguration
         return sessionProxyFactory;
     }
 
+    /**
+     * Sets whether sessions are polled only when their heartbeat, test request or logout deadlines are due, using a
+     * timer wheel, rather than polling every session on every duty cycle. This reduces the cost of a duty cycle for a
+     * library with many mostly idle sessions. Sessions that are logging on or out are still polled on every duty
+     * cycle. FIXP connections are always polled on every duty cycle.
+     *
+     * @param sessionTimerWheelEnabled true to poll sessions by their deadlines, false to poll them every duty cycle.
+     * @return this
+     * @see #SESSION_TIMER_WHEEL_PROP
+     */
+    public LibraryConfiguration sessionTimerWheelEnabled(final boolean sessionTimerWheelEnabled)
+    {
+        this.sessionTimerWheelEnabled = sessionTimerWheelEnabled;
+        return this;
+    }
+
+    public boolean sessionTimerWheelEnabled()
+    {
+        return sessionTimerWheelEnabled;
+    }
+
     /**
      * {@inheritDoc}
      */
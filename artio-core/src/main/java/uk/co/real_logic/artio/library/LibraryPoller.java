@@ -119,6 +119,8 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
     private InternalSession[] sessions = EMPTY_SESSIONS;
     private InternalSession[] pendingInitiatorSessions = EMPTY_SESSIONS;
+    // null when every session is polled on every duty cycle
+    private final SessionTimerWheel sessionTimerWheel;
     private final List<Session> unmodifiableSessions = new UnmodifiableWrapper<>(() -> sessions);
     private final List<Session> unmodifiablePendingInitiatorSessions =
         new UnmodifiableWrapper<>(() -> pendingInitiatorSessions);
@@ -139,6 +141,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     private final SessionIdStrategy sessionIdStrategy;
     private final Timer sessionTimer;
     private final Timer receiveTimer;
+    private final Timer handlerTimer;
     private final SessionExistsHandler sessionExistsHandler;
     private final boolean enginesAreClustered;
     private final ErrorHandler errorHandler;
@@ -246,6 +249,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
         this.sessionTimer = timers.sessionTimer();
         this.receiveTimer = timers.receiveTimer();
+        this.handlerTimer = timers.handlerTimer();
 
         this.configuration = configuration;
         this.sessionIdStrategy = configuration.sessionIdStrategy();
@@ -258,6 +262,8 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             epochClock, configuration.epochNanoClock(), configuration.sessionEpochFractionFormat());
         this.isReproductionEnabled = configuration.isReproductionEnabled();
         this.reproductionClock = isReproductionEnabled ? configuration.reproductionConfiguration().clock() : null;
+        this.sessionTimerWheel = configuration.sessionTimerWheelEnabled() ?
+            new SessionTimerWheel(epochNanoClock.nanoTime()) : null;
     }
 
     boolean isConnected()
@@ -393,7 +399,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
     void disableSession(final InternalSession session)
     {
-        sessions = ArrayUtil.remove(sessions, session);
+        removeSession(session);
         session.disable();
         cacheSession(session);
     }
@@ -817,15 +823,41 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     //                     END CONNECTION LOGIC
     // -----------------------------------------------------------------------
 
+    private void addSession(final InternalSession session)
+    {
+        sessions = ArrayUtil.add(sessions, session);
+        if (sessionTimerWheel != null)
+        {
+            sessionTimerWheel.add(session);
+        }
+    }
+
+    private void removeSession(final InternalSession session)
+    {
+        sessions = ArrayUtil.remove(sessions, session);
+        if (sessionTimerWheel != null)
+        {
+            sessionTimerWheel.remove(session);
+        }
+    }
+
     private int pollSessions(final long timeInNs)
     {
-        final InternalSession[] sessions = this.sessions;
         int total = 0;
 
-        for (int i = 0, size = sessions.length; i < size; i++)
+        final SessionTimerWheel sessionTimerWheel = this.sessionTimerWheel;
+        if (sessionTimerWheel != null)
         {
-            final InternalSession session = sessions[i];
-            total += session.poll(timeInNs);
+            total += sessionTimerWheel.poll(timeInNs);
+        }
+        else
+        {
+            final InternalSession[] sessions = this.sessions;
+            for (int i = 0, size = sessions.length; i < size; i++)
+            {
+                final InternalSession session = sessions[i];
+                total += session.poll(timeInNs);
+            }
         }
 
         final long timeInMs = System.currentTimeMillis();
@@ -852,7 +884,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             {
                 this.pendingInitiatorSessions = pendingSessions = ArrayUtil.remove(pendingSessions, i);
                 size--;
-                sessions = ArrayUtil.add(sessions, session);
+                addSession(session);
             }
             else
             {
@@ -1220,7 +1252,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         }
         else
         {
-            sessions = ArrayUtil.add(sessions, session);
+            addSession(session);
         }
     }
 
@@ -1290,7 +1322,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
                     if (!isEngineOwned)
                     {
-                        sessions = ArrayUtil.add(sessions, session);
+                        addSession(session);
                     }
                 }
 
@@ -1310,7 +1342,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                 if (isEngineOwned)
                 {
                     session.close();
-                    sessions = ArrayUtil.remove(sessions, session);
+                    removeSession(session);
                     cacheSession(session);
                 }
             }
@@ -1841,6 +1873,10 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                 session.disable();
                 // TODO: Maybe we shouldn't be creating a lot of arrays and batch this up?
                 sessions = ArrayUtil.remove(sessions, i);
+                if (sessionTimerWheel != null)
+                {
+                    sessionTimerWheel.remove(session);
+                }
                 cacheSession(session);
                 size--;
             }
@@ -2211,6 +2247,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             session,
             receiveTimer,
             sessionTimer,
+            handlerTimer,
             this,
             configuration.replyTimeoutInMs(),
             errorHandler);
@@ -43,6 +43,7 @@ class SessionSubscriber implements AutoCloseable, FixSessionOwner
     private final InternalSession session;
     private final Timer receiveTimer;
     private final Timer sessionTimer;
+    private final Timer handlerTimer;
     private final LibraryPoller libraryPoller;
     private final long replyTimeoutInMs;
     private final ErrorHandler errorHandler;
@@ -58,6 +59,7 @@ class SessionSubscriber implements AutoCloseable, FixSessionOwner
         final InternalSession session,
         final Timer receiveTimer,
         final Timer sessionTimer,
+        final Timer handlerTimer,
         final LibraryPoller libraryPoller,
         final long replyTimeoutInMs,
         final ErrorHandler errorHandler)
@@ -67,6 +69,7 @@ class SessionSubscriber implements AutoCloseable, FixSessionOwner
         this.session = session;
         this.receiveTimer = receiveTimer;
         this.sessionTimer = sessionTimer;
+        this.handlerTimer = handlerTimer;
         this.libraryPoller = libraryPoller;
         this.replyTimeoutInMs = replyTimeoutInMs;
         this.errorHandler = errorHandler;
@@ -131,6 +134,7 @@ class SessionSubscriber implements AutoCloseable, FixSessionOwner
 
                         lastReceivedPosition = position;
 
+                        handlerTimer.recordSince(now);
                         final Action handlerAction = handler.onMessage(
                             buffer,
                             offset,
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.DeadlineTimerWheel;
+import org.agrona.collections.Long2ObjectHashMap;
+import uk.co.real_logic.artio.session.InternalSession;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static uk.co.real_logic.artio.session.InternalSession.NO_POLL_DEADLINE;
+import static uk.co.real_logic.artio.session.InternalSession.NO_POLL_TIMER;
+
+/**
+ * Polls sessions when their next heartbeat, test request or logout deadline is due rather than on every duty cycle.
+ *
+ * Sessions that are part way through a state transition are polled on every duty cycle until they only have
+ * deadlines left. Deadlines only move later when messages are sent or received, so a timer that expires early just
+ * results in the session being polled and its timer rescheduled. Anything that could move a deadline earlier, such as
+ * a state change, notifies the wheel through the session's poll required handler.
+ *
+ * Used by both the library and the engine for the sessions that they manage.
+ */
+public class SessionTimerWheel implements DeadlineTimerWheel.TimerHandler
+{
+    // Power of two that's close to a millisecond
+    private static final long TICK_RESOLUTION_IN_NS = 1L << 20;
+    private static final int TICKS_PER_WHEEL = 1024;
+
+    private final Long2ObjectHashMap<InternalSession> timerIdToSession = new Long2ObjectHashMap<>();
+    private final Consumer<InternalSession> onPollRequiredFunc = this::onPollRequired;
+    private final DeadlineTimerWheel timerWheel;
+
+    // Swapped when polling so that sessions which require polling whilst being polled are polled on the next cycle
+    private ArrayList<InternalSession> dueSessions = new ArrayList<>();
+    private ArrayList<InternalSession> pollingSessions = new ArrayList<>();
+
+    public SessionTimerWheel(final long timeInNs)
+    {
+        timerWheel = new DeadlineTimerWheel(NANOSECONDS, timeInNs, TICK_RESOLUTION_IN_NS, TICKS_PER_WHEEL);
+    }
+
+    public void add(final InternalSession session)
+    {
+        session.pollRequiredHandler(onPollRequiredFunc);
+        onPollRequired(session);
+    }
+
+    public void remove(final InternalSession session)
+    {
+        session.pollRequiredHandler(null);
+        cancelTimer(session);
+        if (session.pollRequired())
+        {
+            // Sessions that have already been swapped into pollingSessions are skipped by the flag
+            session.pollRequired(false);
+            dueSessions.remove(session);
+        }
+    }
+
+    public int poll(final long timeInNs)
+    {
+        final DeadlineTimerWheel timerWheel = this.timerWheel;
+        do
+        {
+            timerWheel.poll(timeInNs, this, Integer.MAX_VALUE);
+        }
+        while (timerWheel.currentTickTime() <= timeInNs);
+
+        final ArrayList<InternalSession> pollingSessions = this.dueSessions;
+        this.dueSessions = this.pollingSessions;
+        this.pollingSessions = pollingSessions;
+
+        int total = 0;
+        for (int i = 0, size = pollingSessions.size(); i < size; i++)
+        {
+            final InternalSession session = pollingSessions.get(i);
+            if (session.pollRequired())
+            {
+                session.pollRequired(false);
+                total += session.poll(timeInNs);
+                schedule(session, timeInNs);
+            }
+        }
+        pollingSessions.clear();
+
+        return total;
+    }
+
+    public boolean onTimerExpiry(final TimeUnit timeUnit, final long now, final long timerId)
+    {
+        final InternalSession session = timerIdToSession.remove(timerId);
+        if (session != null)
+        {
+            session.pollTimerId(NO_POLL_TIMER);
+            markDue(session);
+        }
+
+        return true;
+    }
+
+    private void schedule(final InternalSession session, final long timeInNs)
+    {
+        // Either removed whilst being polled or already due on the next cycle
+        if (session.pollRequiredHandler() != onPollRequiredFunc || session.pollRequired())
+        {
+            return;
+        }
+
+        final long nextPollTimeInNs = session.nextPollTimeInNs(timeInNs);
+        if (nextPollTimeInNs <= timeInNs)
+        {
+            markDue(session);
+        }
+        else if (nextPollTimeInNs != NO_POLL_DEADLINE)
+        {
+            final long timerId = timerWheel.scheduleTimer(nextPollTimeInNs);
+            timerIdToSession.put(timerId, session);
+            session.pollTimerId(timerId);
+        }
+    }
+
+    private void onPollRequired(final InternalSession session)
+    {
+        cancelTimer(session);
+        markDue(session);
+    }
+
+    private void markDue(final InternalSession session)
+    {
+        if (!session.pollRequired())
+        {
+            session.pollRequired(true);
+            dueSessions.add(session);
+        }
+    }
+
+    private void cancelTimer(final InternalSession session)
+    {
+        final long timerId = session.pollTimerId();
+        if (timerId != NO_POLL_TIMER)
+        {
+            timerWheel.cancelTimer(timerId);
+            timerIdToSession.remove(timerId);
+            session.pollTimerId(NO_POLL_TIMER);
+        }
+    }
+
+    public int timerCount()
+    {
+        return timerIdToSession.size();
+    }
+}
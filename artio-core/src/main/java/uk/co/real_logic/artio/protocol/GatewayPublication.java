@@ -35,6 +35,7 @@ import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.messages.ControlNotificationEncoder.DisconnectedSessionsEncoder;
 import uk.co.real_logic.artio.messages.ControlNotificationEncoder.SessionsEncoder;
 import uk.co.real_logic.artio.util.CharFormatter;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.util.List;
 
@@ -181,9 +182,12 @@ public class GatewayPublication extends ClaimablePublication
     private final InitiateILinkConnectionEncoder initiateILinkConnection = new InitiateILinkConnectionEncoder();
     private final ILinkConnectEncoder iLinkConnect = new ILinkConnectEncoder();
 
+    private final MutableAsciiBuffer claimedBuffer = new MutableAsciiBuffer();
     private final EpochNanoClock clock;
     private final int maxPayloadLength;
 
+    private int claimedMessageOffset;
+
     public GatewayPublication(
         final ExclusivePublication dataPublication,
         final AtomicCounter fails,
@@ -395,6 +399,112 @@ public class GatewayPublication extends ClaimablePublication
         destBuffer.putInt(position, srcLength, LITTLE_ENDIAN);
     }
 
+    /**
+     * Claims a single, unfragmented, FixMessage frame that a message of up to maxMessageLength bytes can be encoded
+     * into in place. On success the message should be encoded into {@link #claimedBuffer()} at around
+     * {@link #claimedMessageOffset()} and then either {@link #commitClaimedMessage} or {@link #abortClaimedMessage()}
+     * must be called.
+     *
+     * @param maxMessageLength the upper bound on the length of the encoded FIX message.
+     * @return the position of the claim or a negative error code.
+     * @see #canClaimMessage(int)
+     */
+    public long claimMessage(final int maxMessageLength)
+    {
+        final long position = claim(FRAMED_MESSAGE_SIZE + maxMessageLength);
+        if (position < 0)
+        {
+            return position;
+        }
+
+        final BufferClaim bufferClaim = this.bufferClaim;
+        claimedBuffer.wrap(bufferClaim.buffer());
+        claimedMessageOffset = bufferClaim.offset() + FRAMED_MESSAGE_SIZE;
+
+        return position;
+    }
+
+    public boolean canClaimMessage(final int maxMessageLength)
+    {
+        return FRAMED_MESSAGE_SIZE + maxMessageLength <= maxPayloadLength;
+    }
+
+    public MutableAsciiBuffer claimedBuffer()
+    {
+        return claimedBuffer;
+    }
+
+    public int claimedMessageOffset()
+    {
+        return claimedMessageOffset;
+    }
+
+    /**
+     * Writes the FixMessage header around a message that has been encoded into the {@link #claimedBuffer()} and
+     * commits the claim. If the message doesn't start exactly at the {@link #claimedMessageOffset()} then it is
+     * moved there first.
+     *
+     * @param messageOffset  the offset within the claimed buffer that the message was encoded at.
+     * @param messageLength  the length of the encoded message.
+     * @param libraryId      the library id of the sender.
+     * @param messageType    the long encoded message type.
+     * @param sessionId      the session id of the sender.
+     * @param sequenceIndex  the sequence index of the session.
+     * @param connectionId   the connection id of the session.
+     * @param status         the status of the message.
+     * @param sequenceNumber the sequence number of the message.
+     */
+    public void commitClaimedMessage(
+        final int messageOffset,
+        final int messageLength,
+        final int libraryId,
+        final long messageType,
+        final long sessionId,
+        final int sequenceIndex,
+        final long connectionId,
+        final MessageStatus status,
+        final int sequenceNumber)
+    {
+        final MutableAsciiBuffer claimedBuffer = this.claimedBuffer;
+        final int claimedMessageOffset = this.claimedMessageOffset;
+        if (messageOffset != claimedMessageOffset)
+        {
+            claimedBuffer.putBytes(claimedMessageOffset, claimedBuffer, messageOffset, messageLength);
+        }
+
+        int offset = bufferClaim.offset();
+        header.wrap(claimedBuffer, offset)
+            .blockLength(fixMessage.sbeBlockLength())
+            .templateId(fixMessage.sbeTemplateId())
+            .schemaId(fixMessage.sbeSchemaId())
+            .version(fixMessage.sbeSchemaVersion());
+
+        offset += header.encodedLength();
+
+        fixMessage.wrap(claimedBuffer, offset)
+            .libraryId(libraryId)
+            .messageType(messageType)
+            .session(sessionId)
+            .sequenceIndex(sequenceIndex)
+            .connection(connectionId)
+            .timestamp(clock.nanoTime())
+            .status(status)
+            .sequenceNumber(sequenceNumber)
+            .metaDataUpdateOffset(0)
+            .putMetaData(NO_METADATA, 0, 0);
+        putBodyLength(messageLength, offset, 0, claimedBuffer);
+
+        DebugLogger.logFixMessage(
+            FIX_MESSAGE_FLOW, messageType, "Enqueued ", claimedBuffer, claimedMessageOffset, messageLength);
+
+        bufferClaim.commit();
+    }
+
+    public void abortClaimedMessage()
+    {
+        bufferClaim.abort();
+    }
+
     public long saveManageSession(
         final int libraryId,
         final long connection,
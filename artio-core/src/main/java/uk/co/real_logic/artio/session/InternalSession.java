@@ -32,6 +32,7 @@ import uk.co.real_logic.artio.util.EpochFractionClock;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.lang.ref.WeakReference;
+import java.util.function.Consumer;
 
 /**
  * Exposes Session methods to internal APIs that we don't want to expose to the outside world
@@ -45,6 +46,13 @@ public class InternalSession extends Session implements AutoCloseable
     public static final int INITIAL_END_OF_RESEND_REQUEST_RANGE = 0;
     public static final boolean INITIAL_AWAITING_HEARTBEAT = false;
 
+    public static final long NO_POLL_DEADLINE = Long.MAX_VALUE;
+    public static final long NO_POLL_TIMER = Long.MIN_VALUE;
+
+    private Consumer<InternalSession> pollRequiredHandler;
+    private long pollTimerId = NO_POLL_TIMER;
+    private boolean pollRequired;
+
     public static class Formatters
     {
         final CharFormatter replayComplete = new CharFormatter(
@@ -392,4 +400,68 @@ public class InternalSession extends Session implements AutoCloseable
         super.disconnectOnFirstMessageNotLogon(disconnectOnFirstMessageNotLogon);
     }
 
+    public long nextPollTimeInNs(final long timeInNs)
+    {
+        return super.nextPollTimeInNs(timeInNs);
+    }
+
+    /**
+     * Sets a handler that is called when the session needs to be polled before the time returned by
+     * {@link #nextPollTimeInNs(long)}, for example because its state has changed. Only used when sessions are
+     * polled by their deadlines rather than on every duty cycle.
+     *
+     * @param pollRequiredHandler the handler, or null to stop notifying a handler.
+     */
+    public void pollRequiredHandler(final Consumer<InternalSession> pollRequiredHandler)
+    {
+        this.pollRequiredHandler = pollRequiredHandler;
+    }
+
+    public Consumer<InternalSession> pollRequiredHandler()
+    {
+        return pollRequiredHandler;
+    }
+
+    public long pollTimerId()
+    {
+        return pollTimerId;
+    }
+
+    public void pollTimerId(final long pollTimerId)
+    {
+        this.pollTimerId = pollTimerId;
+    }
+
+    public boolean pollRequired()
+    {
+        return pollRequired;
+    }
+
+    public void pollRequired(final boolean pollRequired)
+    {
+        this.pollRequired = pollRequired;
+    }
+
+    protected Session state(final SessionState state)
+    {
+        super.state(state);
+        onPollRequired();
+        return this;
+    }
+
+    void heartbeatIntervalInS(final int heartbeatIntervalInS)
+    {
+        super.heartbeatIntervalInS(heartbeatIntervalInS);
+        onPollRequired();
+    }
+
+    private void onPollRequired()
+    {
+        final Consumer<InternalSession> pollRequiredHandler = this.pollRequiredHandler;
+        if (pollRequiredHandler != null)
+        {
+            pollRequiredHandler.accept(this);
+        }
+    }
+
 }
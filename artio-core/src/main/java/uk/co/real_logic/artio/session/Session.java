@@ -105,6 +105,11 @@ public class Session
     private static final char[] TEST_REQ_ID_CHARS = TEST_REQ_ID.toCharArray();
     private static final int NO_LOGOUT_REJECT_REASON = -1;
 
+    // Generated encoders back-fill the BeginString and BodyLength fields, so an encoded message starts a few bytes
+    // after the offset it was encoded at, the exact gap depends upon the number of digits in the BodyLength.
+    private static final int INITIAL_CLAIMED_MESSAGE_GAP = 7;
+    private static final int CLAIMED_MESSAGE_HEADROOM = 10;
+
     private final UtcTimestampEncoder timestampEncoder;
 
     protected final SessionIdStrategy sessionIdStrategy;
@@ -164,6 +169,7 @@ public class Session
     private int lastMsgSeqNumProcessed;
     private int lastSentMsgSeqNum;
     private int sequenceIndex;
+    private int claimedMessageGap = INITIAL_CLAIMED_MESSAGE_GAP;
     // randomise the start position in order to reduce risk of clashing with another Session instance when you do
     // engine/library hand-over.
     private long nextReplayCorrelationId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
@@ -732,6 +738,75 @@ public class Session
         return trySend(asciiBuffer, offset, length, sentSeqNum, type, metaDataBuffer, metaDataUpdateOffset);
     }
 
+    /**
+     * Tries to send a message on this session by encoding it directly into a claim on the publication to the
+     * FixEngine, rather than encoding it into the session's buffer and then copying it. See
+     * {{@link #trySend(Encoder)}} for scenarios where this could fail.
+     *
+     * The claim is sized using the maxLength parameter, so a tight upper bound keeps the log buffer and archive
+     * compact: any unused bytes remain at the end of the fragment, after the message body. Artio's consumers of the
+     * stream, such as the replayer and archive scanner, read the body using its encoded length so they never see
+     * these bytes. Messages that could be too large to be sent in a single fragment fall back to
+     * {@link #trySend(Encoder)}.
+     *
+     * @param encoder   the encoder of the message to be sent
+     * @param maxLength an upper bound on the length of the encoded message.
+     * @return the position in the stream that corresponds to the end of this message or a negative
+     * number indicating an error status.
+     * @throws IndexOutOfBoundsException if the encoded message is longer than maxLength, the claim is aborted in
+     *                                   this case.
+     * @throws NotConnectedException if the underlying Publication to the FixEngine has been closed or its max position
+     *                               exceeded.
+     */
+    public long tryClaimAndSend(final Encoder encoder, final int maxLength)
+    {
+        final GatewayPublication outboundPublication = this.outboundPublication;
+        final int claimLength = maxLength + CLAIMED_MESSAGE_HEADROOM;
+        if (!outboundPublication.canClaimMessage(claimLength))
+        {
+            return trySend(encoder);
+        }
+
+        // Only used up by lastSentMsgSeqNum() once the message is committed, so a back pressured claim or a failed
+        // encode leaves the next message with the same sequence number.
+        final int sentSeqNum = prepare(encoder.header());
+        final long position = outboundPublication.claimMessage(claimLength);
+        if (position < 0)
+        {
+            return position;
+        }
+
+        final MutableAsciiBuffer claimedBuffer = outboundPublication.claimedBuffer();
+        final int claimedMessageOffset = outboundPublication.claimedMessageOffset();
+        final int offset;
+        final int length;
+        try
+        {
+            final long result = encoder.encode(claimedBuffer, claimedMessageOffset - claimedMessageGap);
+            length = Encoder.length(result);
+            offset = Encoder.offset(result);
+        }
+        catch (final RuntimeException e)
+        {
+            outboundPublication.abortClaimedMessage();
+            throw e;
+        }
+
+        claimedMessageGap += offset - claimedMessageOffset;
+
+        // If someone attempts to send a message during a logon / logout or offline then we should archive the message
+        // but not send it.
+        final long connectionId = this.state == ACTIVE ? this.connectionId : NO_CONNECTION_ID;
+        final long messageType = encoder.messageType();
+        outboundPublication.commitClaimedMessage(
+            offset, length, libraryId, messageType, id(), sequenceIndex(), connectionId, OK, sentSeqNum);
+
+        lastSentMsgSeqNum(sentSeqNum, position);
+        DebugLogger.logFixMessage(FIX_MESSAGE, messageType, "Sent ", claimedBuffer, claimedMessageOffset, length);
+
+        return position;
+    }
+
     /**
      * Tries to send a message on this session. See {{@link #trySend(Encoder)}} for scenarios where this could fail.
      *
@@ -2493,6 +2568,28 @@ public class Session
         }
     }
 
+    // The time at which poll() next has something to do, unless the session's state changes before then
+    long nextPollTimeInNs(final long timeInNs)
+    {
+        switch (state().value())
+        {
+            case ACTIVE_VALUE:
+                return Math.min(nextRequiredHeartbeatTimeInNs, nextRequiredInboundMessageTimeInNs);
+
+            case AWAITING_LOGOUT_VALUE:
+                return awaitingLogoutTimeoutInNs;
+
+            case DISCONNECTED_VALUE:
+            case DISABLED_VALUE:
+            case AWAITING_ASYNC_PROXY_LOGOUT_VALUE:
+                return NO_POLL_DEADLINE;
+
+            // Part way through a state transition, eg: logging on or out
+            default:
+                return timeInNs;
+        }
+    }
+
     private int initiatorPoll()
     {
         int actions = 0;
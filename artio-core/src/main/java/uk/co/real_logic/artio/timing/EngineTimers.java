@@ -23,15 +23,24 @@ import java.util.List;
 
 public class EngineTimers
 {
+    // From the library's trySend to the framer picking the message up
     private final Timer outboundTimer;
+    // From the framer picking the message up to it being written to the TCP channel
     private final Timer sendTimer;
+    private final Timer readToFrameTimer;
+    private final Timer frameToPublicationTimer;
+    private final Timer replayQueryToResendTimer;
     private final List<Timer> timers;
 
     public EngineTimers(final EpochNanoClock clock, final AtomicCounter negativeTimestamps)
     {
         outboundTimer = new Timer(clock, "Outbound", 1, negativeTimestamps);
         sendTimer = new Timer(clock, "Send", 2, negativeTimestamps);
-        timers = Arrays.asList(outboundTimer, sendTimer);
+        readToFrameTimer = new Timer(clock, "TcpReadToFrame", 3, negativeTimestamps);
+        frameToPublicationTimer = new Timer(clock, "FrameToInboundPublication", 4, negativeTimestamps);
+        replayQueryToResendTimer = new Timer(clock, "ReplayQueryToFirstResend", 5, negativeTimestamps);
+        timers = Arrays.asList(
+            outboundTimer, sendTimer, readToFrameTimer, frameToPublicationTimer, replayQueryToResendTimer);
     }
 
     public Timer outboundTimer()
@@ -44,6 +53,21 @@ public class EngineTimers
         return sendTimer;
     }
 
+    public Timer readToFrameTimer()
+    {
+        return readToFrameTimer;
+    }
+
+    public Timer frameToPublicationTimer()
+    {
+        return frameToPublicationTimer;
+    }
+
+    public Timer replayQueryToResendTimer()
+    {
+        return replayQueryToResendTimer;
+    }
+
     public List<Timer> all()
     {
         return timers;
@@ -25,13 +25,16 @@ public class LibraryTimers
 {
     private final Timer sessionTimer;
     private final Timer receiveTimer;
+    // From the library polling the message to the SessionHandler being called
+    private final Timer handlerTimer;
     private final List<Timer> timers;
 
     public LibraryTimers(final EpochNanoClock clock, final AtomicCounter negativeTimestamps)
     {
         sessionTimer = new Timer(clock, "Session", -1, negativeTimestamps);
         receiveTimer = new Timer(clock, "Receive", -2, negativeTimestamps);
-        timers = Arrays.asList(sessionTimer, receiveTimer);
+        handlerTimer = new Timer(clock, "PollToSessionHandler", -3, negativeTimestamps);
+        timers = Arrays.asList(sessionTimer, receiveTimer, handlerTimer);
     }
 
     public Timer sessionTimer()
@@ -44,6 +47,11 @@ public class LibraryTimers
         return receiveTimer;
     }
 
+    public Timer handlerTimer()
+    {
+        return handlerTimer;
+    }
+
     public List<Timer> all()
     {
         return timers;
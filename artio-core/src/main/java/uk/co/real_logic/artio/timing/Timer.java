@@ -35,6 +35,8 @@ public class Timer
     private final String name;
     // Only accessed upon logging thread
     private Histogram histogram;
+    private AtomicCounter p99Counter;
+    private AtomicCounter maxCounter;
 
     public Timer(final EpochNanoClock clock, final String name, final int id, final AtomicCounter negativeTimestamps)
     {
@@ -57,6 +59,43 @@ public class Timer
         return 0;
     }
 
+    /**
+     * Gets the current time in order to time the stages of an operation. Each stage's timer can record the time
+     * between two of these timestamps using {@link #recordBetween(long, long)}.
+     *
+     * @return the current time in nanoseconds, or 0 if timing isn't enabled.
+     */
+    public long now()
+    {
+        if (TIME_MESSAGES)
+        {
+            return clock.nanoTime();
+        }
+
+        return 0;
+    }
+
+    public void recordBetween(final long startTimestamp, final long endTimestamp)
+    {
+        if (TIME_MESSAGES)
+        {
+            recordValue(endTimestamp - startTimestamp);
+        }
+    }
+
+    /**
+     * Sets counters that are updated with the 99th percentile and max of the timings each time that the timings are
+     * logged, so that a summary of the timings can be read from the counters file.
+     *
+     * @param p99Counter the counter to update with the 99th percentile in nanoseconds.
+     * @param maxCounter the counter to update with the max in nanoseconds.
+     */
+    public void summaryCounters(final AtomicCounter p99Counter, final AtomicCounter maxCounter)
+    {
+        this.p99Counter = p99Counter;
+        this.maxCounter = maxCounter;
+    }
+
     void recordValue(final long duration)
     {
         if (duration > 0)
@@ -69,19 +108,28 @@ public class Timer
         }
     }
 
-    int id()
+    public int id()
     {
         return id;
     }
 
-    String name()
+    public String name()
     {
         return name;
     }
 
     Histogram getTimings()
     {
-        histogram = recorder.getIntervalHistogram(histogram);
+        final Histogram histogram = recorder.getIntervalHistogram(this.histogram);
+        this.histogram = histogram;
+
+        final AtomicCounter p99Counter = this.p99Counter;
+        if (p99Counter != null)
+        {
+            p99Counter.setOrdered(histogram.getValueAtPercentile(99));
+            maxCounter.setOrdered(histogram.getMaxValue());
+        }
+
         return histogram;
     }
 }
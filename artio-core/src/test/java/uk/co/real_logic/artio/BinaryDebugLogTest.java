@@ -0,0 +1,139 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.util.CharFormatter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class BinaryDebugLogTest
+{
+    private static final int BUFFER_CAPACITY = 1024;
+
+    private final CharFormatter formatter = new CharFormatter("Received %s from %s: %s");
+    private final UnsafeBuffer message = new UnsafeBuffer("35=A\00149=INIT\001".getBytes(US_ASCII));
+
+    private File file;
+    private BinaryDebugLog log;
+    private BinaryDebugLogger logger;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        file = Files.createTempFile("binary-debug-log", "tmp").toFile();
+        log = new BinaryDebugLog(file, BUFFER_CAPACITY);
+        logger = log.newLogger("test-thread");
+    }
+
+    @After
+    public void tearDown()
+    {
+        if (file != null)
+        {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void shouldRenderFormattedEventsLikeTheCharFormatter()
+    {
+        logger.start(LogTag.FIX_MESSAGE, formatter).with(1).with("acceptor").with(message, 0, 5).commit();
+        log.doWork();
+        logger.start(LogTag.REPLAY, new CharFormatter("Replayed %s")).with(-2L).commit();
+
+        final String[] lines = render();
+
+        assertThat(lines, arrayWithSize(2));
+        assertThat(lines[0], matchesPattern("\\d+:test-thread\\[FIX_MESSAGE]Received 1 from acceptor: 35=A\001"));
+        assertThat(lines[1], matchesPattern("\\d+:test-thread\\[REPLAY]Replayed -2"));
+    }
+
+    @Test
+    public void shouldConcatenateArgumentsOfUnformattedEvents()
+    {
+        logger.start(LogTag.FIX_MESSAGE).with("Received ").with(message, 5, 7).commit();
+
+        final String[] lines = render();
+
+        assertThat(lines, arrayWithSize(1));
+        assertThat(lines[0], matchesPattern("\\d+:test-thread\\[FIX_MESSAGE]Received 49=INIT\001"));
+    }
+
+    @Test
+    public void shouldRecordEventsDroppedWhenTheRingBufferIsFull()
+    {
+        final String tooLong = new String(new char[BUFFER_CAPACITY]).replace('\0', 'x');
+        logger.start(LogTag.FIX_MESSAGE).with(tooLong).commit();
+        logger.start(LogTag.FIX_MESSAGE).with("kept").commit();
+
+        final String[] lines = render();
+
+        assertThat(lines, arrayWithSize(2));
+        assertThat(lines[0], endsWith("[FIX_MESSAGE]kept"));
+        assertThat(lines[1], is("test-thread dropped 1 debug log records as its ring buffer was full"));
+    }
+
+    @Test
+    public void shouldReportErrorsToTheFirstGatewayErrorHandlerUntilItIsRemoved()
+    {
+        final ErrorHandler errorHandler = mock(ErrorHandler.class);
+        final AtomicCounter errorCounter = mock(AtomicCounter.class);
+        final ErrorHandler otherErrorHandler = mock(ErrorHandler.class);
+        final IllegalStateException error = new IllegalStateException("Unable to write debug log");
+
+        log.gatewayErrorHandler(errorHandler, () -> errorCounter);
+        log.gatewayErrorHandler(otherErrorHandler, () -> mock(AtomicCounter.class));
+        log.onError(error);
+
+        verify(errorHandler).onError(error);
+        verify(errorCounter).increment();
+        verifyNoInteractions(otherErrorHandler);
+
+        log.removeGatewayErrorHandler(errorHandler);
+        log.gatewayErrorHandler(otherErrorHandler, () -> mock(AtomicCounter.class));
+        log.onError(error);
+
+        verify(otherErrorHandler).onError(error);
+        verifyNoMoreInteractions(errorHandler, errorCounter);
+    }
+
+    private String[] render()
+    {
+        log.onClose();
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryDebugLogReader.read(file, new PrintStream(bytes));
+        return bytes.toString().split(System.lineSeparator());
+    }
+}
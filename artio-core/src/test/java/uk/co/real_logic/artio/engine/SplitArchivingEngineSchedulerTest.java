@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.Timing.assertEventuallyTrue;
+
+public class SplitArchivingEngineSchedulerTest
+{
+    private final Agent framer = mock(Agent.class);
+    private final Agent inboundIndexer = mock(Agent.class);
+    private final Agent outboundIndexer = mock(Agent.class);
+    private final Agent replayer = mock(Agent.class);
+    private final EngineConfiguration configuration = mock(EngineConfiguration.class);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final RecordingCoordinator recordingCoordinator = mock(RecordingCoordinator.class);
+    private final Set<Thread> archivingThreads = ConcurrentHashMap.newKeySet();
+
+    @Test
+    public void shouldRunIndexersAndReplayerOnSeparateThreads() throws Exception
+    {
+        launchAndAwaitThreads(replayer, 3);
+    }
+
+    @Test
+    public void shouldRunIndexersOnSeparateThreadsWhenReplayerIsCombined() throws Exception
+    {
+        launchAndAwaitThreads(null, 2);
+
+        verify(configuration, never()).outboundIndexerIdleStrategy();
+    }
+
+    private void launchAndAwaitThreads(final Agent replayer, final int threadCount) throws Exception
+    {
+        when(configuration.framerIdleStrategy()).thenReturn(new BusySpinIdleStrategy());
+        when(configuration.archiverIdleStrategy()).thenReturn(new BusySpinIdleStrategy());
+        when(configuration.inboundIndexerIdleStrategy()).thenReturn(new BusySpinIdleStrategy());
+        when(configuration.outboundIndexerIdleStrategy()).thenReturn(new BusySpinIdleStrategy());
+        when(configuration.threadFactory()).thenReturn(Thread::new);
+        recordThread(inboundIndexer);
+        recordThread(outboundIndexer);
+        recordThread(this.replayer);
+
+        try (EngineScheduler scheduler = new SplitArchivingEngineScheduler())
+        {
+            scheduler.launch(
+                configuration,
+                errorHandler,
+                framer,
+                inboundIndexer,
+                outboundIndexer,
+                replayer,
+                null,
+                null,
+                recordingCoordinator);
+
+            assertEventuallyTrue(
+                "Failed to invoke the archiving agents",
+                () -> assertThat(archivingThreads, hasSize(threadCount)));
+        }
+    }
+
+    private void recordThread(final Agent agent) throws Exception
+    {
+        when(agent.doWork()).thenAnswer(inv ->
+        {
+            archivingThreads.add(Thread.currentThread());
+            return 0;
+        });
+    }
+}
@@ -25,6 +25,7 @@ import uk.co.real_logic.artio.builder.LogonEncoder;
 import uk.co.real_logic.artio.dictionary.FixDictionary;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
 import uk.co.real_logic.artio.engine.MappedFile;
+import uk.co.real_logic.artio.engine.SessionInfo;
 import uk.co.real_logic.artio.fixt.FixDictionaryImpl;
 import uk.co.real_logic.artio.session.CompositeKey;
 import uk.co.real_logic.artio.session.SessionIdStrategy;
@@ -45,10 +46,15 @@ import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_INITIAL_SEQUENCE_INDEX;
+import static uk.co.real_logic.artio.engine.SectorFramer.SECTOR_SIZE;
 import static uk.co.real_logic.artio.engine.framer.FixContexts.DUPLICATE_SESSION;
 import static uk.co.real_logic.artio.engine.framer.FixContexts.LOWEST_VALID_SESSION_ID;
 
@@ -231,6 +237,65 @@ public class FixContextsTest
         verifyNoBackUp();
     }
 
+    @Test
+    public void looksUpSessionContextsById()
+    {
+        final SessionContext aContext = fixContexts.onLogon(aSession, fixDictionary);
+        final SessionContext bContext = fixContexts.onLogon(bSession, fixDictionary);
+        final long aSessionId = aContext.sessionId();
+        final long bSessionId = bContext.sessionId();
+
+        assertSame(aContext, fixContexts.lookupById(aSessionId));
+        assertSame(bContext, fixContexts.lookupById(bSessionId));
+        assertFalse(fixContexts.isKnownSessionId(bSessionId + 1));
+
+        final FixContexts fixContextsAfterRestart = newSessionContexts(buffer);
+        assertEquals(aSession, fixContextsAfterRestart.lookupById(aSessionId).sessionKey());
+        assertEquals(bSession, fixContextsAfterRestart.lookupById(bSessionId).sessionKey());
+
+        fixContexts.onDisconnect(aSessionId);
+        fixContexts.onDisconnect(bSessionId);
+        fixContexts.reset(null);
+
+        assertNull(fixContexts.lookupById(aSessionId));
+        assertFalse(fixContexts.isKnownSessionId(bSessionId));
+    }
+
+    @Test
+    public void sharesContextsOfSessionsThatAreNotLoggedOn()
+    {
+        final long aSessionId = fixContexts.onLogon(aSession, fixDictionary).sessionId();
+        fixContexts.onDisconnect(aSessionId);
+
+        final FixContexts fixContextsAfterRestart = newSessionContexts(buffer);
+        final SessionContext aContext = fixContextsAfterRestart.lookupById(aSessionId);
+        assertSame(aContext, fixContextsAfterRestart.lookupById(aSessionId));
+
+        fixContextsAfterRestart.onSequenceIndex(aSessionId, time, 5);
+        assertEquals(5, aContext.sequenceIndex());
+        assertEquals(time, aContext.lastSequenceResetTime());
+        assertSame(aContext, fixContextsAfterRestart.onLogon(aSession, fixDictionary));
+    }
+
+    @Test
+    public void listsSessionsThatAreNotLoggedOnWithoutLoadingTheirContexts()
+    {
+        final long aSessionId = fixContexts.onLogon(aSession, fixDictionary).sessionId();
+        fixContexts.onSequenceIndex(aSessionId, time, 3);
+        fixContexts.onDisconnect(aSessionId);
+
+        final FixContexts fixContextsAfterRestart = newSessionContexts(buffer);
+        final List<SessionInfo> allSessions = fixContextsAfterRestart.allSessions();
+        assertEquals(1, allSessions.size());
+
+        final SessionInfo aInfo = allSessions.get(0);
+        assertEquals(aSessionId, aInfo.sessionId());
+        assertEquals(aSession, aInfo.sessionKey());
+        assertEquals(3, aInfo.sequenceIndex());
+        // Off-heap snapshots can't be updated, so changes are always made to the shared context
+        assertEquals(!offHeap(), aInfo instanceof SessionContext);
+    }
+
     @Test
     public void copiesOldSessionContextFile() throws IOException
     {
@@ -288,12 +353,59 @@ public class FixContextsTest
 
         // Restart with compaction
         fixContexts = newSessionContexts(buffer);
-        final SessionContext reloadedAContext = fixContexts.lookupById(sessionIdA).getValue();
+        compact(fixContexts);
+        final SessionContext reloadedAContext = fixContexts.lookupById(sessionIdA);
         assertEquals(fixtDictionary.getClass(), reloadedAContext.lastFixDictionary().getClass());
         final int filePosition3 = fixContexts.filePosition();
         assertThat(filePosition3, lessThan(filePosition2));
     }
 
+    @Test
+    public void shouldCompactIncrementallyAcrossRestarts()
+    {
+        final int sessionCount = 40;
+        final FixDictionary fixtDictionary = fixtDictionary();
+        final List<CompositeKey> keys = IntStream
+            .range(0, sessionCount)
+            .mapToObj((i) -> idStrategy.onInitiateLogon("b" + i, null, null, "a" + i, null, null))
+            .collect(toList());
+        final long[] sessionIds = keys
+            .stream()
+            .mapToLong(compositeKey -> fixContexts.onLogon(compositeKey, fixDictionary).sessionId())
+            .toArray();
+
+        // Relocate every other session, spreading the records over both sectors
+        for (int i = 0; i < sessionCount; i += 2)
+        {
+            fixContexts.onDisconnect(sessionIds[i]);
+            fixContexts.onLogon(keys.get(i), fixtDictionary);
+        }
+        final int uncompactedFilePosition = fixContexts.filePosition();
+        assertThat(uncompactedFilePosition, greaterThan(SECTOR_SIZE));
+
+        // Only compacted in the background when off-heap, otherwise the file is compacted when it's loaded
+        FixContexts contexts = newSessionContexts(buffer);
+        assertEquals(offHeap(), contexts.isCompacting());
+        contexts.doCompactionWork(5);
+
+        // Restart part way through compacting
+        contexts = newSessionContexts(buffer);
+        contexts.doCompactionWork(7);
+        assertSessionsLoaded(contexts, keys, sessionIds, fixtDictionary);
+
+        compact(contexts);
+        assertThat(contexts.filePosition(), lessThan(uncompactedFilePosition));
+        assertSessionsLoaded(contexts, keys, sessionIds, fixtDictionary);
+        contexts.lookupById(sessionIds[1]).onSequenceReset(time);
+
+        final FixContexts contextsAfterCompaction = newSessionContexts(buffer);
+        assertFalse(contextsAfterCompaction.isCompacting());
+        assertSessionsLoaded(contextsAfterCompaction, keys, sessionIds, fixtDictionary);
+        assertEquals(time, contextsAfterCompaction.lookupById(sessionIds[1]).lastSequenceResetTime());
+
+        verify(errorHandler, never()).onError(any());
+    }
+
     @Test
     public void shouldReloadOldFileFormat() throws IOException
     {
@@ -316,10 +428,43 @@ public class FixContextsTest
         // Check that reloaded information is read
         final FixContexts fixContexts2 = newSessionContexts(oldBuffer);
         assertThat(fixContexts2.allSessions(), hasSize(1));
-        final SessionContext newContext = fixContexts2.lookupById(context.sessionId()).getValue();
+        final SessionContext newContext = fixContexts2.lookupById(context.sessionId());
         assertEquals(fixtDictionary.getClass(), newContext.lastFixDictionary().getClass());
     }
 
+    private void compact(final FixContexts fixContexts)
+    {
+        if (offHeap())
+        {
+            assertTrue(fixContexts.isCompacting());
+            while (fixContexts.isCompacting())
+            {
+                fixContexts.doCompactionWork();
+            }
+        }
+        else
+        {
+            assertFalse(fixContexts.isCompacting());
+        }
+    }
+
+    private void assertSessionsLoaded(
+        final FixContexts fixContexts,
+        final List<CompositeKey> keys,
+        final long[] sessionIds,
+        final FixDictionary relocatedDictionary)
+    {
+        for (int i = 0; i < sessionIds.length; i++)
+        {
+            final SessionContext context = fixContexts.lookupById(sessionIds[i]);
+            assertEquals(keys.get(i), context.sessionKey());
+            assertEquals(sessionIds[i], fixContexts.lookupSessionId(keys.get(i)));
+
+            final FixDictionary expectedDictionary = i % 2 == 0 ? relocatedDictionary : fixDictionary;
+            assertEquals(expectedDictionary.getClass(), context.lastFixDictionary().getClass());
+        }
+    }
+
     private FixDictionary fixtDictionary()
     {
         return FixDictionary.of(FixDictionaryImpl.class);
@@ -353,7 +498,18 @@ public class FixContextsTest
     private FixContexts newSessionContexts(final AtomicBuffer buffer, final int initialSequenceIndex)
     {
         when(mappedFile.buffer()).thenReturn(buffer);
-        return new FixContexts(mappedFile, idStrategy, initialSequenceIndex, errorHandler, false);
+        return new FixContexts(
+            mappedFile, idStrategy, initialSequenceIndex, errorHandler, false, offHeap(), indexFile(buffer));
+    }
+
+    boolean offHeap()
+    {
+        return false;
+    }
+
+    MappedFile indexFile(final AtomicBuffer buffer)
+    {
+        return null;
     }
 
     private void assertValuesEqual(
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.FixCounters;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.logger.SequenceNumberIndexReader;
+import uk.co.real_logic.artio.fields.EpochFractionFormat;
+import uk.co.real_logic.artio.messages.CancelOnDisconnectOption;
+import uk.co.real_logic.artio.messages.ConnectionType;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.session.SessionCustomisationStrategy;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+import uk.co.real_logic.artio.validation.SessionPersistenceStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.HEARTBEAT_MESSAGE_TYPE;
+import static uk.co.real_logic.artio.messages.SessionState.ACTIVE;
+
+public class FixGatewaySessionsTest
+{
+    private static final int HEARTBEAT_INTERVAL_IN_S = 2;
+    private static final long CONNECTION_ID = 1;
+    private static final long SESSION_ID = 2;
+
+    private final FakeEpochClock fakeClock = new FakeEpochClock();
+    private final GatewayPublication inboundPublication = mock(GatewayPublication.class);
+    private final GatewayPublication outboundPublication = mock(GatewayPublication.class);
+    private final FixCounters fixCounters = mock(FixCounters.class);
+    private final FixGatewaySession gatewaySession = mock(FixGatewaySession.class);
+    private final FixGatewaySession pendingLogonSession = mock(FixGatewaySession.class);
+
+    private FixGatewaySessions gatewaySessions;
+
+    @Before
+    public void setUp()
+    {
+        when(fixCounters.receivedMsgSeqNo(anyLong(), anyLong())).thenReturn(mock(AtomicCounter.class));
+        when(fixCounters.sentMsgSeqNo(anyLong(), anyLong())).thenReturn(mock(AtomicCounter.class));
+        when(outboundPublication.saveMessage(
+            any(), anyInt(), anyInt(), anyInt(), anyLong(), anyLong(), anyInt(), anyLong(), any(), anyInt()))
+            .thenReturn(1L);
+
+        when(gatewaySession.connectionId()).thenReturn(CONNECTION_ID);
+        when(gatewaySession.sessionId()).thenReturn(SESSION_ID);
+        when(gatewaySession.connectionType()).thenReturn(ConnectionType.ACCEPTOR);
+        when(gatewaySession.cancelOnDisconnectOption())
+            .thenReturn(CancelOnDisconnectOption.DO_NOT_CANCEL_ON_DISCONNECT_OR_LOGOUT);
+        doAnswer(inv ->
+        {
+            when(gatewaySession.session()).thenReturn(inv.getArgument(1));
+            return null;
+        }).when(gatewaySession).manage(any(), any(), any());
+
+        final EngineConfiguration configuration = new EngineConfiguration()
+            .sessionTimerWheelEnabled(true)
+            .epochNanoClock(fakeClock.nanoClockView());
+
+        gatewaySessions = new FixGatewaySessions(
+            fakeClock,
+            inboundPublication,
+            outboundPublication,
+            mock(SessionIdStrategy.class),
+            SessionCustomisationStrategy.none(),
+            fixCounters,
+            configuration,
+            mock(ErrorHandler.class),
+            mock(FixContexts.class),
+            mock(SessionPersistenceStrategy.class),
+            mock(SequenceNumberIndexReader.class),
+            mock(SequenceNumberIndexReader.class),
+            EpochFractionFormat.MILLISECONDS);
+    }
+
+    @Test
+    public void shouldPollEngineManagedSessionsThroughTheTimerWheel()
+    {
+        acquire();
+        poll();
+        assertEquals(1, gatewaySessions.sessionTimerWheel.timerCount());
+
+        fakeClock.advanceMilliSeconds(100);
+        poll();
+        verifyNoHeartbeatSent();
+
+        fakeClock.advanceSeconds(HEARTBEAT_INTERVAL_IN_S);
+        poll();
+        verify(outboundPublication).saveMessage(
+            any(), anyInt(), anyInt(), anyInt(), eq(HEARTBEAT_MESSAGE_TYPE), anyLong(), anyInt(), anyLong(), any(),
+            anyInt());
+        verify(gatewaySession, never()).poll(anyLong(), anyLong());
+    }
+
+    @Test
+    public void shouldNotPollEngineManagedSessionsOnceReleased()
+    {
+        acquire();
+        poll();
+
+        gatewaySessions.releaseByConnectionId(CONNECTION_ID);
+        assertEquals(0, gatewaySessions.sessionTimerWheel.timerCount());
+
+        fakeClock.advanceSeconds(HEARTBEAT_INTERVAL_IN_S);
+        poll();
+        verifyNoHeartbeatSent();
+    }
+
+    @Test
+    public void shouldOnlyCheckLogonTimeoutsUntilTheyNoLongerApply()
+    {
+        when(pendingLogonSession.hasNoLogonTimeout()).thenReturn(true);
+        gatewaySessions.track(pendingLogonSession);
+
+        poll();
+        verify(pendingLogonSession).checkNoLogonDisconnect(fakeClock.time());
+
+        when(pendingLogonSession.hasNoLogonTimeout()).thenReturn(false);
+        poll();
+        poll();
+        verify(pendingLogonSession, times(2)).checkNoLogonDisconnect(fakeClock.time());
+        verify(pendingLogonSession, never()).poll(anyLong(), anyLong());
+    }
+
+    private void acquire()
+    {
+        gatewaySessions.acquire(gatewaySession, ACTIVE, false, HEARTBEAT_INTERVAL_IN_S, 0, 0, null, null);
+    }
+
+    private void poll()
+    {
+        gatewaySessions.pollSessions(fakeClock.time(), fakeClock.nanoClockView().nanoTime());
+    }
+
+    private void verifyNoHeartbeatSent()
+    {
+        verify(outboundPublication, never()).saveMessage(
+            any(), anyInt(), anyInt(), anyInt(), eq(HEARTBEAT_MESSAGE_TYPE), anyLong(), anyInt(), anyLong(), any(),
+            anyInt());
+    }
+}
@@ -25,6 +25,7 @@ import org.agrona.concurrent.status.AtomicCounter;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.stubbing.Answer;
 import org.mockito.verification.VerificationMode;
 import uk.co.real_logic.artio.engine.MessageTimingHandler;
@@ -58,6 +59,7 @@ public class FixSenderEndPointTest
     public static final int REPLAY_CORRELATION_ID = 2;
     public static final int REPLAY_CORRELATION_ID_2 = 3;
     public static final int MSG_OFFSET = 200;
+    private static final int ENTRY_LENGTH = 48;
 
     private final TcpChannel tcpChannel = mock(TcpChannel.class);
     private final AtomicCounter bytesInBuffer = fakeCounter();
@@ -352,6 +354,140 @@ public class FixSenderEndPointTest
         verifyNoMoreErrors();
     }
 
+    @Test
+    public void shouldWriteBatchedMessagesWithOneWrite()
+    {
+        batchOutboundMessage(1);
+        batchOutboundMessage(2);
+        batchOutboundMessage(3);
+        byteBufferNotWritten();
+
+        channelWillGather(3 * BODY_LENGTH);
+        endPoint.flushBatch();
+
+        final ByteBuffer[] srcs = batchWritten(3);
+        for (int i = 0; i < 3; i++)
+        {
+            // The bodies are written from where they were polled rather than copied
+            assertEquals(MSG_OFFSET, srcs[i].position());
+            assertEquals(BODY_LENGTH, srcs[i].remaining());
+        }
+        verify(messageTimingHandler, times(3)).onMessage(anyLong(), eq(CONNECTION_ID), any(), anyInt(), anyInt());
+        assertBytesInBuffer(0);
+        assertFalse(endPoint.hasBatch());
+    }
+
+    @Test
+    public void shouldWriteEachBatchWithOneWrite()
+    {
+        batchOutboundMessage(1);
+        batchOutboundMessage(2);
+        channelWillGather(2 * BODY_LENGTH);
+        endPoint.flushBatch();
+        batchWritten(2);
+
+        batchOutboundMessage(3);
+        batchOutboundMessage(4);
+        batchOutboundMessage(5);
+        channelWillGather(3 * BODY_LENGTH);
+        endPoint.flushBatch();
+        batchWritten(3);
+
+        endPoint.flushBatch();
+        batchNotWritten();
+    }
+
+    @Test
+    public void shouldEnqueueUnwrittenMessagesOfBatch()
+    {
+        final int firstWrites = BODY_LENGTH + 41;
+
+        batchOutboundMessage(1);
+        batchOutboundMessage(2);
+        batchOutboundMessage(3);
+
+        channelWillGather(firstWrites);
+        endPoint.flushBatch();
+
+        batchWritten(3);
+        verify(messageTimingHandler, times(1)).onMessage(anyLong(), eq(CONNECTION_ID), any(), anyInt(), anyInt());
+        assertReattemptBytesWritten(firstWrites - BODY_LENGTH);
+        assertBytesInBuffer(2 * (BODY_LENGTH + ENQ_MESSAGE_BLOCK_LEN));
+
+        channelWillWrite(BODY_LENGTH);
+        poll();
+        assertBytesInBuffer(0);
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldFlushBatchBeforeWritingUnbatchedMessage()
+    {
+        batchOutboundMessage(1);
+
+        channelWillGather(BODY_LENGTH);
+        channelWillWrite(BODY_LENGTH);
+        onOutboundMessage(0);
+
+        final InOrder inOrder = inOrder(tcpChannel);
+        try
+        {
+            inOrder.verify(tcpChannel).write(any(ByteBuffer[].class), eq(1), anyInt());
+            inOrder.verify(tcpChannel).write(any(ByteBuffer.class), anyInt(), anyBoolean());
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+        assertFalse(endPoint.hasBatch());
+    }
+
+    @Test
+    public void shouldWrapReattemptEntriesIntoSpaceFreedAtTheStart()
+    {
+        final ReattemptState reattemptState = new ReattemptState();
+        assertEquals(0, enqueueEntry(reattemptState, 1));
+        assertEquals(ENTRY_LENGTH, enqueueEntry(reattemptState, 2));
+        assertEquals(ENTRY_LENGTH, reattemptState.consume(ENTRY_LENGTH));
+
+        assertTrue(3 * ENTRY_LENGTH > reattemptState.buffer.capacity());
+        assertEquals(0, enqueueEntry(reattemptState, 3));
+        assertEquals(2 * ENTRY_LENGTH, reattemptState.usage);
+
+        assertEquals(2, reattemptState.peekType());
+        assertEquals(ENTRY_LENGTH, reattemptState.consume(ENTRY_LENGTH));
+        assertEquals(0, reattemptState.head);
+        assertEquals(3, reattemptState.peekType());
+        assertEquals(0, reattemptState.consume(ENTRY_LENGTH));
+        assertEquals(ReattemptState.NO_ENTRY, reattemptState.peekType());
+    }
+
+    @Test
+    public void shouldGrowAndUnwrapFullReattemptBufferInOrder()
+    {
+        final ReattemptState reattemptState = new ReattemptState();
+        enqueueEntry(reattemptState, 1);
+        enqueueEntry(reattemptState, 2);
+        reattemptState.consume(ENTRY_LENGTH);
+        // wraps around to the start, leaving no space before the head
+        enqueueEntry(reattemptState, 3);
+        enqueueEntry(reattemptState, 4);
+
+        for (int type = 2; type <= 4; type++)
+        {
+            assertEquals(type, reattemptState.peekType());
+            reattemptState.consume(ENTRY_LENGTH);
+        }
+        assertEquals(0, reattemptState.usage);
+    }
+
+    private int enqueueEntry(final ReattemptState reattemptState, final int type)
+    {
+        final int offset = reattemptState.claim(ENTRY_LENGTH);
+        reattemptState.buffer.putInt(offset, type);
+        return offset;
+    }
+
     private void byteBufferNotWritten()
     {
         byteBufferWritten(never());
@@ -372,6 +508,12 @@ public class FixSenderEndPointTest
         endPoint.onOutboundMessage(LIBRARY_ID, buffer, MSG_OFFSET, BODY_LENGTH, 0, 0, 0L, timeInMs, 0);
     }
 
+    private void batchOutboundMessage(final int sequenceNumber)
+    {
+        endPoint.onOutboundMessage(
+            LIBRARY_ID, buffer, MSG_OFFSET, BODY_LENGTH, sequenceNumber, 0, 0L, 0, 0, true);
+    }
+
     private void onReplayMessage(final long timeInMs)
     {
         assertEquals(CONTINUE, endPoint.onReplayMessage(buffer, MSG_OFFSET, BODY_LENGTH, timeInMs, 0));
@@ -428,6 +570,47 @@ public class FixSenderEndPointTest
         assertBytesInBuffer(BODY_LENGTH + ENQ_MESSAGE_BLOCK_LEN);
     }
 
+    private ByteBuffer[] batchWritten(final int messageCount)
+    {
+        try
+        {
+            final ArgumentCaptor<ByteBuffer[]> srcsCaptor = ArgumentCaptor.forClass(ByteBuffer[].class);
+            verify(tcpChannel).write(srcsCaptor.capture(), eq(messageCount), anyInt());
+            verify(tcpChannel, never()).write(any(ByteBuffer.class), anyInt(), anyBoolean());
+            reset(tcpChannel);
+            return srcsCaptor.getValue();
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+            return null;
+        }
+    }
+
+    private void batchNotWritten()
+    {
+        try
+        {
+            verify(tcpChannel, never()).write(any(ByteBuffer[].class), anyInt(), anyInt());
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    private void channelWillGather(final int bodyLength)
+    {
+        try
+        {
+            when(tcpChannel.write(any(ByteBuffer[].class), anyInt(), anyInt())).thenReturn(bodyLength);
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
     private void channelWillWrite(final int bodyLength)
     {
         try
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.junit.Test;
+import uk.co.real_logic.artio.timing.Timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class FixSenderEndPointsTest
+{
+    private static final long TIME_IN_MS = 1000;
+
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final Timer sendTimer = mock(Timer.class);
+
+    @Test
+    public void shouldPollEveryEndPointEachDutyCycle()
+    {
+        final FixSenderEndPoints senderEndPoints = new FixSenderEndPoints(errorHandler, false, sendTimer);
+        final FixSenderEndPoint first = senderEndPoint(2);
+        final FixSenderEndPoint second = senderEndPoint(-3);
+        senderEndPoints.add(first);
+        senderEndPoints.add(second);
+
+        senderEndPoints.poll(TIME_IN_MS);
+        verify(first).poll(TIME_IN_MS);
+        verify(second).poll(TIME_IN_MS);
+    }
+
+    @Test
+    public void shouldCountTimedOutEndPoints()
+    {
+        final FixSenderEndPoints senderEndPoints = new FixSenderEndPoints(errorHandler, false, sendTimer);
+        final FixSenderEndPoint timedOut = senderEndPoint(1);
+        when(timedOut.poll(TIME_IN_MS)).thenReturn(true);
+        senderEndPoints.add(timedOut);
+        senderEndPoints.add(senderEndPoint(2));
+
+        assertEquals(1, senderEndPoints.poll(TIME_IN_MS));
+    }
+
+    @Test
+    public void shouldNotPollRemovedEndPoints()
+    {
+        final FixSenderEndPoints senderEndPoints = new FixSenderEndPoints(errorHandler, false, sendTimer);
+        final FixSenderEndPoint senderEndPoint = senderEndPoint(1);
+        senderEndPoints.add(senderEndPoint);
+
+        senderEndPoints.removeConnection(1);
+        senderEndPoints.poll(TIME_IN_MS);
+
+        verify(senderEndPoint).close();
+        verify(senderEndPoint, never()).poll(TIME_IN_MS);
+    }
+
+    @Test
+    public void shouldOnlyTimeSendsOfMessagesThatWereWrittenRatherThanStaged()
+    {
+        final long pickupTimestamp = 123;
+        final FixSenderEndPoints senderEndPoints = new FixSenderEndPoints(errorHandler, true, sendTimer);
+        final FixSenderEndPoint written = senderEndPoint(1);
+        final FixSenderEndPoint staged = senderEndPoint(2);
+        when(staged.hasBatch()).thenReturn(false, true);
+        senderEndPoints.add(written);
+        senderEndPoints.add(staged);
+
+        senderEndPoints.onMessage(1, 2, null, 0, 0, 1, 0, 0, 0, pickupTimestamp, true);
+        verify(sendTimer, never()).recordSince(anyLong());
+
+        senderEndPoints.onMessage(1, 1, null, 0, 0, 1, 0, 0, 0, pickupTimestamp, true);
+        verify(sendTimer).recordSince(pickupTimestamp);
+    }
+
+    private FixSenderEndPoint senderEndPoint(final long connectionId)
+    {
+        final FixSenderEndPoint senderEndPoint = mock(FixSenderEndPoint.class);
+        when(senderEndPoint.connectionId()).thenReturn(connectionId);
+        return senderEndPoint;
+    }
+}
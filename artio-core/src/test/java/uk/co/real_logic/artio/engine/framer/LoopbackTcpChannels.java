@@ -0,0 +1,169 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.CloseHelper;
+import org.agrona.IoUtil;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.security.KeyStore;
+
+import static java.net.StandardSocketOptions.TCP_NODELAY;
+
+/**
+ * A pair of connected {@link TcpChannel}s over the loopback interface, either plain TCP or TLS using a self-signed
+ * certificate.
+ */
+public final class LoopbackTcpChannels implements AutoCloseable
+{
+    private static final String PASSWORD = "artio-test";
+
+    private final SocketChannel initiatorSocket;
+    private final SocketChannel acceptorSocket;
+    private final TcpChannel initiator;
+    private final TcpChannel acceptor;
+
+    /**
+     * Connect a pair of channels.
+     *
+     * @param sslContext the context to create TLS channels from, or null for plain TCP channels.
+     * @throws Exception if the channels can't be connected.
+     */
+    public LoopbackTcpChannels(final SSLContext sslContext) throws Exception
+    {
+        try (ServerSocketChannel serverSocket = ServerSocketChannel.open())
+        {
+            serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            initiatorSocket = SocketChannel.open(serverSocket.getLocalAddress());
+            acceptorSocket = serverSocket.accept();
+        }
+
+        configure(initiatorSocket);
+        configure(acceptorSocket);
+
+        if (sslContext == null)
+        {
+            initiator = new DefaultTcpChannel(initiatorSocket);
+            acceptor = new DefaultTcpChannel(acceptorSocket);
+        }
+        else
+        {
+            final SSLSession session = sslContext.createSSLEngine().getSession();
+            final TlsBufferPool bufferPool = new TlsBufferPool(
+                session.getPacketBufferSize(), session.getApplicationBufferSize());
+            initiator = new TlsTcpChannel(initiatorSocket, sslEngine(sslContext, true), bufferPool, null);
+            acceptor = new TlsTcpChannel(acceptorSocket, sslEngine(sslContext, false), bufferPool, null);
+        }
+    }
+
+    private static void configure(final SocketChannel socket) throws IOException
+    {
+        socket.setOption(TCP_NODELAY, true);
+        socket.configureBlocking(false);
+    }
+
+    private static SSLEngine sslEngine(final SSLContext sslContext, final boolean clientMode)
+    {
+        final SSLEngine engine = sslContext.createSSLEngine();
+        engine.setUseClientMode(clientMode);
+        return engine;
+    }
+
+    public TcpChannel initiator()
+    {
+        return initiator;
+    }
+
+    public TcpChannel acceptor()
+    {
+        return acceptor;
+    }
+
+    public void close()
+    {
+        CloseHelper.closeAll(initiator, acceptor, initiatorSocket, acceptorSocket);
+    }
+
+    /**
+     * Generate a self-signed certificate for localhost with the JDK's keytool and create a context that both uses it
+     * as its key and trusts it.
+     *
+     * @return the new SSL context.
+     * @throws Exception if keytool fails or the keystore can't be loaded.
+     */
+    public static SSLContext selfSignedSslContext() throws Exception
+    {
+        final File directory = Files.createTempDirectory("artio-tls").toFile();
+        final File keyStoreFile = new File(directory, "keystore.p12");
+        try
+        {
+            final Process keytool = new ProcessBuilder(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool",
+                "-genkeypair",
+                "-alias", "artio",
+                "-keyalg", "EC",
+                "-groupname", "secp256r1",
+                "-dname", "CN=localhost",
+                "-ext", "SAN=dns:localhost,ip:127.0.0.1",
+                "-validity", "1",
+                "-storetype", "PKCS12",
+                "-keystore", keyStoreFile.getAbsolutePath(),
+                "-storepass", PASSWORD,
+                "-keypass", PASSWORD,
+                "-noprompt")
+                .inheritIO()
+                .start();
+            if (keytool.waitFor() != 0)
+            {
+                throw new IllegalStateException("keytool failed with exit code " + keytool.exitValue());
+            }
+
+            final KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            try (InputStream in = new FileInputStream(keyStoreFile))
+            {
+                keyStore.load(in, PASSWORD.toCharArray());
+            }
+
+            final KeyManagerFactory keyManagerFactory =
+                KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(keyStore, PASSWORD.toCharArray());
+            final TrustManagerFactory trustManagerFactory =
+                TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagerFactory.init(keyStore);
+
+            final SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
+            return sslContext;
+        }
+        finally
+        {
+            IoUtil.delete(directory, true);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.engine.MappedFile;
+
+import java.nio.ByteBuffer;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PersistentOffHeapFixContextsTest extends FixContextsTest
+{
+    // Not initialised in the declaration as they're first used by the superclass's constructor
+    private AtomicBuffer indexedBuffer;
+    private MappedFile indexFile;
+
+    boolean offHeap()
+    {
+        return true;
+    }
+
+    MappedFile indexFile(final AtomicBuffer buffer)
+    {
+        // Reloading the same session id file reuses its index, as it would be on disk
+        if (buffer != indexedBuffer)
+        {
+            indexedBuffer = buffer;
+            indexFile = mock(MappedFile.class);
+            when(indexFile.buffer()).thenReturn(
+                new UnsafeBuffer(ByteBuffer.allocateDirect(FixContexts.indexFileSize(buffer.capacity()))));
+        }
+
+        return indexFile;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.*;
+
+public class TlsTcpChannelTest
+{
+    private static final String MESSAGE =
+        "8=FIX.4.4\0019=0027\00135=5\00149=INIT\00156=ACC\00134=2\00152=20240101-00:00:00\00110=233\001";
+    private static final long TIMEOUT_IN_NS = TimeUnit.SECONDS.toNanos(10);
+
+    private static SSLContext sslContext;
+
+    private LoopbackTcpChannels channels;
+
+    @BeforeClass
+    public static void generateCertificate() throws Exception
+    {
+        sslContext = LoopbackTcpChannels.selfSignedSslContext();
+    }
+
+    @Before
+    public void setUp() throws Exception
+    {
+        channels = new LoopbackTcpChannels(sslContext);
+    }
+
+    @After
+    public void tearDown()
+    {
+        channels.close();
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldHandshakeAndExchangeMessagesInBothDirections() throws IOException
+    {
+        final byte[] message = MESSAGE.getBytes(US_ASCII);
+
+        assertArrayEquals(message, transfer(channels.initiator(), channels.acceptor(), message, 1024));
+        assertArrayEquals(message, transfer(channels.acceptor(), channels.initiator(), message, 1024));
+        assertArrayEquals(message, transfer(channels.initiator(), channels.acceptor(), message, 1024));
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldDeliverRecordsLargerThanTheSpaceInTheReadBuffer() throws IOException
+    {
+        final byte[] message = new byte[40 * 1024];
+        for (int i = 0; i < message.length; i++)
+        {
+            message[i] = (byte)('a' + (i % 26));
+        }
+
+        assertArrayEquals(message, transfer(channels.initiator(), channels.acceptor(), message, 100));
+        assertFalse(channels.acceptor().hasBufferedData());
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldReportDisconnectionWhenThePeerCloses() throws IOException
+    {
+        final byte[] message = MESSAGE.getBytes(US_ASCII);
+        transfer(channels.initiator(), channels.acceptor(), message, 1024);
+
+        channels.initiator().close();
+
+        final ByteBuffer dst = ByteBuffer.allocateDirect(1024);
+        final long deadlineInNs = System.nanoTime() + TIMEOUT_IN_NS;
+        int read;
+        do
+        {
+            read = channels.acceptor().read(dst);
+            assertTrue("Disconnect not detected", System.nanoTime() < deadlineInNs);
+        }
+        while (read == 0);
+
+        assertEquals(-1, read);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldGatherBuffersIntoOneStream() throws IOException
+    {
+        final byte[] message = MESSAGE.getBytes(US_ASCII);
+        final byte[] twoMessages = new byte[2 * message.length];
+        System.arraycopy(message, 0, twoMessages, 0, message.length);
+        System.arraycopy(message, 0, twoMessages, message.length, message.length);
+
+        assertArrayEquals(
+            twoMessages, transfer(channels.initiator(), channels.acceptor(), new byte[][]{message, message}, 1024));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldNotReadOnceClosed() throws IOException
+    {
+        channels.acceptor().close();
+
+        channels.acceptor().read(ByteBuffer.allocateDirect(1024));
+    }
+
+    private static byte[] transfer(
+        final TcpChannel from, final TcpChannel to, final byte[] message, final int readBufferSize) throws IOException
+    {
+        return transfer(from, to, new byte[][]{message}, readBufferSize);
+    }
+
+    // Reads into a buffer with the given space, emptying it after each read, as a receiver end point frames messages.
+    // More than one message is written with a gathering write.
+    private static byte[] transfer(
+        final TcpChannel from, final TcpChannel to, final byte[][] messages, final int readBufferSize)
+        throws IOException
+    {
+        final ByteBuffer[] srcs = new ByteBuffer[messages.length];
+        int length = 0;
+        for (int i = 0; i < messages.length; i++)
+        {
+            srcs[i] = ByteBuffer.allocateDirect(messages[i].length);
+            srcs[i].put(messages[i]).flip();
+            length += messages[i].length;
+        }
+        final ByteBuffer src = srcs[srcs.length - 1];
+        final ByteBuffer dst = ByteBuffer.allocateDirect(readBufferSize);
+        final byte[] received = new byte[length];
+        int receivedLength = 0;
+
+        final long deadlineInNs = System.nanoTime() + TIMEOUT_IN_NS;
+        while (receivedLength < length)
+        {
+            assertTrue("Timed out transferring message", System.nanoTime() < deadlineInNs);
+
+            if (src.hasRemaining())
+            {
+                if (srcs.length == 1)
+                {
+                    from.write(src, 1, false);
+                }
+                else
+                {
+                    from.write(srcs, srcs.length, 1);
+                }
+            }
+            else
+            {
+                // Flushes any encrypted data that the socket didn't accept
+                from.read(ByteBuffer.allocate(0));
+            }
+
+            final int read = to.read(dst);
+            assertTrue("Unexpected disconnect", read >= 0);
+            dst.flip();
+            dst.get(received, receivedLength, dst.remaining());
+            receivedLength += read;
+            dst.clear();
+        }
+
+        return received;
+    }
+}
@@ -23,9 +23,14 @@ import java.util.function.Predicate;
 
 import static org.junit.Assert.*;
 import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.*;
+import static uk.co.real_logic.artio.util.MessageTypeEncoding.packMessageType;
 
 public class ArchiveScanPlannerTest
 {
+    private static final FixMessageConsumer NO_OP_CONSUMER = (message, buffer, offset, length, header) ->
+    {
+    };
+
     @Test
     public void shouldGeneratePlan()
     {
@@ -46,4 +51,28 @@ public class ArchiveScanPlannerTest
         assertEquals(epochStartTimeInNs, indexQuery.beginTimestampInclusive());
         assertEquals(epochEndTimeInNs, indexQuery.endTimestampExclusive());
     }
+
+    @Test
+    public void shouldPushSessionAndMessageTypeFiltersIntoPlan()
+    {
+        final long sessionId = 1;
+        final FixMessagePredicate predicate = sessionOf(sessionId)
+            .and(messageTypeOf("D", "8"))
+            .and(messageTypeOf("8", "0"));
+
+        final IndexQuery indexQuery = ArchiveScanPlanner.extractIndexQuery(filterBy(NO_OP_CONSUMER, predicate));
+        assertFalse(indexQuery.hasTimeRange());
+        assertEquals(1, indexQuery.sessionIds().size());
+        assertTrue(indexQuery.sessionIds().contains(sessionId));
+        assertEquals(1, indexQuery.messageTypes().size());
+        assertTrue(indexQuery.messageTypes().contains(packMessageType("8")));
+    }
+
+    @Test
+    public void shouldNotPushFiltersInsideOrIntoPlan()
+    {
+        final FixMessagePredicate predicate = sessionOf(1).or(messageTypeOf("D"));
+
+        assertNull(ArchiveScanPlanner.extractIndexQuery(filterBy(NO_OP_CONSUMER, predicate)));
+    }
 }
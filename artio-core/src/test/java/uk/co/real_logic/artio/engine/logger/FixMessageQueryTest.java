@@ -0,0 +1,158 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static uk.co.real_logic.artio.util.MessageTypeEncoding.packMessageType;
+
+public class FixMessageQueryTest
+{
+    private static final long TIMESTAMP = 1_000;
+
+    private static final String ORDER_EG = "8=FIX.4.4\0019=120\00135=D\00149=initiator\00156=acceptor\00134=12" +
+        "\00152=20210915-14:21:55.490\00111=order-1\00155=MSFT\00154=1\00138=500\00144=10.25\00140=2" +
+        "\00160=20210915-14:21:55.490\00110=093\001";
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[1024]);
+    private final FixMessageEncoder encoder = new FixMessageEncoder()
+        .wrap(buffer, 0);
+    private final FixMessageDecoder decoder = new FixMessageDecoder()
+        .wrap(buffer, 0, encoder.sbeBlockLength(), encoder.sbeSchemaVersion());
+
+    @Test
+    public void shouldMatchEverythingWithoutFilters()
+    {
+        encodeOrder();
+
+        assertTrue(FixMessageQuery.query().compile().test(decoder));
+    }
+
+    @Test
+    public void shouldMatchTagEquality()
+    {
+        encodeOrder();
+
+        assertMatches(true, FixMessageQuery.query().tagEquals(49, "initiator").tagEquals(55, "MSFT"));
+        assertMatches(true, FixMessageQuery.query().tagEquals(34, 12));
+        assertMatches(false, FixMessageQuery.query().tagEquals(49, "initiator").tagEquals(55, "MSF"));
+        assertMatches(false, FixMessageQuery.query().tagEquals(56, "acceptor2"));
+        assertMatches(false, FixMessageQuery.query().tagEquals(34, 1));
+    }
+
+    @Test
+    public void shouldNotMatchMissingTags()
+    {
+        encodeOrder();
+
+        assertMatches(false, FixMessageQuery.query().tagEquals(49, "initiator").tagEquals(1, "account"));
+    }
+
+    @Test
+    public void shouldMatchTagRanges()
+    {
+        encodeOrder();
+
+        assertMatches(true, FixMessageQuery.query().tagBetween(38, 500, 500));
+        assertMatches(true, FixMessageQuery.query().tagBetween(38, 100, 1_000));
+        assertMatches(false, FixMessageQuery.query().tagBetween(38, 501, 1_000));
+        assertMatches(false, FixMessageQuery.query().tagBetween(38, -1_000, 499));
+    }
+
+    @Test
+    public void shouldNotMatchRangesOverNonIntegerValues()
+    {
+        encodeOrder();
+
+        assertMatches(false, FixMessageQuery.query().tagBetween(44, 0, 100));
+        assertMatches(false, FixMessageQuery.query().tagBetween(11, Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void shouldMatchMessageTypes()
+    {
+        encodeOrder();
+
+        assertMatches(true, FixMessageQuery.query().messageTypeIn("8", "D"));
+        assertMatches(false, FixMessageQuery.query().messageTypeIn("8", "0"));
+        assertMatches(false, FixMessageQuery.query().messageTypeIn("8").tagEquals(55, "MSFT"));
+    }
+
+    @Test
+    public void shouldMatchTimeWindows()
+    {
+        encodeOrder();
+
+        assertMatches(true, FixMessageQuery.query().between(TIMESTAMP, TIMESTAMP + 1));
+        assertMatches(true, FixMessageQuery.query().from(TIMESTAMP).tagEquals(55, "MSFT"));
+        assertMatches(false, FixMessageQuery.query().from(TIMESTAMP + 1).tagEquals(55, "MSFT"));
+        assertMatches(false, FixMessageQuery.query().to(TIMESTAMP));
+    }
+
+    @Test
+    public void shouldPlanIndexScansFromTimeWindows()
+    {
+        final FixMessagePredicate predicate = FixMessageQuery.query()
+            .between(TIMESTAMP, TIMESTAMP + 1)
+            .tagEquals(55, "MSFT")
+            .compile();
+        final FixMessageConsumer consumer = FixMessagePredicates.filterBy(
+            (message, buffer, offset, length, header) -> {}, predicate);
+
+        final IndexQuery indexQuery = ArchiveScanPlanner.extractIndexQuery(consumer);
+
+        assertNotNull(indexQuery);
+        assertEquals(TIMESTAMP, indexQuery.beginTimestampInclusive());
+        assertEquals(TIMESTAMP + 1, indexQuery.endTimestampExclusive());
+    }
+
+    @Test
+    public void shouldOnlyMatchTagsWithinTheBody()
+    {
+        encodeOrder();
+        // Messages sent by Session.tryClaimAndSend can have unused bytes after their body
+        buffer.putStringWithoutLengthAscii(encoder.limit(), "58=unused\001");
+
+        assertMatches(true, FixMessageQuery.query().tagEquals(55, "MSFT"));
+        assertMatches(false, FixMessageQuery.query().tagEquals(58, "unused"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectEmptyRanges()
+    {
+        FixMessageQuery.query().tagBetween(38, 2, 1);
+    }
+
+    private void assertMatches(final boolean expected, final FixMessageQuery query)
+    {
+        assertEquals(expected, query.compile().test(decoder));
+    }
+
+    private void encodeOrder()
+    {
+        encoder
+            .timestamp(TIMESTAMP)
+            .messageType(packMessageType("D"))
+            .body(ORDER_EG);
+    }
+}
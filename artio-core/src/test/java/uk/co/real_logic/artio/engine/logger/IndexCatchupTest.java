@@ -0,0 +1,306 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Aeron;
+import io.aeron.ExclusivePublication;
+import io.aeron.archive.ArchivingMediaDriver;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.codecs.SourceLocation;
+import io.aeron.archive.status.RecordingPos;
+import io.aeron.logbuffer.Header;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static org.agrona.concurrent.status.CountersReader.NULL_COUNTER_ID;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.TestFixtures.*;
+
+public class IndexCatchupTest
+{
+    private static final int STREAM_ID = 1;
+    private static final int REPLAY_STREAM_ID = 2;
+    private static final int MESSAGES = 10;
+    private static final int MESSAGE_LENGTH = 64;
+
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final AtomicCounter remainingRecordings = mock(AtomicCounter.class);
+    private final AtomicCounter remainingBytes = mock(AtomicCounter.class);
+
+    private ArchivingMediaDriver mediaDriver;
+    private AeronArchive aeronArchive;
+    private long firstRecordingId;
+    private long secondRecordingId;
+    private long firstStopPosition;
+    private long secondStopPosition;
+
+    @Before
+    public void setUp()
+    {
+        mediaDriver = launchMediaDriver();
+        aeronArchive = AeronArchive.connect(aeronArchiveContext());
+
+        final long subscriptionId = aeronArchive.startRecording(IPC_CHANNEL, STREAM_ID, SourceLocation.LOCAL);
+        firstRecordingId = recordMessages(MESSAGES);
+        secondRecordingId = recordMessages(MESSAGES);
+        aeronArchive.stopRecording(subscriptionId);
+
+        firstStopPosition = awaitStopPosition(firstRecordingId);
+        secondStopPosition = awaitStopPosition(secondRecordingId);
+    }
+
+    @After
+    public void tearDown()
+    {
+        verify(errorHandler, never()).onError(any());
+
+        CloseHelper.close(aeronArchive);
+        cleanupMediaDriver(mediaDriver);
+
+        Mockito.framework().clearInlineMocks();
+    }
+
+    @Test
+    public void shouldCatchUpEachIndexFromItsOwnStoppedPosition()
+    {
+        final long firstMidPosition = firstStopPosition / 2;
+        final RecordingIndex fromStart = new RecordingIndex(0, 0);
+        final RecordingIndex fromMiddle = new RecordingIndex(firstMidPosition, secondStopPosition);
+
+        runCatchup(1, fromStart, fromMiddle);
+
+        assertEquals(MESSAGES, fromStart.positions(firstRecordingId).size());
+        assertEquals(MESSAGES, fromStart.positions(secondRecordingId).size());
+        assertEquals(MESSAGES / 2, fromMiddle.positions(firstRecordingId).size());
+        assertEquals(0, fromMiddle.positions(secondRecordingId).size());
+        assertEquals(firstStopPosition, fromMiddle.positions(firstRecordingId).getLong(MESSAGES / 2 - 1));
+    }
+
+    @Test
+    public void shouldCatchUpWithConcurrentReplays()
+    {
+        final RecordingIndex index = new RecordingIndex(0, 0);
+
+        runCatchup(2, index);
+
+        assertEquals(MESSAGES, index.positions(firstRecordingId).size());
+        assertEquals(MESSAGES, index.positions(secondRecordingId).size());
+        assertEquals(secondStopPosition, index.positions(secondRecordingId).getLong(MESSAGES - 1));
+    }
+
+    @Test
+    public void shouldReportProgress()
+    {
+        runCatchup(2, new RecordingIndex(0, 0));
+
+        verify(remainingRecordings).setOrdered(2);
+        verify(remainingRecordings, times(2)).decrementOrdered();
+        verify(remainingBytes).setOrdered(firstStopPosition + secondStopPosition);
+    }
+
+    @Test
+    public void shouldNotReplayRecordingsThatAreAlreadyIndexed()
+    {
+        final RecordingIndex index = new RecordingIndex(firstStopPosition, secondStopPosition);
+
+        runCatchup(2, index);
+
+        assertEquals(0, index.positions(firstRecordingId).size());
+        assertEquals(0, index.positions(secondRecordingId).size());
+        verify(remainingRecordings).setOrdered(0);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldCatchUpOtherRecordingsWhenARecordingStopsMidMessage()
+    {
+        final long truncatedRecordingId = recordTruncatedFragmentedMessage();
+        final int messages = 10 * MESSAGES;
+        final long subscriptionId = aeronArchive.startRecording(IPC_CHANNEL, STREAM_ID, SourceLocation.LOCAL);
+        final long recordingId = recordMessages(messages);
+        aeronArchive.stopRecording(subscriptionId);
+        final long stopPosition = awaitStopPosition(recordingId);
+
+        final RecordingIndex index = new RecordingIndex(
+            new long[]{ truncatedRecordingId, recordingId }, new long[]{ 0, 0 });
+
+        runCatchup(2, index);
+
+        assertEquals(1, index.positions(truncatedRecordingId).size());
+        assertEquals(messages, index.positions(recordingId).size());
+        assertEquals(stopPosition, index.positions(recordingId).getLong(messages - 1));
+    }
+
+    private void runCatchup(final int maxConcurrentReplays, final RecordingIndex... indices)
+    {
+        final IndexCatchup indexCatchup = new IndexCatchup(
+            aeronArchive, errorHandler, REPLAY_STREAM_ID, maxConcurrentReplays, remainingRecordings, remainingBytes);
+        for (final RecordingIndex index : indices)
+        {
+            indexCatchup.add(index);
+        }
+        indexCatchup.run();
+    }
+
+    private long recordMessages(final int messages)
+    {
+        final Aeron aeron = aeronArchive.context().aeron();
+        final YieldingIdleStrategy idleStrategy = YieldingIdleStrategy.INSTANCE;
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[MESSAGE_LENGTH]);
+
+        try (ExclusivePublication publication = aeron.addExclusivePublication(IPC_CHANNEL, STREAM_ID))
+        {
+            final int counterId = awaitRecordingCounterId(publication);
+
+            for (int i = 0; i < messages; i++)
+            {
+                while (publication.offer(buffer) < 0)
+                {
+                    idleStrategy.idle();
+                }
+            }
+
+            return awaitRecorded(publication, counterId);
+        }
+    }
+
+    // Simulates an unclean shutdown that leaves only the first fragment of a message in the recording
+    private long recordTruncatedFragmentedMessage()
+    {
+        final Aeron aeron = aeronArchive.context().aeron();
+        final long subscriptionId = aeronArchive.startRecording(IPC_CHANNEL, STREAM_ID, SourceLocation.LOCAL);
+        final long recordingId;
+        final long truncatePosition;
+
+        try (ExclusivePublication publication = aeron.addExclusivePublication(IPC_CHANNEL, STREAM_ID))
+        {
+            final int counterId = awaitRecordingCounterId(publication);
+            final UnsafeBuffer buffer = new UnsafeBuffer(new byte[3 * publication.maxPayloadLength()]);
+            truncatePosition = publication.position() + publication.mtu();
+
+            while (publication.offer(buffer) < 0)
+            {
+                YieldingIdleStrategy.INSTANCE.idle();
+            }
+
+            recordingId = awaitRecorded(publication, counterId);
+        }
+
+        aeronArchive.stopRecording(subscriptionId);
+        awaitStopPosition(recordingId);
+        aeronArchive.truncateRecording(recordingId, truncatePosition);
+
+        return recordingId;
+    }
+
+    private int awaitRecordingCounterId(final ExclusivePublication publication)
+    {
+        final CountersReader counters = aeronArchive.context().aeron().countersReader();
+        int counterId;
+        while ((counterId = RecordingPos.findCounterIdBySession(
+            counters, publication.sessionId(), aeronArchive.archiveId())) == NULL_COUNTER_ID)
+        {
+            YieldingIdleStrategy.INSTANCE.idle();
+        }
+        return counterId;
+    }
+
+    private long awaitRecorded(final ExclusivePublication publication, final int counterId)
+    {
+        final CountersReader counters = aeronArchive.context().aeron().countersReader();
+        while (counters.getCounterValue(counterId) < publication.position())
+        {
+            YieldingIdleStrategy.INSTANCE.idle();
+        }
+
+        return RecordingPos.getRecordingId(counters, counterId);
+    }
+
+    private long awaitStopPosition(final long recordingId)
+    {
+        long stopPosition;
+        while ((stopPosition = aeronArchive.getStopPosition(recordingId)) == NULL_POSITION)
+        {
+            YieldingIdleStrategy.INSTANCE.idle();
+        }
+        return stopPosition;
+    }
+
+    private final class RecordingIndex implements Index
+    {
+        private final Long2ObjectHashMap<LongArrayList> recordingIdToPositions = new Long2ObjectHashMap<>();
+        private final long[] recordingIds;
+        private final long[] stoppedPositions;
+
+        RecordingIndex(final long firstStoppedPosition, final long secondStoppedPosition)
+        {
+            this(
+                new long[]{ firstRecordingId, secondRecordingId },
+                new long[]{ firstStoppedPosition, secondStoppedPosition });
+        }
+
+        RecordingIndex(final long[] recordingIds, final long[] stoppedPositions)
+        {
+            this.recordingIds = recordingIds;
+            this.stoppedPositions = stoppedPositions;
+            for (final long recordingId : recordingIds)
+            {
+                recordingIdToPositions.put(recordingId, new LongArrayList());
+            }
+        }
+
+        LongArrayList positions(final long recordingId)
+        {
+            return recordingIdToPositions.get(recordingId);
+        }
+
+        public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+        }
+
+        public void onCatchup(
+            final DirectBuffer buffer, final int offset, final int length, final Header header, final long recordingId)
+        {
+            positions(recordingId).addLong(header.position());
+        }
+
+        public void readLastPosition(final IndexedPositionConsumer consumer)
+        {
+            for (int i = 0; i < recordingIds.length; i++)
+            {
+                consumer.accept(0, recordingIds[i], stoppedPositions[i]);
+            }
+        }
+
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReorderBufferTest
+{
+    private static final int SEGMENT_SIZE = 64;
+    private static final int MAXIMUM_SIZE = 128;
+
+    private final UnsafeBuffer message = new UnsafeBuffer(new byte[2 * SEGMENT_SIZE]);
+    private final ReorderBuffer reorderBuffer = new ReorderBuffer(SEGMENT_SIZE, MAXIMUM_SIZE);
+    private final ReorderBuffer.Heap heap = new ReorderBuffer.Heap(reorderBuffer);
+
+    @After
+    public void teardown()
+    {
+        reorderBuffer.close();
+    }
+
+    @Test
+    public void shouldOrderByTimestampThenBufferingOrder()
+    {
+        final int three = put(10, 3);
+        final int firstOne = put(10, 1);
+        final int two = put(10, 2);
+        final int secondOne = put(10, 1);
+
+        assertEquals(firstOne, heap.poll());
+        assertEquals(secondOne, heap.poll());
+        assertEquals(two, heap.poll());
+        assertEquals(three, heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void shouldReuseSegmentsOnceTheirMessagesAreFreed()
+    {
+        final int first = put(40, 1);
+        final int second = put(40, 2);
+        assertEquals(2 * SEGMENT_SIZE, reorderBuffer.allocatedBytes());
+
+        reorderBuffer.free(first);
+        reorderBuffer.free(second);
+        assertEquals(0, reorderBuffer.bufferedBytes());
+
+        put(40, 3);
+        final int fourth = put(40, 4);
+
+        assertEquals(2 * SEGMENT_SIZE, reorderBuffer.allocatedBytes());
+        assertEquals(80, reorderBuffer.bufferedBytes());
+        assertMessage(fourth, 40, 4);
+    }
+
+    @Test
+    public void shouldGiveOversizedMessagesTheirOwnSegment()
+    {
+        final int oversized = put(100, 1);
+        assertEquals(100, reorderBuffer.allocatedBytes());
+        assertMessage(oversized, 100, 1);
+
+        reorderBuffer.free(oversized);
+        assertEquals(0, reorderBuffer.allocatedBytes());
+    }
+
+    @Test
+    public void shouldOnlyHaveSpaceWithinTheMaximumSize()
+    {
+        put(40, 1);
+        put(40, 2);
+
+        assertTrue(reorderBuffer.hasSpaceFor(20));
+        assertFalse(reorderBuffer.hasSpaceFor(40));
+    }
+
+    private int put(final int length, final long timestamp)
+    {
+        message.setMemory(0, length, (byte)timestamp);
+        final int slot = reorderBuffer.put(message, 0, length, timestamp);
+        heap.add(slot);
+        return slot;
+    }
+
+    private void assertMessage(final int slot, final int length, final long timestamp)
+    {
+        assertEquals(timestamp, reorderBuffer.timestamp(slot));
+        assertEquals(length, reorderBuffer.length(slot));
+
+        final UnsafeBuffer buffer = reorderBuffer.buffer(slot);
+        final int offset = reorderBuffer.offset(slot);
+        for (int i = 0; i < length; i++)
+        {
+            assertEquals((byte)timestamp, buffer.getByte(offset + i));
+        }
+    }
+}
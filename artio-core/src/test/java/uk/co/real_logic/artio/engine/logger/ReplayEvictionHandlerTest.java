@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.NoOpIdleStrategy;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.ReplayerCommandQueue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.Mockito.*;
+
+public class ReplayEvictionHandlerTest
+{
+    private static final long FIX_SESSION_ID = 123;
+
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final ReplayQuery replayQuery = mock(ReplayQuery.class);
+    private final ReplayerCommandQueue replayerCommandQueue = new ReplayerCommandQueue(new NoOpIdleStrategy());
+    private final ReplayEvictionHandler evictionHandler =
+        new ReplayEvictionHandler(errorHandler, YieldingIdleStrategy.INSTANCE);
+
+    @Test(timeout = 10_000L)
+    public void shouldWaitForTheReplayerToResetItsQuery() throws InterruptedException
+    {
+        evictionHandler.replayQuery(replayQuery);
+        evictionHandler.replayerCommandQueue(replayerCommandQueue);
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final Thread replayerThread = new Thread(() ->
+        {
+            while (running.get())
+            {
+                if (replayerCommandQueue.poll() == 0)
+                {
+                    Thread.yield();
+                }
+            }
+        });
+        replayerThread.start();
+
+        try
+        {
+            evictionHandler.onReset(FIX_SESSION_ID);
+
+            verify(replayQuery).onReset(FIX_SESSION_ID);
+        }
+        finally
+        {
+            running.set(false);
+            replayerThread.join();
+        }
+    }
+
+    @Test(timeout = 10_000L)
+    public void shouldNotWaitForAClosedReplayer()
+    {
+        evictionHandler.replayQuery(replayQuery);
+        evictionHandler.replayerCommandQueue(replayerCommandQueue);
+        replayerCommandQueue.close();
+
+        evictionHandler.onReset(FIX_SESSION_ID);
+
+        verify(replayQuery, never()).onReset(FIX_SESSION_ID);
+    }
+}
@@ -64,6 +64,7 @@ import static uk.co.real_logic.artio.TestFixtures.aeronArchiveContext;
 import static uk.co.real_logic.artio.TestFixtures.cleanupMediaDriver;
 import static uk.co.real_logic.artio.TestFixtures.largeTestReqId;
 import static uk.co.real_logic.artio.engine.EngineConfiguration.*;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.segmentCount;
 import static uk.co.real_logic.artio.engine.logger.Replayer.MOST_RECENT_MESSAGE;
 
 public class ReplayIndexTest extends AbstractLogTest
@@ -101,6 +102,7 @@ public class ReplayIndexTest extends AbstractLogTest
     private ExclusivePublication publication;
     private Subscription subscription;
     private RecordingIdLookup recordingIdLookup;
+    private boolean replayIndexStoreEnabled = false;
 
     private void newReplayIndex()
     {
@@ -119,7 +121,26 @@ public class ReplayIndexTest extends AbstractLogTest
             mock(SequenceNumberIndexReader.class),
             DEFAULT_TIME_INDEX_FLUSH_INTERVAL_IN_NS,
             DEFAULT_INDEX_CHECKSUM_ENABLED,
-            new ReplayEvictionHandler(errorHandler));
+            new ReplayEvictionHandler(errorHandler, new NoOpIdleStrategy()),
+            replayIndexStoreEnabled);
+    }
+
+    private void newReplayQuery()
+    {
+        query = new ReplayQuery(
+            DEFAULT_LOG_FILE_DIR,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            existingBufferFactory,
+            DEFAULT_OUTBOUND_LIBRARY_STREAM,
+            new NoOpIdleStrategy(),
+            aeronArchive,
+            errorHandler,
+            NoOpReplayQueryListener.INSTANCE,
+            DEFAULT_ARCHIVE_REPLAY_STREAM,
+            DEFAULT_REPLAY_INDEX_RECORD_CAPACITY,
+            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY,
+            replayIndexStoreEnabled);
     }
 
     private Aeron aeron()
@@ -148,19 +169,7 @@ public class ReplayIndexTest extends AbstractLogTest
         IoUtil.delete(logFileDir, false);
 
         newReplayIndex();
-        query = new ReplayQuery(
-            DEFAULT_LOG_FILE_DIR,
-            DEFAULT_LOGGER_CACHE_NUM_SETS,
-            DEFAULT_LOGGER_CACHE_SET_SIZE,
-            existingBufferFactory,
-            DEFAULT_OUTBOUND_LIBRARY_STREAM,
-            new NoOpIdleStrategy(),
-            aeronArchive,
-            errorHandler,
-            NoOpReplayQueryListener.INSTANCE,
-            DEFAULT_ARCHIVE_REPLAY_STREAM,
-            DEFAULT_REPLAY_INDEX_RECORD_CAPACITY,
-            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY);
+        newReplayQuery();
     }
 
     @After
@@ -475,6 +484,88 @@ public class ReplayIndexTest extends AbstractLogTest
         assertFalse(segmentFile(SESSION_ID, 3).exists());
     }
 
+    @Test(timeout = 20_000L)
+    public void shouldQueryRecordsForMultipleSessionsFromReplayIndexStore()
+    {
+        useReplayIndexStore();
+
+        indexExampleMessage(SESSION_ID, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexExampleMessage(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexExampleMessage(SESSION_ID, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX);
+
+        final int msgCount = query(SESSION_ID, SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX);
+
+        assertEquals(2, msgCount);
+        verifyMessagesRead(2);
+        assertFalse(logFile(SESSION_ID).exists());
+        assertFalse(logFile(SESSION_ID_2).exists());
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldReadReplayIndexStoreRecordsFromBeforeARestart()
+    {
+        useReplayIndexStore();
+
+        indexExampleMessage();
+
+        replayIndex.close();
+
+        newReplayIndex();
+
+        indexExampleMessage(SESSION_ID, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX);
+
+        final int msgCount = query(SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX);
+
+        verifyMessagesRead(2);
+        assertEquals(2, msgCount);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldReuseReplayIndexStoreBlocksOnSequenceReset()
+    {
+        useReplayIndexStore();
+
+        int seqNo = 1;
+        for (int i = 0; i < DEFAULT_REPLAY_INDEX_RECORD_CAPACITY; i++)
+        {
+            indexExampleMessage(SESSION_ID, seqNo++, SEQUENCE_INDEX);
+        }
+
+        final int blocksPerSession = segmentCount(
+            DEFAULT_REPLAY_INDEX_RECORD_CAPACITY, DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY);
+        assertEquals(blocksPerSession, storeBlockCount());
+
+        resetSequenceNumber();
+
+        assertEquals(0, query(1, SEQUENCE_INDEX, MOST_RECENT_MESSAGE, SEQUENCE_INDEX));
+
+        indexExampleMessage(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+
+        assertEquals(blocksPerSession, storeBlockCount());
+        assertEquals(1, query(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER, SEQUENCE_INDEX));
+    }
+
+    private void useReplayIndexStore()
+    {
+        Exceptions.closeAll(query, replayIndex);
+        replayIndexStoreEnabled = true;
+        newReplayIndex();
+        newReplayQuery();
+    }
+
+    private int storeBlockCount()
+    {
+        try (ReplayIndexStore store = ReplayIndexStore.reader(
+            DEFAULT_LOG_FILE_DIR,
+            STREAM_ID,
+            DEFAULT_REPLAY_INDEX_RECORD_CAPACITY,
+            DEFAULT_REPLAY_INDEX_SEGMENT_CAPACITY,
+            LoggerUtil::mapExistingFile))
+        {
+            return store.blockCount();
+        }
+    }
+
     private void resetSequenceNumber()
     {
         final int offset = START;
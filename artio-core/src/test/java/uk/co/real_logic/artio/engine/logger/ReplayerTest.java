@@ -49,6 +49,7 @@ import uk.co.real_logic.artio.fields.UtcTimestampDecoder;
 import uk.co.real_logic.artio.messages.FixPProtocolType;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.messages.ReplayCompleteDecoder;
+import uk.co.real_logic.artio.timing.Timer;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
@@ -116,7 +117,12 @@ public class ReplayerTest extends AbstractLogTest
 
         setReplayedMessages(1);
 
-        replayer = new Replayer(
+        replayer = newReplayer(null);
+    }
+
+    private Replayer newReplayer(final ResendCache resendCache)
+    {
+        return new Replayer(
             replayQuery,
             publication,
             claim,
@@ -138,7 +144,9 @@ public class ReplayerTest extends AbstractLogTest
             DEFAULT_MAX_CONCURRENT_SESSION_REPLAYS,
             clock,
             FixPProtocolType.ILINK_3,
-            mock(EngineConfiguration.class));
+            mock(EngineConfiguration.class),
+            mock(Timer.class),
+            resendCache);
     }
 
     private void setReplayedMessages(final int replayedMessages)
@@ -181,6 +189,31 @@ public class ReplayerTest extends AbstractLogTest
         verifyReplayCompleteMessageSent();
     }
 
+    @Test
+    public void shouldResendMessagesFromResendCacheWithoutQueryingArchive()
+    {
+        final ResendCache resendCache = new ResendCache(STREAM_ID, 1024, DEFAULT_RESEND_CACHE_MAX_AGE_IN_MS, clock);
+        replayer = newReplayer(resendCache);
+        when(fragmentHeader.streamId()).thenReturn(STREAM_ID);
+
+        bufferContainsExampleMessage(true);
+        final int srcLength = fragmentLength();
+        resendCache.onFragment(buffer, START, srcLength, fragmentHeader);
+
+        final long result = bufferHasResendRequest(END_SEQ_NO);
+        onRequestResendMessage(result, END_SEQ_NO);
+        verify(replayQuery, never()).query(anyLong(), anyInt(), anyInt(), anyInt(), anyInt(), any(), any());
+
+        setupMessage(srcLength);
+        replayer.doWork();
+
+        assertHasResentWithPossDupFlag(srcLength, times(2));
+
+        replayer.doWork();
+
+        verifyReplayCompleteMessageSent();
+    }
+
     @Test
     public void shouldSupportConcurrentReplayRequests()
     {
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.Header;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.EpochNanoClock;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class ResendCacheTest extends AbstractLogTest
+{
+    private static final long MAX_AGE_IN_MS = 1_000;
+
+    private long timeInNs = 1;
+    private ResendCache resendCache;
+
+    private final Header fragmentHeader = mock(Header.class);
+    private final EpochNanoClock clock = () -> timeInNs;
+
+    @Before
+    public void setUp()
+    {
+        when(fragmentHeader.streamId()).thenReturn(STREAM_ID);
+        when(fragmentHeader.flags()).thenReturn((byte)DataHeaderFlyweight.BEGIN_AND_END_FLAGS);
+
+        // Room for 3 messages
+        newResendCache(3);
+    }
+
+    @Test
+    public void shouldCoverContiguouslyCachedMessages()
+    {
+        onExampleMessages(1, 3);
+
+        assertNotNull(lookup(1, 3));
+        assertNotNull(lookup(2, 2));
+        assertNull(lookup(1, 4));
+        assertNull(resendCache.lookup(SESSION_ID_2, SEQUENCE_INDEX, 1, 3));
+        assertNull(resendCache.lookup(SESSION_ID, SEQUENCE_INDEX + 1, 1, 3));
+    }
+
+    @Test
+    public void shouldEvictOldestMessagesWhenFull()
+    {
+        onExampleMessages(1, 5);
+
+        assertNotNull(lookup(3, 5));
+        assertNull(lookup(2, 5));
+    }
+
+    @Test
+    public void shouldEvictMessagesOlderThanMaxAge()
+    {
+        onExampleMessages(1, 1);
+        timeInNs += MILLISECONDS.toNanos(MAX_AGE_IN_MS);
+        onExampleMessages(2, 2);
+        timeInNs++;
+
+        assertNull(lookup(1, 2));
+        assertNotNull(lookup(2, 2));
+    }
+
+    @Test
+    public void shouldClearOnSequenceNumberGap()
+    {
+        onExampleMessages(1, 2);
+        onExampleMessages(4, 4);
+
+        assertNull(lookup(1, 2));
+        assertNotNull(lookup(4, 4));
+    }
+
+    @Test
+    public void shouldClearOnSequenceIndexChange()
+    {
+        onExampleMessages(1, 2);
+        bufferContainsExampleMessage(true, SESSION_ID, 3, SEQUENCE_INDEX + 1);
+        onFragment();
+
+        assertNull(lookup(1, 2));
+        assertNotNull(resendCache.lookup(SESSION_ID, SEQUENCE_INDEX + 1, 3, 3));
+    }
+
+    @Test
+    public void shouldClearWhenMessageTooLargeForCache()
+    {
+        newResendCache(1);
+        onExampleMessages(1, 1);
+        bufferContainsExampleMessage(true, SESSION_ID, 2, SEQUENCE_INDEX, "a much longer test request id");
+        onFragment();
+
+        assertNull(lookup(1, 1));
+        assertNull(lookup(2, 2));
+    }
+
+    @Test
+    public void shouldReplayCachedMessagesInOrder()
+    {
+        onExampleMessages(1, 3);
+        final int length = fragmentLength();
+        final ControlledFragmentHandler handler = mock(ControlledFragmentHandler.class);
+        when(handler.onFragment(any(), anyInt(), anyInt(), any())).thenReturn(ABORT, CONTINUE);
+
+        final ResendCache.SessionCache sessionCache = lookup(2, 3);
+        final long position = sessionCache.position(2);
+        assertEquals(position, sessionCache.replay(position, handler));
+
+        final long nextPosition = sessionCache.replay(position, handler);
+        assertTrue(nextPosition > position);
+        assertTrue(sessionCache.isAvailable(sessionCache.epoch(), nextPosition));
+        verify(handler, times(2)).onFragment(any(DirectBuffer.class), anyInt(), eq(length), any());
+    }
+
+    @Test
+    public void shouldNotReplayMessagesEvictedDuringReplay()
+    {
+        onExampleMessages(1, 3);
+        final ResendCache.SessionCache sessionCache = lookup(1, 3);
+        final int epoch = sessionCache.epoch();
+        final long position = sessionCache.position(1);
+
+        onExampleMessages(4, 4);
+
+        assertFalse(sessionCache.isAvailable(epoch, position));
+    }
+
+    @Test
+    public void shouldNotReplayMessagesClearedDuringReplay()
+    {
+        onExampleMessages(1, 3);
+        final ResendCache.SessionCache sessionCache = lookup(3, 3);
+        final int epoch = sessionCache.epoch();
+        final long position = sessionCache.position(3);
+
+        onExampleMessages(1, 1);
+
+        assertFalse(sessionCache.isAvailable(epoch, position));
+    }
+
+    private void newResendCache(final int messages)
+    {
+        bufferContainsExampleMessage(true);
+        final int capacity = messages * ResendCache.recordLength(fragmentLength());
+        resendCache = new ResendCache(STREAM_ID, capacity, MAX_AGE_IN_MS, clock);
+    }
+
+    private ResendCache.SessionCache lookup(final int beginSeqNo, final int endSeqNo)
+    {
+        return resendCache.lookup(SESSION_ID, SEQUENCE_INDEX, beginSeqNo, endSeqNo);
+    }
+
+    private void onExampleMessages(final int fromSequenceNumber, final int toSequenceNumber)
+    {
+        for (int sequenceNumber = fromSequenceNumber; sequenceNumber <= toSequenceNumber; sequenceNumber++)
+        {
+            bufferContainsExampleMessage(true, SESSION_ID, sequenceNumber, SEQUENCE_INDEX);
+            onFragment();
+        }
+    }
+
+    private void onFragment()
+    {
+        resendCache.onFragment(buffer, START, fragmentLength(), fragmentHeader);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongArrayList;
+import org.agrona.collections.LongHashSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOG_FILE_DIR;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_OUTBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.util.MessageTypeEncoding.packMessageType;
+
+public class ScanIndexTest
+{
+    private static final int REC_ID = 1;
+    private static final int BLOCK_SIZE = 100;
+    private static final long SESSION_1 = 1;
+    private static final long SESSION_2 = 2;
+    private static final long NEW_ORDER = packMessageType("D");
+    private static final long EXECUTION_REPORT = packMessageType("8");
+
+    private final ErrorHandler errorHandler = spy(new ErrorHandler()
+    {
+        public void onError(final Throwable throwable)
+        {
+            throwable.printStackTrace();
+        }
+    });
+
+    private final ScanIndexReader reader = new ScanIndexReader(DEFAULT_LOG_FILE_DIR, DEFAULT_OUTBOUND_LIBRARY_STREAM);
+    private final IndexQuery query = new IndexQuery();
+
+    private ScanIndexWriter writer;
+
+    @After
+    public void teardown()
+    {
+        verifyNoInteractions(errorHandler);
+        Exceptions.closeAll(writer);
+    }
+
+    @Before
+    public void setup()
+    {
+        final File logFileDir = new File(DEFAULT_LOG_FILE_DIR);
+        if (logFileDir.exists())
+        {
+            IoUtil.delete(logFileDir, false);
+        }
+        assertTrue(logFileDir.mkdirs());
+
+        newWriter();
+
+        // [0, 128) session 1 new orders
+        writer.onMessage(REC_ID, 0, 64, SESSION_1, NEW_ORDER, true);
+        writer.onMessage(REC_ID, 64, 128, SESSION_1, NEW_ORDER, true);
+
+        // [128, 256) session 2 execution reports
+        writer.onMessage(REC_ID, 128, 256, SESSION_2, EXECUTION_REPORT, true);
+
+        // [256, 400) a fragmented session 1 execution report, the block can't end part way through
+        writer.onMessage(REC_ID, 256, 300, SESSION_1, EXECUTION_REPORT, false);
+        writer.onContinuedFragment(REC_ID, 400, true);
+
+        // [400, 450) isn't a full block so hasn't been written yet
+        writer.onMessage(REC_ID, 400, 450, SESSION_2, NEW_ORDER, true);
+    }
+
+    private void newWriter()
+    {
+        writer = new ScanIndexWriter(DEFAULT_LOG_FILE_DIR, DEFAULT_OUTBOUND_LIBRARY_STREAM, BLOCK_SIZE, errorHandler);
+    }
+
+    @Test
+    public void shouldFindBlocksOfSession()
+    {
+        query.sessionIds(setOf(SESSION_1));
+
+        assertRanges(0, 128, 256, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldFindBlocksOfMessageType()
+    {
+        query.messageTypes(setOf(EXECUTION_REPORT));
+
+        assertRanges(128, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldFindBlocksMatchingSessionAndMessageType()
+    {
+        query.sessionIds(setOf(SESSION_2));
+        query.messageTypes(setOf(NEW_ORDER));
+
+        assertRanges(400, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldIndexLastBlockOnClose()
+    {
+        writer.close();
+
+        query.sessionIds(setOf(SESSION_1));
+
+        assertRanges(0, 128, 256, 400, 450, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldScanUnindexedGapsAfterRestart()
+    {
+        writer.close();
+        newWriter();
+
+        writer.onMessage(REC_ID, 500, 600, SESSION_2, EXECUTION_REPORT, true);
+
+        query.sessionIds(setOf(SESSION_1));
+
+        assertRanges(0, 128, 256, 400, 450, 500, 600, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldIntersectWithTimeIndexedRanges()
+    {
+        query.sessionIds(setOf(SESSION_1));
+
+        final Long2ObjectHashMap<List<PositionRange>> recordingIdToPositionRanges = new Long2ObjectHashMap<>();
+        final List<PositionRange> timeRange = new ArrayList<>();
+        timeRange.add(new PositionRange(64, 300));
+        recordingIdToPositionRanges.put(REC_ID, timeRange);
+
+        reader.findPositionRanges(query, recordingIdToPositionRanges, true);
+
+        assertEquals("[PositionRange{startPosition=64, endPosition=128}, " +
+            "PositionRange{startPosition=256, endPosition=300}]",
+            recordingIdToPositionRanges.get(REC_ID).toString());
+    }
+
+    @Test
+    public void shouldSplitRecordingsAtBlockStarts()
+    {
+        writer.close();
+
+        assertSplitPositions(100, 128, 256, 400);
+        assertSplitPositions(200, 256);
+    }
+
+    private void assertSplitPositions(final long chunkLength, final long... splitPositions)
+    {
+        final Long2ObjectHashMap<LongArrayList> recordingIdToSplitPositions = new Long2ObjectHashMap<>();
+        reader.findSplitPositions(recordingIdToSplitPositions, chunkLength);
+
+        final LongArrayList expectedSplitPositions = new LongArrayList();
+        for (final long splitPosition : splitPositions)
+        {
+            expectedSplitPositions.addLong(splitPosition);
+        }
+        assertEquals(expectedSplitPositions, recordingIdToSplitPositions.get(REC_ID));
+    }
+
+    private void assertRanges(final long... startAndEndPositions)
+    {
+        final Long2ObjectHashMap<List<PositionRange>> recordingIdToPositionRanges = new Long2ObjectHashMap<>();
+        reader.findPositionRanges(query, recordingIdToPositionRanges, false);
+
+        final List<PositionRange> positionRanges = recordingIdToPositionRanges.get(REC_ID);
+        assertEquals(positionRanges.toString(), startAndEndPositions.length / 2, positionRanges.size());
+        for (int i = 0; i < positionRanges.size(); i++)
+        {
+            final PositionRange positionRange = positionRanges.get(i);
+            assertEquals(positionRanges.toString(), startAndEndPositions[2 * i], positionRange.startPosition());
+            assertEquals(positionRanges.toString(), startAndEndPositions[2 * i + 1], positionRange.endPosition());
+        }
+    }
+
+    private static LongHashSet setOf(final long value)
+    {
+        final LongHashSet set = new LongHashSet();
+        set.add(value);
+        return set;
+    }
+}
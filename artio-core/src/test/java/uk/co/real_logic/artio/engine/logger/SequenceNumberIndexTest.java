@@ -39,11 +39,14 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import uk.co.real_logic.artio.FileSystemCorruptionException;
 import uk.co.real_logic.artio.dictionary.SessionConstants;
+import uk.co.real_logic.artio.engine.ChecksumFramer;
 import uk.co.real_logic.artio.engine.MappedFile;
 import uk.co.real_logic.artio.engine.SequenceNumberExtractor;
 import uk.co.real_logic.artio.engine.framer.FakeEpochClock;
 import uk.co.real_logic.artio.messages.FixPProtocolType;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder;
 
 import java.io.File;
 
@@ -311,6 +314,89 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         }
     }
 
+    @Test
+    public void shouldFlushDirtySectorsOnTimeoutWithIncrementalFlush()
+    {
+        useIncrementalFlushWriter();
+
+        indexFixMessage();
+
+        assertEquals(0, writer.doWork());
+
+        clock.advanceMilliSeconds(DEFAULT_INDEX_FILE_STATE_FLUSH_TIMEOUT_IN_MS + 1);
+
+        assertEquals(1, writer.doWork());
+
+        try (MappedFile mappedFile = newIndexFile())
+        {
+            final SequenceNumberIndexReader newReader = new SequenceNumberIndexReader(
+                mappedFile.buffer(), errorHandler, recordingIdLookup, null);
+
+            assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER, newReader);
+            assertEquals(alignedEndPosition(), newReader.indexedPosition(publication.sessionId()));
+        }
+    }
+
+    @Test
+    public void shouldUpdateRecordsInPlaceWithIncrementalFlush()
+    {
+        useIncrementalFlushWriter();
+
+        final int initialSequenceNumber = 1;
+        final int recordsOverlappingABlock = SECTOR_SIZE / RECORD_SIZE + 1;
+        for (int i = initialSequenceNumber; i <= recordsOverlappingABlock; i++)
+        {
+            bufferContainsExampleMessage(true, i, i, SEQUENCE_INDEX);
+            indexRecord();
+        }
+
+        writer.close();
+        writer = newWriter(inMemoryBuffer, true);
+
+        // Only dirties the second sector
+        bufferContainsExampleMessage(true, recordsOverlappingABlock, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexRecord();
+
+        writer.close();
+
+        final SequenceNumberIndexReader newReader = newInstanceAfterRestart();
+        for (int i = initialSequenceNumber; i < recordsOverlappingABlock; i++)
+        {
+            assertLastKnownSequenceNumberIs(i, i, newReader);
+        }
+        assertLastKnownSequenceNumberIs(recordsOverlappingABlock, SEQUENCE_NUMBER, newReader);
+    }
+
+    @Test
+    public void shouldRecoverTornSectorFromMirrorWithIncrementalFlush()
+    {
+        useIncrementalFlushWriter();
+
+        indexFixMessage();
+        writer.close();
+
+        // Simulate a crash part way through writing the sector in place
+        try (MappedFile indexFile = newIndexFile())
+        {
+            indexFile.buffer().putInt(HEADER_SIZE + SEQUENCE_NUMBER_OFFSET, -1);
+        }
+
+        final AtomicBuffer inMemoryBuffer = newBuffer();
+        writer = newWriter(inMemoryBuffer, true);
+
+        final SequenceNumberIndexReader newReader = new SequenceNumberIndexReader(
+            inMemoryBuffer, errorHandler, recordingIdLookup, null);
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER, newReader);
+    }
+
+    private void useIncrementalFlushWriter()
+    {
+        writer.close();
+        deleteFiles();
+        inMemoryBuffer.setMemory(0, inMemoryBuffer.capacity(), (byte)0);
+        writer = newWriter(inMemoryBuffer, true);
+    }
+
     /**
      * Simulate scenario that you've crashed halfway through file flip.
      */
@@ -363,6 +449,45 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         verify(errorHandler, times(3), IllegalStateException.class);
     }
 
+    @Test
+    public void shouldReindexFileWrittenBeforeGenerationHeader()
+    {
+        writer.close();
+        deleteFiles();
+
+        // Before the generation header records started straight after the message header
+        try (MappedFile indexFile = newIndexFile())
+        {
+            final AtomicBuffer fileBuffer = indexFile.buffer();
+            final LastKnownSequenceNumberEncoder lastKnownEncoder = new LastKnownSequenceNumberEncoder();
+            new MessageHeaderEncoder()
+                .wrap(fileBuffer, 0)
+                .blockLength(lastKnownEncoder.sbeBlockLength())
+                .templateId(lastKnownEncoder.sbeTemplateId())
+                .schemaId(lastKnownEncoder.sbeSchemaId())
+                .version(GENERATION_SINCE_VERSION - 1);
+            lastKnownEncoder
+                .wrap(fileBuffer, MessageHeaderEncoder.ENCODED_LENGTH)
+                .sessionId(SESSION_ID)
+                .sequenceNumber(SEQUENCE_NUMBER);
+            new ChecksumFramer(
+                fileBuffer, positionTableOffset(BUFFER_SIZE), errorHandler, 0, "SequenceNumberIndex", true)
+                .updateChecksums();
+        }
+
+        final AtomicBuffer inMemoryBuffer = newBuffer();
+        writer = newWriter(inMemoryBuffer);
+
+        verify(errorHandler, times(1), IllegalStateException.class);
+
+        final SequenceNumberIndexReader newReader = new SequenceNumberIndexReader(
+            inMemoryBuffer, errorHandler, recordingIdLookup, null);
+        assertLastKnownSequenceNumberIs(SESSION_ID, UNK_SESSION, newReader);
+
+        indexFixMessage();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER, newReader);
+    }
+
     private void corruptIndexFile(final int from, final int length)
     {
         try (MappedFile mappedFile = newIndexFile())
@@ -421,6 +546,51 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         assertUnknownSession();
     }
 
+    @Test
+    public void shouldIncrementGenerationUponReset()
+    {
+        indexFixMessage();
+        final long generation = inMemoryBuffer.getLongVolatile(SequenceNumberIndexDescriptor.GENERATION_OFFSET);
+
+        writer.resetSequenceNumbers();
+
+        assertEquals(
+            generation + 1, inMemoryBuffer.getLongVolatile(SequenceNumberIndexDescriptor.GENERATION_OFFSET));
+    }
+
+    @Test
+    public void shouldLookupSessionsIndexedAfterPreviousLookups()
+    {
+        indexFixMessage();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, UNK_SESSION);
+
+        bufferContainsExampleMessage(false, SESSION_ID_2, SEQUENCE_NUMBER + 5, SEQUENCE_INDEX);
+        indexRecord();
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SEQUENCE_NUMBER + 5);
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+    }
+
+    @Test
+    public void shouldLookupSessionsThatReuseRecordSlotsAfterReset()
+    {
+        indexFixMessage();
+        bufferContainsExampleMessage(false, SESSION_ID_2, SEQUENCE_NUMBER + 5, SEQUENCE_INDEX);
+        indexRecord();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SEQUENCE_NUMBER + 5);
+
+        writer.resetSequenceNumbers();
+
+        bufferContainsExampleMessage(false, SESSION_ID_2, SEQUENCE_NUMBER + 2, SEQUENCE_INDEX);
+        indexRecord();
+        assertLastKnownSequenceNumberIs(SESSION_ID, UNK_SESSION);
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SEQUENCE_NUMBER + 2);
+
+        indexFixMessage();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+    }
+
     @Test
     public void shouldResetSequenceNumberForSessionAfterRestart()
     {
@@ -461,13 +631,18 @@ public class SequenceNumberIndexTest extends AbstractLogTest
     }
 
     private SequenceNumberIndexWriter newWriter(final AtomicBuffer inMemoryBuffer)
+    {
+        return newWriter(inMemoryBuffer, false);
+    }
+
+    private SequenceNumberIndexWriter newWriter(final AtomicBuffer inMemoryBuffer, final boolean incrementalFlush)
     {
         final MappedFile indexFile = newIndexFile();
         return new SequenceNumberIndexWriter(new SequenceNumberExtractor(),
             inMemoryBuffer, indexFile, errorHandler, STREAM_ID, recordingIdLookup,
             DEFAULT_INDEX_FILE_STATE_FLUSH_TIMEOUT_IN_MS, clock, null,
             new Long2LongHashMap(UNK_SESSION),
-            FixPProtocolType.ILINK_3, DEFAULT_INDEX_CHECKSUM_ENABLED, true);
+            FixPProtocolType.ILINK_3, DEFAULT_INDEX_CHECKSUM_ENABLED, true, incrementalFlush);
     }
 
     private MappedFile newIndexFile()
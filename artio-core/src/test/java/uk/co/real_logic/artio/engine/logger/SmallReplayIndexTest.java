@@ -115,7 +115,7 @@ public class SmallReplayIndexTest extends AbstractLogTest implements ReplayQuery
             mock(SequenceNumberIndexReader.class),
             DEFAULT_TIME_INDEX_FLUSH_INTERVAL_IN_NS,
             DEFAULT_INDEX_CHECKSUM_ENABLED,
-            new ReplayEvictionHandler(errorHandler));
+            new ReplayEvictionHandler(errorHandler, new NoOpIdleStrategy()));
     }
 
     private Aeron aeron()
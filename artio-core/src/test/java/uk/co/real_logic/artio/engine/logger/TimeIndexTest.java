@@ -132,6 +132,24 @@ public class TimeIndexTest
         shouldReadWrittenTimestamps(positions[1], Long.MAX_VALUE);
     }
 
+    @Test
+    public void shouldReadWrittenTimestampsOutsideOfIndexedTimes()
+    {
+        query.from(timestampsInNs[0] - 1);
+        query.to(timestampsInNs[4] + 1);
+
+        shouldReadWrittenTimestamps(0, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void shouldReadWrittenTimestampsBetweenIndexedTimes()
+    {
+        query.from(timestampsInNs[1] + 1);
+        query.to(timestampsInNs[2] + 1);
+
+        shouldReadWrittenTimestamps(positions[1], positions[3]);
+    }
+
     private void shouldReadWrittenTimestamps(final long startPosition, final long endPosition)
     {
         final Long2ObjectHashMap<PositionRange> recordingIdToPositionRange = new Long2ObjectHashMap<>();
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.framer.FakeEpochClock;
+import uk.co.real_logic.artio.messages.ConnectionType;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.session.DirectSessionProxy;
+import uk.co.real_logic.artio.session.InternalSession;
+import uk.co.real_logic.artio.session.SessionCustomisationStrategy;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+import uk.co.real_logic.artio.util.EpochFractionClocks;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_RESEND_REQUEST_CONTROLLER;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_SESSION_BUFFER_SIZE;
+import static uk.co.real_logic.artio.CommonConfiguration.NO_FORCED_HEARTBEAT_INTERVAL;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS;
+import static uk.co.real_logic.artio.library.SessionConfiguration.DEFAULT_ENABLE_LAST_MSG_SEQ_NUM_PROCESSED;
+import static uk.co.real_logic.artio.messages.SessionState.ACTIVE;
+
+public class SessionTimerWheelTest
+{
+    private static final int HEARTBEAT_INTERVAL_IN_S = 2;
+
+    private final FakeEpochClock fakeClock = new FakeEpochClock();
+    private final EpochNanoClock nanoClock = fakeClock.nanoClockView();
+    private final DirectSessionProxy sessionProxy = mock(DirectSessionProxy.class);
+    private final SessionTimerWheel timerWheel = new SessionTimerWheel(nanoClock.nanoTime());
+    private final InternalSession session = newActiveSession();
+
+    @Test
+    public void shouldOnlyPollSessionsWhenTheirDeadlineIsDue()
+    {
+        timerWheel.add(session);
+        poll();
+        assertEquals(1, timerWheel.timerCount());
+
+        fakeClock.advanceMilliSeconds(100);
+        poll();
+        verify(sessionProxy, never()).sendHeartbeat(anyInt(), anyInt(), anyInt());
+
+        fakeClock.advanceSeconds(HEARTBEAT_INTERVAL_IN_S);
+        poll();
+        verify(sessionProxy).sendHeartbeat(anyInt(), anyInt(), anyInt());
+        assertEquals(1, timerWheel.timerCount());
+    }
+
+    @Test
+    public void shouldRescheduleSessionsWhenTheirStateChanges()
+    {
+        timerWheel.add(session);
+        poll();
+        assertEquals(1, timerWheel.timerCount());
+
+        session.disable();
+        assertEquals(0, timerWheel.timerCount());
+
+        poll();
+        assertEquals(0, timerWheel.timerCount());
+    }
+
+    @Test
+    public void shouldNotPollRemovedSessions()
+    {
+        timerWheel.add(session);
+        poll();
+
+        timerWheel.remove(session);
+        assertEquals(0, timerWheel.timerCount());
+
+        fakeClock.advanceSeconds(HEARTBEAT_INTERVAL_IN_S);
+        poll();
+        verify(sessionProxy, never()).sendHeartbeat(anyInt(), anyInt(), anyInt());
+    }
+
+    private void poll()
+    {
+        timerWheel.poll(nanoClock.nanoTime());
+    }
+
+    private InternalSession newActiveSession()
+    {
+        return new InternalSession(
+            HEARTBEAT_INTERVAL_IN_S,
+            1,
+            nanoClock,
+            ACTIVE,
+            false,
+            sessionProxy,
+            mock(GatewayPublication.class),
+            mock(GatewayPublication.class),
+            mock(SessionIdStrategy.class),
+            2000,
+            mock(AtomicCounter.class),
+            mock(AtomicCounter.class),
+            2,
+            1,
+            0,
+            DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS,
+            new MutableAsciiBuffer(new byte[DEFAULT_SESSION_BUFFER_SIZE]),
+            DEFAULT_ENABLE_LAST_MSG_SEQ_NUM_PROCESSED,
+            SessionCustomisationStrategy.none(),
+            mock(OnMessageInfo.class),
+            EpochFractionClocks.millisClock(nanoClock),
+            ConnectionType.ACCEPTOR,
+            DEFAULT_RESEND_REQUEST_CONTROLLER,
+            NO_FORCED_HEARTBEAT_INTERVAL,
+            false,
+            true,
+            new InternalSession.Formatters());
+    }
+}
@@ -11,6 +11,7 @@ import org.agrona.collections.MutableLong;
 import org.agrona.concurrent.NoOpIdleStrategy;
 import org.agrona.concurrent.SystemEpochNanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import uk.co.real_logic.artio.messages.DisconnectReason;
@@ -115,6 +116,60 @@ class GatewayPublicationTest
         }
     }
 
+    @Test
+    void shouldCommitMessageEncodedIntoClaim()
+    {
+        try (
+            MediaDriver driver = MediaDriver.launch(mediaDriverContext(64 * 1024, true));
+            Aeron aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(driver.aeronDirectoryName())))
+        {
+            final String channel = CommonContext.IPC_CHANNEL;
+            final int streamId = 1000;
+
+            final Subscription subscription = aeron.addSubscription(channel, streamId);
+            final ExclusivePublication publication = aeron.addExclusivePublication(channel, streamId);
+            final Counter fails = aeron.addCounter(1001, "fails");
+
+            final GatewayPublication gatewayPublication = new GatewayPublication(
+                publication,
+                fails,
+                NoOpIdleStrategy.INSTANCE,
+                new SystemEpochNanoClock(),
+                5
+            );
+
+            final byte[] body = new byte[100];
+            ThreadLocalRandom.current().nextBytes(body);
+            final int maxMessageLength = 128;
+            assertTrue(gatewayPublication.canClaimMessage(maxMessageLength));
+
+            long result;
+            do
+            {
+                result = gatewayPublication.claimMessage(maxMessageLength);
+            }
+            while (result <= 0);
+
+            // simulate an encoder that starts the message after the claimed offset
+            final int messageOffset = gatewayPublication.claimedMessageOffset() + 7;
+            gatewayPublication.claimedBuffer().putBytes(messageOffset, body);
+            gatewayPublication.commitClaimedMessage(
+                messageOffset, body.length, 5000, 68, 1, 0, 1234, MessageStatus.OK, 42);
+
+            final MessageCapturingProtocolHandler protocolHandler = new MessageCapturingProtocolHandler();
+            final ProtocolSubscription protocolSubscription = ProtocolSubscription.of(protocolHandler);
+            while (protocolHandler.capturedMessages.isEmpty())
+            {
+                subscription.controlledPoll(protocolSubscription, 5);
+            }
+
+            final CapturedMessage capturedMessage = protocolHandler.capturedMessages.get(0);
+            assertArrayEquals(body, capturedMessage.body());
+            assertEquals(68, capturedMessage.messageType());
+            assertEquals(42, capturedMessage.sequenceNumber());
+        }
+    }
+
     private void advanceToPosition(
         final long position,
         final ExclusivePublication publication,
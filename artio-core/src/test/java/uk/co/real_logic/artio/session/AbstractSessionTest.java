@@ -50,6 +50,7 @@ import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_S;
 import static uk.co.real_logic.artio.CommonConfiguration.NO_FORCED_HEARTBEAT_INTERVAL;
 import static uk.co.real_logic.artio.Constants.NEW_SEQ_NO;
+import static uk.co.real_logic.artio.TestFixtures.largeTestReqId;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_INT;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_LONG;
 import static uk.co.real_logic.artio.fields.RejectReason.*;
@@ -775,6 +776,34 @@ public abstract class AbstractSessionTest
         sendTestRequest(100);
     }
 
+    @Test
+    public void shouldNotUseUpSequenceNumberWhenClaimedMessageFailsToEncode()
+    {
+        givenActive();
+        session().lastSentMsgSeqNum(3);
+        when(mockPublication.canClaimMessage(anyInt())).thenReturn(true);
+        when(mockPublication.claimMessage(anyInt())).thenReturn(POSITION);
+        when(mockPublication.claimedBuffer()).thenReturn(new MutableAsciiBuffer(new byte[256]));
+        when(mockPublication.claimedMessageOffset()).thenReturn(64);
+
+        // too long for the claimed buffer
+        testRequest.reset();
+        testRequest.testReqID(largeTestReqId());
+        assertThrows(IndexOutOfBoundsException.class, () -> session().tryClaimAndSend(testRequest, 128));
+
+        verify(mockPublication).abortClaimedMessage();
+        verify(mockPublication, never()).commitClaimedMessage(
+            anyInt(), anyInt(), anyInt(), anyLong(), anyLong(), anyInt(), anyLong(), any(), anyInt());
+        assertEquals(3, session().lastSentMsgSeqNum());
+
+        testRequest.testReqID("ABC");
+        assertEquals(POSITION, session().tryClaimAndSend(testRequest, 128));
+
+        verify(mockPublication).commitClaimedMessage(
+            anyInt(), anyInt(), anyInt(), anyLong(), anyLong(), anyInt(), anyLong(), any(), eq(4));
+        assertEquals(4, session().lastSentMsgSeqNum());
+    }
+
     @Test
     public void shouldResendRequestShorterThanResendRequestChunkSizeWhenClosedResendInterval()
     {
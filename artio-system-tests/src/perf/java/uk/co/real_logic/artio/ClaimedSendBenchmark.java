@@ -0,0 +1,158 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import io.aeron.Aeron;
+import io.aeron.CommonContext;
+import io.aeron.ExclusivePublication;
+import io.aeron.Subscription;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import io.aeron.logbuffer.FragmentHandler;
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.NoOpIdleStrategy;
+import org.agrona.concurrent.SystemEpochNanoClock;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.builder.LogonEncoder;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.messages.MessageStatus.OK;
+
+/**
+ * Compares encoding a message into a private buffer and copying it into the publication to the engine against
+ * encoding it directly into a claim on that publication.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ClaimedSendBenchmark
+{
+    private static final int STREAM_ID = 1;
+    private static final int LIBRARY_ID = 2;
+    private static final long SESSION_ID = 3;
+    private static final long CONNECTION_ID = 4;
+    private static final int MAX_LENGTH = 256;
+
+    private final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+    private final LogonEncoder logonEncoder = new LogonEncoder();
+    private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[8 * 1024]);
+    private final FragmentHandler drainHandler = (buffer, offset, length, header) -> {};
+
+    private final char[] password = "password".toCharArray();
+    private final char[] username = "username".toCharArray();
+
+    private MediaDriver mediaDriver;
+    private Aeron aeron;
+    private Subscription subscription;
+    private GatewayPublication publication;
+    private int sequenceNumber;
+
+    @Setup
+    public void setup()
+    {
+        mediaDriver = MediaDriver.launchEmbedded(new MediaDriver.Context()
+            .threadingMode(ThreadingMode.SHARED)
+            .dirDeleteOnStart(true)
+            .dirDeleteOnShutdown(true));
+        aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(mediaDriver.aeronDirectoryName()));
+        subscription = aeron.addSubscription(CommonContext.IPC_CHANNEL, STREAM_ID);
+        final ExclusivePublication dataPublication = aeron.addExclusivePublication(
+            CommonContext.IPC_CHANNEL, STREAM_ID);
+        publication = new GatewayPublication(
+            dataPublication,
+            aeron.addCounter(1001, "fails"),
+            NoOpIdleStrategy.INSTANCE,
+            new SystemEpochNanoClock(),
+            1);
+
+        logonEncoder
+            .header()
+            .senderCompID("ABC_DEFG01")
+            .targetCompID("CCG");
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        CloseHelper.closeAll(publication, aeron, mediaDriver);
+    }
+
+    @Benchmark
+    public long copyingSend()
+    {
+        prepareLogon();
+
+        final long result = logonEncoder.encode(buffer, 0);
+        final int length = Encoder.length(result);
+        final int offset = Encoder.offset(result);
+
+        long position;
+        do
+        {
+            position = publication.saveMessage(
+                buffer, offset, length, LIBRARY_ID, logonEncoder.messageType(), SESSION_ID, 0, CONNECTION_ID, OK,
+                sequenceNumber);
+            subscription.poll(drainHandler, 10);
+        }
+        while (position < 0);
+
+        return position;
+    }
+
+    @Benchmark
+    public long claimedSend()
+    {
+        final GatewayPublication publication = this.publication;
+
+        long position;
+        while ((position = publication.claimMessage(MAX_LENGTH)) < 0)
+        {
+            subscription.poll(drainHandler, 10);
+        }
+
+        prepareLogon();
+
+        final long result = logonEncoder.encode(publication.claimedBuffer(), publication.claimedMessageOffset());
+        publication.commitClaimedMessage(
+            Encoder.offset(result), Encoder.length(result), LIBRARY_ID, logonEncoder.messageType(), SESSION_ID, 0,
+            CONNECTION_ID, OK, sequenceNumber);
+        subscription.poll(drainHandler, 10);
+
+        return position;
+    }
+
+    private void prepareLogon()
+    {
+        final UtcTimestampEncoder timestampEncoder = this.timestampEncoder;
+
+        logonEncoder
+            .password(password)
+            .username(username)
+            .maxMessageSize(512)
+            .heartBtInt(10)
+            .header()
+            .msgSeqNum(++sequenceNumber)
+            .sendingTime(timestampEncoder.buffer(), timestampEncoder.encode(System.currentTimeMillis()));
+    }
+}
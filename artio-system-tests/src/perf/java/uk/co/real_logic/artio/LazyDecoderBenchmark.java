@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.real_logic.artio.builder.Validation;
+import uk.co.real_logic.artio.perf.decoder.ExecutionReportDecoder;
+import uk.co.real_logic.artio.util.AsciiBuffer;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the eager decoders against the flyweight decoders on a wide execution report, with around thirty body
+ * fields, of which only a few are read, either the ids and statuses at the start of the body or the quantities near
+ * its end. The decoders are generated from the perf source set's own <code>wide_execution_report_dictionary.xml</code>.
+ * Run with the codecs generated with and without <code>-Dfix.codecs.lazy_decoding=true</code> in order to
+ * compare the flyweight decoders against lazy ones, which only scan as far as the fields that are read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LazyDecoderBenchmark
+{
+    private static final byte[] WIDE_EXECUTION_REPORT = (
+        "8=FIX.4.4\0019=0362\00135=8\00149=VENUE\00156=ABC_DEFG01\00134=10\00152=20150514-15:57:31.336\001" +
+        "37=ORD-0000012345\00117=EXEC-0000067890\001150=F\00139=1\00155=MSFT\00154=1\001" +
+        "60=20150514-15:57:31.335\00111=CLORD-000001\00141=CLORD-000000\001198=SECORD-0001\001" +
+        "1=ACCOUNT-01\00148=US5949181045\00122=4\001207=XNAS\00115=USD\00138=1000\00140=2\00144=310.25\001" +
+        "59=0\00118=G\00121=1\00132=100\00131=310.25\001151=900\00114=100\0016=310.25\00175=20150514\001" +
+        "30=XNAS\00158=Partially filled\00110=214\001")
+        .getBytes(StandardCharsets.US_ASCII);
+
+    private final AsciiBuffer buffer = new MutableAsciiBuffer(WIDE_EXECUTION_REPORT);
+    private final ExecutionReportDecoder eagerDecoder = new ExecutionReportDecoder();
+    private final uk.co.real_logic.artio.perf.decoder_flyweight.ExecutionReportDecoder flyweightDecoder =
+        new uk.co.real_logic.artio.perf.decoder_flyweight.ExecutionReportDecoder();
+
+    @Setup
+    public void setup()
+    {
+        if (Validation.CODEC_VALIDATION_ENABLED)
+        {
+            throw new IllegalStateException(
+                "Benchmark cannot run with validation enabled, set -Dfix.codecs.no_validation=true");
+        }
+    }
+
+    @Benchmark
+    public void eagerReadLeadingFields(final Blackhole bh)
+    {
+        bh.consume(eagerDecoder.decode(buffer, 0, buffer.capacity()));
+
+        bh.consume(eagerDecoder.orderID());
+        bh.consume(eagerDecoder.execType());
+        bh.consume(eagerDecoder.ordStatus());
+    }
+
+    @Benchmark
+    public void flyweightReadLeadingFields(final Blackhole bh)
+    {
+        bh.consume(flyweightDecoder.decode(buffer, 0, buffer.capacity()));
+
+        bh.consume(flyweightDecoder.orderID());
+        bh.consume(flyweightDecoder.execType());
+        bh.consume(flyweightDecoder.ordStatus());
+    }
+
+    @Benchmark
+    public void eagerReadTrailingFields(final Blackhole bh)
+    {
+        bh.consume(eagerDecoder.decode(buffer, 0, buffer.capacity()));
+
+        bh.consume(eagerDecoder.leavesQty());
+        bh.consume(eagerDecoder.cumQty());
+    }
+
+    @Benchmark
+    public void flyweightReadTrailingFields(final Blackhole bh)
+    {
+        bh.consume(flyweightDecoder.decode(buffer, 0, buffer.capacity()));
+
+        bh.consume(flyweightDecoder.leavesQty());
+        bh.consume(flyweightDecoder.cumQty());
+    }
+}
@@ -20,11 +20,16 @@ import org.openjdk.jmh.infra.Blackhole;
 import uk.co.real_logic.artio.builder.Validation;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.decoder.LogonDecoder;
+import uk.co.real_logic.artio.decoder.NewOrderSingleDecoder;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Decodes session codecs generated by the build. Run with the codecs generated with and without
+ * <code>-Dfix.codecs.swar_decoding=true</code> in order to compare byte at a time and word at a time decoding.
+ */
 @State(Scope.Benchmark)
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
@@ -35,6 +40,8 @@ public class StubDecoderBenchmark
 {
     private final LogonDecoder logonDecoder = new LogonDecoder();
     private final AsciiBuffer buffer = new MutableAsciiBuffer(TestData.LOGON);
+    private final NewOrderSingleDecoder newOrderSingleDecoder = new NewOrderSingleDecoder();
+    private final AsciiBuffer newOrderSingleBuffer = new MutableAsciiBuffer(TestData.NEW_ORDER_SINGLE);
 
     @Setup
     public void setup()
@@ -78,4 +85,13 @@ public class StubDecoderBenchmark
         bh.consume(logonDecoder.username());
     }
 
+    @Benchmark
+    public void decodeNewOrderSingle(final Blackhole bh)
+    {
+        bh.consume(newOrderSingleDecoder.decode(newOrderSingleBuffer, 0, newOrderSingleBuffer.capacity()));
+
+        bh.consume(newOrderSingleDecoder.header().msgSeqNum());
+        bh.consume(newOrderSingleDecoder.clOrdID());
+        bh.consume(newOrderSingleDecoder.side());
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.IoUtil;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.dictionary.FixDictionary;
+import uk.co.real_logic.artio.engine.MappedFile;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_INITIAL_SEQUENCE_INDEX;
+
+/**
+ * Measures the part of an engine's startup, before it can accept connections, that depends upon the number of
+ * sessions stored in the session id file. With a saved off-heap index only the records written since the index
+ * was saved are read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FixContextsLoadBenchmark
+{
+    private static final int FILE_SIZE = 32 * 1024 * 1024;
+
+    @Param({"100000"})
+    int sessions;
+
+    @Param({"false", "true"})
+    boolean offHeap;
+
+    @Param({"false", "true"})
+    boolean savedIndex;
+
+    private final SessionIdStrategy idStrategy = SessionIdStrategy.senderAndTarget();
+
+    private File file;
+    private File indexFile;
+    private MappedFile mappedFile;
+    private MappedFile mappedIndexFile;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        file = Files.createTempFile("session_id_buffer", "benchmark").toFile();
+        indexFile = Files.createTempFile("session_id_index", "benchmark").toFile();
+        IoUtil.deleteIfExists(indexFile);
+        mappedFile = MappedFile.map(file, FILE_SIZE);
+        mappedIndexFile = offHeap && savedIndex ?
+            MappedFile.map(indexFile, FixContexts.indexFileSize(FILE_SIZE)) : null;
+
+        final FixContexts fixContexts = load();
+        final FixDictionary dictionary = FixDictionary.of(FixDictionary.findDefault());
+        for (int i = 0; i < sessions; i++)
+        {
+            fixContexts.newSessionContext(
+                idStrategy.onInitiateLogon("initiator" + i, null, null, "acceptor", null, null), dictionary);
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        mappedFile.close();
+        if (mappedIndexFile != null)
+        {
+            mappedIndexFile.close();
+        }
+        IoUtil.deleteIfExists(file);
+        IoUtil.deleteIfExists(indexFile);
+    }
+
+    @Benchmark
+    public FixContexts load()
+    {
+        return new FixContexts(
+            mappedFile,
+            idStrategy,
+            DEFAULT_INITIAL_SEQUENCE_INDEX,
+            Throwable::printStackTrace,
+            false,
+            offHeap,
+            mappedIndexFile);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.IoUtil;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.dictionary.FixDictionary;
+import uk.co.real_logic.artio.engine.MappedFile;
+import uk.co.real_logic.artio.engine.SessionInfo;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_INITIAL_SEQUENCE_INDEX;
+
+/**
+ * Measures an admin sweep, such as resetting the sequence numbers of every session at the start of the day, that
+ * looks up every session by its id against the number of sessions. The linear scan is the lookup algorithm
+ * {@link FixContexts} used before it had an index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FixContextsLookupBenchmark
+{
+    private static final int FILE_SIZE = 64 * 1024 * 1024;
+
+    @Param({"1000", "10000", "30000"})
+    int sessions;
+
+    private File file;
+    private MappedFile mappedFile;
+    private FixContexts fixContexts;
+    private long[] sessionIds;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        file = Files.createTempFile("session_id_buffer", "benchmark").toFile();
+        mappedFile = MappedFile.map(file, FILE_SIZE);
+        final SessionIdStrategy idStrategy = SessionIdStrategy.senderAndTarget();
+        fixContexts = new FixContexts(
+            mappedFile, idStrategy, DEFAULT_INITIAL_SEQUENCE_INDEX, Throwable::printStackTrace, false);
+
+        final FixDictionary dictionary = FixDictionary.of(FixDictionary.findDefault());
+        sessionIds = new long[sessions];
+        for (int i = 0; i < sessions; i++)
+        {
+            sessionIds[i] = fixContexts.newSessionContext(
+                idStrategy.onInitiateLogon("initiator" + i, null, null, "acceptor", null, null), dictionary)
+                .sessionId();
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        mappedFile.close();
+        IoUtil.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long indexedSweep()
+    {
+        final FixContexts fixContexts = this.fixContexts;
+
+        long total = 0;
+        for (final long sessionId : sessionIds)
+        {
+            if (fixContexts.isKnownSessionId(sessionId))
+            {
+                total += fixContexts.lookupById(sessionId).sequenceIndex();
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long linearScanSweep()
+    {
+        final List<SessionInfo> allSessions = fixContexts.allSessions();
+
+        long total = 0;
+        for (final long sessionId : sessionIds)
+        {
+            final SessionContext context = linearScan(allSessions, sessionId);
+            if (context != null)
+            {
+                total += context.sequenceIndex();
+            }
+        }
+        return total;
+    }
+
+    private static SessionContext linearScan(final List<SessionInfo> allSessions, final long sessionId)
+    {
+        for (final SessionInfo sessionInfo : allSessions)
+        {
+            if (sessionInfo.sessionId() == sessionId)
+            {
+                return (SessionContext)sessionInfo;
+            }
+        }
+
+        return null;
+    }
+}
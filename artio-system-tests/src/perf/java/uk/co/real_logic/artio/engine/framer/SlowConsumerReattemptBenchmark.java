@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SENDER_MAX_BYTES_IN_BUFFER;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS;
+import static uk.co.real_logic.artio.engine.framer.FixSenderEndPoint.ENQ_MESSAGE_BLOCK_LEN;
+
+/**
+ * Simulates a slow consumer that holds a backlog of messages in the {@link FixSenderEndPoint}'s reattempt buffer.
+ * Each operation enqueues a message and lets the TCP channel drain one message's worth of bytes, so the backlog
+ * stays at a constant size. The cost of an operation shouldn't depend upon the size of the backlog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SlowConsumerReattemptBenchmark
+{
+    private static final byte[] MESSAGE = ("8=FIX.4.4\0019=0153\00135=D\00134=2\00149=initiator\00152=" +
+        "20240101-00:00:00.000\00156=acceptor\00111=ORDER-ID-1\00121=1\00155=MSFT\00154=1\00160=" +
+        "20240101-00:00:00.000\00138=100\00140=2\00144=12.34\00159=0\00110=123\001").getBytes(US_ASCII);
+    private static final int MESSAGE_OFFSET = FixMessageDecoder.bodyHeaderLength();
+    private static final int ENTRY_LENGTH = ENQ_MESSAGE_BLOCK_LEN + MESSAGE.length;
+
+    @Param({"65536", "1048576", "3145728", "4128768"})
+    int backlogInBytes;
+
+    private final UnsafeBuffer messageBuffer = new UnsafeBuffer(
+        ByteBuffer.allocateDirect(MESSAGE_OFFSET + MESSAGE.length));
+
+    private SlowConsumerChannel channel;
+    private FixSenderEndPoint endPoint;
+    private int sequenceNumber;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        if (backlogInBytes + 2 * ENTRY_LENGTH > DEFAULT_SENDER_MAX_BYTES_IN_BUFFER)
+        {
+            throw new IllegalArgumentException("backlogInBytes would disconnect the slow consumer: " + backlogInBytes);
+        }
+
+        messageBuffer.putBytes(MESSAGE_OFFSET, MESSAGE);
+        channel = new SlowConsumerChannel();
+        endPoint = new FixSenderEndPoint(
+            1,
+            2,
+            null,
+            null,
+            channel,
+            new AtomicCounter(new UnsafeBuffer(new byte[128]), 0),
+            new AtomicCounter(new UnsafeBuffer(new byte[128]), 0),
+            Throwable::printStackTrace,
+            null,
+            DEFAULT_SENDER_MAX_BYTES_IN_BUFFER,
+            DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
+            0,
+            null,
+            null,
+            null,
+            new FixSenderEndPoint.Formatters())
+        {
+            protected void sendSlowStatus(final boolean hasBecomeSlow)
+            {
+            }
+        };
+
+        // Build up the backlog with a consumer that doesn't read anything.
+        while (endPoint.bytesInBuffer() < backlogInBytes)
+        {
+            sendMessage();
+        }
+    }
+
+    @Benchmark
+    public long slowConsumer()
+    {
+        channel.budget = MESSAGE.length;
+        sendMessage();
+
+        return endPoint.bytesInBuffer();
+    }
+
+    private void sendMessage()
+    {
+        endPoint.onMessage(messageBuffer, MESSAGE_OFFSET, MESSAGE.length, 0, ++sequenceNumber, 0, false);
+    }
+
+    static final class SlowConsumerChannel extends TcpChannel
+    {
+        int budget;
+
+        SlowConsumerChannel() throws IOException
+        {
+            super("slow-consumer");
+        }
+
+        public SelectionKey register(final Selector sel, final int ops, final Object att)
+        {
+            return null;
+        }
+
+        public int write(final ByteBuffer src, final int seqNum, final boolean replay)
+        {
+            final int written = Math.min(src.remaining(), budget);
+            src.position(src.position() + written);
+            budget -= written;
+            return written;
+        }
+
+        public int read(final ByteBuffer dst)
+        {
+            return 0;
+        }
+
+        public void close()
+        {
+        }
+
+        public void onReplayComplete(final long correlationId)
+        {
+        }
+    }
+}
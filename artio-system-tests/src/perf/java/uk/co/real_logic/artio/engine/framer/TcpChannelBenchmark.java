@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares plain TCP channels with {@link TlsTcpChannel}s over the loopback interface. The round trip echoes a
+ * message back to its sender in order to measure latency and the one way transfer measures throughput. The TLS
+ * channels use a self-signed certificate that's generated when the benchmark is set up.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TcpChannelBenchmark
+{
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    @Param({"false", "true"})
+    boolean tls;
+
+    @Param({"128", "1024", "16384"})
+    int messageSize;
+
+    private final ByteBuffer flushBuffer = ByteBuffer.allocateDirect(0);
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+    private LoopbackTcpChannels channels;
+    private ByteBuffer message;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        channels = new LoopbackTcpChannels(tls ? LoopbackTcpChannels.selfSignedSslContext() : null);
+        message = ByteBuffer.allocateDirect(messageSize);
+        for (int i = 0; i < messageSize; i++)
+        {
+            message.put(i, (byte)('a' + (i % 26)));
+        }
+
+        // Completes the handshake
+        roundTrip();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        channels.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public int roundTrip() throws IOException
+    {
+        final TcpChannel initiator = channels.initiator();
+        final TcpChannel acceptor = channels.acceptor();
+        return transfer(initiator, acceptor) + transfer(acceptor, initiator);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public int oneWay() throws IOException
+    {
+        return transfer(channels.initiator(), channels.acceptor());
+    }
+
+    private int transfer(final TcpChannel from, final TcpChannel to) throws IOException
+    {
+        final ByteBuffer message = this.message;
+        final ByteBuffer readBuffer = this.readBuffer;
+        final int messageSize = this.messageSize;
+        message.clear();
+
+        int received = 0;
+        while (received < messageSize)
+        {
+            if (message.hasRemaining())
+            {
+                from.write(message, 1, false);
+            }
+            else
+            {
+                // Flushes any encrypted data that the socket didn't accept
+                from.read(flushBuffer);
+            }
+
+            readBuffer.clear();
+            final int read = to.read(readBuffer);
+            if (read < 0)
+            {
+                throw new IOException("Disconnected");
+            }
+            received += read;
+        }
+
+        return received;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Aeron;
+import io.aeron.ExclusivePublication;
+import io.aeron.archive.Archive;
+import io.aeron.archive.ArchivingMediaDriver;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.codecs.SourceLocation;
+import io.aeron.archive.status.RecordingPos;
+import io.aeron.driver.MediaDriver;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.agrona.concurrent.status.CountersReader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static org.agrona.concurrent.status.CountersReader.NULL_COUNTER_ID;
+
+/**
+ * Measures how long it takes to catch indices up on start with a large archive that they haven't indexed, as happens
+ * after an unclean shutdown, against the maximum number of concurrent replays.
+ *
+ * The size of the synthetic archive can be configured with the "fix.benchmark.catchup.recordings" and
+ * "fix.benchmark.catchup.recording_size_in_mb" properties.
+ */
+public final class IndexCatchupBenchmark
+{
+    private static final int RECORDINGS = Integer.getInteger("fix.benchmark.catchup.recordings", 8);
+    private static final int RECORDING_SIZE_IN_MB =
+        Integer.getInteger("fix.benchmark.catchup.recording_size_in_mb", 256);
+    private static final int INDICES = 2;
+    private static final int[] MAX_CONCURRENT_REPLAYS = {1, 2, 4, 8};
+    private static final int RUNS = 5;
+
+    private static final int RECORDED_STREAM_ID = 1;
+    private static final int REPLAY_STREAM_ID = 2;
+    private static final int MESSAGE_SIZE = 256;
+    private static final int TERM_BUFFER_LENGTH = 64 * 1024 * 1024;
+
+    public static void main(final String[] args)
+    {
+        final MediaDriver.Context driverContext = new MediaDriver.Context()
+            .dirDeleteOnStart(true)
+            .dirDeleteOnShutdown(true)
+            .ipcTermBufferLength(TERM_BUFFER_LENGTH);
+        final Archive.Context archiveContext = new Archive.Context()
+            .deleteArchiveOnStart(true)
+            .archiveDirectoryName("index-catchup-benchmark")
+            .segmentFileLength(TERM_BUFFER_LENGTH);
+
+        try (ArchivingMediaDriver mediaDriver = ArchivingMediaDriver.launch(driverContext, archiveContext);
+            AeronArchive aeronArchive = AeronArchive.connect(new AeronArchive.Context()
+                .aeronDirectoryName(driverContext.aeronDirectoryName())))
+        {
+            final List<Long> recordingIds = recordArchive(aeronArchive);
+            System.out.printf(
+                "Recorded %d recordings of %d MB, caught up by %d indices%n",
+                RECORDINGS, RECORDING_SIZE_IN_MB, INDICES);
+
+            for (final int maxConcurrentReplays : MAX_CONCURRENT_REPLAYS)
+            {
+                for (int run = 0; run < RUNS; run++)
+                {
+                    final CountingIndex[] indices = new CountingIndex[INDICES];
+                    final IndexCatchup indexCatchup = new IndexCatchup(
+                        aeronArchive,
+                        Throwable::printStackTrace,
+                        REPLAY_STREAM_ID,
+                        maxConcurrentReplays,
+                        null,
+                        null);
+                    for (int i = 0; i < INDICES; i++)
+                    {
+                        indices[i] = new CountingIndex(recordingIds);
+                        indexCatchup.add(indices[i]);
+                    }
+
+                    final long startInNs = System.nanoTime();
+                    indexCatchup.run();
+                    final long durationInNs = System.nanoTime() - startInNs;
+
+                    final long bytes = indices[0].bytes;
+                    System.out.printf(
+                        "maxConcurrentReplays = %d, run = %d: %d ms, %d bytes per index, %.1f MB/s%n",
+                        maxConcurrentReplays,
+                        run,
+                        TimeUnit.NANOSECONDS.toMillis(durationInNs),
+                        bytes,
+                        (bytes * 1000.0) / durationInNs);
+                }
+            }
+        }
+    }
+
+    private static List<Long> recordArchive(final AeronArchive aeronArchive)
+    {
+        final Aeron aeron = aeronArchive.context().aeron();
+        final CountersReader counters = aeron.countersReader();
+        final YieldingIdleStrategy idleStrategy = YieldingIdleStrategy.INSTANCE;
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[MESSAGE_SIZE]);
+        final long recordingSize = RECORDING_SIZE_IN_MB * 1024L * 1024L;
+        final List<Long> recordingIds = new ArrayList<>();
+
+        final long subscriptionId = aeronArchive.startRecording(IPC_CHANNEL, RECORDED_STREAM_ID, SourceLocation.LOCAL);
+        for (int i = 0; i < RECORDINGS; i++)
+        {
+            // Each publication has its own session so gets recorded into its own recording
+            try (ExclusivePublication publication = aeron.addExclusivePublication(IPC_CHANNEL, RECORDED_STREAM_ID))
+            {
+                int counterId;
+                while ((counterId = RecordingPos.findCounterIdBySession(
+                    counters, publication.sessionId(), aeronArchive.archiveId())) == NULL_COUNTER_ID)
+                {
+                    idleStrategy.idle();
+                }
+                recordingIds.add(RecordingPos.getRecordingId(counters, counterId));
+
+                while (publication.position() < recordingSize)
+                {
+                    buffer.putLong(0, publication.position());
+                    if (publication.offer(buffer) < 0)
+                    {
+                        idleStrategy.idle();
+                    }
+                }
+
+                while (counters.getCounterValue(counterId) < publication.position())
+                {
+                    idleStrategy.idle();
+                }
+            }
+        }
+        aeronArchive.stopRecording(subscriptionId);
+
+        for (final long recordingId : recordingIds)
+        {
+            while (aeronArchive.getStopPosition(recordingId) == NULL_POSITION)
+            {
+                idleStrategy.idle();
+            }
+        }
+
+        return recordingIds;
+    }
+
+    static final class CountingIndex implements Index
+    {
+        private final List<Long> recordingIds;
+
+        private long bytes;
+
+        CountingIndex(final List<Long> recordingIds)
+        {
+            this.recordingIds = recordingIds;
+        }
+
+        public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+        }
+
+        public void onCatchup(
+            final DirectBuffer buffer, final int offset, final int length, final Header header, final long recordingId)
+        {
+            bytes += length;
+        }
+
+        public void readLastPosition(final IndexedPositionConsumer consumer)
+        {
+            // Nothing has been indexed, as though the engine had crashed before the indexer ran
+            for (final long recordingId : recordingIds)
+            {
+                consumer.accept(0, recordingId, 0);
+            }
+        }
+
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.engine.SectorFramer;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberDecoder;
+import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.engine.ConnectedSessionInfo.UNK_SESSION;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE;
+import static uk.co.real_logic.artio.engine.SectorFramer.OUT_OF_SPACE;
+import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.*;
+
+/**
+ * Measures the cost of looking up the last known sequence number of a session at logon time against the number of
+ * sessions in the index. The linear scan is the lookup algorithm the reader used before it had an index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SequenceNumberIndexLookupBenchmark
+{
+    private static final ErrorHandler ERROR_HANDLER = Throwable::printStackTrace;
+
+    @Param({"100", "1000", "10000", "50000"})
+    int sessions;
+
+    private final LastKnownSequenceNumberDecoder lastKnownDecoder = new LastKnownSequenceNumberDecoder();
+    private AtomicBuffer inMemoryBuffer;
+    private SectorFramer sectorFramer;
+    private SequenceNumberIndexReader reader;
+    private long[] logonOrder;
+    private int next;
+
+    @Setup
+    public void setup()
+    {
+        inMemoryBuffer = new UnsafeBuffer(new byte[DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE]);
+        final LastKnownSequenceNumberEncoder lastKnownEncoder = new LastKnownSequenceNumberEncoder();
+        LoggerUtil.initialiseBuffer(
+            inMemoryBuffer,
+            new MessageHeaderEncoder(),
+            new MessageHeaderDecoder(),
+            lastKnownEncoder.sbeSchemaId(),
+            lastKnownEncoder.sbeTemplateId(),
+            lastKnownEncoder.sbeSchemaVersion(),
+            lastKnownEncoder.sbeBlockLength(),
+            ERROR_HANDLER);
+
+        sectorFramer = new SectorFramer(positionTableOffset(DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE));
+        int position = HEADER_SIZE;
+        for (int sessionId = 1; sessionId <= sessions; sessionId++)
+        {
+            position = sectorFramer.claim(position, RECORD_SIZE);
+            lastKnownEncoder
+                .wrap(inMemoryBuffer, position)
+                .sessionId(sessionId)
+                .sequenceNumber(sessionId)
+                .metaDataPosition(NO_META_DATA)
+                .messagePosition(0);
+            position += RECORD_SIZE;
+        }
+
+        final Random random = new Random(42);
+        logonOrder = new long[sessions];
+        for (int i = 0; i < sessions; i++)
+        {
+            logonOrder[i] = 1 + random.nextInt(sessions);
+        }
+
+        reader = new SequenceNumberIndexReader(inMemoryBuffer, ERROR_HANDLER, null, null);
+    }
+
+    @Benchmark
+    public int indexedLookup()
+    {
+        return reader.lastKnownSequenceNumber(nextSessionId());
+    }
+
+    @Benchmark
+    public int linearScanLookup()
+    {
+        return linearScan(nextSessionId());
+    }
+
+    /**
+     * A logon storm against a freshly started engine, every session looked up once by a new reader.
+     *
+     * @return the sum of the sequence numbers.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long logonStorm()
+    {
+        final SequenceNumberIndexReader reader = new SequenceNumberIndexReader(
+            inMemoryBuffer, ERROR_HANDLER, null, null);
+        final long[] logonOrder = this.logonOrder;
+
+        long total = 0;
+        for (final long sessionId : logonOrder)
+        {
+            total += reader.lastKnownSequenceNumber(sessionId);
+        }
+        return total;
+    }
+
+    private long nextSessionId()
+    {
+        final long[] logonOrder = this.logonOrder;
+        final int next = this.next;
+        this.next = next + 1 == logonOrder.length ? 0 : next + 1;
+        return logonOrder[next];
+    }
+
+    private int linearScan(final long sessionId)
+    {
+        int position = HEADER_SIZE;
+        while (true)
+        {
+            position = sectorFramer.claim(position, RECORD_SIZE);
+            if (position == OUT_OF_SPACE)
+            {
+                return UNK_SESSION;
+            }
+
+            lastKnownDecoder.wrap(
+                inMemoryBuffer, position, LastKnownSequenceNumberDecoder.BLOCK_LENGTH,
+                LastKnownSequenceNumberDecoder.SCHEMA_VERSION);
+
+            if (lastKnownDecoder.sessionId() == sessionId)
+            {
+                return lastKnownDecoder.sequenceNumber();
+            }
+
+            position += RECORD_SIZE;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited., Monotonic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.FragmentAssembler;
+import io.aeron.logbuffer.Header;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.logbuffer.FrameDescriptor.UNFRAGMENTED;
+
+/**
+ * Measures interleaving the messages of several streams by timestamp. Each stream is polled in batches of
+ * {@link #FRAGMENT_LIMIT} messages, so the messages of the stream that is ahead get buffered until the others
+ * catch up. Each operation zips a batch of {@link #MESSAGES_PER_STREAM} messages from every stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StreamTimestampZipperBenchmark
+{
+    static final int MESSAGES_PER_STREAM = 1000;
+    static final int FRAGMENT_LIMIT = 100;
+
+    private static final byte[] BODY = ("8=FIX.4.4\0019=49\00135=0\00149=INITIATOR\00156=ACCEPTOR\00134=2\001" +
+        "52=20240101-00:00:00.000\00110=000\001").getBytes(StandardCharsets.US_ASCII);
+
+    @Param({"2", "4", "8"})
+    int streams;
+
+    @Param({"false", "true"})
+    boolean lazilyCompact;
+
+    private BatchPoller[] pollers;
+    private StreamTimestampZipper zipper;
+    private long timestampOffset;
+    private int received;
+
+    @Setup
+    public void setup()
+    {
+        pollers = new BatchPoller[streams];
+        for (int i = 0; i < streams; i++)
+        {
+            pollers[i] = new BatchPoller(i);
+        }
+
+        zipper = new StreamTimestampZipper(
+            (message, buffer, offset, length, header) -> received++,
+            null,
+            64 * 1024,
+            16 * 1024 * 1024,
+            lazilyCompact,
+            pollers);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        zipper.close();
+    }
+
+    @Benchmark
+    public int zip()
+    {
+        for (final BatchPoller poller : pollers)
+        {
+            poller.nextBatch(timestampOffset, streams);
+        }
+        timestampOffset += (long)MESSAGES_PER_STREAM * streams;
+
+        int read = 1;
+        while (read > 0)
+        {
+            read = zipper.poll(FRAGMENT_LIMIT);
+        }
+
+        return received;
+    }
+
+    static final class BatchPoller implements StreamTimestampZipper.Poller
+    {
+        private static final int TIMESTAMP_OFFSET =
+            MessageHeaderEncoder.ENCODED_LENGTH + FixMessageEncoder.timestampEncodingOffset();
+
+        private final int streamId;
+        private final UnsafeBuffer buffer;
+        private final Header header = new Header(0, 0);
+        private final int messageLength;
+
+        private int next = MESSAGES_PER_STREAM;
+
+        BatchPoller(final int streamId)
+        {
+            this.streamId = streamId;
+
+            messageLength = MessageHeaderEncoder.ENCODED_LENGTH + FixMessageEncoder.BLOCK_LENGTH +
+                FixMessageEncoder.metaDataHeaderLength() + FixMessageEncoder.bodyHeaderLength() + BODY.length;
+            buffer = new UnsafeBuffer(new byte[MESSAGES_PER_STREAM * messageLength]);
+
+            final MessageHeaderEncoder messageHeader = new MessageHeaderEncoder();
+            final FixMessageEncoder fixMessage = new FixMessageEncoder();
+            for (int i = 0; i < MESSAGES_PER_STREAM; i++)
+            {
+                fixMessage
+                    .wrapAndApplyHeader(buffer, i * messageLength, messageHeader)
+                    .libraryId(1)
+                    .session(1)
+                    .connection(1)
+                    .status(MessageStatus.OK)
+                    .sequenceNumber(i + 1)
+                    .putMetaData(new byte[0], 0, 0)
+                    .putBody(BODY, 0, BODY.length);
+            }
+
+            final UnsafeBuffer headerBuffer = new UnsafeBuffer(new byte[DataHeaderFlyweight.HEADER_LENGTH]);
+            headerBuffer.putByte(DataHeaderFlyweight.FLAGS_FIELD_OFFSET, UNFRAGMENTED);
+            header.buffer(headerBuffer);
+            header.offset(0);
+        }
+
+        void nextBatch(final long timestampOffset, final int streams)
+        {
+            for (int i = 0; i < MESSAGES_PER_STREAM; i++)
+            {
+                buffer.putLong(i * messageLength + TIMESTAMP_OFFSET, timestampOffset + (long)i * streams + streamId);
+            }
+            next = 0;
+        }
+
+        public int poll(final FragmentAssembler fragmentAssembler, final int fragmentLimit)
+        {
+            final int end = Math.min(next + fragmentLimit, MESSAGES_PER_STREAM);
+            final int read = end - next;
+            for (int i = next; i < end; i++)
+            {
+                fragmentAssembler.onFragment(buffer, i * messageLength, messageLength, header);
+            }
+            next = end;
+
+            return read;
+        }
+
+        public int streamId()
+        {
+            return streamId;
+        }
+
+        public void close()
+        {
+        }
+
+        public boolean isComplete()
+        {
+            return false;
+        }
+    }
+}
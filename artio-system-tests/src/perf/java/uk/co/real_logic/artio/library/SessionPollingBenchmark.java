@@ -0,0 +1,176 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.Aeron;
+import io.aeron.CommonContext;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.NoOpIdleStrategy;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.fields.EpochFractionFormat;
+import uk.co.real_logic.artio.messages.ConnectionType;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.session.DirectSessionProxy;
+import uk.co.real_logic.artio.session.InternalSession;
+import uk.co.real_logic.artio.session.SessionCustomisationStrategy;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+import uk.co.real_logic.artio.util.EpochFractionClocks;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_RESEND_REQUEST_CONTROLLER;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_SESSION_BUFFER_SIZE;
+import static uk.co.real_logic.artio.CommonConfiguration.NO_FORCED_HEARTBEAT_INTERVAL;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS;
+import static uk.co.real_logic.artio.library.SessionConfiguration.DEFAULT_ENABLE_LAST_MSG_SEQ_NUM_PROCESSED;
+import static uk.co.real_logic.artio.messages.SessionState.ACTIVE;
+
+/**
+ * Measures the cost of a library duty cycle against the number of mostly idle sessions that it owns, comparing
+ * polling every session against only polling the sessions that are due according to the {@link SessionTimerWheel}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SessionPollingBenchmark
+{
+    private static final int STREAM_ID = 1;
+    private static final int LIBRARY_ID = 2;
+    // Long enough that no session has a heartbeat deadline during the run
+    private static final int HEARTBEAT_INTERVAL_IN_S = 86_400;
+    private static final long DUTY_CYCLE_IN_NS = TimeUnit.MICROSECONDS.toNanos(1);
+
+    @Param({"100", "1000", "10000"})
+    int sessions;
+
+    private long timeInNs;
+    private final EpochNanoClock clock = () -> timeInNs;
+
+    private MediaDriver mediaDriver;
+    private Aeron aeron;
+    private GatewayPublication publication;
+    private AtomicCounter receivedMsgSeqNo;
+    private AtomicCounter sentMsgSeqNo;
+    private InternalSession[] linearSessions;
+    private SessionTimerWheel sessionTimerWheel;
+
+    @Setup
+    public void setup()
+    {
+        mediaDriver = MediaDriver.launchEmbedded(new MediaDriver.Context()
+            .threadingMode(ThreadingMode.SHARED)
+            .dirDeleteOnStart(true)
+            .dirDeleteOnShutdown(true));
+        aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(mediaDriver.aeronDirectoryName()));
+        publication = new GatewayPublication(
+            aeron.addExclusivePublication(CommonContext.IPC_CHANNEL, STREAM_ID),
+            aeron.addCounter(1001, "fails"),
+            NoOpIdleStrategy.INSTANCE,
+            clock,
+            1);
+        // Shared between sessions since the benchmark never looks at their values
+        receivedMsgSeqNo = aeron.addCounter(1002, "received");
+        sentMsgSeqNo = aeron.addCounter(1003, "sent");
+
+        timeInNs = TimeUnit.SECONDS.toNanos(1);
+        linearSessions = new InternalSession[sessions];
+        sessionTimerWheel = new SessionTimerWheel(timeInNs);
+        for (int i = 0; i < sessions; i++)
+        {
+            linearSessions[i] = newActiveSession(i);
+            sessionTimerWheel.add(newActiveSession(i));
+        }
+        sessionTimerWheel.poll(timeInNs);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        CloseHelper.closeAll(publication, receivedMsgSeqNo, sentMsgSeqNo, aeron, mediaDriver);
+    }
+
+    @Benchmark
+    public int linearPoll()
+    {
+        final long timeInNs = this.timeInNs += DUTY_CYCLE_IN_NS;
+
+        int total = 0;
+        for (final InternalSession session : linearSessions)
+        {
+            total += session.poll(timeInNs);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int timerWheelPoll()
+    {
+        return sessionTimerWheel.poll(this.timeInNs += DUTY_CYCLE_IN_NS);
+    }
+
+    private InternalSession newActiveSession(final long connectionId)
+    {
+        final SessionIdStrategy sessionIdStrategy = SessionIdStrategy.senderAndTarget();
+        final SessionCustomisationStrategy customisationStrategy = SessionCustomisationStrategy.none();
+        final DirectSessionProxy sessionProxy = new DirectSessionProxy(
+            DEFAULT_SESSION_BUFFER_SIZE,
+            publication,
+            sessionIdStrategy,
+            customisationStrategy,
+            clock,
+            connectionId,
+            LIBRARY_ID,
+            Throwable::printStackTrace,
+            EpochFractionFormat.MILLISECONDS);
+
+        return new InternalSession(
+            HEARTBEAT_INTERVAL_IN_S,
+            connectionId,
+            clock,
+            ACTIVE,
+            false,
+            sessionProxy,
+            publication,
+            publication,
+            sessionIdStrategy,
+            2000,
+            receivedMsgSeqNo,
+            sentMsgSeqNo,
+            LIBRARY_ID,
+            1,
+            0,
+            DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS,
+            new MutableAsciiBuffer(new byte[DEFAULT_SESSION_BUFFER_SIZE]),
+            DEFAULT_ENABLE_LAST_MSG_SEQ_NUM_PROCESSED,
+            customisationStrategy,
+            new OnMessageInfo(),
+            EpochFractionClocks.millisClock(clock),
+            ConnectionType.ACCEPTOR,
+            DEFAULT_RESEND_REQUEST_CONTROLLER,
+            NO_FORCED_HEARTBEAT_INTERVAL,
+            false,
+            true,
+            new InternalSession.Formatters());
+    }
+}
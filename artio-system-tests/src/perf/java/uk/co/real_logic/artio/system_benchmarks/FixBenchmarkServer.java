@@ -24,6 +24,9 @@ import uk.co.real_logic.artio.decoder.AbstractLogonDecoder;
 import uk.co.real_logic.artio.dictionary.generation.CodecUtil;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
 import uk.co.real_logic.artio.engine.FixEngine;
+import uk.co.real_logic.artio.engine.framer.DefaultTcpChannel;
+import uk.co.real_logic.artio.engine.framer.DefaultTcpChannelSupplier;
+import uk.co.real_logic.artio.engine.framer.TcpChannel;
 import uk.co.real_logic.artio.library.AcquiringSessionExistsHandler;
 import uk.co.real_logic.artio.library.FixLibrary;
 import uk.co.real_logic.artio.library.LibraryConfiguration;
@@ -31,16 +34,30 @@ import uk.co.real_logic.artio.library.LibraryConnectHandler;
 import uk.co.real_logic.artio.validation.AuthenticationProxy;
 import uk.co.real_logic.artio.validation.AuthenticationStrategy;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.util.Collections.singletonList;
 import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.*;
 
+/**
+ * Accepts the benchmark clients' sessions. Every second it reports the number of socket writes made by the engine
+ * and the bytes per write, which rises when its writes are batched with <code>fix.benchmark.outbound_batching</code>.
+ */
 public final class FixBenchmarkServer
 {
+    private static final long REPORT_INTERVAL_IN_MS = 1000;
+
+    // Written on the framer thread and read on the main thread
+    private static final AtomicLong WRITES = new AtomicLong();
+    private static final AtomicLong BYTES_WRITTEN = new AtomicLong();
+
     public static void main(final String[] args)
     {
         final EngineConfiguration configuration = engineConfiguration();
@@ -51,6 +68,7 @@ public final class FixBenchmarkServer
         {
             final IdleStrategy idleStrategy = idleStrategy();
             System.out.printf("Using %s idle strategy%n", idleStrategy.getClass().getSimpleName());
+            System.out.printf("Outbound batching enabled: %s%n", configuration.outboundBatchingEnabled());
             while (true)
             {
                 final boolean notConnected = !library.isConnected();
@@ -63,13 +81,31 @@ public final class FixBenchmarkServer
                 }
             }
 
+            long nextReportTimeInMs = System.currentTimeMillis() + REPORT_INTERVAL_IN_MS;
             while (true)
             {
                 idleStrategy.idle(library.poll(10));
+
+                final long timeInMs = System.currentTimeMillis();
+                if (timeInMs >= nextReportTimeInMs)
+                {
+                    reportWrites();
+                    nextReportTimeInMs = timeInMs + REPORT_INTERVAL_IN_MS;
+                }
             }
         }
     }
 
+    private static void reportWrites()
+    {
+        final long writes = WRITES.getAndSet(0);
+        final long bytesWritten = BYTES_WRITTEN.getAndSet(0);
+        if (writes > 0)
+        {
+            System.out.printf("%d writes, %G bytes / write%n", writes, (double)bytesWritten / writes);
+        }
+    }
+
     private static ArchivingMediaDriver newMediaDriver()
     {
         final MediaDriver.Context context = new MediaDriver.Context()
@@ -99,7 +135,9 @@ public final class FixBenchmarkServer
             .logFileDir("benchmark-server-logs")
             .logInboundMessages(LOG_INBOUND_MESSAGES)
             .logOutboundMessages(LOG_OUTBOUND_MESSAGES)
-            .framerIdleStrategy(idleStrategy());
+            .framerIdleStrategy(idleStrategy())
+            .outboundBatchingEnabled(OUTBOUND_BATCHING)
+            .channelSupplierFactory(CountingTcpChannelSupplier::new);
     }
 
     private static LibraryConfiguration libraryConfiguration()
@@ -125,6 +163,44 @@ public final class FixBenchmarkServer
             });
     }
 
+    private static final class CountingTcpChannelSupplier extends DefaultTcpChannelSupplier
+    {
+        CountingTcpChannelSupplier(final EngineConfiguration configuration)
+        {
+            super(configuration);
+        }
+
+        protected TcpChannel newTcpChannel(final SocketChannel channel) throws IOException
+        {
+            return new CountingTcpChannel(channel);
+        }
+    }
+
+    private static final class CountingTcpChannel extends DefaultTcpChannel
+    {
+        CountingTcpChannel(final SocketChannel socketChannel) throws IOException
+        {
+            super(socketChannel);
+        }
+
+        public int write(final ByteBuffer src, final int seqNum, final boolean replay) throws IOException
+        {
+            return count(super.write(src, seqNum, replay));
+        }
+
+        public int write(final ByteBuffer[] srcs, final int length, final int seqNum) throws IOException
+        {
+            return count(super.write(srcs, length, seqNum));
+        }
+
+        private static int count(final int written)
+        {
+            WRITES.incrementAndGet();
+            BYTES_WRITTEN.addAndGet(written);
+            return written;
+        }
+    }
+
     private static final class BenchmarkAuthenticationStrategy implements AuthenticationStrategy
     {
         private static final byte[] INVALID_PASSWORD = "Invalid Password".getBytes(StandardCharsets.US_ASCII);
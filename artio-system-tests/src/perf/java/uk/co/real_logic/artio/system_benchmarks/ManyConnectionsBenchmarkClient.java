@@ -15,13 +15,18 @@
  */
 package uk.co.real_logic.artio.system_benchmarks;
 
+import org.agrona.CloseHelper;
 import uk.co.real_logic.artio.builder.TestRequestEncoder;
 
 import java.io.IOException;
 import java.nio.channels.SocketChannel;
 
-import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.INITIATOR_ID;
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.*;
 
+/**
+ * Logs on many sessions and holds them open while each round sends a test request on every connection and waits for
+ * the heartbeats in reply, in order to measure the {@link FixBenchmarkServer}'s throughput across many connections.
+ */
 public final class ManyConnectionsBenchmarkClient extends AbstractBenchmarkClient
 {
     public static void main(final String[] args) throws IOException
@@ -29,31 +34,51 @@ public final class ManyConnectionsBenchmarkClient extends AbstractBenchmarkClien
         new ManyConnectionsBenchmarkClient().runBenchmark();
     }
 
-    public static final int NUMBER_OF_CLIENTS = 10_000;
+    public static final int NUMBER_OF_CLIENTS = Integer.getInteger("fix.benchmark.num_connections", 10_000);
 
     public void runBenchmark() throws IOException
     {
-        for (int i = 0; i < NUMBER_OF_CLIENTS; i++)
+        final SocketChannel[] socketChannels = new SocketChannel[NUMBER_OF_CLIENTS];
+        final TestRequestEncoder[] testRequests = new TestRequestEncoder[NUMBER_OF_CLIENTS];
+        try
         {
-            final String initiatorId = INITIATOR_ID + i;
-
-            try (SocketChannel socketChannel = open())
+            for (int i = 0; i < NUMBER_OF_CLIENTS; i++)
             {
-                logon(socketChannel, initiatorId, 10);
+                final String initiatorId = INITIATOR_ID + i;
+                socketChannels[i] = open();
+                logon(socketChannels[i], initiatorId, 10);
+                testRequests[i] = setupTestRequest(initiatorId);
 
-                final TestRequestEncoder testRequest = setupTestRequest(initiatorId);
-                testRequest.header().msgSeqNum(3);
-
-                timestampEncoder.encode(System.currentTimeMillis());
+                if ((i + 1) % 1000 == 0)
+                {
+                    System.out.printf("Logged on Clients: %d%n", i + 1);
+                }
+            }
 
-                write(socketChannel, testRequest.encode(writeFlyweight, 0));
+            final int rounds = Math.max(1, MESSAGES_EXCHANGED / NUMBER_OF_CLIENTS);
+            System.out.printf("Exchanging %d rounds over %d connections%n", rounds, NUMBER_OF_CLIENTS);
 
-                read(socketChannel);
+            final long startTime = System.currentTimeMillis();
+            for (int round = 0; round < rounds; round++)
+            {
+                final int seqNum = round + 2;
+                for (int i = 0; i < NUMBER_OF_CLIENTS; i++)
+                {
+                    final TestRequestEncoder testRequest = testRequests[i];
+                    write(socketChannels[i], encode(testRequest, testRequest.header(), seqNum));
+                }
 
-                socketChannel.configureBlocking(true);
+                for (int i = 0; i < NUMBER_OF_CLIENTS; i++)
+                {
+                    read(socketChannels[i]);
+                }
             }
 
-            System.out.printf("Finished Client: %d%n", i + 1);
+            printThroughput(startTime, rounds * NUMBER_OF_CLIENTS);
+        }
+        finally
+        {
+            CloseHelper.closeAll(socketChannels);
         }
     }
 }
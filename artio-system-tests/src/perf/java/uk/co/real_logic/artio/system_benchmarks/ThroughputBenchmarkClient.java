@@ -25,6 +25,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.*;
 
+/**
+ * Reports the throughput of test requests and heartbeats over many sessions. It also reports the number of messages
+ * received per read of the socket, which rises when the server batches its writes, for example when the
+ * {@link FixBenchmarkServer} runs with <code>fix.benchmark.outbound_batching=true</code>.
+ */
 public final class ThroughputBenchmarkClient extends AbstractBenchmarkClient
 {
 
@@ -38,6 +43,8 @@ public final class ThroughputBenchmarkClient extends AbstractBenchmarkClient
 
     private final BenchmarkSession[] sessions = new BenchmarkSession[NUMBER_OF_SESSIONS];
     private final CyclicBarrier barrier = new CyclicBarrier(2);
+    // Only accessed on the reader thread
+    private long reads;
 
     private final class ReaderThread extends Thread
     {
@@ -53,6 +60,7 @@ public final class ThroughputBenchmarkClient extends AbstractBenchmarkClient
             while (true)
             {
                 final long startTime = System.currentTimeMillis();
+                reads = 0;
                 int remainingMessages = TOTAL_MESSAGES;
                 while (remainingMessages > 0)
                 {
@@ -71,6 +79,7 @@ public final class ThroughputBenchmarkClient extends AbstractBenchmarkClient
                 }
 
                 printThroughput(startTime, TOTAL_MESSAGES);
+                System.out.printf("%d reads, %G messages / read%n", reads, (double)TOTAL_MESSAGES / reads);
             }
         }
     }
@@ -147,6 +156,7 @@ public final class ThroughputBenchmarkClient extends AbstractBenchmarkClient
                 System.exit(-1);
             }
 
+            reads++;
             final int receivedMessages = scanForReceivesMessages(readFlyweight, length);
             // System.out.println("Read: " + readFlyweight.getAscii(0, length));
 
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.util;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the implementations of checksum and delimiter scanning over messages of different sizes. Each scan looks
+ * for a separator that is only found in the last byte, as when looking for the end of the checksum field.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class AsciiScannerBenchmark
+{
+    @Param({AsciiScanner.SCALAR, AsciiScanner.SWAR, AsciiScanner.VECTOR})
+    String scanner;
+
+    @Param({"64", "256", "1024", "4096", "16384", "65536"})
+    int messageSize;
+
+    @Param({"false", "true"})
+    boolean offHeap;
+
+    private AsciiScanner asciiScanner;
+    private UnsafeBuffer buffer;
+
+    @Setup
+    public void setup()
+    {
+        asciiScanner = AsciiScanner.select(scanner);
+
+        final byte[] message = new byte[messageSize];
+        for (int i = 0; i < messageSize; i++)
+        {
+            message[i] = (byte)('0' + (i % 10));
+        }
+        message[messageSize - 1] = AsciiBuffer.SEPARATOR;
+
+        if (offHeap)
+        {
+            final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(messageSize);
+            byteBuffer.put(0, message);
+            buffer = new UnsafeBuffer(byteBuffer);
+        }
+        else
+        {
+            buffer = new UnsafeBuffer(message);
+        }
+    }
+
+    @Benchmark
+    public int checksum()
+    {
+        return asciiScanner.sum(buffer, 0, messageSize) % 256;
+    }
+
+    @Benchmark
+    public int scan()
+    {
+        return asciiScanner.scan(buffer, 0, messageSize, AsciiBuffer.SEPARATOR);
+    }
+
+    @Benchmark
+    public int scanBack()
+    {
+        return asciiScanner.scanBack(buffer, messageSize - 2, -1, AsciiBuffer.SEPARATOR);
+    }
+}
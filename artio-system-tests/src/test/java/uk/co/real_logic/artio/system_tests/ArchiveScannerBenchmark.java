@@ -37,16 +37,22 @@ import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import java.io.File;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import static io.aeron.CommonContext.IPC_CHANNEL;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.SENDER_COMP_ID;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.TARGET_COMP_ID;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_INT;
 import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_ARCHIVE_SCANNER_STREAM;
 import static uk.co.real_logic.artio.engine.SequenceNumberExtractor.NO_SEQUENCE_NUMBER;
 import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.*;
+import static uk.co.real_logic.artio.engine.logger.FixMessageQuery.query;
 import static uk.co.real_logic.artio.system_tests.SystemTestUtil.ACCEPTOR_LOGS;
 
 public class ArchiveScannerBenchmark
 {
+    private static final long NO_SESSION_ID = -1;
+
     private static int messageCount;
     private static final Int2IntHashMap STREAM_ID_TO_LAST_SEQ_NUM = new Int2IntHashMap(MISSING_INT);
 
@@ -63,16 +69,26 @@ public class ArchiveScannerBenchmark
         final String acceptorLogs = args.length >= 7 ? args[6] : ACCEPTOR_LOGS;
         final String acceptorArchive = args.length >= 8 ? args[7] : null;
         final String session = args.length >= 9 ? args[8] : "INITIATOR";
+        final boolean compileQuery = args.length >= 10 && Boolean.parseBoolean(args[9]);
+        // Filtering by the surrogate session id lets the scan index skip blocks of the archive, if it's enabled
+        final long sessionId = args.length >= 11 ? Long.parseLong(args[10]) : NO_SESSION_ID;
+        // A positive number of scan threads runs a timestamp ordered parallel scan
+        final int scanThreads = args.length >= 12 ? Integer.parseInt(args[11]) : 0;
 
         System.out.println("start = " + start + ", end = " + end + ", enableIndexScan = " + enableIndexScan +
             ", includePredicate = " + includePredicate + ", totalRuns = " + totalRuns + ", logProgress = " +
-            logProgress + ",acceptorLogs=" + acceptorLogs + ",acceptorArchive=" + acceptorArchive);
+            logProgress + ",acceptorLogs=" + acceptorLogs + ",acceptorArchive=" + acceptorArchive +
+            ",compileQuery=" + compileQuery + ",sessionId=" + sessionId + ",scanThreads=" + scanThreads);
 
         final FixArchiveScanner.Configuration context = new FixArchiveScanner.Configuration()
             .aeronDirectoryName(CommonContext.getAeronDirectoryName())
             .idleStrategy(CommonConfiguration.backoffIdleStrategy())
             .logFileDir(acceptorLogs)
             .enableIndexScan(enableIndexScan);
+        if (scanThreads > 0)
+        {
+            context.scanThreadCount(scanThreads);
+        }
 
         final MediaDriver.Context mdContext = TestFixtures.mediaDriverContext(
             TestFixtures.TERM_BUFFER_LENGTH, false);
@@ -94,29 +110,35 @@ public class ArchiveScannerBenchmark
                 queryStreamIds.add(CommonConfiguration.DEFAULT_OUTBOUND_LIBRARY_STREAM);
                 queryStreamIds.add(CommonConfiguration.DEFAULT_INBOUND_LIBRARY_STREAM);
 
-                final FixDictionary fixDictionary = FixDictionary.of(FixDictionary.findDefault());
-                final Predicate<SessionHeaderDecoder> sessionFilter = targetCompIdOf(session)
-                    .or(senderCompIdOf(session));
-                FixMessagePredicate predicate = whereHeader(fixDictionary, sessionFilter);
-
-                if (end != 0)
-                {
-                    predicate = predicate.and(FixMessagePredicates.between(start, end + 1));
-                }
+                final Supplier<FixMessagePredicate> predicateFactory = includePredicate ?
+                    () -> predicate(start, end, session, compileQuery, sessionId) : FixMessagePredicates::alwaysTrue;
 
                 final FixMessageConsumer fixMessageConsumer = new BenchmarkMessageConsumer(
                     logProgress);
 
                 final long scanStart = System.nanoTime();
-                final FixMessageConsumer consumer = includePredicate ?
-                    filterBy(fixMessageConsumer, predicate) : fixMessageConsumer;
-                scanner.scan(
-                    IPC_CHANNEL,
-                    queryStreamIds,
-                    consumer,
-                    null,
-                    false,
-                    DEFAULT_ARCHIVE_SCANNER_STREAM);
+                if (scanThreads > 0)
+                {
+                    scanner.parallelScan(
+                        IPC_CHANNEL,
+                        queryStreamIds,
+                        predicateFactory,
+                        fixMessageConsumer,
+                        true,
+                        DEFAULT_ARCHIVE_SCANNER_STREAM);
+                }
+                else
+                {
+                    final FixMessageConsumer consumer = includePredicate ?
+                        filterBy(fixMessageConsumer, predicateFactory.get()) : fixMessageConsumer;
+                    scanner.scan(
+                        IPC_CHANNEL,
+                        queryStreamIds,
+                        consumer,
+                        null,
+                        false,
+                        DEFAULT_ARCHIVE_SCANNER_STREAM);
+                }
 
                 final long scanEnd = System.nanoTime();
                 System.out.println("message scan time = " + TimeUnit.NANOSECONDS.toMillis(scanEnd - scanStart));
@@ -125,6 +147,63 @@ public class ArchiveScannerBenchmark
         }
     }
 
+    private static FixMessagePredicate predicate(
+        final long start, final long end, final String session, final boolean compileQuery, final long sessionId)
+    {
+        if (sessionId != NO_SESSION_ID)
+        {
+            return sessionIdPredicate(start, end, sessionId);
+        }
+        else if (compileQuery)
+        {
+            return compiledPredicate(start, end, session);
+        }
+        else
+        {
+            return headerPredicate(start, end, session);
+        }
+    }
+
+    private static FixMessagePredicate headerPredicate(final long start, final long end, final String session)
+    {
+        final FixDictionary fixDictionary = FixDictionary.of(FixDictionary.findDefault());
+        final Predicate<SessionHeaderDecoder> sessionFilter = targetCompIdOf(session)
+            .or(senderCompIdOf(session));
+        FixMessagePredicate predicate = whereHeader(fixDictionary, sessionFilter);
+
+        if (end != 0)
+        {
+            predicate = predicate.and(FixMessagePredicates.between(start, end + 1));
+        }
+
+        return predicate;
+    }
+
+    private static FixMessagePredicate compiledPredicate(final long start, final long end, final String session)
+    {
+        final FixMessagePredicate sessionFilter = query().tagEquals(TARGET_COMP_ID, session).compile()
+            .or(query().tagEquals(SENDER_COMP_ID, session).compile());
+
+        if (end != 0)
+        {
+            return FixMessagePredicates.between(start, end + 1).and(sessionFilter);
+        }
+
+        return sessionFilter;
+    }
+
+    private static FixMessagePredicate sessionIdPredicate(final long start, final long end, final long sessionId)
+    {
+        final FixMessagePredicate sessionFilter = sessionOf(sessionId);
+
+        if (end != 0)
+        {
+            return FixMessagePredicates.between(start, end + 1).and(sessionFilter);
+        }
+
+        return sessionFilter;
+    }
+
     private static class BenchmarkMessageConsumer implements FixMessageConsumer
     {
         private final SequenceNumberExtractor sequenceNumber = new SequenceNumberExtractor();
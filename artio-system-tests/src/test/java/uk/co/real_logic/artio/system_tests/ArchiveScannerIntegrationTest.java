@@ -19,21 +19,25 @@ import org.agrona.CloseHelper;
 import org.agrona.collections.IntHashSet;
 import org.junit.Before;
 import org.junit.Test;
+import uk.co.real_logic.artio.builder.TestRequestEncoder;
 import uk.co.real_logic.artio.decoder.SessionHeaderDecoder;
 import uk.co.real_logic.artio.dictionary.FixDictionary;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
 import uk.co.real_logic.artio.engine.logger.FixMessageConsumer;
+import uk.co.real_logic.artio.engine.logger.FixMessageQuery;
 import uk.co.real_logic.artio.engine.logger.FixMessagePredicate;
 import uk.co.real_logic.artio.engine.logger.FixMessagePredicates;
 import uk.co.real_logic.artio.library.LibraryConfiguration;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.Predicate;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertEquals;
 import static uk.co.real_logic.artio.TestFixtures.largeTestReqId;
 import static uk.co.real_logic.artio.TestFixtures.launchMediaDriver;
 import static uk.co.real_logic.artio.engine.logger.FixMessageConsumerValidator.validateFixMessageConsumer;
@@ -172,6 +176,110 @@ public class ArchiveScannerIntegrationTest extends AbstractGatewayToGatewaySyste
         assertThat(messages, hasSize(1));
     }
 
+    @Test(timeout = TEST_TIMEOUT_IN_MS)
+    public void canParallelScanArchiveInTimestampOrder()
+    {
+        setupAndExchangeMessages();
+
+        closeLibrariesAndEngines();
+
+        final EngineConfiguration configuration = acceptingEngine.configuration();
+        final IntHashSet queryStreamIds = bothStreams(configuration);
+
+        final List<String> messages = new ArrayList<>();
+        SystemTestUtil.getMessagesFromArchiveInParallel(
+            configuration, queryStreamIds, FixMessagePredicates::alwaysTrue, collectInto(messages), true);
+
+        assertThat(messages, equalTo(getMessagesFromArchive(configuration, queryStreamIds)));
+    }
+
+    @Test(timeout = TEST_TIMEOUT_IN_MS)
+    public void canParallelScanArchiveRepeatedlyThroughSmallQueues()
+    {
+        setupAndExchangeMessages();
+
+        closeLibrariesAndEngines();
+
+        final EngineConfiguration configuration = acceptingEngine.configuration();
+        final IntHashSet queryStreamIds = bothStreams(configuration);
+
+        final List<String> firstMessages = new ArrayList<>();
+        final List<String> secondMessages = new ArrayList<>();
+        SystemTestUtil.getMessagesFromArchiveInParallel(
+            configuration,
+            queryStreamIds,
+            FixMessagePredicates::alwaysTrue,
+            Arrays.asList(collectInto(firstMessages), collectInto(secondMessages)),
+            true,
+            8 * 1024);
+
+        final List<String> expectedMessages = getMessagesFromArchive(configuration, queryStreamIds);
+        assertThat(firstMessages, equalTo(expectedMessages));
+        assertThat(secondMessages, equalTo(expectedMessages));
+    }
+
+    @Test(timeout = TEST_TIMEOUT_IN_MS)
+    public void canParallelScanArchiveUnordered()
+    {
+        setupAndExchangeMessages();
+
+        final EngineConfiguration configuration = acceptingEngine.configuration();
+        final IntHashSet queryStreamIds = bothStreams(configuration);
+
+        final List<String> messages = new ArrayList<>();
+        SystemTestUtil.getMessagesFromArchiveInParallel(
+            configuration, queryStreamIds, () -> messageTypeOf("1"), collectInto(messages), false);
+
+        assertThat(messages, hasSize(1));
+        assertThat(messages, hasItem(containsString("\001112=hi")));
+    }
+
+    @Test(timeout = TEST_TIMEOUT_IN_MS)
+    public void canScanArchiveForClaimedMessages()
+    {
+        acquireAcceptingSession();
+
+        final String testReqID = testReqId();
+        final TestRequestEncoder testRequest = new TestRequestEncoder();
+        testRequest.testReqID(testReqID);
+        // Deliberately loose bound so that the claimed fragment has unused bytes after the message
+        testSystem.awaitSend(() -> acceptingSession.tryClaimAndSend(testRequest, 1024));
+
+        assertReceivedSingleHeartbeat(testSystem, acceptingOtfAcceptor, testReqID);
+
+        final EngineConfiguration configuration = acceptingEngine.configuration();
+        final IntHashSet queryStreamIds = new IntHashSet();
+        queryStreamIds.add(configuration.outboundLibraryStream());
+
+        final List<String> messages = new ArrayList<>();
+        SystemTestUtil.getMessagesFromArchiveInParallel(
+            configuration,
+            queryStreamIds,
+            () -> FixMessageQuery.query().tagEquals(112, testReqID).compile(),
+            collectInto(messages),
+            true);
+
+        assertThat(messages, hasSize(1));
+        final String message = messages.get(0);
+        assertThat(message, startsWith("8=FIX.4.4\0019="));
+        assertEquals(message, message.length() - "10=000\001".length(), message.lastIndexOf("10="));
+        assertThat(getMessagesFromArchive(configuration, queryStreamIds), hasItem(message));
+    }
+
+    private static IntHashSet bothStreams(final EngineConfiguration configuration)
+    {
+        final IntHashSet queryStreamIds = new IntHashSet();
+        queryStreamIds.add(configuration.outboundLibraryStream());
+        queryStreamIds.add(configuration.inboundLibraryStream());
+        return queryStreamIds;
+    }
+
+    private static FixMessageConsumer collectInto(final List<String> messages)
+    {
+        return (message, buffer, offset, length, header) ->
+            messages.add(validateFixMessageConsumer(message, buffer, offset, length));
+    }
+
     private void closeLibrariesAndEngines()
     {
         CloseHelper.close(initiatingLibrary);
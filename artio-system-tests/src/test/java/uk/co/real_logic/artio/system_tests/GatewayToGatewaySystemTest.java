@@ -218,6 +218,30 @@ public class GatewayToGatewaySystemTest extends AbstractGatewayToGatewaySystemTe
         assertResendsCompleted(1, hasItems(0));
     }
 
+    @Test(timeout = TEST_TIMEOUT_IN_MS)
+    public void shouldProcessResendRequestsOfClaimedMessages()
+    {
+        final String testReqID = "AAA";
+        acquireAcceptingSession();
+
+        final ExampleMessageEncoder exampleMessage = new ExampleMessageEncoder();
+        exampleMessage.testReqID(testReqID);
+        // Deliberately loose bound so that the claimed fragment has unused bytes after the message
+        testSystem.awaitSend("Failed to send message", () -> initiatingSession.tryClaimAndSend(exampleMessage, 1024));
+        final FixMessage message = testSystem.awaitMessageOf(
+            acceptingOtfAcceptor, EXAMPLE_MESSAGE_MESSAGE_AS_STR, msg -> msg.testReqId().equals(testReqID));
+
+        final int sequenceNumber = acceptorSendsResendRequest(message.messageSequenceNumber());
+
+        final FixMessage resentMessage = assertMessageResent(sequenceNumber, EXAMPLE_MESSAGE_MESSAGE_AS_STR, false);
+        assertEquals(testReqID, resentMessage.testReqId());
+        acceptingOtfAcceptor.messages().clear();
+
+        final FixMessage nextMessage = exchangeExampleMessageFromInitiatorToAcceptor(testReqID);
+        assertEquals(sequenceNumber + 1, nextMessage.messageSequenceNumber());
+        assertNull("Detected Error", acceptingOtfAcceptor.lastError());
+    }
+
     private FixMessage exchangeExampleMessageFromInitiatorToAcceptor(final String testReqID)
     {
         return exchangeExampleMessage(testReqID, initiatingSession, acceptingOtfAcceptor);
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015-2024 Real Logic Limited.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_tests;
+
+import io.aeron.driver.MediaDriver;
+import org.junit.Test;
+import uk.co.real_logic.artio.MonitoringAgentFactory;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.FixEngine;
+import uk.co.real_logic.artio.engine.SplitArchivingEngineScheduler;
+import uk.co.real_logic.artio.library.LibraryConfiguration;
+
+import static uk.co.real_logic.artio.Constants.SEQUENCE_RESET_MESSAGE_AS_STR;
+import static uk.co.real_logic.artio.TestFixtures.TERM_BUFFER_LENGTH;
+import static uk.co.real_logic.artio.TestFixtures.launchMediaDriver;
+import static uk.co.real_logic.artio.TestFixtures.mediaDriverContext;
+import static uk.co.real_logic.artio.system_tests.SystemTestUtil.*;
+
+public class SplitArchivingSystemTest extends AbstractGatewayToGatewaySystemTest
+{
+    private static final int RESEND_CACHE_CAPACITY = 64 * 1024;
+
+    @Test(timeout = TEST_TIMEOUT_IN_MS)
+    public void shouldReplayMessagesWithReplayerOnItsOwnThread()
+    {
+        launch(0);
+
+        shouldReplayMessages();
+    }
+
+    @Test(timeout = TEST_TIMEOUT_IN_MS)
+    public void shouldReplayMessagesWithReplayerOnOutboundIndexerThread()
+    {
+        launch(RESEND_CACHE_CAPACITY);
+
+        shouldReplayMessages();
+    }
+
+    private void shouldReplayMessages()
+    {
+        acquireAcceptingSession();
+        messagesCanBeExchanged();
+
+        final int sequenceNumber = acceptorSendsResendRequest();
+        assertMessageResent(sequenceNumber, SEQUENCE_RESET_MESSAGE_AS_STR, true);
+
+        clearMessages();
+        messagesCanBeExchanged();
+    }
+
+    private void launch(final int resendCacheCapacity)
+    {
+        final MediaDriver.Context context = mediaDriverContext(TERM_BUFFER_LENGTH, true);
+        mediaDriver = launchMediaDriver(context);
+
+        final EngineConfiguration acceptingConfig = acceptingConfig(port, ACCEPTOR_ID, INITIATOR_ID, nanoClock)
+            .scheduler(new SplitArchivingEngineScheduler())
+            .deleteLogFileDirOnStart(true);
+        acceptingConfig.monitoringAgentFactory(MonitoringAgentFactory.none());
+        acceptingEngine = FixEngine.launch(acceptingConfig);
+
+        final EngineConfiguration initiatingConfig = initiatingConfig(libraryAeronPort, nanoClock)
+            .scheduler(new SplitArchivingEngineScheduler())
+            .resendCacheCapacity(resendCacheCapacity);
+        initiatingConfig.deleteLogFileDirOnStart(true);
+        initiatingConfig.monitoringAgentFactory(MonitoringAgentFactory.none());
+        initiatingEngine = FixEngine.launch(initiatingConfig);
+
+        acceptingLibrary = connect(acceptingLibraryConfig(acceptingHandler, nanoClock));
+        final LibraryConfiguration initiatingLibraryConfig = initiatingLibraryConfig(
+            libraryAeronPort, initiatingHandler, nanoClock);
+        initiatingLibrary = connect(initiatingLibraryConfig);
+        testSystem = new TestSystem(acceptingLibrary, initiatingLibrary);
+
+        connectSessions();
+    }
+}
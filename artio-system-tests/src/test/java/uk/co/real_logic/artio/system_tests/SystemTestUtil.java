@@ -37,6 +37,7 @@ import uk.co.real_logic.artio.engine.framer.EngineStreamInfo;
 import uk.co.real_logic.artio.engine.framer.LibraryInfo;
 import uk.co.real_logic.artio.engine.logger.FixArchiveScanner;
 import uk.co.real_logic.artio.engine.logger.FixMessageConsumer;
+import uk.co.real_logic.artio.engine.logger.FixMessagePredicate;
 import uk.co.real_logic.artio.fixp.FixPMessageConsumer;
 import uk.co.real_logic.artio.library.*;
 import uk.co.real_logic.artio.messages.SessionReplyStatus;
@@ -47,9 +48,11 @@ import uk.co.real_logic.artio.validation.MessageValidationStrategy;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import static io.aeron.CommonContext.IPC_CHANNEL;
 import static java.util.Collections.singletonList;
@@ -635,6 +638,54 @@ public final class SystemTestUtil
         }
     }
 
+    public static void getMessagesFromArchiveInParallel(
+        final EngineConfiguration configuration,
+        final IntHashSet queryStreamIds,
+        final Supplier<FixMessagePredicate> predicateFactory,
+        final FixMessageConsumer fixMessageConsumer,
+        final boolean ordered)
+    {
+        getMessagesFromArchiveInParallel(
+            configuration,
+            queryStreamIds,
+            predicateFactory,
+            Collections.singletonList(fixMessageConsumer),
+            ordered,
+            FixArchiveScanner.DEFAULT_SCAN_QUEUE_CAPACITY);
+    }
+
+    // Runs a scan for each consumer using the same scanner
+    public static void getMessagesFromArchiveInParallel(
+        final EngineConfiguration configuration,
+        final IntHashSet queryStreamIds,
+        final Supplier<FixMessagePredicate> predicateFactory,
+        final List<FixMessageConsumer> fixMessageConsumers,
+        final boolean ordered,
+        final int scanQueueCapacity)
+    {
+        final FixArchiveScanner.Configuration context = new FixArchiveScanner.Configuration()
+            .aeronDirectoryName(configuration.aeronContext().aeronDirectoryName())
+            .archiveContext(aeronArchiveContext())
+            .idleStrategy(CommonConfiguration.backoffIdleStrategy())
+            .compactionSize(TEST_COMPACTION_SIZE)
+            .scanThreadCount(2)
+            .scanQueueCapacity(scanQueueCapacity);
+
+        try (FixArchiveScanner scanner = new FixArchiveScanner(context))
+        {
+            for (final FixMessageConsumer fixMessageConsumer : fixMessageConsumers)
+            {
+                scanner.parallelScan(
+                    configuration.libraryAeronChannel(),
+                    queryStreamIds,
+                    predicateFactory,
+                    fixMessageConsumer,
+                    ordered,
+                    DEFAULT_ARCHIVE_SCANNER_STREAM);
+            }
+        }
+    }
+
     static void awaitIndexerCaughtUp(
         final TestSystem testSystem,
         final String aeronDirectoryName,